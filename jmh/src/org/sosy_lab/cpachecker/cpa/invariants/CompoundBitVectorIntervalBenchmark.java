@@ -0,0 +1,116 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.invariants;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Microbenchmarks for the arithmetic operations of {@link CompoundBitVectorInterval}, which
+ * dominate the transfer relation of the invariants analysis.
+ *
+ * <p>The operands are unions of {@link #intervals} disjoint intervals of the given bit width.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompoundBitVectorIntervalBenchmark {
+
+  @Param({"32", "64"})
+  private int bitWidth;
+
+  @Param({"1", "4"})
+  private int intervals;
+
+  private CompoundBitVectorInterval left;
+  private CompoundBitVectorInterval right;
+  private CompoundBitVectorInterval constant;
+
+  @Setup
+  public void setup() {
+    BitVectorInfo info = BitVectorInfo.from(bitWidth, true);
+    left = union(info, 7, 100);
+    right = union(info, 3, 10);
+    constant = CompoundBitVectorInterval.singleton(info, 42);
+  }
+
+  private CompoundBitVectorInterval union(BitVectorInfo pInfo, long pStart, long pStep) {
+    CompoundBitVectorInterval result = CompoundBitVectorInterval.singleton(pInfo, pStart);
+    for (int i = 1; i < intervals; i++) {
+      long lower = pStart + 2 * i * pStep;
+      result =
+          result.unionWith(
+              CompoundBitVectorInterval.of(
+                  BitVectorInterval.of(
+                      pInfo,
+                      BigInteger.valueOf(lower),
+                      BigInteger.valueOf(lower + pStep))));
+    }
+    return result;
+  }
+
+  @Benchmark
+  public CompoundBitVectorInterval add() {
+    return left.add(right, true, OverflowEventHandler.EMPTY);
+  }
+
+  @Benchmark
+  public CompoundBitVectorInterval addConstant() {
+    return left.add(constant, true, OverflowEventHandler.EMPTY);
+  }
+
+  @Benchmark
+  public CompoundBitVectorInterval multiply() {
+    return left.multiply(right, true, OverflowEventHandler.EMPTY);
+  }
+
+  @Benchmark
+  public CompoundBitVectorInterval divide() {
+    return left.divide(right, true, OverflowEventHandler.EMPTY);
+  }
+
+  @Benchmark
+  public CompoundBitVectorInterval modulo() {
+    return left.modulo(right, true, OverflowEventHandler.EMPTY);
+  }
+
+  @Benchmark
+  public CompoundBitVectorInterval union() {
+    return left.unionWith(right);
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.value;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.cpa.value.type.NumericValue;
+import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+
+/**
+ * Microbenchmarks for the merge and stop operators of the value analysis, i.e., {@link
+ * ValueAnalysisState#join(ValueAnalysisState)} and {@link
+ * ValueAnalysisState#isLessOrEqual(ValueAnalysisState)}.
+ *
+ * <p>Both states track the same {@link #variables} variables, and {@link #differencePercent}
+ * percent of them have a different value in the second state.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValueAnalysisStateBenchmark {
+
+  @Param({"10", "100", "1000"})
+  private int variables;
+
+  @Param({"0", "10", "50"})
+  private int differencePercent;
+
+  private ValueAnalysisState state1;
+  private ValueAnalysisState state2;
+
+  @Setup
+  public void setup() {
+    state1 = new ValueAnalysisState(MachineModel.LINUX64);
+    state2 = new ValueAnalysisState(MachineModel.LINUX64);
+    int differentEvery = differencePercent == 0 ? 1 : 100 / differencePercent;
+    for (int i = 0; i < variables; i++) {
+      MemoryLocation variable = MemoryLocation.valueOf("main", "x" + i);
+      state1.assignConstant(variable, new NumericValue(i), CNumericTypes.INT);
+      int otherValue = (differencePercent > 0 && i % differentEvery == 0) ? -i - 1 : i;
+      state2.assignConstant(variable, new NumericValue(otherValue), CNumericTypes.INT);
+    }
+  }
+
+  @Benchmark
+  public ValueAnalysisState join() {
+    return state1.join(state2);
+  }
+
+  @Benchmark
+  public boolean isLessOrEqual() {
+    return state1.isLessOrEqual(state2);
+  }
+
+  @Benchmark
+  public boolean isLessOrEqualSelf() {
+    return state1.isLessOrEqual(state1);
+  }
+}
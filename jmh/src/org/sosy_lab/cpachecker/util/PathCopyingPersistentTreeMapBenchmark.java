@@ -0,0 +1,117 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
+import org.sosy_lab.common.collect.PersistentSortedMap;
+
+/**
+ * Microbenchmarks for {@link PathCopyingPersistentTreeMap}, the persistent map that is used for
+ * example by SSAMap and ValueAnalysisState. The workloads mimic the access patterns of abstract
+ * states: building a map, looking up variables, and creating copies with one changed entry.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathCopyingPersistentTreeMapBenchmark {
+
+  @Param({"10", "100", "10000"})
+  private int size;
+
+  private String[] keys;
+  private PersistentSortedMap<String, Integer> map;
+
+  @Setup
+  public void setup() {
+    keys = new String[size];
+    for (int i = 0; i < size; i++) {
+      keys[i] = "main::x" + i;
+    }
+    // insert in random (but deterministic) order to get a realistic tree shape
+    String[] shuffled = keys.clone();
+    Random random = new Random(0);
+    for (int i = shuffled.length - 1; i > 0; i--) {
+      int j = random.nextInt(i + 1);
+      String tmp = shuffled[i];
+      shuffled[i] = shuffled[j];
+      shuffled[j] = tmp;
+    }
+    map = PathCopyingPersistentTreeMap.of();
+    for (String key : shuffled) {
+      map = map.putAndCopy(key, key.length());
+    }
+  }
+
+  @Benchmark
+  public PersistentSortedMap<String, Integer> build() {
+    PersistentSortedMap<String, Integer> result = PathCopyingPersistentTreeMap.of();
+    for (String key : keys) {
+      result = result.putAndCopy(key, 0);
+    }
+    return result;
+  }
+
+  @Benchmark
+  public void get(Blackhole pBlackhole) {
+    for (String key : keys) {
+      pBlackhole.consume(map.get(key));
+    }
+  }
+
+  @Benchmark
+  public void putAndCopy(Blackhole pBlackhole) {
+    for (String key : keys) {
+      pBlackhole.consume(map.putAndCopy(key, -1));
+    }
+  }
+
+  @Benchmark
+  public void removeAndCopy(Blackhole pBlackhole) {
+    for (String key : keys) {
+      pBlackhole.consume(map.removeAndCopy(key));
+    }
+  }
+
+  @Benchmark
+  public boolean equalsAfterUpdate() {
+    return map.putAndCopy(keys[0], -1).equals(map);
+  }
+}
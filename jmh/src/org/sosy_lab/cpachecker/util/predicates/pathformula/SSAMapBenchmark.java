@@ -0,0 +1,90 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.pathformula;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sosy_lab.common.collect.MapsDifference;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.SSAMap.SSAMapBuilder;
+
+/**
+ * Microbenchmarks for {@link SSAMap#merge(SSAMap, SSAMap, MapsDifference.Visitor)}, which is
+ * called for every merge of two path formulas.
+ *
+ * <p>The second map is derived from the first one by incrementing the index of every {@link
+ * #updateEvery}-th variable, like it happens along two branches of the CFA.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SSAMapBenchmark {
+
+  @Param({"10", "100", "1000"})
+  private int variables;
+
+  @Param({"1", "10", "100"})
+  private int updateEvery;
+
+  private SSAMap base;
+  private SSAMap updated;
+
+  @Setup
+  public void setup() {
+    SSAMapBuilder builder = SSAMap.emptySSAMap().builder();
+    for (int i = 0; i < variables; i++) {
+      builder.setIndex("main::x" + i, CNumericTypes.INT, 1);
+    }
+    base = builder.build();
+
+    builder = base.builder();
+    for (int i = 0; i < variables; i += updateEvery) {
+      builder.setIndex("main::x" + i, CNumericTypes.INT, 2);
+    }
+    updated = builder.build();
+  }
+
+  @Benchmark
+  public SSAMap mergeIdentical() {
+    return SSAMap.merge(base, base, MapsDifference.ignoreMapsDifference());
+  }
+
+  @Benchmark
+  public SSAMap mergeDifferent() {
+    return SSAMap.merge(base, updated, MapsDifference.ignoreMapsDifference());
+  }
+}
@@ -0,0 +1,319 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cfa;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.MoreFiles;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.Timer;
+import org.sosy_lab.cpachecker.cfa.parser.Parsers;
+import org.sosy_lab.cpachecker.cfa.postprocessing.function.CFunctionPointerResolver;
+import org.sosy_lab.cpachecker.cfa.postprocessing.function.EdgeReplacer;
+import org.sosy_lab.cpachecker.cfa.postprocessing.function.EdgeReplacerFunctionPointer;
+import org.sosy_lab.cpachecker.cfa.postprocessing.function.EdgeReplacerParameterFunctionPointer;
+import org.sosy_lab.cpachecker.cfa.postprocessing.function.NullPointerChecks;
+import org.sosy_lab.cpachecker.cfa.postprocessing.function.ThreadCreateTransformer;
+import org.sosy_lab.cpachecker.cfa.postprocessing.global.CFACloner;
+import org.sosy_lab.cpachecker.cfa.postprocessing.global.FunctionCallUnwinder;
+import org.sosy_lab.cpachecker.cfa.postprocessing.global.LabelAdder;
+import org.sosy_lab.cpachecker.core.CPAchecker;
+import org.sosy_lab.cpachecker.util.dependencegraph.DependenceGraphBuilder;
+import org.sosy_lab.cpachecker.util.variableclassification.VariableClassificationBuilder;
+
+/**
+ * Cache for fully post-processed CFAs that is shared across several runs of CPAchecker on the same
+ * program, e.g., for portfolios of configurations.
+ *
+ * <p>Entries are addressed by their content: the key is a hash of the CPAchecker version, the
+ * contents of the input files, and all configuration options that influence the CFA. Each entry is
+ * a file in the cache directory with the same format as written by the option {@code
+ * cfa.serialize}, i.e., it contains the CFA together with its loop structure, variable
+ * classification, live variables, and dependence graph.
+ *
+ * <p>Files that are included by the preprocessor are not part of the key.
+ */
+@Options(prefix = "cfa.cache")
+public class CFACache {
+
+  /** Options with these prefixes influence the creation of the CFA. */
+  private static final ImmutableList<String> CFA_OPTION_PREFIXES =
+      ImmutableList.of(
+          "cfa.", "parser.", "locmapper.", "java.", "liveVar.", "dependencegraph.", "language");
+
+  /**
+   * Options with these prefixes do not influence the created CFA, even though they match {@link
+   * #CFA_OPTION_PREFIXES}.
+   */
+  private static final ImmutableList<String> NON_CFA_OPTION_PREFIXES =
+      ImmutableList.of("cfa.cache.");
+
+  /**
+   * Classes whose options are injected during the creation of the CFA. Their options are part of
+   * the key, including those outside of {@link #CFA_OPTION_PREFIXES}, e.g., {@code analysis.*}.
+   */
+  private static final ImmutableList<Class<?>> CFA_OPTION_CLASSES =
+      ImmutableList.of(
+          CFACreator.class,
+          CParser.ParserOptions.class,
+          CParserWithLocationMapper.class,
+          CPreprocessor.class,
+          CFASecondPassBuilder.class,
+          CFunctionPointerResolver.class,
+          EdgeReplacer.class,
+          EdgeReplacerFunctionPointer.class,
+          EdgeReplacerParameterFunctionPointer.class,
+          ThreadCreateTransformer.class,
+          NullPointerChecks.class,
+          CFACloner.class,
+          FunctionCallUnwinder.class,
+          LabelAdder.class,
+          Parsers.EclipseCParserOptions.class,
+          VariableClassificationBuilder.class,
+          DependenceGraphBuilder.class);
+
+  private static final ImmutableSet<String> CFA_OPTIONS =
+      CFA_OPTION_CLASSES.stream()
+          .flatMap(cls -> getOptionNames(cls).stream())
+          .collect(ImmutableSet.toImmutableSet());
+
+  private static final String FILE_SUFFIX = ".cfa.ser.gz";
+
+  @Option(
+      secure = true,
+      description =
+          "Directory for caching created CFAs across several runs of CPAchecker. "
+              + "If a run finds a CFA for the same input files and the same CFA-related options, "
+              + "the CFA is loaded instead of being parsed and post-processed again. "
+              + "Files included by the preprocessor are not considered for finding a CFA.")
+  @FileOption(FileOption.Type.OPTIONAL_INPUT_FILE)
+  private @Nullable Path directory = null;
+
+  private final Configuration config;
+  private final LogManager logger;
+
+  private final Timer loadTime = new Timer();
+  private final Timer storeTime = new Timer();
+
+  public CFACache(Configuration pConfig, LogManager pLogger) throws InvalidConfigurationException {
+    pConfig.inject(this);
+    config = pConfig;
+    logger = pLogger;
+  }
+
+  public boolean isEnabled() {
+    return directory != null;
+  }
+
+  /**
+   * Load the CFA for the given source files from the cache, or return an empty optional if there
+   * is no (readable) cache entry.
+   */
+  public Optional<CFA> load(List<String> pSourceFiles) {
+    if (directory == null) {
+      return Optional.empty();
+    }
+
+    loadTime.start();
+    try {
+      Optional<Path> file = getCacheFile(pSourceFiles);
+      if (!file.isPresent()) {
+        return Optional.empty();
+      }
+
+      try (ObjectInputStream in =
+          new ObjectInputStream(
+              new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file.get()))))) {
+        CFA cfa = (CFA) in.readObject();
+        logger.log(Level.INFO, "Loaded CFA from cache file", file.get());
+        return Optional.of(cfa);
+
+      } catch (NoSuchFileException e) {
+        logger.log(Level.FINE, "No cached CFA found, the CFA will be created from the program.");
+      } catch (InvalidClassException | ClassNotFoundException | ClassCastException e) {
+        logger.logDebugException(e);
+        logger.log(
+            Level.INFO,
+            "Cached CFA",
+            file.get(),
+            "was created by an incompatible version, ignoring it.");
+      } catch (IOException e) {
+        logger.logUserException(Level.WARNING, e, "Could not read CFA from cache");
+      }
+      return Optional.empty();
+
+    } finally {
+      loadTime.stop();
+    }
+  }
+
+  /**
+   * Store the CFA for the given source files in the cache. The file is first written to a
+   * temporary file and then moved into place, such that concurrent runs never see a partially
+   * written entry.
+   */
+  public void store(List<String> pSourceFiles, CFA pCfa) {
+    Optional<Path> file = getCacheFile(pSourceFiles);
+    if (!file.isPresent()) {
+      return;
+    }
+
+    storeTime.start();
+    try {
+      Path parent = file.get().toAbsolutePath().getParent();
+      Files.createDirectories(parent);
+      Path tmpFile = Files.createTempFile(parent, file.get().getFileName().toString(), ".tmp");
+      try {
+        try (ObjectOutputStream out =
+            new ObjectOutputStream(
+                new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(tmpFile))))) {
+          out.writeObject(pCfa);
+        }
+        Files.move(tmpFile, file.get(), StandardCopyOption.REPLACE_EXISTING);
+        logger.log(Level.FINE, "Stored CFA in cache file", file.get());
+      } finally {
+        Files.deleteIfExists(tmpFile);
+      }
+    } catch (IOException e) {
+      logger.logUserException(Level.WARNING, e, "Could not write CFA to cache");
+    } finally {
+      storeTime.stop();
+    }
+  }
+
+  public Timer getLoadTime() {
+    return loadTime;
+  }
+
+  public Timer getStoreTime() {
+    return storeTime;
+  }
+
+  /**
+   * Return the cache file for the given source files, or an empty optional if caching is disabled
+   * or the source files are not regular files (e.g., Java class names).
+   */
+  private Optional<Path> getCacheFile(List<String> pSourceFiles) {
+    if (directory == null) {
+      return Optional.empty();
+    }
+    try {
+      return computeKey(pSourceFiles).map(key -> directory.resolve(key + FILE_SUFFIX));
+    } catch (IOException e) {
+      logger.logUserException(Level.WARNING, e, "Could not read input files for CFA cache");
+      return Optional.empty();
+    }
+  }
+
+  private Optional<HashCode> computeKey(List<String> pSourceFiles) throws IOException {
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putString(CPAchecker.getPlainVersion(), UTF_8);
+
+    hasher.putInt(pSourceFiles.size());
+    for (String sourceFile : pSourceFiles) {
+      Path path = Paths.get(sourceFile);
+      if (!Files.isRegularFile(path)) {
+        return Optional.empty();
+      }
+      hasher.putString(sourceFile, UTF_8);
+      hasher.putBytes(MoreFiles.asByteSource(path).hash(Hashing.sha256()).asBytes());
+    }
+
+    // properties are sorted by their name
+    for (String line : Splitter.on('\n').omitEmptyStrings().split(config.asPropertiesString())) {
+      int separator = line.indexOf(" = ");
+      String name = separator < 0 ? line : line.substring(0, separator);
+      if (isCfaOption(name)) {
+        hasher.putString(line, UTF_8);
+        hasher.putChar('\n');
+      }
+    }
+    return Optional.of(hasher.hash());
+  }
+
+  static boolean isCfaOption(String pName) {
+    if (NON_CFA_OPTION_PREFIXES.stream().anyMatch(prefix -> pName.startsWith(prefix))) {
+      return false;
+    }
+    return CFA_OPTIONS.contains(pName)
+        || CFA_OPTION_PREFIXES.stream().anyMatch(prefix -> pName.startsWith(prefix));
+  }
+
+  /**
+   * Return the names of all options that are declared in the given class with {@link Option}, in
+   * the same way as {@link Configuration#inject(Object)} computes them.
+   */
+  static ImmutableSet<String> getOptionNames(Class<?> pClass) {
+    Options options = pClass.getAnnotation(Options.class);
+    if (options == null) {
+      return ImmutableSet.of();
+    }
+    String prefix = options.prefix().isEmpty() ? "" : options.prefix() + ".";
+
+    ImmutableSet.Builder<String> names = ImmutableSet.builder();
+    for (Field field : pClass.getDeclaredFields()) {
+      Option option = field.getAnnotation(Option.class);
+      if (option != null) {
+        names.add(prefix + (option.name().isEmpty() ? field.getName() : option.name()));
+      }
+    }
+    for (Method method : pClass.getDeclaredMethods()) {
+      Option option = method.getAnnotation(Option.class);
+      if (option != null) {
+        names.add(prefix + (option.name().isEmpty() ? method.getName() : option.name()));
+      }
+    }
+    return names.build();
+  }
+}
@@ -0,0 +1,182 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cfa;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assertWithMessage;
+import static com.google.common.truth.Truth8.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.reflect.ClassPath;
+import com.google.common.reflect.ClassPath.ClassInfo;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.common.configuration.ConfigurationBuilder;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.blocks.builder.FunctionPartitioning;
+import org.sosy_lab.cpachecker.exceptions.ParserException;
+import org.sosy_lab.cpachecker.util.LiveVariables;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+public class CFACacheTest {
+
+  /** Packages with the classes whose options are injected during the creation of a CFA. */
+  private static final ImmutableList<String> CFA_PACKAGES =
+      ImmutableList.of(
+          "org.sosy_lab.cpachecker.cfa",
+          "org.sosy_lab.cpachecker.util.dependencegraph",
+          "org.sosy_lab.cpachecker.util.variableclassification");
+
+  /** Classes in the packages above that are not used for creating a CFA. */
+  private static final ImmutableSet<Class<?>> NON_CFA_CLASSES =
+      ImmutableSet.of(CFACache.class, FunctionPartitioning.class);
+
+  private static final String[] PROGRAM = {"int main() {", "  int x = 1;", "  return x;", "}"};
+
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private CFA cfa;
+  private List<String> sourceFiles;
+
+  @Before
+  public void setUp() throws IOException, ParserException, InterruptedException {
+    cfa = TestDataTools.makeCFA(PROGRAM);
+    Path sourceFile = tempFolder.newFile("program.c").toPath();
+    Files.write(sourceFile, String.join("\n", PROGRAM).getBytes(UTF_8));
+    sourceFiles = ImmutableList.of(sourceFile.toString());
+  }
+
+  /** Create a cache with the given options, which are given as pairs of name and value. */
+  private CFACache createCache(String... pOptions) throws InvalidConfigurationException {
+    ConfigurationBuilder config =
+        TestDataTools.configurationForTest()
+            .setOption("cfa.cache.directory", getCacheDirectory().toString());
+    for (int i = 0; i < pOptions.length; i += 2) {
+      config.setOption(pOptions[i], pOptions[i + 1]);
+    }
+    return new CFACache(config.build(), LogManager.createTestLogManager());
+  }
+
+  private Path getCacheDirectory() {
+    return tempFolder.getRoot().toPath().resolve("cache");
+  }
+
+  @Test
+  public void testMiss() throws InvalidConfigurationException {
+    assertThat(createCache().load(sourceFiles)).isEmpty();
+  }
+
+  @Test
+  public void testHit() throws InvalidConfigurationException {
+    createCache().store(sourceFiles, cfa);
+
+    Optional<CFA> loaded = createCache().load(sourceFiles);
+    assertThat(loaded).isPresent();
+    assertThat(loaded.get().getAllFunctionNames())
+        .containsExactlyElementsIn(cfa.getAllFunctionNames());
+  }
+
+  @Test
+  public void testHitWithChangedAnalysisOption() throws InvalidConfigurationException {
+    createCache().store(sourceFiles, cfa);
+
+    assertThat(createCache("cpa.predicate.encodeBitvectorAs", "INTEGER").load(sourceFiles))
+        .isPresent();
+  }
+
+  @Test
+  public void testMissWithChangedCfaOption() throws InvalidConfigurationException {
+    createCache().store(sourceFiles, cfa);
+
+    assertThat(createCache("cfa.useMultiEdges", "true").load(sourceFiles)).isEmpty();
+    assertThat(createCache("analysis.machineModel", "LINUX64").load(sourceFiles)).isEmpty();
+    assertThat(
+            createCache("analysis.functionPointerEdgesForUnknownPointer", "false")
+                .load(sourceFiles))
+        .isEmpty();
+  }
+
+  @Test
+  public void testMissWithChangedProgram() throws InvalidConfigurationException, IOException {
+    createCache().store(sourceFiles, cfa);
+
+    Files.write(Paths.get(sourceFiles.get(0)), "int main() { return 0; }".getBytes(UTF_8));
+    assertThat(createCache().load(sourceFiles)).isEmpty();
+  }
+
+  @Test
+  public void testCorruptEntry() throws InvalidConfigurationException, IOException {
+    createCache().store(sourceFiles, cfa);
+
+    try (Stream<Path> entries = Files.list(getCacheDirectory())) {
+      for (Path entry : (Iterable<Path>) entries::iterator) {
+        Files.write(entry, "no CFA".getBytes(UTF_8));
+      }
+    }
+    assertThat(createCache().load(sourceFiles)).isEmpty();
+  }
+
+  /**
+   * Check that all options of classes that take part in creating a CFA are part of the cache key,
+   * such that a CFA created with different options is never returned from the cache.
+   */
+  @Test
+  public void testAllCfaOptionsAreInKey() throws IOException {
+    Deque<Class<?>> classes = new ArrayDeque<>();
+    ClassPath classPath = ClassPath.from(Thread.currentThread().getContextClassLoader());
+    for (String pkg : CFA_PACKAGES) {
+      for (ClassInfo info : classPath.getTopLevelClassesRecursive(pkg)) {
+        classes.add(info.load());
+      }
+    }
+    classes.add(LiveVariables.class);
+
+    while (!classes.isEmpty()) {
+      Class<?> cls = classes.pop();
+      classes.addAll(ImmutableList.copyOf(cls.getDeclaredClasses()));
+      if (NON_CFA_CLASSES.contains(cls)) {
+        continue;
+      }
+      for (String option : CFACache.getOptionNames(cls)) {
+        assertWithMessage("option %s of %s is not part of the CFA cache key", option, cls)
+            .that(CFACache.isCfaOption(option))
+            .isTrue();
+      }
+    }
+  }
+}
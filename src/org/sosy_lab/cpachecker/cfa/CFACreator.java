@@ -24,6 +24,7 @@
 package org.sosy_lab.cpachecker.cfa;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import com.google.common.io.MoreFiles;
 import java.io.FileNotFoundException;
@@ -43,6 +44,7 @@ import java.util.ListIterator;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.zip.GZIPOutputStream;
 import org.sosy_lab.common.Concurrency;
@@ -54,6 +56,7 @@ import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.io.IO;
 import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.TimeSpan;
 import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.cfa.ast.ADeclaration;
 import org.sosy_lab.cpachecker.cfa.ast.AExpression;
@@ -300,12 +303,14 @@ public class CFACreator {
     private final Timer parserInstantiationTime = new Timer();
     private final Timer totalTime = new Timer();
     private Timer parsingTime;
+    private ImmutableMap<String, TimeSpan> parsingTimePerFile = ImmutableMap.of();
     private Timer conversionTime;
     private final Timer checkTime = new Timer();
     private final Timer processingTime = new Timer();
     private final Timer exportTime = new Timer();
     private final List<Statistics> statisticsCollection;
     private final LogManager logger;
+    private boolean cfaLoaded = false;
 
     private CFACreatorStatistics(LogManager pLogger) {
       logger = pLogger;
@@ -320,11 +325,11 @@ public class CFACreator {
     @Override
     public void printStatistics(PrintStream out, Result pResult, UnmodifiableReachedSet pReached) {
       out.println("  Time for loading parser:    " + parserInstantiationTime);
-      out.println("  Time for CFA construction:  " + totalTime);
-      out.println("    Time for parsing file(s): " + parsingTime);
-      out.println("    Time for AST to CFA:      " + conversionTime);
-      out.println("    Time for CFA sanity check:" + checkTime);
-      out.println("    Time for post-processing: " + processingTime);
+      if (cfaLoaded) {
+        out.println("  CFA was loaded instead of being created.");
+      } else {
+        printCreationStatistics(out);
+      }
 
       if (exportTime.getNumberOfIntervals() > 0) {
         out.println("    Time for CFA export:      " + exportTime);
@@ -335,6 +340,20 @@ public class CFACreator {
       }
     }
 
+    private void printCreationStatistics(PrintStream out) {
+      out.println("  Time for CFA construction:  " + totalTime);
+      out.println("    Time for parsing file(s): " + parsingTime);
+      if (parsingTimePerFile.size() > 1) {
+        for (Map.Entry<String, TimeSpan> fileTime : parsingTimePerFile.entrySet()) {
+          out.println(
+              "      " + fileTime.getKey() + ": " + fileTime.getValue().formatAs(TimeUnit.SECONDS));
+        }
+      }
+      out.println("    Time for AST to CFA:      " + conversionTime);
+      out.println("    Time for CFA sanity check:" + checkTime);
+      out.println("    Time for post-processing: " + processingTime);
+    }
+
     @Override
     public void writeOutputFiles(Result pResult, UnmodifiableReachedSet pReached) {
       for (Statistics st : statisticsCollection) {
@@ -585,18 +604,35 @@ public class CFACreator {
     assert CFACheck.check(mainFunction, null, machineModel);
     stats.checkTime.stop();
 
+    exportCFAIfRequested(immutableCFA);
+
+    logger.log(Level.FINE, "DONE, CFA for", immutableCFA.getNumberOfFunctions(), "functions created.");
+
+    return immutableCFA;
+  }
+
+  /**
+   * Handle a CFA that was loaded instead of being created by this instance, e.g., from the {@link
+   * CFACache}, in the same way as a newly created CFA: export the CFA as configured.
+   *
+   * @param pCfa The loaded CFA.
+   * @return The given CFA.
+   */
+  public CFA handleLoadedCFA(CFA pCfa) {
+    stats.cfaLoaded = true;
+    exportCFAIfRequested(pCfa);
+    return pCfa;
+  }
+
+  private void exportCFAIfRequested(CFA pCfa) {
     if (((exportCfaFile != null) && (exportCfa || exportCfaPerFunction))
         || ((exportFunctionCallsFile != null) && exportFunctionCalls)
         || ((exportFunctionCallsUsedFile != null) && exportFunctionCalls)
         || ((serializeCfaFile != null) && serializeCfa)
         || (exportCfaPixelFile != null)
         || (exportCfaToCFile != null && exportCfaToC)) {
-      exportCFAAsync(immutableCFA);
+      exportCFAAsync(pCfa);
     }
-
-    logger.log(Level.FINE, "DONE, CFA for", immutableCFA.getNumberOfFunctions(), "functions created.");
-
-    return immutableCFA;
   }
 
   private void instrumentCfa(MutableCFA pCfa) throws InvalidConfigurationException {
@@ -659,6 +695,7 @@ public class CFACreator {
       }
 
       parseResult = ((CParser) parser).parseFile(sourceFiles);
+      stats.parsingTimePerFile = ((CParser) parser).getParseTimePerFile();
     }
 
     if (parseResult.isEmpty()) {
@@ -23,14 +23,17 @@
  */
 package org.sosy_lab.cpachecker.cfa;
 
+import com.google.common.collect.ImmutableMap;
 import java.io.IOException;
 import java.util.List;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.TimeSpan;
 import org.sosy_lab.cpachecker.cfa.ast.c.CAstNode;
 import org.sosy_lab.cpachecker.cfa.parser.Parsers;
 import org.sosy_lab.cpachecker.cfa.parser.Parsers.EclipseCParserOptions;
@@ -168,6 +171,14 @@ public interface CParser extends Parser {
   List<CAstNode> parseStatements(String code, Scope scope)
       throws CParserException, InterruptedException;
 
+  /**
+   * Return the time needed for parsing each file, in the order in which the files were parsed.
+   * Optional method: may return an empty map.
+   */
+  default ImmutableMap<String, TimeSpan> getParseTimePerFile() {
+    return ImmutableMap.of();
+  }
+
   /** Enum for clients of this class to choose the C dialect the parser uses. */
   enum Dialect {
     C99,
@@ -181,11 +192,23 @@ public interface CParser extends Parser {
     @Option(secure=true, description="C dialect for parser")
     private Dialect dialect = Dialect.GNUC;
 
+    @Option(
+        secure = true,
+        description =
+            "Number of threads for parsing the files of a program that consists of several files."
+                + " The CFA is still built sequentially in the order of the given files.")
+    @IntegerOption(min = 1)
+    private int threads = 1;
+
     protected ParserOptions() {}
 
     public Dialect getDialect() {
       return dialect;
     }
+
+    public int getThreads() {
+      return threads;
+    }
   }
 
   /** Factory that tries to create a parser based on available libraries (e.g. Eclipse CDT). */
@@ -23,6 +23,7 @@
  */
 package org.sosy_lab.cpachecker.cfa;
 
+import com.google.common.collect.ImmutableMap;
 import java.io.IOException;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
@@ -43,6 +44,7 @@ import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.io.IO;
 import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.TimeSpan;
 import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.cfa.ast.c.CAstNode;
 import org.sosy_lab.cpachecker.cfa.parser.Scope;
@@ -216,6 +218,11 @@ public class CParserWithLocationMapper implements CParser {
     return realParser.getCFAConstructionTime();
   }
 
+  @Override
+  public ImmutableMap<String, TimeSpan> getParseTimePerFile() {
+    return realParser.getParseTimePerFile();
+  }
+
   @Override
   public ParseResult parseFile(List<String> pFilenames)
       throws CParserException, IOException, InterruptedException {
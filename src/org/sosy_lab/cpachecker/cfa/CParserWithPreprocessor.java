@@ -23,8 +23,10 @@
  */
 package org.sosy_lab.cpachecker.cfa;
 
+import com.google.common.collect.ImmutableMap;
 import java.util.ArrayList;
 import java.util.List;
+import org.sosy_lab.common.time.TimeSpan;
 import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.cfa.ast.c.CAstNode;
 import org.sosy_lab.cpachecker.cfa.parser.Scope;
@@ -71,6 +73,11 @@ class CParserWithPreprocessor implements CParser {
     return realParser.getCFAConstructionTime();
   }
 
+  @Override
+  public ImmutableMap<String, TimeSpan> getParseTimePerFile() {
+    return realParser.getParseTimePerFile();
+  }
+
   @Override
   public ParseResult parseFile(List<String> pFilenames)
       throws CParserException, InterruptedException {
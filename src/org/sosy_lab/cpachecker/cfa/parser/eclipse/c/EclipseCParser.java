@@ -28,10 +28,12 @@ import static com.google.common.base.Preconditions.checkArgument;
 import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.io.MoreFiles;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
@@ -41,8 +43,13 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.eclipse.cdt.core.dom.ast.IASTCompoundStatement;
 import org.eclipse.cdt.core.dom.ast.IASTDeclaration;
 import org.eclipse.cdt.core.dom.ast.IASTFunctionDefinition;
@@ -63,9 +70,11 @@ import org.eclipse.cdt.internal.core.parser.InternalParserUtil;
 import org.eclipse.cdt.internal.core.parser.scanner.InternalFileContent;
 import org.eclipse.cdt.internal.core.parser.scanner.InternalFileContentProvider;
 import org.eclipse.core.runtime.CoreException;
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.common.log.LogManagerWithoutDuplicates;
+import org.sosy_lab.common.time.TimeSpan;
 import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.cfa.CParser;
 import org.sosy_lab.cpachecker.cfa.CProgramScope;
@@ -93,6 +102,7 @@ class EclipseCParser implements CParser {
 
   private final Timer parseTimer = new Timer();
   private final Timer cfaTimer = new Timer();
+  private final Map<String, TimeSpan> parseTimePerFile = new LinkedHashMap<>();
 
   public EclipseCParser(
       LogManager pLogger,
@@ -164,19 +174,103 @@ class EclipseCParser implements CParser {
     ParseContext parseContext =
         new ParseContext(createNiceFileNameFunction(fileNameMapping.keySet()), sourceOriginMapping);
 
-    List<IASTTranslationUnit> astUnits = new ArrayList<>(pInput.size());
+    final List<IASTTranslationUnit> astUnits;
+    final TimeSpan[] fileTimes = new TimeSpan[pInput.size()];
+    parseTimer.start();
+    try {
+      if (pInput.size() > 1 && options.getThreads() > 1) {
+        astUnits = parseInParallel(pInput, parseContext, pWrapperFunction, fileTimes);
+      } else {
+        astUnits = new ArrayList<>(pInput.size());
+        for (int i = 0; i < pInput.size(); i++) {
+          astUnits.add(
+              parseSingleFile(
+                  pInput.get(i), parseContext, pWrapperFunction, parserLog, fileTimes, i));
+        }
+      }
+    } finally {
+      parseTimer.stop();
+    }
 
-    for (FileToParse f : pInput) {
-      final String fileName = fixPath(f.getFileName());
+    for (int i = 0; i < fileTimes.length; i++) {
+      parseTimePerFile.merge(pInput.get(i).getFileName(), fileTimes[i], TimeSpan::sum);
+    }
+
+    return buildCFA(astUnits, parseContext, scope);
+  }
+
+  /**
+   * Parse all files concurrently. Each file is parsed independently by the Eclipse parser, the
+   * returned list of translation units has the same order as the input.
+   */
+  private List<IASTTranslationUnit> parseInParallel(
+      List<? extends FileToParse> pInput,
+      ParseContext pParseContext,
+      FileParseWrapper pWrapperFunction,
+      TimeSpan[] pFileTimes)
+      throws CParserException, InterruptedException {
+
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            Math.min(options.getThreads(), pInput.size()),
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("c-parser-%d").build());
+    List<Future<IASTTranslationUnit>> futures = new ArrayList<>(pInput.size());
+    try {
+      for (int i = 0; i < pInput.size(); i++) {
+        final int index = i;
+        futures.add(
+            executor.submit(
+                () -> {
+                  // the parser stores itself in the log adapter, so each parser needs its own one
+                  try (ShutdownNotifierLogAdapter log =
+                      new ShutdownNotifierLogAdapter(shutdownNotifier)) {
+                    return parseSingleFile(
+                        pInput.get(index), pParseContext, pWrapperFunction, log, pFileTimes, index);
+                  }
+                }));
+      }
 
-      try {
-        astUnits.add(parse(pWrapperFunction.wrap(fileName, f), parseContext));
-      } catch (IOException e) {
-        throw new CParserException("IO failed!", e);
+      List<IASTTranslationUnit> astUnits = new ArrayList<>(pInput.size());
+      for (Future<IASTTranslationUnit> future : futures) {
+        astUnits.add(future.get());
       }
+      return astUnits;
+
+    } catch (ExecutionException e) {
+      futures.forEach(future -> future.cancel(true));
+      Throwable t = e.getCause();
+      Throwables.propagateIfPossible(t, CParserException.class, InterruptedException.class);
+      throw new UnexpectedCheckedException("parallel parsing", t);
+
+    } catch (InterruptedException e) {
+      futures.forEach(future -> future.cancel(true));
+      throw e;
+
+    } finally {
+      executor.shutdownNow();
     }
+  }
 
-    return buildCFA(astUnits, parseContext, scope);
+  /** Parse a single file and store the time needed for it at the given index. */
+  private IASTTranslationUnit parseSingleFile(
+      FileToParse pFile,
+      ParseContext pParseContext,
+      FileParseWrapper pWrapperFunction,
+      IParserLogService pParserLog,
+      TimeSpan[] pFileTimes,
+      int pIndex)
+      throws CParserException, InterruptedException {
+    final String fileName = fixPath(pFile.getFileName());
+    final Timer fileTimer = new Timer();
+    fileTimer.start();
+    try {
+      return parse(pWrapperFunction.wrap(fileName, pFile), pParseContext, pParserLog);
+    } catch (IOException e) {
+      throw new CParserException("IO failed!", e);
+    } finally {
+      fileTimer.stop();
+      pFileTimes[pIndex] = fileTimer.getLengthOfLastInterval();
+    }
   }
 
   @Override
@@ -233,7 +327,13 @@ class EclipseCParser implements CParser {
   private IASTStatement[] parseCodeFragmentReturnBody(String pCode)
       throws CParserException, InterruptedException {
     // parse
-    IASTTranslationUnit ast = parse(wrapCode("", pCode), ParseContext.dummy());
+    IASTTranslationUnit ast;
+    parseTimer.start();
+    try {
+      ast = parse(wrapCode("", pCode), ParseContext.dummy(), parserLog);
+    } finally {
+      parseTimer.stop();
+    }
 
     // strip wrapping function header
     IASTDeclaration[] declarations = ast.getDeclarations();
@@ -315,11 +415,11 @@ class EclipseCParser implements CParser {
   // we don't use IASTName#getImageLocation(), so the parser doesn't need to create them
   protected static final int PARSER_OPTIONS = ILanguage.OPTION_NO_IMAGE_LOCATIONS;
 
-  private IASTTranslationUnit parse(FileContent codeReader, ParseContext parseContext)
+  private IASTTranslationUnit parse(
+      FileContent codeReader, ParseContext parseContext, IParserLogService pParserLog)
       throws CParserException, InterruptedException {
-    parseTimer.start();
     try {
-      IASTTranslationUnit result = getASTTranslationUnit(codeReader);
+      IASTTranslationUnit result = getASTTranslationUnit(codeReader, pParserLog);
 
       // Separate handling of include problems
       // so that we can give a better error message.
@@ -344,12 +444,10 @@ class EclipseCParser implements CParser {
 
     } catch (CFAGenerationRuntimeException | CoreException e) {
       throw new CParserException(e);
-    } finally {
-      parseTimer.stop();
     }
   }
 
-  private IASTTranslationUnit getASTTranslationUnit(FileContent pCode)
+  private IASTTranslationUnit getASTTranslationUnit(FileContent pCode, IParserLogService pParserLog)
       throws CFAGenerationRuntimeException, CoreException, InterruptedException {
     try {
       return language.getASTTranslationUnit(
@@ -358,7 +456,7 @@ class EclipseCParser implements CParser {
           FileContentProvider.instance,
           null,
           PARSER_OPTIONS,
-          parserLog);
+          pParserLog);
     } finally {
       shutdownNotifier.shutdownIfNecessary();
     }
@@ -466,6 +564,11 @@ class EclipseCParser implements CParser {
     return cfaTimer;
   }
 
+  @Override
+  public ImmutableMap<String, TimeSpan> getParseTimePerFile() {
+    return ImmutableMap.copyOf(parseTimePerFile);
+  }
+
 
   /**
    * Private class extending the Eclipse CDT class that is the starting point
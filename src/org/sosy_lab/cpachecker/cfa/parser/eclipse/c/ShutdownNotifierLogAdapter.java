@@ -28,10 +28,11 @@ import org.sosy_lab.common.ShutdownNotifier.ShutdownRequestListener;
 
 /**
  * A simple adapter class that can be used as logger for the Eclipse parser and forwards our
- * shutdown requests into the parser classes.
+ * shutdown requests into the parser classes. One instance can only be used for one parser at a
+ * time.
  */
 class ShutdownNotifierLogAdapter extends AbstractParserLogService
-    implements ICanceler, ShutdownRequestListener {
+    implements ICanceler, ShutdownRequestListener, AutoCloseable {
 
   private final ShutdownNotifier shutdownNotifier;
   private ICancelable cancelable; // the eclipse parser will be stored here
@@ -68,4 +69,10 @@ class ShutdownNotifierLogAdapter extends AbstractParserLogService
   public void shutdownRequested(String pReason) {
     setCanceled(true);
   }
+
+  /** Stop forwarding shutdown requests, needed only for short-lived instances. */
+  @Override
+  public void close() {
+    shutdownNotifier.unregister(this);
+  }
 }
\ No newline at end of file
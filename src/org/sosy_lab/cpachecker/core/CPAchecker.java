@@ -47,6 +47,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.StringJoiner;
 import java.util.logging.Level;
@@ -65,6 +66,7 @@ import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.io.IO;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.CFACache;
 import org.sosy_lab.cpachecker.cfa.CFACheck;
 import org.sosy_lab.cpachecker.cfa.CFACreator;
 import org.sosy_lab.cpachecker.cfa.Language;
@@ -494,11 +496,25 @@ public class CPAchecker {
 
     final CFA cfa;
     if (serializedCfaFile == null) {
-      // parse file and create CFA
-      logger.logf(Level.INFO, "Parsing CFA from file(s) \"%s\"", Joiner.on(", ").join(fileNames));
+      CFACache cfaCache = new CFACache(config, logger);
+      stats.setCFACache(cfaCache);
+      Optional<CFA> cachedCfa = cfaCache.load(fileNames);
+
       CFACreator cfaCreator = new CFACreator(config, logger, shutdownNotifier);
       stats.setCFACreator(cfaCreator);
-      cfa = cfaCreator.parseFileAndCreateCFA(fileNames);
+      if (cachedCfa.isPresent()) {
+        assert CFACheck.check(
+            cachedCfa.get().getMainFunction(), null, cachedCfa.get().getMachineModel());
+        // export and change detection are still done as for a newly created CFA
+        cfa = cfaCreator.handleLoadedCFA(cachedCfa.get());
+
+      } else {
+        // parse file and create CFA
+        logger.logf(
+            Level.INFO, "Parsing CFA from file(s) \"%s\"", Joiner.on(", ").join(fileNames));
+        cfa = cfaCreator.parseFileAndCreateCFA(fileNames);
+        cfaCache.store(fileNames, cfa);
+      }
 
     } else {
       // load CFA from serialization file
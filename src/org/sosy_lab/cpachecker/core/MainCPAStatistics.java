@@ -66,6 +66,7 @@ import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.common.time.TimeSpan;
 import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.CFACache;
 import org.sosy_lab.cpachecker.cfa.CFACreator;
 import org.sosy_lab.cpachecker.cfa.export.DOTBuilder;
 import org.sosy_lab.cpachecker.cfa.model.CFANode;
@@ -159,6 +160,7 @@ class MainCPAStatistics implements Statistics {
   private long analysisCpuTime = 0;
 
   private @Nullable Statistics cfaCreatorStatistics;
+  private @Nullable CFACache cfaCache;
   private @Nullable CFA cfa;
   private @Nullable ConfigurableProgramAnalysis cpa;
 
@@ -538,6 +540,12 @@ class MainCPAStatistics implements Statistics {
       StatisticsUtils.printStatistics(cfaCreatorStatistics, out, logger, result, reached);
       StatisticsUtils.writeOutputFiles(cfaCreatorStatistics, logger, result, reached);
     }
+    if (cfaCache != null && cfaCache.isEnabled()) {
+      out.println("  Time for CFA cache lookup:  " + cfaCache.getLoadTime());
+      if (cfaCache.getStoreTime().getNumberOfIntervals() > 0) {
+        out.println("  Time for storing CFA cache: " + cfaCache.getStoreTime());
+      }
+    }
     out.println("Time for Analysis:            " + analysisTime);
     out.println("CPU time for analysis:        " + TimeSpan.ofNanos(analysisCpuTime).formatAs(TimeUnit.SECONDS));
     if (resultAnalysisTime.getNumberOfIntervals() > 0) {
@@ -564,6 +572,11 @@ class MainCPAStatistics implements Statistics {
     }
   }
 
+  public void setCFACache(CFACache pCfaCache) {
+    Preconditions.checkState(cfaCache == null);
+    cfaCache = pCfaCache;
+  }
+
   public void setCFACreator(CFACreator pCfaCreator) {
     Preconditions.checkState(cfaCreatorStatistics == null);
     cfaCreatorStatistics = pCfaCreator.getStatistics();
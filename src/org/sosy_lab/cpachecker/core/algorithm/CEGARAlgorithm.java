@@ -58,6 +58,7 @@ import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.cpa.value.refiner.UnsoundRefiner;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.exceptions.RefinementFailedException;
+import org.sosy_lab.cpachecker.util.statistics.jfr.RefinementEvent;
 
 public class CEGARAlgorithm implements Algorithm, StatisticsProvider, ReachedSetUpdater {
 
@@ -304,7 +305,10 @@ public class CEGARAlgorithm implements Algorithm, StatisticsProvider, ReachedSet
     sizeOfReachedSetBeforeRefinement = reached.size();
 
     stats.refinementTimer.start();
-    boolean refinementResult;
+    RefinementEvent event = new RefinementEvent();
+    event.begin();
+    AbstractState targetState = reached.getLastState();
+    boolean refinementResult = false;
     try {
       refinementResult = mRefiner.performRefinement(reached);
 
@@ -313,6 +317,13 @@ public class CEGARAlgorithm implements Algorithm, StatisticsProvider, ReachedSet
       throw e;
     } finally {
       stats.refinementTimer.stop();
+      event.end();
+      if (event.shouldCommit()) {
+        event.setResult(
+            stats.countRefinements, refinementResult, sizeOfReachedSetBeforeRefinement);
+        event.setLocation(targetState);
+        event.commit();
+      }
     }
 
     logger.log(Level.FINE, "Refinement successful:", refinementResult);
@@ -24,6 +24,8 @@
 package org.sosy_lab.cpachecker.core.algorithm;
 
 import com.google.common.base.Functions;
+import com.google.common.base.Joiner;
+import com.google.common.base.Throwables;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -33,9 +35,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.ClassOption;
 import org.sosy_lab.common.configuration.Configuration;
@@ -43,10 +52,12 @@ import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.TimeSpan;
 import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.defaults.MergeSepOperator;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.BatchMergeOperator;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
 import org.sosy_lab.cpachecker.core.interfaces.ForcedCovering;
 import org.sosy_lab.cpachecker.core.interfaces.MergeOperator;
@@ -58,17 +69,25 @@ import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
 import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
 import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
+import org.sosy_lab.cpachecker.core.interfaces.WrapperCPA;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.cpa.arg.ARGMergeJoinCPAEnabledAnalysis;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.util.AbstractStates;
+import org.sosy_lab.cpachecker.util.CPAs;
 import org.sosy_lab.cpachecker.util.Pair;
 import org.sosy_lab.cpachecker.util.statistics.AbstractStatValue;
 import org.sosy_lab.cpachecker.util.statistics.StatCounter;
 import org.sosy_lab.cpachecker.util.statistics.StatHist;
 import org.sosy_lab.cpachecker.util.statistics.StatInt;
 import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
+import org.sosy_lab.cpachecker.util.statistics.jfr.CPAOperatorEvent;
+import org.sosy_lab.cpachecker.util.statistics.jfr.MergeEvent;
+import org.sosy_lab.cpachecker.util.statistics.jfr.PrecisionAdjustmentEvent;
+import org.sosy_lab.cpachecker.util.statistics.jfr.StopEvent;
+import org.sosy_lab.cpachecker.util.statistics.jfr.TransferEvent;
 
 public class CPAAlgorithm implements Algorithm, StatisticsProvider {
 
@@ -82,6 +101,7 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
     private Timer stopTimer          = new Timer();
     private Timer addTimer           = new Timer();
     private Timer forcedCoveringTimer = new Timer();
+    private Timer parallelTransferTimer = new Timer();
 
     private int   countIterations   = 0;
     private int   maxWaitlistSize   = 0;
@@ -92,6 +112,11 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
     private int   countStop         = 0;
     private int   countBreak        = 0;
 
+    // only used if successors are computed in parallel
+    private int   parallelThreads   = 1;
+    private int   countBatches      = 0;
+    private long  workerTransferTime = 0; // nanoseconds, summed over all worker threads
+
     private Map<String, AbstractStatValue> reachedSetStatistics = new HashMap<>();
 
     private void stopAllTimers() {
@@ -103,6 +128,7 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
       stopTimer.stopIfRunning();
       addTimer.stopIfRunning();
       forcedCoveringTimer.stopIfRunning();
+      parallelTransferTimer.stopIfRunning();
     }
 
     private void updateReachedSetStatistics(Map<String, AbstractStatValue> newStatistics) {
@@ -164,7 +190,26 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
         out.println("  Time for forced covering:       " + forcedCoveringTimer);
       }
       out.println("  Time for precision adjustment:  " + precisionTimer);
-      out.println("  Time for transfer relation:     " + transferTimer);
+      if (parallelThreads > 1) {
+        TimeSpan workerTime = TimeSpan.ofNanos(workerTransferTime);
+        TimeSpan wallTime = parallelTransferTimer.getSumTime();
+        out.println("  Time for transfer relation:     " + parallelTransferTimer);
+        out.println(
+            "    Time in worker threads:       "
+                + workerTime.formatAs(TimeUnit.SECONDS)
+                + " ("
+                + parallelThreads
+                + " threads, "
+                + countBatches
+                + " batches)");
+        if (!wallTime.isEmpty()) {
+          out.println(
+              "    Speedup of transfer relation: "
+                  + String.format("%.2f", (double) workerTime.asNanos() / wallTime.asNanos()));
+        }
+      } else {
+        out.println("  Time for transfer relation:     " + transferTimer);
+      }
       if (mergeTimer.getNumberOfIntervals() > 0) {
         out.println("  Time for merge operator:        " + mergeTimer);
       }
@@ -188,6 +233,18 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
         + " Useful for incomplete analysis with no counterexample checking.")
     private boolean reportFalseAsUnknown = false;
 
+    @Option(
+        secure = true,
+        name = "parallel.threads",
+        description =
+            "Number of threads that compute successors of states from the waitlist in parallel."
+                + " Merge, stop, and adding to the reached set are still done by one thread"
+                + " in a deterministic order, so only the transfer relation needs to be safe"
+                + " for concurrent use. This is only allowed if the transfer relations of all"
+                + " CPAs declare that they are thread-safe."
+                + " The default of 1 disables parallel successor computation.")
+    private int parallelThreads = 1;
+
     private final ForcedCovering forcedCovering;
 
     private final ConfigurableProgramAnalysis cpa;
@@ -202,6 +259,23 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
       this.logger = logger;
       this.shutdownNotifier = pShutdownNotifier;
 
+      if (parallelThreads < 1) {
+        throw new InvalidConfigurationException(
+            "Invalid number of threads for cpa.parallel.threads: " + parallelThreads);
+      }
+      if (parallelThreads > 1 && !cpa.getTransferRelation().isThreadSafe()) {
+        List<String> unsafeCpas =
+            CPAs.asIterable(cpa)
+                .filter(c -> !(c instanceof WrapperCPA) && !c.getTransferRelation().isThreadSafe())
+                .transform(c -> c.getClass().getSimpleName())
+                .toList();
+        throw new InvalidConfigurationException(
+            "Parallel successor computation (cpa.parallel.threads > 1) needs thread-safe transfer"
+                + " relations, but the transfer relation of "
+                + (unsafeCpas.isEmpty() ? cpa.getClass().getSimpleName() : unsafeCpas)
+                + " is not thread-safe.");
+      }
+
       if (forcedCoveringClass != null) {
         forcedCovering = forcedCoveringClass.create(config, logger, cpa);
       } else {
@@ -212,7 +286,8 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
 
     @Override
     public CPAAlgorithm newInstance() {
-      return new CPAAlgorithm(cpa, logger, shutdownNotifier, forcedCovering, reportFalseAsUnknown);
+      return new CPAAlgorithm(
+          cpa, logger, shutdownNotifier, forcedCovering, reportFalseAsUnknown, parallelThreads);
     }
   }
 
@@ -232,31 +307,48 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
   private final StopOperator stopOperator;
   private final PrecisionAdjustment precisionAdjustment;
 
+  /** Name of the analysis for the JFR events, e.g., "LocationCPA, CallstackCPA, PredicateCPA". */
+  private final String cpaName;
+
   private final LogManager                  logger;
 
   private final ShutdownNotifier                   shutdownNotifier;
 
   private final AlgorithmStatus status;
 
+  private final int parallelThreads;
+
   private CPAAlgorithm(ConfigurableProgramAnalysis cpa, LogManager logger,
       ShutdownNotifier pShutdownNotifier,
       ForcedCovering pForcedCovering,
-      boolean pIsImprecise) {
+      boolean pIsImprecise,
+      int pParallelThreads) {
 
     transferRelation = cpa.getTransferRelation();
     mergeOperator = cpa.getMergeOperator();
     stopOperator = cpa.getStopOperator();
     precisionAdjustment = cpa.getPrecisionAdjustment();
+    cpaName =
+        Joiner.on(", ")
+            .join(
+                CPAs.asIterable(cpa)
+                    .filter(c -> !(c instanceof WrapperCPA))
+                    .transform(c -> c.getClass().getSimpleName()));
     this.logger = logger;
     this.shutdownNotifier = pShutdownNotifier;
     this.forcedCovering = pForcedCovering;
     status = AlgorithmStatus.SOUND_AND_PRECISE.withPrecise(!pIsImprecise);
+    parallelThreads = pParallelThreads;
+    stats.parallelThreads = pParallelThreads;
   }
 
   @Override
   public AlgorithmStatus run(final ReachedSet reachedSet) throws CPAException, InterruptedException {
     stats.totalTimer.start();
     try {
+      if (parallelThreads > 1) {
+        return runParallel(reachedSet);
+      }
       return run0(reachedSet);
     } finally {
       stats.stopAllTimers();
@@ -301,6 +393,220 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
     return status;
   }
 
+  /**
+   * Variant of {@link #run0(ReachedSet)} that takes up to {@link #parallelThreads} states from the
+   * waitlist at once and computes their successors concurrently. The successors are afterwards
+   * handled (precision adjustment, merge, stop, add) by the calling thread in the order in which
+   * the states were taken from the waitlist, which is the only point where the reached set is
+   * modified.
+   */
+  private AlgorithmStatus runParallel(final ReachedSet reachedSet)
+      throws CPAException, InterruptedException {
+    final ExecutorService executor = Executors.newWorkStealingPool(parallelThreads);
+    try {
+      List<Pair<AbstractState, Precision>> batch = new ArrayList<>(parallelThreads);
+
+      while (reachedSet.hasWaitingState()) {
+        shutdownNotifier.shutdownIfNecessary();
+        batch.clear();
+
+        while (batch.size() < parallelThreads && reachedSet.hasWaitingState()) {
+          stats.countIterations++;
+
+          int size = reachedSet.getWaitlist().size();
+          if (size >= stats.maxWaitlistSize) {
+            stats.maxWaitlistSize = size;
+          }
+          stats.countWaitlistSize += size;
+
+          stats.chooseTimer.start();
+          final AbstractState state = reachedSet.popFromWaitlist();
+          final Precision precision = reachedSet.getPrecision(state);
+          stats.chooseTimer.stop();
+
+          logger.log(Level.FINER, "Retrieved state from waitlist");
+          logger.log(Level.ALL, "Current state is", state, "with precision", precision);
+          if (!isCoveredByForcedCovering(state, precision, reachedSet)) {
+            batch.add(Pair.of(state, precision));
+          }
+        }
+        if (batch.isEmpty()) {
+          continue;
+        }
+
+        stats.countBatches++;
+        List<Collection<? extends AbstractState>> batchSuccessors;
+        try {
+          batchSuccessors = computeSuccessorsInParallel(batch, executor);
+        } catch (Exception e) {
+          // re-add the old states to the waitlist, none of their successors were handled
+          reAddToWaitlist(batch, reachedSet);
+          throw e;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+          final AbstractState state = batch.get(i).getFirst();
+          final Precision precision = batch.get(i).getSecond();
+          if (!isStillReached(state, reachedSet)) {
+            // state was merged into or removed by the successors of an earlier state of this
+            // batch, its successors are not valid anymore (the merged state will be expanded)
+            discardSuccessors(batchSuccessors.get(i));
+            continue;
+          }
+          try {
+            if (handleSuccessors(state, precision, batchSuccessors.get(i), reachedSet)) {
+              // Prec operator requested break,
+              // states of this batch that were not handled yet need to be explored later
+              discardAndReAddToWaitlist(batch, batchSuccessors, i + 1, reachedSet);
+              return status;
+            }
+          } catch (Exception e) {
+            // re-add the old states to the waitlist, there might be unhandled successors left
+            // that otherwise would be forgotten (which would be unsound)
+            reachedSet.reAddToWaitlist(state);
+            discardAndReAddToWaitlist(batch, batchSuccessors, i + 1, reachedSet);
+            throw e;
+          }
+        }
+      }
+
+      return status;
+
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Compute the successors of all given states concurrently and wait for the results.
+   *
+   * @return the successors of each state, in the same order as the given states
+   */
+  private List<Collection<? extends AbstractState>> computeSuccessorsInParallel(
+      List<Pair<AbstractState, Precision>> batch, ExecutorService executor)
+      throws CPAException, InterruptedException {
+    List<Future<Collection<? extends AbstractState>>> futures = new ArrayList<>(batch.size());
+    stats.parallelTransferTimer.start();
+    try {
+      for (Pair<AbstractState, Precision> entry : batch) {
+        futures.add(executor.submit(newTransferTask(entry.getFirst(), entry.getSecond())));
+      }
+
+      List<Collection<? extends AbstractState>> result = new ArrayList<>(batch.size());
+      for (Future<Collection<? extends AbstractState>> future : futures) {
+        result.add(future.get());
+      }
+      return result;
+
+    } catch (ExecutionException e) {
+      // The successors of the other states will not be handled, but the transfer relation may
+      // already have linked them into the ARG, so wait for the other tasks and remove them again.
+      discardSuccessfulResults(futures);
+      Throwable t = e.getCause();
+      Throwables.propagateIfPossible(t, CPAException.class, InterruptedException.class);
+      throw new UnexpectedCheckedException("transfer relation", t);
+
+    } finally {
+      stats.parallelTransferTimer.stop();
+      // no-op for completed tasks, stops remaining work if we were interrupted
+      futures.forEach(f -> f.cancel(true));
+    }
+  }
+
+  private static void discardSuccessfulResults(
+      List<Future<Collection<? extends AbstractState>>> futures) throws InterruptedException {
+    for (Future<Collection<? extends AbstractState>> future : futures) {
+      try {
+        discardSuccessors(future.get());
+      } catch (ExecutionException | CancellationException e) {
+        // task failed as well, nothing to discard
+      }
+    }
+  }
+
+  private Callable<Collection<? extends AbstractState>> newTransferTask(
+      final AbstractState state, final Precision precision) {
+    return () -> {
+      long start = System.nanoTime();
+      TransferEvent event = new TransferEvent();
+      event.begin();
+      try {
+        return transferRelation.getAbstractSuccessors(state, precision);
+      } finally {
+        long duration = System.nanoTime() - start;
+        synchronized (stats) {
+          stats.workerTransferTime += duration;
+        }
+        commitEvent(event, state);
+      }
+    };
+  }
+
+  private static void reAddToWaitlist(
+      List<Pair<AbstractState, Precision>> states, ReachedSet reachedSet) {
+    for (Pair<AbstractState, Precision> entry : states) {
+      reachedSet.reAddToWaitlist(entry.getFirst());
+    }
+  }
+
+  /**
+   * Re-add the states of a batch starting at the given index to the waitlist, after their already
+   * computed successors were removed from the ARG (otherwise they would be added a second time when
+   * the states are expanded again).
+   */
+  private static void discardAndReAddToWaitlist(
+      List<Pair<AbstractState, Precision>> batch,
+      List<Collection<? extends AbstractState>> batchSuccessors,
+      int start,
+      ReachedSet reachedSet) {
+    for (int j = start; j < batch.size(); j++) {
+      discardSuccessors(batchSuccessors.get(j));
+      AbstractState state = batch.get(j).getFirst();
+      if (isStillReached(state, reachedSet)) {
+        reachedSet.reAddToWaitlist(state);
+      }
+    }
+  }
+
+  /**
+   * Remove successors that were computed in advance but will not be handled from the ARG, to
+   * which {@link org.sosy_lab.cpachecker.cpa.arg.ARGTransferRelation} already linked them.
+   */
+  private static void discardSuccessors(Collection<? extends AbstractState> successors) {
+    for (AbstractState successor : successors) {
+      if (successor instanceof ARGState && !((ARGState) successor).isDestroyed()) {
+        ((ARGState) successor).removeFromARG();
+      }
+    }
+  }
+
+  private static boolean isStillReached(AbstractState state, ReachedSet reachedSet) {
+    if (state instanceof ARGState && ((ARGState) state).isDestroyed()) {
+      return false;
+    }
+    return reachedSet.contains(state);
+  }
+
+  /**
+   * Apply the forced-covering strategy (if any) to a state from the waitlist.
+   *
+   * @return true if the state is covered and no successors need to be computed
+   */
+  private boolean isCoveredByForcedCovering(
+      final AbstractState state, final Precision precision, final ReachedSet reachedSet)
+      throws CPAException, InterruptedException {
+    if (forcedCovering == null) {
+      return false;
+    }
+    stats.forcedCoveringTimer.start();
+    try {
+      // TODO: remove state from reached set?
+      return forcedCovering.tryForcedCovering(state, precision, reachedSet);
+    } finally {
+      stats.forcedCoveringTimer.stop();
+    }
+  }
+
   /**
    * Handle one state from the waitlist, i.e., produce successors etc.
    * @param state The abstract state that was taken out of the waitlist
@@ -313,30 +619,59 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
       throws CPAException, InterruptedException {
     logger.log(Level.ALL, "Current state is", state, "with precision", precision);
 
-    if (forcedCovering != null) {
-      stats.forcedCoveringTimer.start();
-      try {
-        boolean stop = forcedCovering.tryForcedCovering(state, precision, reachedSet);
-
-        if (stop) {
-          // TODO: remove state from reached set?
-          return false;
-        }
-      } finally {
-        stats.forcedCoveringTimer.stop();
-      }
+    if (isCoveredByForcedCovering(state, precision, reachedSet)) {
+      return false;
     }
 
     stats.transferTimer.start();
+    TransferEvent event = new TransferEvent();
+    event.begin();
     Collection<? extends AbstractState> successors;
     try {
       successors = transferRelation.getAbstractSuccessors(state, precision);
     } finally {
       stats.transferTimer.stop();
+      commitEvent(event, state);
     }
     // TODO When we have a nice way to mark the analysis result as incomplete,
     // we could continue analysis on a CPATransferException with the next state from waitlist.
 
+    return handleSuccessors(state, precision, successors, reachedSet);
+  }
+
+  private void handleMergeResult(
+      AbstractState successor,
+      AbstractState reachedState,
+      AbstractState mergedState,
+      Precision successorPrecision,
+      List<AbstractState> toRemove,
+      List<Pair<AbstractState, Precision>> toAdd) {
+    if (!mergedState.equals(reachedState)) {
+      logger.log(Level.FINER, "Successor was merged with state from reached set");
+      logger.log(Level.ALL, "Merged", successor, "\nand", reachedState, "\n-->", mergedState);
+      stats.countMerge++;
+
+      toRemove.add(reachedState);
+      toAdd.add(Pair.of(mergedState, successorPrecision));
+    }
+  }
+
+  /**
+   * Handle the successors of one state from the waitlist, i.e., apply precision adjustment, merge,
+   * and stop, and add them to the reached set.
+   *
+   * @param state The abstract state that was taken out of the waitlist
+   * @param precision The precision for this abstract state.
+   * @param successors The successors of the state as computed by the transfer relation.
+   * @param reachedSet The reached set.
+   * @return true if analysis should terminate, false if analysis should continue with next state
+   */
+  private boolean handleSuccessors(
+      final AbstractState state,
+      final Precision precision,
+      final Collection<? extends AbstractState> successors,
+      final ReachedSet reachedSet)
+      throws CPAException, InterruptedException {
     int numSuccessors = successors.size();
     logger.log(Level.FINER, "Current state has", numSuccessors, "successors");
     stats.countSuccessors += numSuccessors;
@@ -349,6 +684,8 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
       logger.log(Level.ALL, "Successor of", state, "\nis", successor);
 
       stats.precisionTimer.start();
+      PrecisionAdjustmentEvent precisionEvent = new PrecisionAdjustmentEvent();
+      precisionEvent.begin();
       PrecisionAdjustmentResult precAdjustmentResult;
       try {
         Optional<PrecisionAdjustmentResult> precAdjustmentOptional =
@@ -360,6 +697,7 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
         precAdjustmentResult = precAdjustmentOptional.orElseThrow();
       } finally {
         stats.precisionTimer.stop();
+        commitEvent(precisionEvent, successor);
       }
 
       successor = precAdjustmentResult.abstractState();
@@ -368,11 +706,16 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
 
       if (action == Action.BREAK) {
         stats.stopTimer.start();
+        StopEvent stopEvent = new StopEvent();
+        stopEvent.begin();
         boolean stop;
         try {
-          stop = stopOperator.stop(successor, reachedSet.getReached(successor), successorPrecision);
+          stop =
+              stopOperator.stop(
+                  successor, reachedSet.getCoverageCandidates(successor), successorPrecision);
         } finally {
           stats.stopTimer.stop();
+          commitEvent(stopEvent, successor);
         }
 
         if (AbstractStates.isTargetState(successor) && stop) {
@@ -407,25 +750,38 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
       // merge operator won't do anything (i.e., it is merge-sep).
       if (mergeOperator != MergeSepOperator.getInstance() && !reached.isEmpty()) {
         stats.mergeTimer.start();
+        MergeEvent mergeEvent = new MergeEvent();
+        mergeEvent.begin();
         try {
           List<AbstractState> toRemove = new ArrayList<>();
           List<Pair<AbstractState, Precision>> toAdd = new ArrayList<>();
           try {
             logger.log(
                 Level.FINER, "Considering", reached.size(), "states from reached set for merge");
-            for (AbstractState reachedState : reached) {
+            if (mergeOperator instanceof BatchMergeOperator
+                && ((BatchMergeOperator) mergeOperator).mergesInParallel()) {
               shutdownNotifier.shutdownIfNecessary();
-              AbstractState mergedState =
-                  mergeOperator.merge(successor, reachedState, successorPrecision);
-
-              if (!mergedState.equals(reachedState)) {
-                logger.log(Level.FINER, "Successor was merged with state from reached set");
-                logger.log(
-                    Level.ALL, "Merged", successor, "\nand", reachedState, "\n-->", mergedState);
-                stats.countMerge++;
+              List<AbstractState> reachedStates = new ArrayList<>(reached);
+              List<AbstractState> mergedStates =
+                  ((BatchMergeOperator) mergeOperator)
+                      .mergeAll(successor, reachedStates, successorPrecision);
+              for (int i = 0; i < reachedStates.size(); i++) {
+                handleMergeResult(
+                    successor,
+                    reachedStates.get(i),
+                    mergedStates.get(i),
+                    successorPrecision,
+                    toRemove,
+                    toAdd);
+              }
 
-                toRemove.add(reachedState);
-                toAdd.add(Pair.of(mergedState, successorPrecision));
+            } else {
+              for (AbstractState reachedState : reached) {
+                shutdownNotifier.shutdownIfNecessary();
+                AbstractState mergedState =
+                    mergeOperator.merge(successor, reachedState, successorPrecision);
+                handleMergeResult(
+                    successor, reachedState, mergedState, successorPrecision, toRemove, toAdd);
               }
             }
           } finally {
@@ -441,15 +797,21 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
 
         } finally {
           stats.mergeTimer.stop();
+          commitEvent(mergeEvent, successor);
         }
       }
 
       stats.stopTimer.start();
+      StopEvent stopEvent = new StopEvent();
+      stopEvent.begin();
       boolean stop;
       try {
-        stop = stopOperator.stop(successor, reached, successorPrecision);
+        stop =
+            stopOperator.stop(
+                successor, reachedSet.getCoverageCandidates(successor), successorPrecision);
       } finally {
         stats.stopTimer.stop();
+        commitEvent(stopEvent, successor);
       }
 
       if (stop) {
@@ -468,6 +830,19 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
     return false;
   }
 
+  /**
+   * Commit a JFR event for one of the CPA operators. The location is only computed if the event is
+   * actually recorded.
+   */
+  private void commitEvent(CPAOperatorEvent pEvent, AbstractState pState) {
+    pEvent.end();
+    if (pEvent.shouldCommit()) {
+      pEvent.setCPA(cpaName);
+      pEvent.setLocation(pState);
+      pEvent.commit();
+    }
+  }
+
   @Override
   public void collectStatistics(Collection<Statistics> pStatsCollection) {
     if (forcedCovering instanceof StatisticsProvider) {
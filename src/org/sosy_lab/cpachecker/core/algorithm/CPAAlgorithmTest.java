@@ -0,0 +1,106 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Test;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
+import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.util.AbstractStates;
+import org.sosy_lab.cpachecker.util.test.CPATestRunner;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+import org.sosy_lab.cpachecker.util.test.TestResults;
+
+public class CPAAlgorithmTest {
+
+  private static final String PROGRAM = "test/programs/simple/PredicateMergeTest.c";
+
+  @Test
+  public void testParallelThreadsNeedThreadSafeTransferRelation() throws Exception {
+    ConfigurableProgramAnalysis cpa = mock(ConfigurableProgramAnalysis.class);
+    TransferRelation transferRelation = mock(TransferRelation.class);
+    when(cpa.getTransferRelation()).thenReturn(transferRelation);
+    when(transferRelation.isThreadSafe()).thenReturn(false);
+
+    Configuration config =
+        TestDataTools.configurationForTest().setOption("cpa.parallel.threads", "2").build();
+    assertThrows(
+        InvalidConfigurationException.class,
+        () ->
+            CPAAlgorithm.create(
+                cpa, LogManager.createTestLogManager(), config, ShutdownNotifier.createDummy()));
+
+    // sequential successor computation does not need a thread-safe transfer relation
+    Configuration sequentialConfig = TestDataTools.configurationForTest().build();
+    assertThat(
+            CPAAlgorithm.create(
+                cpa,
+                LogManager.createTestLogManager(),
+                sequentialConfig,
+                ShutdownNotifier.createDummy()))
+        .isNotNull();
+  }
+
+  @Test
+  public void testParallelSuccessorComputation() throws Exception {
+    UnmodifiableReachedSet sequentialReached = runLocationAnalysis(1);
+    UnmodifiableReachedSet parallelReached = runLocationAnalysis(4);
+
+    assertThat(parallelReached.size()).isEqualTo(sequentialReached.size());
+    assertThat(locations(parallelReached)).isEqualTo(locations(sequentialReached));
+  }
+
+  private static UnmodifiableReachedSet runLocationAnalysis(int pThreads) throws Exception {
+    Map<String, String> prop =
+        ImmutableMap.of(
+            "cpa", "cpa.arg.ARGCPA",
+            "ARGCPA.cpa", "cpa.composite.CompositeCPA",
+            "CompositeCPA.cpas", "cpa.location.LocationCPA",
+            "cpa.parallel.threads", Integer.toString(pThreads));
+
+    TestResults results = CPATestRunner.run(prop, PROGRAM);
+    UnmodifiableReachedSet reached = results.getCheckerResult().getReached();
+    assertThat(reached).isNotNull();
+    assertThat(reached.hasWaitingState()).isFalse();
+    return reached;
+  }
+
+  private static Set<CFANode> locations(UnmodifiableReachedSet pReached) {
+    return ImmutableSet.copyOf(AbstractStates.extractLocations(pReached));
+  }
+}
@@ -30,6 +30,7 @@ import com.google.common.collect.Iterables;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.io.Writer;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -74,6 +75,7 @@ import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.cpa.arg.ARGReachedSet;
 import org.sosy_lab.cpachecker.cpa.bam.BAMCPAWithBreakOnMissingBlock;
 import org.sosy_lab.cpachecker.cpa.bam.BAMReachedSetValidator;
+import org.sosy_lab.cpachecker.cpa.bam.cache.LockContentionStatistics;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.exceptions.CompoundException;
 import org.sosy_lab.cpachecker.util.statistics.StatCounter;
@@ -99,6 +101,13 @@ public class ParallelBAMAlgorithm implements Algorithm, StatisticsProvider {
   @FileOption(FileOption.Type.OUTPUT_FILE)
   private Path runningRSESeriesFile = Paths.get("RSESeries.csv");
 
+  @Option(
+    description = "export contention of the locks in BAM cache and data manager as CSV",
+    secure = true
+  )
+  @FileOption(FileOption.Type.OUTPUT_FILE)
+  private Path lockContentionFile = Paths.get("BAMLockContention.csv");
+
   private final ParallelBAMStatistics stats = new ParallelBAMStatistics();
   private final LogManager logger;
   private final LogManagerWithoutDuplicates oneTimeLogger;
@@ -356,6 +365,11 @@ public class ParallelBAMAlgorithm implements Algorithm, StatisticsProvider {
       StatisticsUtils.write(pOut, 0, 50, threadTime);
       StatisticsUtils.write(pOut, 1, 50, addingStatesTime);
       StatisticsUtils.write(pOut, 1, 50, terminationCheckTime);
+      for (LockContentionStatistics lockStats : bamcpa.getLockStatistics()) {
+        if (lockStats.getContendedAcquisitions() > 0) {
+          StatisticsUtils.write(pOut, 0, 50, "Lock contention", lockStats);
+        }
+      }
 
       if (runningRSESeriesFile != null) {
         try {
@@ -364,6 +378,15 @@ public class ParallelBAMAlgorithm implements Algorithm, StatisticsProvider {
           logger.logUserException(Level.WARNING, e, "Could not write data-series for RSEs to file");
         }
       }
+
+      if (lockContentionFile != null) {
+        try (Writer w = IO.openOutputFile(lockContentionFile, Charset.defaultCharset())) {
+          LockContentionStatistics.writeCSV(bamcpa.getLockStatistics(), w);
+        } catch (IOException e) {
+          logger.logUserException(
+              Level.WARNING, e, "Could not write lock contention statistics to file");
+        }
+      }
     }
 
     @Override
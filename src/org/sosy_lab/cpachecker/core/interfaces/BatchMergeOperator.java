@@ -0,0 +1,79 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.interfaces;
+
+import java.util.List;
+import org.sosy_lab.cpachecker.core.algorithm.CPAAlgorithm;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
+
+/**
+ * A {@link MergeOperator} that can merge a state with several states from the reached set at
+ * once, e.g., by computing the individual merges concurrently. {@link CPAAlgorithm} uses this for
+ * all states from the reached set that are candidates for merging with a new successor.
+ */
+public interface BatchMergeOperator extends MergeOperator {
+
+  /**
+   * Merge the given state with each of the given states from the reached set.
+   *
+   * <p>The result has to be the same as calling {@link #merge(AbstractState, AbstractState,
+   * Precision)} for each state of the reached set in the given order, i.e., element i of the
+   * result is the merge of pState1 and element i of pStates2.
+   *
+   * @param pState1 The first input state.
+   * @param pStates2 The states from the reached set that are merged with the first state.
+   * @param pPrecision The precision.
+   * @return A list of the same size as pStates2 with the merge results.
+   */
+  List<AbstractState> mergeAll(
+      AbstractState pState1, List<AbstractState> pStates2, Precision pPrecision)
+      throws CPAException, InterruptedException;
+
+  /**
+   * Like {@link #mergeAll(AbstractState, List, Precision)}, but for callers that only use the
+   * results up to the first merge that changed something, i.e., up to and including the first
+   * element i of the result that is not equal to element i of pStates2. The elements after this
+   * one are not merges and need to be ignored by the caller. This allows implementations to avoid
+   * work for merges whose result is not needed.
+   *
+   * @param pState1 The first input state.
+   * @param pStates2 The states from the reached set that are merged with the first state.
+   * @param pPrecision The precision.
+   * @return A list of the same size as pStates2 with the merge results.
+   */
+  default List<AbstractState> mergeUntilChanged(
+      AbstractState pState1, List<AbstractState> pStates2, Precision pPrecision)
+      throws CPAException, InterruptedException {
+    return mergeAll(pState1, pStates2, pPrecision);
+  }
+
+  /**
+   * Whether {@link #mergeAll(AbstractState, List, Precision)} actually merges concurrently. If
+   * not, callers that can stop after the first merge that changed something should rather call
+   * {@link #merge(AbstractState, AbstractState, Precision)} one by one.
+   */
+  default boolean mergesInParallel() {
+    return true;
+  }
+}
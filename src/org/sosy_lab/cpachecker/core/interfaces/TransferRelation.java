@@ -103,4 +103,14 @@ public interface TransferRelation {
       throws CPATransferException, InterruptedException {
     return Collections.singleton(state);
   }
+
+  /**
+   * Whether this transfer relation may be used concurrently, i.e., whether the methods for
+   * computing successors may be called by several threads at the same time for different states.
+   * This is necessary for computing successors in parallel (option cpa.parallel.threads). Transfer
+   * relations that wrap other transfer relations should return true only if all of them do.
+   */
+  default boolean isThreadSafe() {
+    return false;
+  }
 }
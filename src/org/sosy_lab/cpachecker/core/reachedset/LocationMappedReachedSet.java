@@ -45,6 +45,11 @@ public class LocationMappedReachedSet extends PartitionedReachedSet {
     super(waitlistFactory);
   }
 
+  public LocationMappedReachedSet(
+      WaitlistFactory waitlistFactory, boolean pUseSubsumptionIndex) {
+    super(waitlistFactory, pUseSubsumptionIndex);
+  }
+
   @Override
   public Collection<AbstractState> getReached(CFANode location) {
     checkNotNull(location);
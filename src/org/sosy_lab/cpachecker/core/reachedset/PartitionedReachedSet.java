@@ -25,18 +25,33 @@ package org.sosy_lab.cpachecker.core.reachedset;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.SetMultimap;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.Partitionable;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.PseudoPartitionable;
 import org.sosy_lab.cpachecker.core.waitlist.Waitlist.WaitlistFactory;
+import org.sosy_lab.cpachecker.util.statistics.AbstractStatValue;
+import org.sosy_lab.cpachecker.util.statistics.StatInt;
+import org.sosy_lab.cpachecker.util.statistics.StatKind;
 
 /**
  * Special implementation of the reached set that partitions the set by keys that
@@ -52,6 +67,12 @@ import org.sosy_lab.cpachecker.core.waitlist.Waitlist.WaitlistFactory;
  * for merging and coverage checks), it will return a subset of the set of all
  * reached states. This subset contains exactly those states, whose partition
  * key is equal to the key of the state given as a parameter.
+ *
+ * Optionally, each partition can be indexed by the pseudo-partition key and pseudo-hashcode
+ * of {@link PseudoPartitionable} states (like in {@link PseudoPartitionedReachedSet}).
+ * Then {@link #getCoverageCandidates(AbstractState)} returns only those states of the partition
+ * that may cover the given state, such that the stop operator needs to check fewer states,
+ * while merge still sees the whole partition.
  */
 public class PartitionedReachedSet extends DefaultReachedSet {
 
@@ -60,22 +81,45 @@ public class PartitionedReachedSet extends DefaultReachedSet {
   @SuppressFBWarnings("SE_BAD_FIELD")
   private final Multimap<Object, AbstractState> partitionedReached = LinkedHashMultimap.create(100, 1);
 
+  /** the index for coverage checks per partition, null if disabled */
+  @SuppressFBWarnings("SE_BAD_FIELD")
+  private final @Nullable Map<Object, SubsumptionIndex> subsumptionIndex;
+
+  @SuppressFBWarnings("SE_BAD_FIELD")
+  private final StatInt skippedCoverageCandidates =
+      new StatInt(StatKind.SUM, "Number of coverage checks avoided by subsumption index");
+
   public PartitionedReachedSet(WaitlistFactory waitlistFactory) {
+    this(waitlistFactory, false);
+  }
+
+  public PartitionedReachedSet(WaitlistFactory waitlistFactory, boolean pUseSubsumptionIndex) {
     super(waitlistFactory);
+    subsumptionIndex = pUseSubsumptionIndex ? new HashMap<>() : null;
   }
 
   @Override
   public void add(AbstractState pState, Precision pPrecision) {
     super.add(pState, pPrecision);
 
-    partitionedReached.put(getPartitionKey(pState), pState);
+    Object key = getPartitionKey(pState);
+    if (partitionedReached.put(key, pState) && subsumptionIndex != null) {
+      subsumptionIndex.computeIfAbsent(key, k -> new SubsumptionIndex()).add(pState);
+    }
   }
 
   @Override
   public void remove(AbstractState pState) {
     super.remove(pState);
 
-    partitionedReached.remove(getPartitionKey(pState), pState);
+    Object key = getPartitionKey(pState);
+    if (partitionedReached.remove(key, pState) && subsumptionIndex != null) {
+      SubsumptionIndex index = subsumptionIndex.get(key);
+      index.remove(pState);
+      if (index.isEmpty()) {
+        subsumptionIndex.remove(key);
+      }
+    }
   }
 
   @Override
@@ -83,6 +127,9 @@ public class PartitionedReachedSet extends DefaultReachedSet {
     super.clear();
 
     partitionedReached.clear();
+    if (subsumptionIndex != null) {
+      subsumptionIndex.clear();
+    }
   }
 
   @Override
@@ -90,6 +137,36 @@ public class PartitionedReachedSet extends DefaultReachedSet {
     return getReachedForKey(getPartitionKey(pState));
   }
 
+  @Override
+  public Collection<AbstractState> getCoverageCandidates(AbstractState pState) {
+    Object key = getPartitionKey(pState);
+    if (subsumptionIndex == null) {
+      return getReachedForKey(key);
+    }
+
+    SubsumptionIndex index = subsumptionIndex.get(key);
+    if (index == null) {
+      return Collections.emptySet();
+    }
+    Collection<AbstractState> candidates = index.getCandidates(pState);
+    if (candidates == null) {
+      return getReachedForKey(key);
+    }
+    skippedCoverageCandidates.setNextValue(partitionedReached.get(key).size() - candidates.size());
+    return candidates;
+  }
+
+  @Override
+  public ImmutableMap<String, AbstractStatValue> getStatistics() {
+    if (subsumptionIndex == null) {
+      return super.getStatistics();
+    }
+    return ImmutableMap.<String, AbstractStatValue>builder()
+        .putAll(super.getStatistics())
+        .put(skippedCoverageCandidates.getTitle(), skippedCoverageCandidates)
+        .build();
+  }
+
   public int getNumberOfPartitions() {
     return partitionedReached.keySet().size();
   }
@@ -121,4 +198,120 @@ public class PartitionedReachedSet extends DefaultReachedSet {
   protected Set<?> getKeySet() {
     return Collections.unmodifiableSet(partitionedReached.keySet());
   }
+
+  /**
+   * Index of the states of one partition for coverage checks, based on {@link
+   * PseudoPartitionable}: a state can only be covered by states with a smaller pseudo-partition
+   * key, or by states with an equal pseudo-partition key and an equal pseudo-hashcode. States that
+   * do not provide a pseudo-partition key are always candidates.
+   *
+   * <p>The pseudo-partition keys are only partially ordered (cf. {@link
+   * PseudoPartitionable#getPseudoPartitionKey()}), so they cannot be kept in a sorted map. Like
+   * {@link PseudoPartitionedReachedSet}, the index compares the key of a state against the keys of
+   * all groups of states, which is cheap as long as there are few distinct keys.
+   */
+  private static class SubsumptionIndex implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @SuppressFBWarnings("SE_BAD_FIELD")
+    private final Map<Comparable<?>, SetMultimap<Object, AbstractState>> indexed =
+        new LinkedHashMap<>();
+
+    private final Set<AbstractState> unindexed = new LinkedHashSet<>();
+
+    void add(AbstractState pState) {
+      Comparable<?> pseudoKey = getPseudoPartitionKey(pState);
+      if (pseudoKey == null) {
+        unindexed.add(pState);
+      } else {
+        indexed
+            .computeIfAbsent(pseudoKey, k -> LinkedHashMultimap.create())
+            .put(getPseudoHashCode(pState), pState);
+      }
+    }
+
+    void remove(AbstractState pState) {
+      Comparable<?> pseudoKey = getPseudoPartitionKey(pState);
+      if (pseudoKey == null) {
+        unindexed.remove(pState);
+      } else {
+        SetMultimap<Object, AbstractState> states = indexed.get(pseudoKey);
+        if (states != null) {
+          states.remove(getPseudoHashCode(pState), pState);
+          if (states.isEmpty()) {
+            indexed.remove(pseudoKey);
+          }
+        }
+      }
+    }
+
+    boolean isEmpty() {
+      return indexed.isEmpty() && unindexed.isEmpty();
+    }
+
+    /**
+     * Returns a view of all states that may cover the given state, or null if the given state
+     * cannot be looked up in the index and all states of the partition need to be checked.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    @Nullable Collection<AbstractState> getCandidates(AbstractState pState) {
+      Comparable pseudoKey = getPseudoPartitionKey(pState);
+      if (pseudoKey == null) {
+        return null;
+      }
+
+      List<Collection<AbstractState>> candidates = new ArrayList<>();
+      candidates.add(unindexed);
+      for (Map.Entry<Comparable<?>, SetMultimap<Object, AbstractState>> entry :
+          indexed.entrySet()) {
+        Comparable<?> otherKey = entry.getKey();
+        if (pseudoKey.equals(otherKey)) {
+          candidates.add(entry.getValue().get(getPseudoHashCode(pState)));
+        } else if (pseudoKey.compareTo(otherKey) > 0) {
+          // all states with a smaller pseudo-key, we might be "lessOrEqual" than those.
+          candidates.add(entry.getValue().values());
+        }
+      }
+      return new ConcatenatedCollection(candidates);
+    }
+
+    private static @Nullable Comparable<?> getPseudoPartitionKey(AbstractState pState) {
+      if (pState instanceof PseudoPartitionable) {
+        return ((PseudoPartitionable) pState).getPseudoPartitionKey();
+      }
+      return null;
+    }
+
+    private static @Nullable Object getPseudoHashCode(AbstractState pState) {
+      return ((PseudoPartitionable) pState).getPseudoHashCode();
+    }
+  }
+
+  /**
+   * Unmodifiable view of the states of several disjoint collections, such that the candidates of a
+   * coverage check do not need to be copied.
+   */
+  private static class ConcatenatedCollection extends AbstractCollection<AbstractState> {
+
+    private final List<Collection<AbstractState>> parts;
+
+    ConcatenatedCollection(List<Collection<AbstractState>> pParts) {
+      parts = pParts;
+    }
+
+    @Override
+    public Iterator<AbstractState> iterator() {
+      return Iterables.unmodifiableIterable(Iterables.concat(parts)).iterator();
+    }
+
+    @Override
+    public int size() {
+      int size = 0;
+      for (Collection<AbstractState> part : parts) {
+        size += part.size();
+      }
+      return size;
+    }
+  }
 }
@@ -24,6 +24,7 @@
 package org.sosy_lab.cpachecker.core.reachedset;
 
 import com.google.common.collect.ImmutableMap;
+import java.util.Collection;
 import java.util.Set;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
@@ -79,6 +80,22 @@ public interface ReachedSet extends UnmodifiableReachedSet {
 
   AbstractState popFromWaitlist();
 
+  /**
+   * Returns a subset of {@link #getReached(AbstractState)} that contains at least all states that
+   * may cover the given state, i.e., all states for which the given state may be 'lessOrEqual'.
+   * This is intended to be passed to the stop operator. It must not be used for the merge
+   * operator, because states that cannot cover the given state might still be merged with it.
+   *
+   * <p>In contrast to {@link #getReached(AbstractState)}, the returned collection is not a view and
+   * is not required to preserve the order in which states were added.
+   *
+   * @param state An abstract state for which coverage should be checked.
+   * @return A subset of the states returned by {@link #getReached(AbstractState)}.
+   */
+  default Collection<AbstractState> getCoverageCandidates(AbstractState state) {
+    return getReached(state);
+  }
+
   default ImmutableMap<String, AbstractStatValue> getStatistics() {
     return ImmutableMap.of();
   }
@@ -200,6 +200,16 @@ public class ReachedSetFactory {
       description = "track more statistics about the reachedset")
   private boolean withStatistics = false;
 
+  @Option(
+      secure = true,
+      name = "reachedSet.useSubsumptionIndex",
+      description =
+          "index the states of each partition of a PARTITIONED or LOCATIONMAPPED reached set"
+              + " by the pseudo-partition key of the abstract states,"
+              + " such that the stop operator only checks states that may cover a new state"
+              + " (useful with stop_sep for analyses like ValueAnalysisCPA or IntervalAnalysisCPA)")
+  private boolean useSubsumptionIndex = false;
+
   private @Nullable BlockConfiguration blockConfig;
   private @Nullable UsageConfiguration usageConfig;
   private WeightedRandomWaitlist.@Nullable WaitlistOptions weightedWaitlistOptions;
@@ -284,13 +294,13 @@ public class ReachedSetFactory {
     ReachedSet reached;
     switch (reachedSet) {
     case PARTITIONED:
-        reached = new PartitionedReachedSet(waitlistFactory);
+        reached = new PartitionedReachedSet(waitlistFactory, useSubsumptionIndex);
         break;
     case PSEUDOPARTITIONED:
         reached = new PseudoPartitionedReachedSet(waitlistFactory);
         break;
     case LOCATIONMAPPED:
-        reached = new LocationMappedReachedSet(waitlistFactory);
+        reached = new LocationMappedReachedSet(waitlistFactory, useSubsumptionIndex);
         break;
     case USAGE:
         reached = new UsageReachedSet(waitlistFactory, usageConfig, logger);
@@ -0,0 +1,117 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.arg;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractDomain;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.BatchMergeOperator;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
+
+/**
+ * Variant of {@link ARGMergeJoin} for wrapped merge operators that can merge with several states
+ * at once. The wrapped states of all candidates are merged by the wrapped operator in one batch,
+ * afterwards the ARG is updated for the first candidate for which the merge changed something.
+ * This is the same result as with {@link ARGMergeJoin}, because the successor is not merged again
+ * after it was merged once. For the same reason, the wrapped operator only needs to compute the
+ * merges up to the first one that changed something (cf. {@link
+ * BatchMergeOperator#mergeUntilChanged}). If the wrapped operator does not merge in parallel, the candidates are
+ * merged one by one as in {@link ARGMergeJoin}, such that no merge is computed after the first one
+ * that changed something.
+ */
+class ARGBatchMergeJoin extends ARGMergeJoin implements BatchMergeOperator {
+
+  ARGBatchMergeJoin(
+      BatchMergeOperator pWrappedMerge,
+      AbstractDomain pWrappedDomain,
+      boolean pMergeOnWrappedSubsumption) {
+    super(pWrappedMerge, pWrappedDomain, pMergeOnWrappedSubsumption);
+  }
+
+  @Override
+  public List<AbstractState> mergeAll(
+      AbstractState pElement1, List<AbstractState> pElements2, Precision pPrecision)
+      throws CPAException, InterruptedException {
+
+    ARGState argElement1 = (ARGState) pElement1;
+    assert !argElement1.isCovered() : "Trying to merge covered element " + argElement1;
+
+    List<AbstractState> result = new ArrayList<>(pElements2);
+    if (argElement1.getMergedWith() != null) {
+      return result;
+    }
+
+    // elements that may not cover should also not be used for merge
+    List<Integer> candidates = new ArrayList<>(pElements2.size());
+    List<AbstractState> wrappedStates2 = new ArrayList<>(pElements2.size());
+    for (int i = 0; i < pElements2.size(); i++) {
+      ARGState argElement2 = (ARGState) pElements2.get(i);
+      if (argElement2.mayCover()) {
+        candidates.add(i);
+        wrappedStates2.add(argElement2.getWrappedState());
+      }
+    }
+    if (candidates.isEmpty()) {
+      return result;
+    }
+
+    if (!mergesInParallel()) {
+      for (int i : candidates) {
+        ARGState argElement2 = (ARGState) pElements2.get(i);
+        AbstractState merged = merge(argElement1, argElement2, pPrecision);
+        result.set(i, merged);
+        if (merged != argElement2) {
+          break;
+        }
+      }
+      return result;
+    }
+
+    List<AbstractState> wrappedResults =
+        ((BatchMergeOperator) wrappedMerge)
+            .mergeUntilChanged(argElement1.getWrappedState(), wrappedStates2, pPrecision);
+    checkArgument(wrappedResults.size() == wrappedStates2.size());
+
+    for (int k = 0; k < candidates.size(); k++) {
+      int i = candidates.get(k);
+      ARGState argElement2 = (ARGState) pElements2.get(i);
+      ARGState merged = mergeWithWrappedResult(argElement1, argElement2, wrappedResults.get(k));
+      result.set(i, merged);
+      if (merged != argElement2) {
+        // argElement1 is now merged and will not be merged with any other element
+        break;
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public boolean mergesInParallel() {
+    return ((BatchMergeOperator) wrappedMerge).mergesInParallel();
+  }
+}
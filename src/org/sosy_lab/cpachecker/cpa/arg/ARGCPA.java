@@ -49,6 +49,7 @@ import org.sosy_lab.cpachecker.core.defaults.MergeSepOperator;
 import org.sosy_lab.cpachecker.core.defaults.SimplePrecisionAdjustment;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractDomain;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.BatchMergeOperator;
 import org.sosy_lab.cpachecker.core.interfaces.CPAFactory;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysisWithBAM;
@@ -139,6 +140,11 @@ public class ARGCPA extends AbstractSingleWrapperCPA
       return MergeSepOperator.getInstance();
     } else if (inCPAEnabledAnalysis) {
       return new ARGMergeJoinCPAEnabledAnalysis(wrappedMergeOperator, deleteInCPAEnabledAnalysis);
+    } else if (wrappedMergeOperator instanceof BatchMergeOperator) {
+      return new ARGBatchMergeJoin(
+          (BatchMergeOperator) wrappedMergeOperator,
+          getWrappedCpa().getAbstractDomain(),
+          mergeOnWrappedSubsumption);
     } else {
       return new ARGMergeJoin(
           wrappedMergeOperator, getWrappedCpa().getAbstractDomain(), mergeOnWrappedSubsumption);
@@ -33,7 +33,7 @@ import org.sosy_lab.cpachecker.exceptions.CPAException;
 
 public class ARGMergeJoin implements MergeOperator {
 
-  private final MergeOperator wrappedMerge;
+  final MergeOperator wrappedMerge;
   private final AbstractDomain wrappedDomain;
   private final boolean mergeOnWrappedSubsumption;
 
@@ -70,6 +70,18 @@ public class ARGMergeJoin implements MergeOperator {
     AbstractState wrappedState1 = argElement1.getWrappedState();
     AbstractState wrappedState2 = argElement2.getWrappedState();
     AbstractState retElement = wrappedMerge.merge(wrappedState1, wrappedState2, pPrecision);
+    return mergeWithWrappedResult(argElement1, argElement2, retElement);
+  }
+
+  /**
+   * Replaces argElement2 in the ARG with a new state for the result of the wrapped merge, if the
+   * merge changed anything, and returns the new state (or argElement2 otherwise).
+   */
+  ARGState mergeWithWrappedResult(
+      ARGState argElement1, ARGState argElement2, AbstractState retElement)
+      throws CPAException, InterruptedException {
+    AbstractState wrappedState1 = argElement1.getWrappedState();
+    AbstractState wrappedState2 = argElement2.getWrappedState();
 
     boolean continueMerge = !retElement.equals(wrappedState2);
     if (mergeOnWrappedSubsumption) {
@@ -81,7 +93,7 @@ public class ARGMergeJoin implements MergeOperator {
                   && wrappedDomain.isLessOrEqual(wrappedState1, wrappedState2));
     }
     if (!continueMerge) {
-      return pElement2;
+      return argElement2;
     }
 
     ARGState mergedElement = new ARGState(retElement, null);
@@ -33,7 +33,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import com.google.common.graph.Traverser;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashSet;
@@ -58,12 +58,16 @@ public class ARGState extends AbstractSingleWrapperState
 
   private static final long serialVersionUID = 2608287648397165040L;
 
-  // We use a List here although we would like to have a Set
-  // because ArrayList is much more memory efficient than e.g. LinkedHashSet.
-  // Also these collections are small and so a slow contains() method won't hurt.
+  // We use plain arrays here although we would like to have a Set
+  // because arrays are much more memory efficient than e.g. LinkedHashSet or even ArrayList
+  // (there are millions of ARGStates, most of them with one parent and at most two children).
+  // Also these arrays are small and so a slow contains() method won't hurt.
+  // Each field is either null (no state), a single ARGState, or an ARGState[] with at least two
+  // elements, such that the common case of a single parent or child needs no extra object.
+  // The arrays are never modified, only replaced, so they can be exposed as views.
   // To enforce set semantics, do not add elements except through addparent()!
-  private final Collection<ARGState> children = new ArrayList<>(1);
-  private final Collection<ARGState> parents = new ArrayList<>(1);
+  private @Nullable Object children = null;
+  private @Nullable Object parents = null;
 
   private ARGState mCoveredBy = null;
   private Set<ARGState> mCoveredByThis = null; // lazy initialization because rarely needed
@@ -95,10 +99,14 @@ public class ARGState extends AbstractSingleWrapperState
 
   /**
    * Get the parent elements of this state.
+   *
+   * <p>The returned collection is a snapshot: it is not updated if parents are added or removed
+   * later, and it is safe to modify the parents of this state while iterating over it.
+   *
    * @return A unmodifiable collection of ARGStates without duplicates.
    */
   public Collection<ARGState> getParents() {
-    return Collections.unmodifiableCollection(parents);
+    return asList(parents);
   }
 
   public void addParent(ARGState pOtherParent) {
@@ -106,22 +114,26 @@ public class ARGState extends AbstractSingleWrapperState
     assert !destroyed : "Don't use destroyed ARGState " + this;
 
     // Manually enforce set semantics.
-    if (!parents.contains(pOtherParent)) {
-      assert !pOtherParent.children.contains(this);
-      parents.add(pOtherParent);
-      pOtherParent.children.add(this);
+    if (!contains(parents, pOtherParent)) {
+      assert !contains(pOtherParent.children, this);
+      parents = with(parents, pOtherParent);
+      pOtherParent.children = with(pOtherParent.children, this);
     } else {
-      assert pOtherParent.children.contains(this);
+      assert contains(pOtherParent.children, this);
     }
   }
 
   /**
    * Get the child elements of this state.
+   *
+   * <p>The returned collection is a snapshot: it is not updated if children are added or removed
+   * later, and it is safe to modify the children of this state while iterating over it.
+   *
    * @return An unmodifiable collection of ARGStates without duplicates.
    */
   public Collection<ARGState> getChildren() {
     assert !destroyed : "Don't use destroyed ARGState " + this;
-    return Collections.unmodifiableCollection(children);
+    return asList(children);
   }
 
   /**
@@ -300,10 +312,10 @@ public class ARGState extends AbstractSingleWrapperState
   }
 
   void deleteChild(ARGState child) {
-    assert (children.contains(child));
-    assert (child.parents.contains(this));
-    children.remove(child);
-    child.parents.remove(this);
+    assert contains(children, child);
+    assert contains(child.parents, this);
+    children = without(children, child);
+    child.parents = without(child.parents, this);
   }
 
   // counterexample
@@ -391,9 +403,9 @@ public class ARGState extends AbstractSingleWrapperState
     sb.append(stateId);
     if (!destroyed) {
       sb.append(", Parents: ");
-      sb.append(stateIdsOf(parents));
+      sb.append(stateIdsOf(getParents()));
       sb.append(", Children: ");
-      sb.append(stateIdsOf(children));
+      sb.append(stateIdsOf(getChildren()));
 
       if (mCoveredBy != null) {
         sb.append(", Covered by: ");
@@ -478,18 +490,18 @@ public class ARGState extends AbstractSingleWrapperState
     assert !destroyed : "Don't use destroyed ARGState " + this;
 
     // clear children
-    for (ARGState child : children) {
-      assert (child.parents.contains(this));
-      child.parents.remove(this);
+    for (ARGState child : asList(children)) {
+      assert contains(child.parents, this);
+      child.parents = without(child.parents, this);
     }
-    children.clear();
+    children = null;
 
     // clear parents
-    for (ARGState parent : parents) {
-      assert (parent.children.contains(this));
-      parent.children.remove(this);
+    for (ARGState parent : asList(parents)) {
+      assert contains(parent.children, this);
+      parent.children = without(parent.children, this);
     }
-    parents.clear();
+    parents = null;
   }
 
   /**
@@ -509,19 +521,19 @@ public class ARGState extends AbstractSingleWrapperState
     assert !this.equals(replacement) : "Don't replace ARGState " + this + " with itself";
 
     // copy children
-    for (ARGState child : children) {
-      assert child.parents.contains(this) : "Inconsistent ARG at " + this;
-      child.parents.remove(this);
+    for (ARGState child : asList(children)) {
+      assert contains(child.parents, this) : "Inconsistent ARG at " + this;
+      child.parents = without(child.parents, this);
       child.addParent(replacement);
     }
-    children.clear();
+    children = null;
 
-    for (ARGState parent : parents) {
-      assert parent.children.contains(this) : "Inconsistent ARG at " + this;
-      parent.children.remove(this);
+    for (ARGState parent : asList(parents)) {
+      assert contains(parent.children, this) : "Inconsistent ARG at " + this;
+      parent.children = without(parent.children, this);
       replacement.addParent(parent);
     }
-    parents.clear();
+    parents = null;
 
     if (mCoveredByThis != null) {
       if (replacement.mCoveredByThis == null) {
@@ -578,12 +590,90 @@ public class ARGState extends AbstractSingleWrapperState
     assert !destroyed : "Don't use destroyed ARGState " + this;
 
     // Manually enforce set semantics.
-    if (parents.contains(pOtherParent)) {
-      assert pOtherParent.children.contains(this);
-      parents.remove(pOtherParent);
-      pOtherParent.children.remove(this);
+    if (contains(parents, pOtherParent)) {
+      assert contains(pOtherParent.children, this);
+      parents = without(parents, pOtherParent);
+      pOtherParent.children = without(pOtherParent.children, this);
     } else {
-      assert !pOtherParent.children.contains(this) : "Problem detected!";
+      assert !contains(pOtherParent.children, this) : "Problem detected!";
+    }
+  }
+
+  /**
+   * Returns a rough estimate of the heap memory (in bytes) that is used by this state for storing
+   * the parent, child, and coverage relations, assuming a 64-bit JVM with compressed references.
+   * The memory of the wrapped state is not included.
+   */
+  int estimateRelationsMemory() {
+    // four reference fields plus the arrays for more than one parent or child
+    int size = 4 * 4 + estimateArrayMemory(children) + estimateArrayMemory(parents);
+    if (mCoveredByThis != null) {
+      // LinkedHashSet with its backing map and table, plus one entry per element
+      size += 96 + 40 * mCoveredByThis.size();
+    }
+    return size;
+  }
+
+  private static int estimateArrayMemory(@Nullable Object pStates) {
+    if (!(pStates instanceof ARGState[])) {
+      return 0;
+    }
+    // array header of 16 bytes, rounded up to a multiple of 8 bytes
+    return ((16 + 4 * ((ARGState[]) pStates).length + 7) / 8) * 8;
+  }
+
+  // helper methods for the fields of parents and children
+
+  private static List<ARGState> asList(@Nullable Object pStates) {
+    if (pStates == null) {
+      return ImmutableList.of();
+    } else if (pStates instanceof ARGState) {
+      return Collections.singletonList((ARGState) pStates);
+    } else {
+      return Collections.unmodifiableList(Arrays.asList((ARGState[]) pStates));
+    }
+  }
+
+  private static boolean contains(@Nullable Object pStates, ARGState pState) {
+    if (pStates == null || pStates instanceof ARGState) {
+      return pStates == pState;
+    }
+    for (ARGState state : (ARGState[]) pStates) {
+      if (state == pState) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static Object with(@Nullable Object pStates, ARGState pState) {
+    if (pStates == null) {
+      return pState;
+    } else if (pStates instanceof ARGState) {
+      return new ARGState[] {(ARGState) pStates, pState};
+    }
+    ARGState[] states = (ARGState[]) pStates;
+    ARGState[] result = Arrays.copyOf(states, states.length + 1);
+    result[states.length] = pState;
+    return result;
+  }
+
+  private static @Nullable Object without(@Nullable Object pStates, ARGState pState) {
+    if (pStates == null || pStates instanceof ARGState) {
+      return pStates == pState ? null : pStates;
+    }
+    ARGState[] states = (ARGState[]) pStates;
+    for (int i = 0; i < states.length; i++) {
+      if (states[i] == pState) {
+        if (states.length == 2) {
+          return states[1 - i];
+        }
+        ARGState[] result = new ARGState[states.length - 1];
+        System.arraycopy(states, 0, result, 0, i);
+        System.arraycopy(states, i + 1, result, i, states.length - i - 1);
+        return result;
+      }
     }
+    return pStates;
   }
 }
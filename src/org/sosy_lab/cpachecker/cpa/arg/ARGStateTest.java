@@ -0,0 +1,125 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.arg;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Collection;
+import org.junit.Test;
+
+public class ARGStateTest {
+
+  @Test
+  public void testSingleParentAndChild() {
+    ARGState root = new ARGState(null, null);
+    ARGState child = new ARGState(null, root);
+
+    assertThat(root.getParents()).isEmpty();
+    assertThat(root.getChildren()).containsExactly(child);
+    assertThat(child.getParents()).containsExactly(root);
+    assertThat(child.getChildren()).isEmpty();
+
+    // set semantics
+    child.addParent(root);
+    assertThat(root.getChildren()).containsExactly(child);
+    assertThat(child.getParents()).containsExactly(root);
+  }
+
+  @Test
+  public void testSeveralParentsAndChildren() {
+    ARGState root = new ARGState(null, null);
+    ARGState child1 = new ARGState(null, root);
+    ARGState child2 = new ARGState(null, root);
+    ARGState child3 = new ARGState(null, root);
+    ARGState merged = new ARGState(null, child1);
+    merged.addParent(child2);
+    merged.addParent(child3);
+
+    assertThat(root.getChildren()).containsExactly(child1, child2, child3).inOrder();
+    assertThat(merged.getParents()).containsExactly(child1, child2, child3).inOrder();
+
+    merged.removeParent(child2);
+    assertThat(merged.getParents()).containsExactly(child1, child3).inOrder();
+    assertThat(child2.getChildren()).isEmpty();
+
+    merged.removeParent(child1);
+    assertThat(merged.getParents()).containsExactly(child3);
+    assertThat(child1.getChildren()).isEmpty();
+
+    merged.removeParent(child3);
+    assertThat(merged.getParents()).isEmpty();
+    assertThat(child3.getChildren()).isEmpty();
+
+    // removing a state that is not a parent has no effect
+    child1.removeParent(child2);
+    assertThat(child1.getParents()).containsExactly(root);
+  }
+
+  @Test
+  public void testRelationsAreSnapshots() {
+    ARGState root = new ARGState(null, null);
+    ARGState child1 = new ARGState(null, root);
+    Collection<ARGState> children = root.getChildren();
+
+    ARGState child2 = new ARGState(null, root);
+    assertThat(children).containsExactly(child1);
+
+    for (ARGState child : root.getChildren()) {
+      child.removeFromARG();
+    }
+    assertThat(root.getChildren()).isEmpty();
+    assertThat(child2.isDestroyed()).isTrue();
+  }
+
+  @Test
+  public void testReplaceInARG() {
+    ARGState root1 = new ARGState(null, null);
+    ARGState root2 = new ARGState(null, null);
+    ARGState state = new ARGState(null, root1);
+    state.addParent(root2);
+    ARGState child = new ARGState(null, state);
+
+    ARGState replacement = new ARGState(null, null);
+    state.replaceInARGWith(replacement);
+
+    assertThat(replacement.getParents()).containsExactly(root1, root2);
+    assertThat(replacement.getChildren()).containsExactly(child);
+    assertThat(root1.getChildren()).containsExactly(replacement);
+    assertThat(root2.getChildren()).containsExactly(replacement);
+    assertThat(child.getParents()).containsExactly(replacement);
+    assertThat(state.isDestroyed()).isTrue();
+  }
+
+  @Test
+  public void testRelationsMemory() {
+    ARGState root = new ARGState(null, null);
+    ARGState child = new ARGState(null, root);
+    // a single parent or child needs no memory in addition to the fields
+    assertThat(root.estimateRelationsMemory()).isEqualTo(child.estimateRelationsMemory());
+
+    new ARGState(null, root);
+    assertThat(root.estimateRelationsMemory())
+        .isGreaterThan(child.estimateRelationsMemory());
+  }
+}
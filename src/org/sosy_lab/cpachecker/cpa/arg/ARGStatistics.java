@@ -86,6 +86,9 @@ import org.sosy_lab.cpachecker.util.AbstractStates;
 import org.sosy_lab.cpachecker.util.BiPredicates;
 import org.sosy_lab.cpachecker.util.Pair;
 import org.sosy_lab.cpachecker.util.cwriter.ARGToCTranslator;
+import org.sosy_lab.cpachecker.util.statistics.StatInt;
+import org.sosy_lab.cpachecker.util.statistics.StatKind;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
 
 @Options(prefix="cpa.arg")
 public class ARGStatistics implements Statistics {
@@ -93,6 +96,14 @@ public class ARGStatistics implements Statistics {
   @Option(secure=true, name="dumpAfterIteration", description="Dump all ARG related statistics files after each iteration of the CPA algorithm? (for debugging and demonstration)")
   private boolean dumpArgInEachCpaIteration = false;
 
+  @Option(
+      secure = true,
+      name = "relationStatistics",
+      description =
+          "print statistics about the parent and child relations of the ARG states,"
+              + " including an estimate of the heap they use")
+  private boolean printRelationStatistics = false;
+
   @Option(secure=true, name="export", description="export final ARG as .dot file")
   private boolean exportARG = true;
 
@@ -299,11 +310,36 @@ public class ARGStatistics implements Statistics {
 
   @Override
   public String getName() {
-    return null; // return null because we do not print statistics
+    // return null if we do not print statistics
+    return printRelationStatistics ? "ARGCPA" : null;
   }
 
   @Override
-  public void printStatistics(PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {}
+  public void printStatistics(PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
+    if (!printRelationStatistics) {
+      return;
+    }
+    StatInt numberOfParents = new StatInt(StatKind.AVG, "Number of parents per ARG state");
+    StatInt numberOfChildren = new StatInt(StatKind.AVG, "Number of children per ARG state");
+    // only an estimate, see ARGState#estimateRelationsMemory()
+    StatInt relationsMemory =
+        new StatInt(
+            StatKind.AVG, "Estimated heap for ARG relations per state (bytes, approximation)");
+
+    for (AbstractState state : pReached) {
+      if (state instanceof ARGState) {
+        ARGState argState = (ARGState) state;
+        numberOfParents.setNextValue(argState.getParents().size());
+        numberOfChildren.setNextValue(argState.getChildren().size());
+        relationsMemory.setNextValue(argState.estimateRelationsMemory());
+      }
+    }
+
+    StatisticsWriter.writingStatisticsTo(pOut)
+        .put(numberOfParents)
+        .put(numberOfChildren)
+        .put(relationsMemory);
+  }
 
   @Override
   public void writeOutputFiles(Result pResult, UnmodifiableReachedSet pReached) {
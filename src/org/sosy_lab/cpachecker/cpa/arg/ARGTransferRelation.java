@@ -78,6 +78,12 @@ public class ARGTransferRelation extends AbstractSingleWrapperTransferRelation {
     return wrappedSuccessors.build();
   }
 
+  @Override
+  public boolean isThreadSafe() {
+    // new ARGStates are only linked to the state whose successors are computed
+    return transferRelation.isThreadSafe();
+  }
+
   @Override
   public Collection<? extends AbstractState> getAbstractSuccessorsForEdge(
       AbstractState pState, Precision pPrecision, CFAEdge pCfaEdge) {
@@ -23,8 +23,10 @@
  */
 package org.sosy_lab.cpachecker.cpa.bam;
 
+import com.google.common.collect.Iterables;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -38,9 +40,10 @@ import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
 import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCache;
-import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCacheSynchronized;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCacheStriped;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMDataManager;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMDataManagerSynchronized;
+import org.sosy_lab.cpachecker.cpa.bam.cache.LockContentionStatistics;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 
 @Options(prefix = "cpa.bam")
@@ -56,8 +59,17 @@ public class BAMCPAWithBreakOnMissingBlock extends AbstractBAMCPA {
   )
   private boolean breakForMissingBlock = true;
 
-  private final BAMCache cache;
-  private final BAMDataManager data;
+  @Option(
+    secure = true,
+    description =
+        "number of independently locked parts of the BAM cache, "
+            + "such that threads analyzing different blocks rarely wait for each other"
+  )
+  @IntegerOption(min = 1)
+  private int cacheStripes = 16;
+
+  private final BAMCacheStriped cache;
+  private final BAMDataManagerSynchronized data;
 
   private BAMCPAWithBreakOnMissingBlock(
       ConfigurableProgramAnalysis pCpa,
@@ -71,7 +83,7 @@ public class BAMCPAWithBreakOnMissingBlock extends AbstractBAMCPA {
     super(pCpa, pConfig, pLogger, pShutdownNotifier, pSpecification, pCfa);
     pConfig.inject(this);
 
-    cache = new BAMCacheSynchronized(pConfig, getReducer(), pLogger);
+    cache = new BAMCacheStriped(pConfig, getReducer(), pLogger, cacheStripes);
     data = new BAMDataManagerSynchronized(cache, reachedsetFactory, pLogger);
   }
 
@@ -104,6 +116,11 @@ public class BAMCPAWithBreakOnMissingBlock extends AbstractBAMCPA {
     return data;
   }
 
+  /** Return the contention statistics of all locks in the cache and the data manager. */
+  public Iterable<LockContentionStatistics> getLockStatistics() {
+    return Iterables.concat(cache.getLockStatistics(), data.getLockStatistics());
+  }
+
   public boolean doesBreakForMissingBlock() {
     return breakForMissingBlock;
   }
@@ -0,0 +1,220 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.bam.cache;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.ImmutableList;
+import java.io.PrintStream;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.TimeSpan;
+import org.sosy_lab.cpachecker.cfa.blocks.Block;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.Reducer;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+import org.sosy_lab.cpachecker.util.statistics.StatTimer;
+
+/**
+ * A thread-safe cache that is split into several stripes with one lock each. The stripe of an
+ * entry is determined by the entry node of its block, such that threads that analyze different
+ * blocks rarely have to wait for each other. With a single stripe, every access is serialized.
+ */
+public class BAMCacheStriped implements BAMCache {
+
+  private final ImmutableList<BAMCacheImpl> stripes;
+  private final ImmutableList<Lock> locks;
+  private final ImmutableList<LockContentionStatistics> lockStats;
+  private final ImmutableList<StatTimer> timers;
+
+  /** Index of the stripe of the last call to {@link #get}. */
+  private volatile int lastAccessedStripe = 0;
+
+  public BAMCacheStriped(
+      Configuration pConfig, Reducer pReducer, LogManager pLogger, int pNumberOfStripes)
+      throws InvalidConfigurationException {
+    checkArgument(pNumberOfStripes > 0, "cache needs at least one stripe");
+    ImmutableList.Builder<BAMCacheImpl> stripesBuilder = ImmutableList.builder();
+    ImmutableList.Builder<Lock> locksBuilder = ImmutableList.builder();
+    ImmutableList.Builder<LockContentionStatistics> lockStatsBuilder = ImmutableList.builder();
+    ImmutableList.Builder<StatTimer> timersBuilder = ImmutableList.builder();
+    for (int i = 0; i < pNumberOfStripes; i++) {
+      stripesBuilder.add(new BAMCacheImpl(pConfig, pReducer, pLogger));
+      locksBuilder.add(new ReentrantLock());
+      lockStatsBuilder.add(new LockContentionStatistics("BAMCache stripe " + i));
+      timersBuilder.add(new StatTimer("Time for cache-access"));
+    }
+    stripes = stripesBuilder.build();
+    locks = locksBuilder.build();
+    lockStats = lockStatsBuilder.build();
+    timers = timersBuilder.build();
+  }
+
+  private int getStripe(Block pContext) {
+    // the call nodes are sorted, so the first one is a cheap and stable key for the block
+    int nodeNumber = pContext.getCallNodes().iterator().next().getNodeNumber();
+    return Math.floorMod(nodeNumber, stripes.size());
+  }
+
+  /** Run the given operation on a stripe while holding its lock. */
+  private <T> T withStripe(int pStripe, Supplier<T> pOperation) {
+    Lock lock = locks.get(pStripe);
+    lockStats.get(pStripe).lock(lock);
+    try {
+      StatTimer timer = timers.get(pStripe);
+      timer.start();
+      try {
+        return pOperation.get();
+      } finally {
+        timer.stop();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public BAMCacheEntry put(
+      AbstractState pStateKey, Precision pPrecisionKey, Block pContext, ReachedSet pItem) {
+    int stripe = getStripe(pContext);
+    return withStripe(
+        stripe, () -> stripes.get(stripe).put(pStateKey, pPrecisionKey, pContext, pItem));
+  }
+
+  @Override
+  public BAMCacheEntry get(AbstractState pStateKey, Precision pPrecisionKey, Block pContext) {
+    int stripe = getStripe(pContext);
+    lastAccessedStripe = stripe;
+    return withStripe(stripe, () -> stripes.get(stripe).get(pStateKey, pPrecisionKey, pContext));
+  }
+
+  @Override
+  @Deprecated
+  public ARGState getLastAnalyzedBlock() {
+    int stripe = lastAccessedStripe;
+    return withStripe(stripe, () -> stripes.get(stripe).getLastAnalyzedBlock());
+  }
+
+  @Override
+  public boolean containsPreciseKey(
+      AbstractState pStateKey, Precision pPrecisionKey, Block pContext) {
+    int stripe = getStripe(pContext);
+    return withStripe(
+        stripe, () -> stripes.get(stripe).containsPreciseKey(pStateKey, pPrecisionKey, pContext));
+  }
+
+  @Override
+  public Collection<ReachedSet> getAllCachedReachedStates() {
+    ImmutableList.Builder<ReachedSet> result = ImmutableList.builder();
+    for (int i = 0; i < stripes.size(); i++) {
+      int stripe = i;
+      result.addAll(
+          withStripe(
+              stripe, () -> ImmutableList.copyOf(stripes.get(stripe).getAllCachedReachedStates())));
+    }
+    return result.build();
+  }
+
+  @Override
+  public void clear() {
+    for (int i = 0; i < stripes.size(); i++) {
+      int stripe = i;
+      withStripe(
+          stripe,
+          () -> {
+            stripes.get(stripe).clear();
+            return null;
+          });
+    }
+  }
+
+  /** Return the contention statistics for the lock of each stripe. */
+  public ImmutableList<LockContentionStatistics> getLockStatistics() {
+    return lockStats;
+  }
+
+  @Override
+  public void printStatistics(PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
+    // lock all stripes (in a fixed order) to get a consistent view
+    locks.forEach(Lock::lock);
+    try {
+      BAMCacheImpl.printStatistics(pOut, stripes);
+      TimeSpan accessTime = TimeSpan.empty();
+      int accessCount = 0;
+      for (StatTimer timer : timers) {
+        accessTime = TimeSpan.sum(accessTime, timer.getConsumedTime());
+        accessCount += timer.getUpdateCount();
+      }
+      pOut.println(
+          "Time for cache-access:                               "
+              + accessTime.formatAs(TimeUnit.SECONDS)
+              + " (count="
+              + accessCount
+              + ")");
+      if (stripes.size() > 1) {
+        long contended = 0;
+        long acquisitions = 0;
+        TimeSpan waitTime = TimeSpan.empty();
+        for (LockContentionStatistics stats : lockStats) {
+          acquisitions += stats.getAcquisitions();
+          contended += stats.getContendedAcquisitions();
+          waitTime = TimeSpan.sum(waitTime, stats.getWaitTime());
+        }
+        pOut.println("Number of cache stripes:                             " + stripes.size());
+        pOut.println("  Number of contended lock acquisitions:             " + contended + " of " + acquisitions);
+        pOut.println("  Time waiting for locks:                            " + waitTime.formatAs(TimeUnit.SECONDS));
+      }
+    } finally {
+      locks.forEach(Lock::unlock);
+    }
+  }
+
+  @Override
+  public void writeOutputFiles(Result pResult, UnmodifiableReachedSet pReached) {
+    for (int i = 0; i < stripes.size(); i++) {
+      int stripe = i;
+      withStripe(
+          stripe,
+          () -> {
+            stripes.get(stripe).writeOutputFiles(pResult, pReached);
+            return null;
+          });
+    }
+  }
+
+  @Override
+  public String getName() {
+    return "BAMCache";
+  }
+}
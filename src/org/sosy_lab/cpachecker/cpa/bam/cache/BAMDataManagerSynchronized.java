@@ -23,8 +23,12 @@
  */
 package org.sosy_lab.cpachecker.cpa.bam.cache;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.cpachecker.cfa.blocks.Block;
@@ -35,10 +39,23 @@ import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCache.BAMCacheEntry;
 
+/**
+ * A thread-safe wrapper for a {@link BAMDataManager}. Queries only need a shared read lock and
+ * can be answered concurrently, only registering new data requires exclusive access. The
+ * underlying cache has to be thread-safe itself.
+ */
 public class BAMDataManagerSynchronized implements BAMDataManager {
 
   private final BAMDataManager manager;
 
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Lock readLock = lock.readLock();
+  private final Lock writeLock = lock.writeLock();
+  private final LockContentionStatistics readLockStats =
+      new LockContentionStatistics("BAMDataManager read");
+  private final LockContentionStatistics writeLockStats =
+      new LockContentionStatistics("BAMDataManager write");
+
   public BAMDataManagerSynchronized(
       BAMCache pCache, ReachedSetFactory pReachedsetFactory, LogManager pLogger) {
     manager = new BAMDataManagerImpl(pCache, pReachedsetFactory, pLogger);
@@ -47,24 +64,24 @@ public class BAMDataManagerSynchronized implements BAMDataManager {
   @Override
   public void replaceStateInCaches(
       AbstractState pOldState, AbstractState pNewState, boolean pOldStateMustExist) {
-    synchronized (this) {
+    writeLockStats.lock(writeLock);
+    try {
       manager.replaceStateInCaches(pOldState, pNewState, pOldStateMustExist);
+    } finally {
+      writeLock.unlock();
     }
   }
 
   @Override
   public BAMCacheEntry createAndRegisterNewReachedSet(
       AbstractState pInitialState, Precision pInitialPrecision, Block pContext) {
-    synchronized (this) {
-      return manager.createAndRegisterNewReachedSet(pInitialState, pInitialPrecision, pContext);
-    }
+    // no own data is accessed, the cache is thread-safe itself
+    return manager.createAndRegisterNewReachedSet(pInitialState, pInitialPrecision, pContext);
   }
 
   @Override
   public ReachedSetFactory getReachedSetFactory() {
-    synchronized (this) {
-      return manager.getReachedSetFactory();
-    }
+    return manager.getReachedSetFactory();
   }
 
   @Override
@@ -73,104 +90,146 @@ public class BAMDataManagerSynchronized implements BAMDataManager {
       Precision pExpandedPrecision,
       AbstractState pReducedState,
       Block pInnerBlock) {
-    synchronized (this) {
+    writeLockStats.lock(writeLock);
+    try {
       manager.registerExpandedState(pExpandedState, pExpandedPrecision, pReducedState, pInnerBlock);
+    } finally {
+      writeLock.unlock();
     }
   }
 
   @Override
   public boolean alreadyReturnedFromSameBlock(AbstractState pState, Block pBlock) {
-    synchronized (this) {
+    readLockStats.lock(readLock);
+    try {
       return manager.alreadyReturnedFromSameBlock(pState, pBlock);
+    } finally {
+      readLock.unlock();
     }
   }
 
   @Override
   public AbstractState getInnermostState(AbstractState pState) {
-    synchronized (this) {
+    readLockStats.lock(readLock);
+    try {
       return manager.getInnermostState(pState);
+    } finally {
+      readLock.unlock();
     }
   }
 
   @Override
   public List<AbstractState> getExpandedStatesList(AbstractState pState) {
-    synchronized (this) {
+    readLockStats.lock(readLock);
+    try {
       return manager.getExpandedStatesList(pState);
+    } finally {
+      readLock.unlock();
     }
   }
 
   @Override
   public void registerInitialState(
       AbstractState pState, AbstractState pExitState, ReachedSet pReachedSet) {
-    synchronized (this) {
+    writeLockStats.lock(writeLock);
+    try {
       manager.registerInitialState(pState, pExitState, pReachedSet);
+    } finally {
+      writeLock.unlock();
     }
   }
 
   @Override
   public ReachedSet getReachedSetForInitialState(AbstractState pState, AbstractState pExitState) {
-    synchronized (this) {
+    readLockStats.lock(readLock);
+    try {
       return manager.getReachedSetForInitialState(pState, pExitState);
+    } finally {
+      readLock.unlock();
     }
   }
 
   @Override
   public boolean hasInitialState(AbstractState pState) {
-    synchronized (this) {
+    readLockStats.lock(readLock);
+    try {
       return manager.hasInitialState(pState);
+    } finally {
+      readLock.unlock();
     }
   }
 
   @Override
   public ImmutableSet<AbstractState> getNonReducedInitialStates(AbstractState pReducedState) {
-    synchronized (this) {
+    readLockStats.lock(readLock);
+    try {
       return manager.getNonReducedInitialStates(pReducedState);
+    } finally {
+      readLock.unlock();
     }
   }
 
   @Override
   public AbstractState getReducedStateForExpandedState(AbstractState pState) {
-    synchronized (this) {
+    readLockStats.lock(readLock);
+    try {
       return manager.getReducedStateForExpandedState(pState);
+    } finally {
+      readLock.unlock();
     }
   }
 
   @Override
   public Block getInnerBlockForExpandedState(AbstractState pState) {
-    synchronized (this) {
+    readLockStats.lock(readLock);
+    try {
       return manager.getInnerBlockForExpandedState(pState);
+    } finally {
+      readLock.unlock();
     }
   }
 
   @Override
   public boolean hasExpandedState(AbstractState pState) {
-    synchronized (this) {
+    readLockStats.lock(readLock);
+    try {
       return manager.hasExpandedState(pState);
+    } finally {
+      readLock.unlock();
     }
   }
 
   @Override
   public BAMCache getCache() {
-    synchronized (this) {
-      return manager.getCache();
-    }
+    return manager.getCache();
   }
 
   @Override
   @Nullable
   public Precision getExpandedPrecisionForState(AbstractState pState) {
-    synchronized (this) {
+    readLockStats.lock(readLock);
+    try {
       return manager.getExpandedPrecisionForState(pState);
+    } finally {
+      readLock.unlock();
     }
   }
 
   @Override
   public void clear() {
-    synchronized (this) {
+    writeLockStats.lock(writeLock);
+    try {
       manager.clear();
+    } finally {
+      writeLock.unlock();
     }
   }
 
+  /** Return the contention statistics for the read and write lock. */
+  public ImmutableList<LockContentionStatistics> getLockStatistics() {
+    return ImmutableList.of(readLockStats, writeLockStats);
+  }
+
   @Override
   public boolean addUncachedBlockEntry(CFANode pNode) {
     //Not sure how the option works with ParallelBAM
@@ -185,8 +244,11 @@ public class BAMDataManagerSynchronized implements BAMDataManager {
 
   @Override
   public String toString() {
-    synchronized (this) {
+    readLockStats.lock(readLock);
+    try {
       return manager.toString();
+    } finally {
+      readLock.unlock();
     }
   }
 }
@@ -0,0 +1,101 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.bam.cache;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import org.sosy_lab.common.time.TimeSpan;
+
+/**
+ * Counters for the acquisitions of a lock, used to find out how often and how long threads had
+ * to wait for each other. The counters are updated without holding the lock.
+ */
+public final class LockContentionStatistics {
+
+  private static final String CSV_HEADER = "lock, acquisitions, contended acquisitions, wait time (ms)";
+
+  private final String name;
+  private final LongAdder acquisitions = new LongAdder();
+  private final LongAdder contendedAcquisitions = new LongAdder();
+  private final LongAdder waitTime = new LongAdder(); // nanoseconds
+
+  LockContentionStatistics(String pName) {
+    name = pName;
+  }
+
+  /** Acquire the given lock and record whether the current thread had to wait for it. */
+  void lock(Lock pLock) {
+    acquisitions.increment();
+    if (!pLock.tryLock()) {
+      long start = System.nanoTime();
+      pLock.lock();
+      contendedAcquisitions.increment();
+      waitTime.add(System.nanoTime() - start);
+    }
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public long getAcquisitions() {
+    return acquisitions.sum();
+  }
+
+  public long getContendedAcquisitions() {
+    return contendedAcquisitions.sum();
+  }
+
+  public TimeSpan getWaitTime() {
+    return TimeSpan.ofNanos(waitTime.sum());
+  }
+
+  /** Write the given statistics as CSV, one line per lock. */
+  public static void writeCSV(Iterable<LockContentionStatistics> pStats, Appendable pOut)
+      throws IOException {
+    pOut.append(CSV_HEADER).append('\n');
+    for (LockContentionStatistics stats : pStats) {
+      pOut.append(stats.name)
+          .append(", ")
+          .append(Long.toString(stats.getAcquisitions()))
+          .append(", ")
+          .append(Long.toString(stats.getContendedAcquisitions()))
+          .append(", ")
+          .append(Long.toString(stats.getWaitTime().asMillis()))
+          .append('\n');
+    }
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "%s: %d acquisitions, %d contended, waited %s",
+        name,
+        getAcquisitions(),
+        getContendedAcquisitions(),
+        getWaitTime().formatAs(TimeUnit.SECONDS));
+  }
+}
@@ -24,8 +24,10 @@
 package org.sosy_lab.cpachecker.cpa.bdd;
 
 import java.util.Collection;
+import java.util.logging.Level;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -55,7 +57,8 @@ import org.sosy_lab.cpachecker.util.predicates.regions.NamedRegionManager;
 import org.sosy_lab.cpachecker.util.predicates.regions.RegionManager;
 
 @Options(prefix="cpa.bdd")
-public class BDDCPA implements ConfigurableProgramAnalysisWithBAM, StatisticsProvider {
+public class BDDCPA
+    implements ConfigurableProgramAnalysisWithBAM, StatisticsProvider, AutoCloseable {
 
   public static CPAFactory factory() {
     return AutomaticCPAFactory.forType(BDDCPA.class);
@@ -93,6 +96,15 @@ public class BDDCPA implements ConfigurableProgramAnalysisWithBAM, StatisticsPro
     description = "reduce and expand BDD states for BAM, otherwise use plain identity")
   private boolean useBlockAbstraction = false;
 
+  @Option(
+      secure = true,
+      description =
+          "Number of threads for computing independent bits of bitvector operations in parallel. "
+              + "This requires a thread-safe BDD package (PJBDD), "
+              + "otherwise all operations are computed sequentially.")
+  @IntegerOption(min = 1)
+  private int bitvectorThreads = 1;
+
   private BDDCPA(CFA pCfa, Configuration pConfig, LogManager pLogger, ShutdownNotifier pShutdownNotifier)
       throws InvalidConfigurationException {
     pConfig.inject(this);
@@ -107,7 +119,12 @@ public class BDDCPA implements ConfigurableProgramAnalysisWithBAM, StatisticsPro
     precision         = VariableTrackingPrecision.createStaticPrecision(config, cfa.getVarClassification(), getClass());
 
     manager           = new NamedRegionManager(rmgr);
-    bvmgr             = new BitvectorManager(rmgr);
+    bvmgr             = new BitvectorManager(rmgr, bitvectorThreads);
+    if (bitvectorThreads > 1 && !bvmgr.isParallel()) {
+      logger.log(
+          Level.WARNING,
+          "The BDD package is not thread-safe, bitvector operations are computed sequentially.");
+    }
     predmgr           = new PredicateManager(config, manager, cfa);
     bvComputer =
         new BitvectorComputer(
@@ -192,6 +209,11 @@ public class BDDCPA implements ConfigurableProgramAnalysisWithBAM, StatisticsPro
     return logger;
   }
 
+  @Override
+  public void close() {
+    bvmgr.close();
+  }
+
   public CFA getCFA() {
     return cfa;
   }
@@ -23,10 +23,17 @@
  */
 package org.sosy_lab.cpachecker.cpa.bdd;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 import com.google.common.math.IntMath;
 import java.math.BigInteger;
 import java.math.RoundingMode;
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.cpachecker.util.Pair;
 import org.sosy_lab.cpachecker.util.predicates.regions.Region;
 import org.sosy_lab.cpachecker.util.predicates.regions.RegionManager;
@@ -36,13 +43,61 @@ import org.sosy_lab.cpachecker.util.predicates.regions.RegionManager;
  * bits (predicates, regions) from the given {@link RegionManager}.
  *
  * <p>This class is thread-safe, iff the delegated {@link RegionManager} is thread-safe.
+ *
+ * <p>If the delegated {@link RegionManager} is thread-safe and more than one thread is requested,
+ * the independent bits of an operation (e.g., the bitwise operations, the slices of a shift, or
+ * the partial products of a multiplication) are computed in parallel. Carry chains are still
+ * computed sequentially.
  */
-public class BitvectorManager {
+public class BitvectorManager implements AutoCloseable {
+
+  /** Operations on fewer bits are not worth the overhead of parallelization. */
+  private static final int MIN_PARALLEL_BITS = 8;
 
   private final RegionManager rmgr;
+  private final @Nullable ForkJoinPool pool;
 
   public BitvectorManager(RegionManager pRmgr) {
-    this.rmgr = pRmgr;
+    this(pRmgr, 1);
+  }
+
+  /**
+   * Create a BitvectorManager that uses up to the given number of threads for independent bits of
+   * an operation. Only one thread is used if the given {@link RegionManager} is not thread-safe.
+   */
+  public BitvectorManager(RegionManager pRmgr, int pThreads) {
+    checkArgument(pThreads >= 1, "number of threads must be positive");
+    rmgr = pRmgr;
+    pool = (pThreads > 1 && pRmgr.isThreadSafe()) ? new ForkJoinPool(pThreads) : null;
+  }
+
+  /** Returns whether operations of this manager are computed with several threads. */
+  public boolean isParallel() {
+    return pool != null;
+  }
+
+  @Override
+  public void close() {
+    if (pool != null) {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Apply the operation to all indices from 0 to size-1. The operations must be independent of each
+   * other, because they are executed in parallel if possible.
+   */
+  private void forEachBit(int size, IntConsumer op) {
+    if (pool == null || size < MIN_PARALLEL_BITS) {
+      for (int i = 0; i < size; i++) {
+        op.accept(i);
+      }
+    } else if (ForkJoinTask.getPool() == pool) {
+      // nested call from one of our own workers, the stream uses the current pool
+      IntStream.range(0, size).parallel().forEach(op);
+    } else {
+      pool.invoke(ForkJoinTask.adapt(() -> IntStream.range(0, size).parallel().forEach(op)));
+    }
   }
 
   private int getBitSize(Region[] r1, Region[] r2) {
@@ -94,9 +149,7 @@ public class BitvectorManager {
     int bitsize = getBitSize(r1, r2);
 
     Region[] newRegions = new Region[bitsize];
-    for (int i = 0; i < bitsize; i++) {
-      newRegions[i] = rmgr.makeAnd(r1[i], r2[i]);
-    }
+    forEachBit(bitsize, i -> newRegions[i] = rmgr.makeAnd(r1[i], r2[i]));
     return newRegions;
   }
 
@@ -119,9 +172,7 @@ public class BitvectorManager {
     int bitsize = getBitSize(r1, r2);
 
     Region[] newRegions = new Region[bitsize];
-    for (int i = 0; i < bitsize; i++) {
-      newRegions[i] = rmgr.makeOr(r1[i], r2[i]);
-    }
+    forEachBit(bitsize, i -> newRegions[i] = rmgr.makeOr(r1[i], r2[i]));
     return newRegions;
   }
 
@@ -144,9 +195,7 @@ public class BitvectorManager {
     int bitsize = getBitSize(r1, r2);
 
     Region[] newRegions = new Region[bitsize];
-    for (int i = 0; i < bitsize; i++) {
-      newRegions[i] = rmgr.makeEqual(r1[i], r2[i]);
-    }
+    forEachBit(bitsize, i -> newRegions[i] = rmgr.makeEqual(r1[i], r2[i]));
     return newRegions;
   }
 
@@ -154,10 +203,10 @@ public class BitvectorManager {
   public Region makeLogicalEqual(Region[] r1, Region[] r2) {
     int bitsize = getBitSize(r1, r2);
 
+    Region[] equalPos = makeBinaryEqual(r1, r2);
     Region equality = rmgr.makeTrue();
     for (int i = 0; i < bitsize; i++) {
-      Region equalPos = rmgr.makeEqual(r1[i], r2[i]);
-      equality = rmgr.makeAnd(equality, equalPos);
+      equality = rmgr.makeAnd(equality, equalPos[i]);
     }
     return equality;
 
@@ -168,9 +217,7 @@ public class BitvectorManager {
     int bitsize = getBitSize(r1, r2);
 
     Region[] newRegions = new Region[bitsize];
-    for (int i = 0; i < bitsize; i++) {
-      newRegions[i] = rmgr.makeUnequal(r1[i], r2[i]);
-    }
+    forEachBit(bitsize, i -> newRegions[i] = rmgr.makeUnequal(r1[i], r2[i]));
     return newRegions;
   }
 
@@ -195,19 +242,19 @@ public class BitvectorManager {
   private Region[] fullAdder(Region[] r1, Region[] r2, Region carrier) {
     int bitsize = getBitSize(r1, r2);
 
+    // first half-adder, independent of the carrier
+    Region[] xor = makeXor(r1, r2);
+    Region[] and = makeBinaryAnd(r1, r2);
+
     Region[] newRegions = new Region[bitsize];
     for (int i = 0; i < bitsize; i++) {
 
-      // first half-adder
-      Region xor = rmgr.makeUnequal(r1[i], r2[i]);
-      Region and = rmgr.makeAnd(r1[i], r2[i]);
-
       // second half-adder
-      newRegions[i] = rmgr.makeUnequal(carrier, xor);
-      Region tmp = rmgr.makeAnd(carrier, xor);
+      newRegions[i] = rmgr.makeUnequal(carrier, xor[i]);
+      Region tmp = rmgr.makeAnd(carrier, xor[i]);
 
       // carrier for next position
-      carrier = rmgr.makeOr(tmp, and);
+      carrier = rmgr.makeOr(tmp, and[i]);
     }
     return newRegions;
   }
@@ -225,12 +272,19 @@ public class BitvectorManager {
   /** returns A<=B if equal is true else A<B */
   private Region makeLess(final Region[] A, final Region[] B, final boolean equal, final boolean signed) {
     final int bitsize = getBitSize(A, B);
+    final int unsignedBits = signed ? bitsize - 1 : bitsize;
     Region less = equal ? rmgr.makeTrue() : rmgr.makeFalse();
 
-    for (int i = 0; i < (signed ? bitsize - 1 : bitsize); i++) {
-      final Region lessFirst = rmgr.makeAnd(rmgr.makeNot(A[i]), B[i]);
-      final Region equalFirst = rmgr.makeEqual(A[i], B[i]);
-      less = rmgr.makeOr(lessFirst, rmgr.makeAnd(equalFirst, less));
+    final Region[] lessBits = new Region[unsignedBits];
+    final Region[] equalBits = new Region[unsignedBits];
+    forEachBit(
+        unsignedBits,
+        i -> {
+          lessBits[i] = rmgr.makeAnd(rmgr.makeNot(A[i]), B[i]);
+          equalBits[i] = rmgr.makeEqual(A[i], B[i]);
+        });
+    for (int i = 0; i < unsignedBits; i++) {
+      less = rmgr.makeOr(lessBits[i], rmgr.makeAnd(equalBits[i], less));
     }
 
     if (signed) { // if signed, invert first bit, because here 1 is less than 0.
@@ -253,18 +307,20 @@ public class BitvectorManager {
 
     Region[] result = r1;
     for (int pos = 0; pos < shiftsize; pos++) {
-      int shift = 1 << pos;
-      Region bit = r2[pos];
-      Region[] tmp = new Region[bitsize];
-
-      // fill lower bits
-      for (int i = 0; i < shift; i++) {
-        tmp[i] = rmgr.makeIte(bit, rmgr.makeFalse(), result[i]);
-      }
-      // fill higher bits
-      for (int i = shift; i < bitsize; i++) {
-        tmp[i] = rmgr.makeIte(bit, result[i - shift], result[i]);
-      }
+      final int shift = 1 << pos;
+      final Region bit = r2[pos];
+      final Region[] last = result;
+      final Region[] tmp = new Region[bitsize];
+
+      forEachBit(
+          bitsize,
+          i ->
+              tmp[i] =
+                  i < shift
+                      // fill lower bits
+                      ? rmgr.makeIte(bit, rmgr.makeFalse(), last[i])
+                      // fill higher bits
+                      : rmgr.makeIte(bit, last[i - shift], last[i]));
 
       result = tmp;
     }
@@ -282,18 +338,20 @@ public class BitvectorManager {
 
     Region[] result = r1;
     for (int pos = 0; pos < shiftsize; pos++) {
-      int shift = 1 << pos;
-      Region bit = r2[pos];
-      Region[] tmp = new Region[bitsize];
-
-      // fill higher bits
-      for (int i = bitsize - 1; i >= bitsize - shift; i--) {
-        tmp[i] = rmgr.makeIte(bit, signed ? result[bitsize - 1] : rmgr.makeFalse(), result[i]);
-      }
-      // fill lower bits
-      for (int i = bitsize - shift - 1; i >= 0; i--) {
-        tmp[i] = rmgr.makeIte(bit, result[i + shift], result[i]);
-      }
+      final int shift = 1 << pos;
+      final Region bit = r2[pos];
+      final Region[] last = result;
+      final Region[] tmp = new Region[bitsize];
+
+      forEachBit(
+          bitsize,
+          i ->
+              tmp[i] =
+                  i >= bitsize - shift
+                      // fill higher bits
+                      ? rmgr.makeIte(bit, signed ? last[bitsize - 1] : rmgr.makeFalse(), last[i])
+                      // fill lower bits
+                      : rmgr.makeIte(bit, last[i + shift], last[i]));
 
       result = tmp;
     }
@@ -327,25 +385,51 @@ public class BitvectorManager {
   public Region[] makeMult(final Region[] r1, final Region[] r2) {
     final int bitsize = getBitSize(r1, r2);
 
+    if (pool != null && bitsize >= MIN_PARALLEL_BITS) {
+      // the partial products are independent, we sum them up as a balanced tree
+      final Region[][] lines = new Region[bitsize][];
+      forEachBit(bitsize, row -> lines[row] = makeMultLine(r1, r2, row));
+      return pool.invoke(ForkJoinTask.adapt(() -> sumLines(lines, 0, bitsize)));
+    }
+
     Region[] result = new Region[bitsize];
     Arrays.fill(result, rmgr.makeFalse());
 
     for (int row = 0; row < bitsize; row++) {
+      result = makeAdd(result, makeMultLine(r1, r2, row));
+    }
 
-      Region[] line = new Region[bitsize];
-      // left lower triangle
-      for (int i = 0; i < row; i++) {
-        line[i] = rmgr.makeFalse();
-      }
-      // multiplication of bits
-      for (int i = row; i < bitsize; i++) {
-        line[i] = rmgr.makeAnd(r1[row], r2[i - row]);
-      }
+    return result;
+  }
 
-      result = makeAdd(result, line);
+  /** returns the partial product of the multiplication for the given row. */
+  private Region[] makeMultLine(final Region[] r1, final Region[] r2, final int row) {
+    final int bitsize = r1.length;
+    Region[] line = new Region[bitsize];
+    // left lower triangle
+    for (int i = 0; i < row; i++) {
+      line[i] = rmgr.makeFalse();
     }
+    // multiplication of bits
+    for (int i = row; i < bitsize; i++) {
+      line[i] = rmgr.makeAnd(r1[row], r2[i - row]);
+    }
+    return line;
+  }
 
-    return result;
+  /**
+   * returns the sum of lines[from] to lines[to-1], both halves are computed in parallel. Must be
+   * called from a thread of the pool.
+   */
+  private Region[] sumLines(final Region[][] lines, final int from, final int to) {
+    if (to - from == 1) {
+      return lines[from];
+    }
+    final int middle = (from + to) >>> 1;
+    ForkJoinTask<Region[]> lower = ForkJoinTask.adapt(() -> sumLines(lines, from, middle));
+    ForkJoinTask<Region[]> upper = ForkJoinTask.adapt(() -> sumLines(lines, middle, to));
+    ForkJoinTask.invokeAll(lower, upper);
+    return makeAdd(lower.join(), upper.join());
   }
 
   /**
@@ -401,9 +485,7 @@ public class BitvectorManager {
     final Region[] zero = makeNumber(0, bitsize);
     Region[] neg = makeSub(zero, r);
     Region[] result = new Region[bitsize];
-    for (int i = 0; i < bitsize; i++) {
-      result[i] = rmgr.makeIte(condition, neg[i], r[i]);
-    }
+    forEachBit(bitsize, i -> result[i] = rmgr.makeIte(condition, neg[i], r[i]));
     return result;
   }
 
@@ -424,13 +506,11 @@ public class BitvectorManager {
       }
 
       // then calculate new rest
-      Region less = makeLessOrEqual(r2, shiftedRest, false);
-      Region[] sub = makeSub(shiftedRest, r2);
+      final Region less = makeLessOrEqual(r2, shiftedRest, false);
+      final Region[] sub = makeSub(shiftedRest, r2);
 
-      Region[] tmp = new Region[bitsize];
-      for (int i = 0; i < bitsize; i++) {
-        tmp[i] = rmgr.makeIte(less, sub[i], shiftedRest[i]);
-      }
+      final Region[] tmp = new Region[bitsize];
+      forEachBit(bitsize, i -> tmp[i] = rmgr.makeIte(less, sub[i], shiftedRest[i]));
       resultDiv[pos] = less;
       rest = tmp;
     }
@@ -30,6 +30,7 @@ import static com.google.common.truth.TruthJUnit.assume;
 import com.google.common.collect.ImmutableList;
 import java.math.BigInteger;
 import java.util.Collection;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -65,24 +66,38 @@ public class BitvectorManagerTest {
   private ImmutableList<Region[]> numbers;
   private ImmutableList<Region[]> numbersNotZero;
 
-  private int bitsize;
-
-  @Parameters
-  public static Collection<Integer> bitsize() {
-    return ImmutableList.of(4, 5, 6, 8, 10, 12, 16, 32);
+  private final int bitsize;
+  private final String bddPackage;
+  private final int threads;
+
+  @Parameters(name = "{0} bits, {1} with {2} threads")
+  public static Collection<Object[]> parameters() {
+    ImmutableList.Builder<Object[]> parameters = ImmutableList.builder();
+    for (int bitsize : ImmutableList.of(4, 5, 6, 8, 10, 12, 16, 32)) {
+      parameters.add(new Object[] {bitsize, "JAVA", 1});
+      // PJBDD is thread-safe, thus the independent bits are computed in parallel
+      parameters.add(new Object[] {bitsize, "PJBDD", 4});
+    }
+    return parameters.build();
   }
 
-  public BitvectorManagerTest(int pBitsize) {
+  public BitvectorManagerTest(int pBitsize, String pBddPackage, int pThreads) {
     bitsize = pBitsize;
+    bddPackage = pBddPackage;
+    threads = pThreads;
   }
 
   @Before
   public void init() throws InvalidConfigurationException {
-    Configuration config = Configuration.defaultConfiguration();
+    Configuration config =
+        Configuration.builder()
+            .setOption("bdd.package", bddPackage)
+            .setOption("bdd.pjbdd.threads", Integer.toString(threads))
+            .build();
     logger = LogManager.createTestLogManager();
 
     rmgr = new BDDManagerFactory(config, logger).createRegionManager();
-    bvmgr = new BitvectorManager(rmgr);
+    bvmgr = new BitvectorManager(rmgr, threads);
 
     zero = bvmgr.makeNumber(BigInteger.ZERO, bitsize);
     one = bvmgr.makeNumber(BigInteger.ONE, bitsize);
@@ -101,6 +116,11 @@ public class BitvectorManagerTest {
     numbersNotZero = ImmutableList.of(one, two, n5, n7, n15, neg1, neg3, neg5);
   }
 
+  @After
+  public void close() {
+    bvmgr.close();
+  }
+
   private void assertIsTrue(Region r) {
     assertThat(r.isTrue()).isTrue();
   }
@@ -0,0 +1,201 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.composite;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.FluentIterable.from;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.BatchMergeOperator;
+import org.sosy_lab.cpachecker.core.interfaces.MergeOperator;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
+
+/**
+ * Variant of {@link CompositeMergeAgreeOperator} that merges with several reached states at once.
+ * For each component, the merges with all reached states that are still candidates are computed
+ * in one batch if the component's merge operator is a {@link BatchMergeOperator}, and one by one
+ * otherwise. The result is the same as with {@link CompositeMergeAgreeOperator} as long as the
+ * component merge operators do not depend on the order in which they are called.
+ *
+ * <p>For {@link #mergeUntilChanged}, the components are also asked only for the merges up to their
+ * first change. A change of one component does not need to be a change of the composite state
+ * (another component may reject it), so the batch is continued after the last reached state for
+ * which all component results are known until the composite state changes.
+ */
+class CompositeBatchMergeAgreeOperator extends CompositeMergeAgreeOperator
+    implements BatchMergeOperator {
+
+  CompositeBatchMergeAgreeOperator(
+      ImmutableList<MergeOperator> pMergeOperators, ImmutableList<StopOperator> pStopOperators) {
+    super(pMergeOperators, pStopOperators);
+  }
+
+  @Override
+  public List<AbstractState> mergeAll(
+      AbstractState pSuccessorState, List<AbstractState> pReachedStates, Precision pPrecision)
+      throws CPAException, InterruptedException {
+    List<AbstractState> result = new ArrayList<>(pReachedStates);
+    mergeBatch(pSuccessorState, pReachedStates, pPrecision, false, result);
+    return result;
+  }
+
+  @Override
+  public List<AbstractState> mergeUntilChanged(
+      AbstractState pSuccessorState, List<AbstractState> pReachedStates, Precision pPrecision)
+      throws CPAException, InterruptedException {
+    List<AbstractState> result = new ArrayList<>(pReachedStates);
+    int start = 0;
+    while (start < pReachedStates.size()) {
+      List<AbstractState> reachedStates = pReachedStates.subList(start, pReachedStates.size());
+      List<AbstractState> mergedStates = new ArrayList<>(reachedStates);
+      int known = mergeBatch(pSuccessorState, reachedStates, pPrecision, true, mergedStates);
+      assert known > 0;
+      for (int i = 0; i < known; i++) {
+        result.set(start + i, mergedStates.get(i));
+        if (!mergedStates.get(i).equals(reachedStates.get(i))) {
+          return result;
+        }
+      }
+      start += known;
+    }
+    return result;
+  }
+
+  /**
+   * Merge the successor with the given reached states and store the results in pResult, which
+   * needs to contain the reached states initially. If pUntilChanged is true, the component merge
+   * operators compute only the merges up to their first change.
+   *
+   * @return The number of leading elements of pResult that are the actual merge results (all
+   *     elements if pUntilChanged is false).
+   */
+  private int mergeBatch(
+      AbstractState pSuccessorState,
+      List<AbstractState> pReachedStates,
+      Precision pPrecision,
+      boolean pUntilChanged,
+      List<AbstractState> pResult)
+      throws CPAException, InterruptedException {
+
+    CompositeState compSuccessorState = (CompositeState) pSuccessorState;
+    CompositePrecision compPrecision = (CompositePrecision) pPrecision;
+    int known = pReachedStates.size();
+
+    if (from(compSuccessorState.getWrappedStates()).anyMatch(NON_MERGEABLE_STATE)) {
+      // one CPA asks us to not merge at all
+      return known;
+    }
+
+    // indices of the reached states that are still candidates for a merge
+    List<Integer> candidates = new ArrayList<>(pReachedStates.size());
+    for (int i = 0; i < pReachedStates.size(); i++) {
+      CompositeState compReachedState = (CompositeState) pReachedStates.get(i);
+      assert compSuccessorState.getNumberOfStates() == compReachedState.getNumberOfStates();
+      if (!from(compReachedState.getWrappedStates()).anyMatch(NON_MERGEABLE_STATE)) {
+        candidates.add(i);
+      }
+    }
+
+    List<List<AbstractState>> mergedStates = new ArrayList<>(pReachedStates.size());
+    for (int i = 0; i < pReachedStates.size(); i++) {
+      mergedStates.add(new ArrayList<>(mergeOperators.size()));
+    }
+
+    for (int idx = 0; idx < mergeOperators.size() && !candidates.isEmpty(); idx++) {
+      MergeOperator mergeOp = mergeOperators.get(idx);
+      StopOperator stopOp = stopOperators.get(idx);
+      AbstractState absSuccessorState = compSuccessorState.get(idx);
+      Precision prec = compPrecision.get(idx);
+
+      List<AbstractState> absReachedStates = new ArrayList<>(candidates.size());
+      for (int i : candidates) {
+        absReachedStates.add(((CompositeState) pReachedStates.get(i)).get(idx));
+      }
+
+      List<AbstractState> absMergedStates;
+      if (mergeOp instanceof BatchMergeOperator) {
+        BatchMergeOperator batchMergeOp = (BatchMergeOperator) mergeOp;
+        absMergedStates =
+            pUntilChanged
+                ? batchMergeOp.mergeUntilChanged(absSuccessorState, absReachedStates, prec)
+                : batchMergeOp.mergeAll(absSuccessorState, absReachedStates, prec);
+        checkArgument(absMergedStates.size() == absReachedStates.size());
+        if (pUntilChanged) {
+          for (int k = 0; k < absReachedStates.size(); k++) {
+            if (!absMergedStates.get(k).equals(absReachedStates.get(k))) {
+              // the results for the following candidates are unknown
+              known = Math.min(known, candidates.get(k) + 1);
+              absMergedStates = absMergedStates.subList(0, k + 1);
+              break;
+            }
+          }
+        }
+      } else {
+        absMergedStates = new ArrayList<>(absReachedStates.size());
+        for (AbstractState absReachedState : absReachedStates) {
+          absMergedStates.add(mergeOp.merge(absSuccessorState, absReachedState, prec));
+        }
+      }
+
+      List<Integer> remainingCandidates = new ArrayList<>(candidates.size());
+      for (int k = 0; k < absMergedStates.size(); k++) {
+        AbstractState mergedState = absMergedStates.get(k);
+        // Check if 'mergedState' also covers 'absSuccessorState', see the super class.
+        if (stopOp.stop(absSuccessorState, Collections.singleton(mergedState), prec)) {
+          remainingCandidates.add(candidates.get(k));
+          mergedStates.get(candidates.get(k)).add(mergedState);
+        }
+      }
+      candidates = remainingCandidates;
+    }
+
+    for (int i : candidates) {
+      List<AbstractState> merged = mergedStates.get(i);
+      List<AbstractState> reached = ((CompositeState) pReachedStates.get(i)).getWrappedStates();
+      boolean identicalStates = true;
+      for (int idx = 0; idx < merged.size(); idx++) {
+        if (merged.get(idx) != reached.get(idx)) {
+          identicalStates = false;
+        }
+      }
+      if (!identicalStates) {
+        pResult.set(i, new CompositeState(merged));
+      }
+    }
+    return known;
+  }
+
+  @Override
+  public boolean mergesInParallel() {
+    return from(mergeOperators)
+        .filter(BatchMergeOperator.class)
+        .anyMatch(BatchMergeOperator::mergesInParallel);
+  }
+}
@@ -0,0 +1,175 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.composite;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.BatchMergeOperator;
+import org.sosy_lab.cpachecker.core.interfaces.MergeOperator;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
+
+public class CompositeBatchMergeAgreeOperatorTest {
+
+  /** State of the first component, merged by taking the maximum. */
+  private static class ValueState implements AbstractState {
+    private final int value;
+
+    ValueState(int pValue) {
+      value = pValue;
+    }
+  }
+
+  /** State of the second component, never merged (like a location). */
+  private static class LabelState implements AbstractState {
+    private final String label;
+
+    LabelState(String pLabel) {
+      label = pLabel;
+    }
+  }
+
+  /** Batch merge operator that counts the merges it computes. */
+  private static class MaxMergeOperator implements BatchMergeOperator {
+    private int merges = 0;
+
+    @Override
+    public AbstractState merge(AbstractState pState1, AbstractState pState2, Precision pPrecision) {
+      merges++;
+      if (((ValueState) pState1).value > ((ValueState) pState2).value) {
+        return new ValueState(((ValueState) pState1).value);
+      }
+      return pState2;
+    }
+
+    @Override
+    public List<AbstractState> mergeAll(
+        AbstractState pState1, List<AbstractState> pStates2, Precision pPrecision) {
+      List<AbstractState> result = new ArrayList<>(pStates2.size());
+      for (AbstractState state2 : pStates2) {
+        result.add(merge(pState1, state2, pPrecision));
+      }
+      return result;
+    }
+
+    @Override
+    public List<AbstractState> mergeUntilChanged(
+        AbstractState pState1, List<AbstractState> pStates2, Precision pPrecision) {
+      List<AbstractState> result = new ArrayList<>(pStates2);
+      for (int i = 0; i < pStates2.size(); i++) {
+        result.set(i, merge(pState1, pStates2.get(i), pPrecision));
+        if (result.get(i) != pStates2.get(i)) {
+          break;
+        }
+      }
+      return result;
+    }
+  }
+
+  private static final MergeOperator MERGE_SEP = (pState1, pState2, pPrecision) -> pState2;
+
+  private static final StopOperator VALUE_STOP =
+      (pState, pReached, pPrecision) ->
+          pReached
+              .stream()
+              .anyMatch(r -> ((ValueState) r).value >= ((ValueState) pState).value);
+
+  private static final StopOperator LABEL_STOP =
+      (pState, pReached, pPrecision) ->
+          pReached
+              .stream()
+              .anyMatch(r -> ((LabelState) r).label.equals(((LabelState) pState).label));
+
+  private static final Precision PRECISION = new Precision() {};
+
+  private MaxMergeOperator maxMerge;
+  private CompositeBatchMergeAgreeOperator mergeOperator;
+  private CompositePrecision precision;
+
+  @Before
+  public void setUp() {
+    maxMerge = new MaxMergeOperator();
+    mergeOperator =
+        new CompositeBatchMergeAgreeOperator(
+            ImmutableList.of(maxMerge, MERGE_SEP), ImmutableList.of(VALUE_STOP, LABEL_STOP));
+    precision = new CompositePrecision(ImmutableList.of(PRECISION, PRECISION));
+  }
+
+  private static CompositeState state(int pValue, String pLabel) {
+    return new CompositeState(ImmutableList.of(new ValueState(pValue), new LabelState(pLabel)));
+  }
+
+  private static int value(AbstractState pState) {
+    return ((ValueState) ((CompositeState) pState).get(0)).value;
+  }
+
+  /**
+   * The first component changes the first reached state, but the second component rejects this
+   * because of a different label, so the composite state changes only for the third reached state.
+   */
+  private List<AbstractState> reachedStates() {
+    return ImmutableList.of(state(3, "B"), state(7, "A"), state(1, "A"), state(2, "A"));
+  }
+
+  @Test
+  public void testMergeAll() throws Exception {
+    List<AbstractState> reached = reachedStates();
+    List<AbstractState> result = mergeOperator.mergeAll(state(5, "A"), reached, precision);
+
+    assertThat(result).hasSize(reached.size());
+    assertThat(result.get(0)).isSameInstanceAs(reached.get(0));
+    assertThat(result.get(1)).isSameInstanceAs(reached.get(1));
+    assertThat(value(result.get(2))).isEqualTo(5);
+    assertThat(value(result.get(3))).isEqualTo(5);
+    assertThat(maxMerge.merges).isEqualTo(4);
+  }
+
+  @Test
+  public void testMergeUntilChanged() throws Exception {
+    List<AbstractState> reached = reachedStates();
+    List<AbstractState> result = mergeOperator.mergeUntilChanged(state(5, "A"), reached, precision);
+
+    assertThat(result).hasSize(reached.size());
+    assertThat(result.get(0)).isSameInstanceAs(reached.get(0));
+    assertThat(result.get(1)).isSameInstanceAs(reached.get(1));
+    assertThat(value(result.get(2))).isEqualTo(5);
+    // the merge with the last state is not needed
+    assertThat(maxMerge.merges).isEqualTo(3);
+  }
+
+  @Test
+  public void testMergeUntilChangedWithoutChange() throws Exception {
+    List<AbstractState> reached = ImmutableList.of(state(3, "B"), state(7, "A"), state(1, "C"));
+    List<AbstractState> result = mergeOperator.mergeUntilChanged(state(5, "A"), reached, precision);
+
+    assertThat(result).containsExactlyElementsIn(reached).inOrder();
+    assertThat(maxMerge.merges).isEqualTo(3);
+  }
+}
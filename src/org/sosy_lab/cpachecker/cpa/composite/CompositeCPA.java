@@ -24,6 +24,7 @@
 package org.sosy_lab.cpachecker.cpa.composite;
 
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.base.Predicates.instanceOf;
 import static com.google.common.collect.FluentIterable.from;
 
 import com.google.common.base.Optional;
@@ -43,6 +44,7 @@ import org.sosy_lab.cpachecker.core.defaults.MergeSepOperator;
 import org.sosy_lab.cpachecker.core.defaults.SimplePrecisionAdjustment;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractDomain;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.BatchMergeOperator;
 import org.sosy_lab.cpachecker.core.interfaces.CPAFactory;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysisWithBAM;
@@ -206,8 +208,13 @@ public class CompositeCPA implements StatisticsProvider, WrapperCPA, Configurabl
         }
       } else {
         if (options.merge.equals("AGREE")) {
+          ImmutableList<MergeOperator> componentMergeOperators = mergeOperators.build();
+          if (from(componentMergeOperators).anyMatch(instanceOf(BatchMergeOperator.class))) {
+            return new CompositeBatchMergeAgreeOperator(
+                componentMergeOperators, getStopOperator().getStopOperators());
+          }
           return new CompositeMergeAgreeOperator(
-              mergeOperators.build(), getStopOperator().getStopOperators());
+              componentMergeOperators, getStopOperator().getStopOperators());
         } else if (options.merge.equals("PLAIN")) {
           return new CompositeMergePlainOperator(mergeOperators.build());
         } else {
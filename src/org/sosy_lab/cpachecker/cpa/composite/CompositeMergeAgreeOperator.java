@@ -54,10 +54,10 @@ import java.util.Iterator;
  */
 class CompositeMergeAgreeOperator implements MergeOperator {
 
-  private static final Predicate<Object> NON_MERGEABLE_STATE = instanceOf(NonMergeableAbstractState.class);
+  static final Predicate<Object> NON_MERGEABLE_STATE = instanceOf(NonMergeableAbstractState.class);
 
-  private final ImmutableList<MergeOperator> mergeOperators;
-  private final ImmutableList<StopOperator> stopOperators;
+  final ImmutableList<MergeOperator> mergeOperators;
+  final ImmutableList<StopOperator> stopOperators;
 
   CompositeMergeAgreeOperator(
       ImmutableList<MergeOperator> mergeOperators, ImmutableList<StopOperator> stopOperators) {
@@ -446,6 +446,11 @@ final class CompositeTransferRelation implements WrapperTransferRelation {
     }
   }
 
+  @Override
+  public boolean isThreadSafe() {
+    return from(transferRelations).allMatch(TransferRelation::isThreadSafe);
+  }
+
   @Override
   public Collection<? extends AbstractState> strengthen(
       AbstractState element,
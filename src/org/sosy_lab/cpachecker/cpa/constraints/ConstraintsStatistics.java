@@ -24,7 +24,9 @@
 package org.sosy_lab.cpachecker.cpa.constraints;
 
 import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.time.TimeSpan;
 import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
@@ -55,12 +57,19 @@ public class ConstraintsStatistics implements Statistics {
       new StatTimer(StatKind.SUM, "Time for model re-use attempts");
   public final StatTimer timeForSatCheck = new StatTimer(StatKind.SUM, "Time for SMT check");
   public final StatCounter modelReuseSuccesses = new StatCounter("Successful model re-uses");
+  public final StatInt proverPushes =
+      new StatInt(StatKind.SUM, "Constraints pushed on incremental prover");
+  public final StatInt proverPops =
+      new StatInt(StatKind.SUM, "Constraints popped from incremental prover");
+  public final StatInt reusedProverLevels =
+      new StatInt(StatKind.SUM, "Constraints re-used on incremental prover");
 
   public StatCounter cacheLookups = new StatCounter("Cache lookups");
   public StatTimer directCacheLookupTime = new StatTimer(StatKind.SUM, "Direct cache lookup time");
   public StatCounter directCacheHits = new StatCounter("Direct cache hits");
   public StatTimer subsetLookupTime = new StatTimer(StatKind.SUM, "Subset cache lookup time");
   public StatCounter subsetCacheHits = new StatCounter("Subset cache hits");
+  public final StatCounter cacheEvictions = new StatCounter("Cache evictions");
 
   public StatInt constraintNumberBeforeAdj =
       new StatInt(StatKind.SUM, "Constraints before refinement in state");
@@ -103,6 +112,9 @@ public class ConstraintsStatistics implements Statistics {
         .putIfUpdatedAtLeastOnce(timeForDefinitesComputation)
         .endLevel()
         .putIfUpdatedAtLeastOnce(modelReuseSuccesses)
+        .putIfUpdatedAtLeastOnce(proverPushes)
+        .putIfUpdatedAtLeastOnce(proverPops)
+        .putIfUpdatedAtLeastOnce(reusedProverLevels)
         .spacer() // Direct constraints solver cache
         .putIf(cacheLookups.getUpdateCount() > 0, cacheLookups)
         .putIf(cacheLookups.getUpdateCount() > 0, directCacheHits)
@@ -110,6 +122,11 @@ public class ConstraintsStatistics implements Statistics {
         // Subset constraints solver cache
         .putIf(subsetLookupTime.getUpdateCount() > 0, subsetCacheHits)
         .putIf(subsetLookupTime.getUpdateCount() > 0, subsetLookupTime)
+        .putIfUpdatedAtLeastOnce(cacheEvictions)
+        .putIf(
+            cacheLookups.getUpdateCount() > 0 && timeForSatCheck.getUpdateCount() > 0,
+            "Estimated SMT time saved by cache",
+            getEstimatedTimeSavedByCache())
         .spacer() // Constraints state simplifier
         .putIf(trivialRemovalTime.getUpdateCount() > 0, removedTrivial)
         .putIf(trivialRemovalTime.getUpdateCount() > 0, trivialRemovalTime)
@@ -121,6 +138,17 @@ public class ConstraintsStatistics implements Statistics {
         .putIfUpdatedAtLeastOnce(adjustmentTime);
   }
 
+  /** Returns the average time of an SMT check times the number of cache hits. */
+  private String getEstimatedTimeSavedByCache() {
+    int checks = timeForSatCheck.getUpdateCount();
+    if (checks == 0) {
+      return "";
+    }
+    long hits = directCacheHits.getValue() + subsetCacheHits.getValue();
+    TimeSpan average = timeForSatCheck.getConsumedTime().divide(checks);
+    return average.multiply(Math.toIntExact(hits)).formatAs(TimeUnit.SECONDS);
+  }
+
   @Nullable
   @Override
   public String getName() {
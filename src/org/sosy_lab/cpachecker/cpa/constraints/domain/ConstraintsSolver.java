@@ -26,23 +26,28 @@ package org.sosy_lab.cpachecker.cpa.constraints.domain;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
-import com.google.common.collect.HashMultimap;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableCollection;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
+import com.google.common.primitives.ImmutableIntArray;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -65,7 +70,7 @@ import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
 import org.sosy_lab.java_smt.api.SolverException;
 
 @Options(prefix = "cpa.constraints")
-public class ConstraintsSolver {
+public class ConstraintsSolver implements AutoCloseable {
 
   @Option(
     secure = true,
@@ -87,6 +92,15 @@ public class ConstraintsSolver {
   )
   private boolean doCaching = true;
 
+  @Option(
+      secure = true,
+      description =
+          "Maximum number of constraint sets in the satisfiability cache. If it is exceeded,"
+              + " the least recently used sets are evicted. 0 for no limit.",
+      name = "cacheSize")
+  @IntegerOption(min = 0)
+  private int maxCacheSize = 0;
+
 
   @Option(
       secure = true,
@@ -101,9 +115,35 @@ public class ConstraintsSolver {
       name = "useLastModel")
   private boolean useLastModel = true;
 
+  @Option(
+      secure = true,
+      description =
+          "Keep one prover environment over all SAT checks and only push/pop the constraints"
+              + " that differ from the previous check. All constraints of a state are put on"
+              + " the prover stack in the order they were added, so successor states only push"
+              + " their new constraints and backtracking pops to the common prefix.",
+      name = "incrementalSolving")
+  private boolean incrementalSolving = false;
+
   private ConstraintsCache cache;
   private Solver solver;
+  /** The prover environment of the current SAT check. */
   private ProverEnvironment prover;
+
+  /**
+   * The prover environment that is kept over all SAT checks of states in incremental mode. Checks
+   * of single constraints use their own prover environment, so they do not disturb its stack.
+   */
+  private ProverEnvironment incrementalProver;
+
+  /**
+   * The constraint formulas on the stack of {@link #incrementalProver}, one per level, from bottom
+   * to top. Does not contain levels that are only pushed for a single SAT check.
+   */
+  private final List<BooleanFormula> proverStack = new ArrayList<>();
+
+  /** Number of levels pushed on {@link #prover} for the current check. */
+  private int temporaryLevels = 0;
   private FormulaManagerView formulaManager;
   private BooleanFormulaManagerView booleanFormulaManager;
 
@@ -137,22 +177,23 @@ public class ConstraintsSolver {
     stats = pStats;
 
     if (doCaching) {
-      if (cacheSubsets) {
-        cache = new SubsetConstraintsCache();
-      } else {
-        cache = new MatchingConstraintsCache();
-      }
+      cache = new IndexedConstraintsCache(cacheSubsets, maxCacheSize, stats);
     } else {
       cache = new DummyCache();
     }
   }
 
+  /**
+   * Returns whether the given constraint is unsatisfiable under the given assignment. The
+   * constraint is checked on its own, so in incremental mode the prover stack of the last checked
+   * state is kept.
+   */
   public boolean isUnsat(
       Constraint pConstraint, ImmutableList<ValueAssignment> pAssignment, String pFunctionName)
       throws UnrecognizedCodeException, InterruptedException, SolverException {
     ConstraintsState s = new ConstraintsState(Collections.singleton(pConstraint));
     s.setDefiniteAssignment(pAssignment);
-    return isUnsat(s, pFunctionName);
+    return isUnsat(s, pFunctionName, false);
   }
 
   /**
@@ -163,6 +204,12 @@ public class ConstraintsSolver {
    */
   public boolean isUnsat(ConstraintsState pConstraints, String pFunctionName)
       throws SolverException, InterruptedException, UnrecognizedCodeException {
+    return isUnsat(pConstraints, pFunctionName, incrementalSolving);
+  }
+
+  private boolean isUnsat(
+      ConstraintsState pConstraints, String pFunctionName, boolean pUseIncrementalProver)
+      throws SolverException, InterruptedException, UnrecognizedCodeException {
 
     if (pConstraints.isEmpty()) {
       return false;
@@ -186,10 +233,17 @@ public class ConstraintsSolver {
         pConstraints.setModel(res.getModelAssignment());
 
       } else {
-        prover = solver.newProverEnvironment(ProverOptions.GENERATE_MODELS);
-        BooleanFormula definitesAndConstraints =
-            combineWithDefinites(constraintsAsFormulas, pConstraints);
-        prover.push(definitesAndConstraints);
+        if (pUseIncrementalProver) {
+          // the solver checks all constraints of the state, the relevant ones are only used as
+          // cache key: this keeps the prover stack in sync with the path to the state
+          updateProverStack(getFullFormula(pConstraints, pFunctionName));
+          pushTemporary(getDefAssignmentsFormula(pConstraints));
+        } else {
+          prover = solver.newProverEnvironment(ProverOptions.GENERATE_MODELS);
+          BooleanFormula definitesAndConstraints =
+              combineWithDefinites(constraintsAsFormulas, pConstraints);
+          pushTemporary(definitesAndConstraints);
+        }
 
         ImmutableList<ValueAssignment> newModelAsAssignment;
         ImmutableList<ValueAssignment> modelAsAssignment = pConstraints.getModel();
@@ -204,7 +258,7 @@ public class ConstraintsSolver {
                     .map(ValueAssignment::getAssignmentAsFormula)
                     .collect(booleanFormulaManager.toConjunction());
             modelFormula = createLiteralLabel(literalForModel, modelFormula);
-            prover.push(modelFormula);
+            pushTemporary(modelFormula);
             unsat = prover.isUnsatWithAssumptions(
                 ImmutableList.of(literalForModel));
             if (!unsat) {
@@ -252,11 +306,73 @@ public class ConstraintsSolver {
       return unsat;
 
     } finally {
-      closeProver();
+      releaseProver();
       stats.timeForSolving.stop();
     }
   }
 
+  /**
+   * Brings the stack of the incremental prover to the given constraint formulas: pops all levels
+   * after the longest common prefix with the current stack and pushes the remaining formulas.
+   */
+  private void updateProverStack(List<BooleanFormula> pFormulas) throws InterruptedException {
+    if (incrementalProver == null) {
+      incrementalProver = solver.newProverEnvironment(ProverOptions.GENERATE_MODELS);
+    }
+    prover = incrementalProver;
+
+    int common = 0;
+    int maxCommon = Math.min(proverStack.size(), pFormulas.size());
+    while (common < maxCommon && proverStack.get(common).equals(pFormulas.get(common))) {
+      common++;
+    }
+
+    int pops = proverStack.size() - common;
+    for (int i = 0; i < pops; i++) {
+      prover.pop();
+      proverStack.remove(proverStack.size() - 1);
+    }
+    for (BooleanFormula f : pFormulas.subList(common, pFormulas.size())) {
+      prover.push(f);
+      proverStack.add(f);
+    }
+
+    stats.proverPops.setNextValue(pops);
+    stats.proverPushes.setNextValue(pFormulas.size() - common);
+    stats.reusedProverLevels.setNextValue(common);
+  }
+
+  private void pushTemporary(BooleanFormula pFormula) throws InterruptedException {
+    prover.push(pFormula);
+    temporaryLevels++;
+  }
+
+  /**
+   * Removes everything that was pushed for a single SAT check. The incremental prover stays open
+   * for the next check, any other prover is closed.
+   */
+  private void releaseProver() {
+    if (prover != null && prover == incrementalProver) {
+      for (; temporaryLevels > 0; temporaryLevels--) {
+        prover.pop();
+      }
+      prover = null;
+    } else {
+      temporaryLevels = 0;
+      closeProver();
+    }
+  }
+
+  @Override
+  public void close() {
+    releaseProver();
+    proverStack.clear();
+    if (incrementalProver != null) {
+      incrementalProver.close();
+      incrementalProver = null;
+    }
+  }
+
   private BooleanFormula combineWithDefinites(
       Collection<BooleanFormula> pConstraintsAsFormulas,
       ConstraintsState pConstraints) {
@@ -382,7 +498,7 @@ public class ConstraintsSolver {
    * @throws UnrecognizedCodeException see {@link FormulaCreator#createFormula(Constraint)}
    * @throws InterruptedException see {@link FormulaCreator#createFormula(Constraint)}
    */
-  private Collection<BooleanFormula> getFullFormula(
+  private List<BooleanFormula> getFullFormula(
       Collection<Constraint> pConstraints, String pFunctionName)
       throws UnrecognizedCodeException, InterruptedException {
 
@@ -406,7 +522,7 @@ public class ConstraintsSolver {
     return getFormulaCreator(pFunctionName).createFormula(pConstraint);
   }
 
-  private interface ConstraintsCache {
+  interface ConstraintsCache {
     CacheResult getCachedResult(Collection<BooleanFormula> pConstraints);
 
     void addSat(
@@ -416,125 +532,294 @@ public class ConstraintsSolver {
     void addUnsat(Collection<BooleanFormula> pConstraints);
   }
 
-  private class MatchingConstraintsCache implements ConstraintsCache {
+  /**
+   * Cache of satisfiability results for sets of constraint formulas. Each formula that occurs in a
+   * cached set gets an integer id and each cached set is stored as sorted array of these ids. Ids
+   * are released when the last cached set containing the formula is evicted and are reused for new
+   * formulas, so the ids stay smaller than the number of distinct formulas in the cache.
+   *
+   * <p>If subsumption is enabled, a query is also answered by a cached SAT superset or a cached
+   * UNSAT subset of it. Candidates are found with indices from formula ids to cached sets, so a
+   * lookup only looks at sets that share a constraint with the query:
+   *
+   * <ul>
+   *   <li>each SAT set is indexed by all its constraints, and for a query only the SAT sets
+   *       containing its rarest constraint are checked,
+   *   <li>each UNSAT set is indexed by its constraint with the smallest id, and for a query only
+   *       the UNSAT sets indexed by one of its constraints are checked.
+   * </ul>
+   *
+   * <p>The number of cached sets is bounded, the least recently used sets are evicted first.
+   */
+  @VisibleForTesting
+  static class IndexedConstraintsCache implements ConstraintsCache {
 
-    private Map<Collection<BooleanFormula>, CacheResult> cacheMap = new HashMap<>();
+    private final boolean useSubsumption;
+    private final int maxCacheSize;
+    private final ConstraintsStatistics stats;
 
-    @Override
-    public CacheResult getCachedResult(Collection<BooleanFormula> pConstraints) {
-      stats.cacheLookups.inc();
-      stats.directCacheLookupTime.start();
-      try {
-        if (cacheMap.containsKey(pConstraints)) {
-          stats.directCacheHits.inc();
-          return cacheMap.get(pConstraints);
+    private final Map<BooleanFormula, Integer> formulaIds = new HashMap<>();
 
-        } else {
-          return CacheResult.getUnknown();
-        }
-      } finally {
-        stats.directCacheLookupTime.stop();
-      }
-    }
+    /** The formula for each id in use, null for released ids. */
+    private final List<BooleanFormula> formulasById = new ArrayList<>();
 
-    @Override
-    public void addSat(
-        Collection<BooleanFormula> pConstraints,
-        ImmutableList<ValueAssignment> pModelAssignment) {
-      add(pConstraints, CacheResult.getSat(pModelAssignment));
-    }
+    /** The number of cached sets that contain the formula with the respective id. */
+    private int[] idUseCounts = new int[16];
 
-    @Override
-    public void addUnsat(Collection<BooleanFormula> pConstraints) {
-      add(pConstraints, CacheResult.getUnsat());
-    }
+    /** Released ids that can be given to new formulas. */
+    private final Deque<Integer> freeIds = new ArrayDeque<>();
 
-    private void add(Collection<BooleanFormula> pConstraints, CacheResult pResult) {
-      cacheMap.put(pConstraints, pResult);
-    }
-  }
+    /** All cached sets, in access order. */
+    private final LinkedHashMap<ImmutableIntArray, CacheResult> results =
+        new LinkedHashMap<>(16, 0.75f, true);
 
-  private class SubsetConstraintsCache implements ConstraintsCache {
+    /** Maps each formula id to all cached SAT sets that contain it. */
+    private final Map<Integer, Set<ImmutableIntArray>> satSetsContaining = new HashMap<>();
 
-    private MatchingConstraintsCache delegate;
+    /** Maps each formula id to all cached UNSAT sets whose smallest id it is. */
+    private final Map<Integer, Set<ImmutableIntArray>> unsatSetsStartingWith = new HashMap<>();
 
-    /**
-     * Multimap that maps each constraint to all sets of constraints that it occurred in
-     */
-    private Multimap<BooleanFormula, Set<BooleanFormula>> constraintContainedIn =
-        HashMultimap.create();
+    IndexedConstraintsCache(
+        boolean pUseSubsumption, int pMaxCacheSize, ConstraintsStatistics pStats) {
+      useSubsumption = pUseSubsumption;
+      maxCacheSize = pMaxCacheSize;
+      stats = pStats;
+    }
+
+    /** Returns the number of cached constraint sets. */
+    int size() {
+      return results.size();
+    }
+
+    /** Returns the number of formulas that currently have an id. */
+    int getNumberOfFormulas() {
+      return formulaIds.size();
+    }
 
-    public SubsetConstraintsCache() {
-      delegate = new MatchingConstraintsCache();
+    /** Returns the number of ids that were ever given out, i.e., the largest id plus one. */
+    int getIdBound() {
+      return formulasById.size();
     }
 
     @Override
     public CacheResult getCachedResult(Collection<BooleanFormula> pConstraints) {
-      CacheResult res = delegate.getCachedResult(pConstraints);
-        if (!res.isSat() && !res.isUnsat()) {
+      checkState(!pConstraints.isEmpty());
+      stats.cacheLookups.inc();
+
+      int[] ids = new int[pConstraints.size()];
+      int knownIds = 0;
+      for (BooleanFormula c : pConstraints) {
+        Integer id = formulaIds.get(c);
+        if (id != null) {
+          ids[knownIds++] = id;
+        }
+      }
+      boolean allKnown = knownIds == ids.length;
+      if (knownIds == 0) {
+        return CacheResult.getUnknown();
+      }
+      ImmutableIntArray query = toKey(ids, knownIds);
+
+      if (allKnown) {
+        stats.directCacheLookupTime.start();
         try {
-          stats.subsetLookupTime.start();
-          res = getCachedResultOfSubset(pConstraints);
-          if (res.isSat() || res.isUnsat()) {
-            stats.subsetCacheHits.inc();
+          CacheResult res = results.get(query);
+          if (res != null) {
+            stats.directCacheHits.inc();
+            return res;
           }
         } finally {
-          stats.subsetLookupTime.stop();
+          stats.directCacheLookupTime.stop();
+        }
+      }
+
+      if (!useSubsumption) {
+        return CacheResult.getUnknown();
+      }
+
+      stats.subsetLookupTime.start();
+      try {
+        // a formula without id is not part of any cached set, so no SAT set can contain the query
+        CacheResult res = allKnown ? getSatSuperset(query) : CacheResult.getUnknown();
+        if (!res.isSat()) {
+          res = getUnsatSubset(query);
+        }
+        if (res.isSat() || res.isUnsat()) {
+          stats.subsetCacheHits.inc();
+        }
+        return res;
+      } finally {
+        stats.subsetLookupTime.stop();
+      }
+    }
+
+    /** Sort the first given ids and remove duplicates. */
+    private ImmutableIntArray toKey(int[] pIds, int pLength) {
+      Arrays.sort(pIds, 0, pLength);
+      ImmutableIntArray.Builder key = ImmutableIntArray.builder(pLength);
+      for (int i = 0; i < pLength; i++) {
+        if (i == 0 || pIds[i] != pIds[i - 1]) {
+          key.add(pIds[i]);
+        }
+      }
+      return key.build();
+    }
+
+    private CacheResult getSatSuperset(ImmutableIntArray pQuery) {
+      Set<ImmutableIntArray> candidates = null;
+      for (int i = 0; i < pQuery.length(); i++) {
+        Set<ImmutableIntArray> containing = satSetsContaining.get(pQuery.get(i));
+        if (containing == null) {
+          return CacheResult.getUnknown();
+        }
+        if (candidates == null || containing.size() < candidates.size()) {
+          candidates = containing;
+        }
+      }
+
+      checkNotNull(candidates);
+      for (ImmutableIntArray candidate : candidates) {
+        if (isSubset(pQuery, candidate)) {
+          return results.get(candidate);
+        }
+      }
+      return CacheResult.getUnknown();
+    }
+
+    private CacheResult getUnsatSubset(ImmutableIntArray pQuery) {
+      for (int i = 0; i < pQuery.length(); i++) {
+        Set<ImmutableIntArray> candidates = unsatSetsStartingWith.get(pQuery.get(i));
+        if (candidates != null) {
+          for (ImmutableIntArray candidate : candidates) {
+            if (isSubset(candidate, pQuery)) {
+              return results.get(candidate);
+            }
           }
         }
-      return res;
+      }
+      return CacheResult.getUnknown();
+    }
+
+    /** Check whether the first sorted id array is a subset of the second one. */
+    private boolean isSubset(ImmutableIntArray pSubset, ImmutableIntArray pSuperset) {
+      if (pSubset.length() > pSuperset.length()) {
+        return false;
+      }
+      int j = 0;
+      for (int i = 0; i < pSubset.length(); i++) {
+        int id = pSubset.get(i);
+        while (j < pSuperset.length() && pSuperset.get(j) < id) {
+          j++;
+        }
+        if (j == pSuperset.length() || pSuperset.get(j) != id) {
+          return false;
+        }
+        j++;
+      }
+      return true;
     }
 
     @Override
     public void addSat(
         Collection<BooleanFormula> pConstraints, ImmutableList<ValueAssignment> pModelAssignment) {
-      add(pConstraints);
-      delegate.addSat(pConstraints, pModelAssignment);
+      add(pConstraints, CacheResult.getSat(pModelAssignment));
     }
 
     @Override
     public void addUnsat(Collection<BooleanFormula> pConstraints) {
-      add(pConstraints);
-      delegate.addUnsat(pConstraints);
+      add(pConstraints, CacheResult.getUnsat());
     }
 
-    private void add(Collection<BooleanFormula> pConstraints) {
+    private void add(Collection<BooleanFormula> pConstraints, CacheResult pResult) {
+      int[] ids = new int[pConstraints.size()];
+      int i = 0;
       for (BooleanFormula c : pConstraints) {
-        constraintContainedIn.put(c, ImmutableSet.copyOf(pConstraints));
+        Integer id = formulaIds.get(c);
+        ids[i++] = id != null ? id : newId(c);
+      }
+      ImmutableIntArray key = toKey(ids, ids.length);
+
+      CacheResult previous = results.put(key, pResult);
+      if (previous != null) {
+        removeFromIndex(key, previous);
+      } else {
+        for (int j = 0; j < key.length(); j++) {
+          idUseCounts[key.get(j)]++;
+        }
+      }
+      addToIndex(key, pResult);
+
+      if (maxCacheSize > 0 && results.size() > maxCacheSize) {
+        Iterator<Map.Entry<ImmutableIntArray, CacheResult>> it = results.entrySet().iterator();
+        Map.Entry<ImmutableIntArray, CacheResult> eldest = it.next();
+        it.remove();
+        removeFromIndex(eldest.getKey(), eldest.getValue());
+        releaseIds(eldest.getKey());
+        stats.cacheEvictions.inc();
       }
     }
 
-    CacheResult getCachedResultOfSubset(Collection<BooleanFormula> pConstraints) {
-      checkState(!pConstraints.isEmpty());
+    private int newId(BooleanFormula pFormula) {
+      int id;
+      if (freeIds.isEmpty()) {
+        id = formulasById.size();
+        formulasById.add(pFormula);
+        if (id >= idUseCounts.length) {
+          idUseCounts = Arrays.copyOf(idUseCounts, 2 * idUseCounts.length);
+        }
+      } else {
+        id = freeIds.pop();
+        formulasById.set(id, pFormula);
+      }
+      formulaIds.put(pFormula, id);
+      return id;
+    }
 
-      Set<Set<BooleanFormula>> containAllConstraints = null;
-      for (BooleanFormula c : pConstraints) {
-        Set<Set<BooleanFormula>> containC = ImmutableSet.copyOf(constraintContainedIn.get(c));
-        if (containAllConstraints == null) {
-          containAllConstraints = containC;
-        } else {
-          containAllConstraints = Sets.intersection(containAllConstraints, containC);
+    private void releaseIds(ImmutableIntArray pKey) {
+      for (int i = 0; i < pKey.length(); i++) {
+        int id = pKey.get(i);
+        idUseCounts[id]--;
+        if (idUseCounts[id] == 0) {
+          formulaIds.remove(formulasById.get(id));
+          formulasById.set(id, null);
+          freeIds.push(id);
         }
+      }
+    }
 
-        if (containAllConstraints.isEmpty()) {
-          return CacheResult.getUnknown();
+    private void addToIndex(ImmutableIntArray pKey, CacheResult pResult) {
+      if (!useSubsumption || pKey.isEmpty()) {
+        return;
+      }
+      if (pResult.isSat()) {
+        for (int i = 0; i < pKey.length(); i++) {
+          satSetsContaining.computeIfAbsent(pKey.get(i), k -> new HashSet<>()).add(pKey);
         }
+      } else {
+        unsatSetsStartingWith.computeIfAbsent(pKey.get(0), k -> new HashSet<>()).add(pKey);
       }
+    }
 
-      checkNotNull(containAllConstraints);
-      int sizeOfQuery = pConstraints.size();
-      for (Set<BooleanFormula> col : containAllConstraints) {
-        CacheResult cachedResult = delegate.getCachedResult(col);
-        if (sizeOfQuery <= col.size() && cachedResult.isSat()) {
-          // currently considered collection is a superset of the queried collection
-          return cachedResult;
-
-        } else if (sizeOfQuery >= col.size() && cachedResult.isUnsat()) {
-          // currently considered collection is a subset of the queried collection
-          return cachedResult;
+    private void removeFromIndex(ImmutableIntArray pKey, CacheResult pResult) {
+      if (!useSubsumption || pKey.isEmpty()) {
+        return;
+      }
+      if (pResult.isSat()) {
+        for (int i = 0; i < pKey.length(); i++) {
+          removeFromIndex(satSetsContaining, pKey.get(i), pKey);
         }
+      } else {
+        removeFromIndex(unsatSetsStartingWith, pKey.get(0), pKey);
+      }
+    }
+
+    private void removeFromIndex(
+        Map<Integer, Set<ImmutableIntArray>> pIndex, int pId, ImmutableIntArray pKey) {
+      Set<ImmutableIntArray> sets = pIndex.get(pId);
+      sets.remove(pKey);
+      if (sets.isEmpty()) {
+        pIndex.remove(pId);
       }
-      return CacheResult.getUnknown();
     }
   }
 
@@ -558,7 +843,7 @@ public class ConstraintsSolver {
     }
   }
 
-  private static class CacheResult {
+  static class CacheResult {
     enum Result {
       SAT,
       UNSAT,
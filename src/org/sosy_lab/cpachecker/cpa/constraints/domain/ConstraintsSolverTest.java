@@ -0,0 +1,149 @@
+/*
+ * CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.constraints.domain;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.util.Optional;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.cfa.types.Type;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.core.AnalysisDirection;
+import org.sosy_lab.cpachecker.cpa.constraints.ConstraintsStatistics;
+import org.sosy_lab.cpachecker.cpa.constraints.constraint.Constraint;
+import org.sosy_lab.cpachecker.cpa.value.symbolic.type.SymbolicExpression;
+import org.sosy_lab.cpachecker.cpa.value.symbolic.type.SymbolicIdentifier;
+import org.sosy_lab.cpachecker.cpa.value.symbolic.type.SymbolicValueFactory;
+import org.sosy_lab.cpachecker.cpa.value.symbolic.util.SymbolicValues;
+import org.sosy_lab.cpachecker.cpa.value.type.NumericValue;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.pointeraliasing.CToFormulaConverterWithPointerAliasing;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.pointeraliasing.FormulaEncodingWithPointerAliasingOptions;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.pointeraliasing.TypeHandlerWithPointerAliasing;
+import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
+import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
+import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+/** Unit tests for {@link ConstraintsSolver} with incremental solving. */
+public class ConstraintsSolverTest {
+
+  private static final String FUNCTION_NAME = "main";
+
+  private final SymbolicValueFactory factory = SymbolicValueFactory.getInstance();
+
+  private final Type defType = CNumericTypes.INT;
+
+  private final SymbolicIdentifier id1 = factory.newIdentifier(MemoryLocation.valueOf("id1"));
+  private final SymbolicExpression idExp1 = factory.asConstant(id1, defType);
+  private final SymbolicExpression numExp = factory.asConstant(new NumericValue(5), defType);
+
+  private final Constraint equalFive = factory.equal(idExp1, numExp, defType, defType);
+  private final Constraint lessThanFive =
+      (Constraint) factory.lessThan(idExp1, numExp, defType, defType);
+  private final Constraint lessOrEqualFive =
+      (Constraint) factory.lessThanOrEqual(idExp1, numExp, defType, defType);
+
+  private Solver solver;
+  private ConstraintsStatistics stats;
+  private ConstraintsSolver constraintsSolver;
+
+  @Before
+  public void setUp() throws InvalidConfigurationException {
+    Configuration config =
+        TestDataTools.configurationForTest()
+            .setOption("solver.solver", "SMTINTERPOL")
+            .setOption("cpa.constraints.incrementalSolving", "true")
+            .setOption("cpa.constraints.cache", "false")
+            .build();
+    LogManager logger = LogManager.createTestLogManager();
+    ShutdownNotifier shutdownNotifier = ShutdownNotifier.createDummy();
+
+    SymbolicValues.initialize();
+    solver = Solver.create(config, logger, shutdownNotifier);
+    FormulaManagerView formulaManager = solver.getFormulaManager();
+    FormulaEncodingWithPointerAliasingOptions options =
+        new FormulaEncodingWithPointerAliasingOptions(config);
+    CToFormulaConverterWithPointerAliasing converter =
+        new CToFormulaConverterWithPointerAliasing(
+            options,
+            formulaManager,
+            MachineModel.LINUX32,
+            Optional.empty(),
+            logger,
+            shutdownNotifier,
+            new TypeHandlerWithPointerAliasing(logger, MachineModel.LINUX32, options),
+            AnalysisDirection.FORWARD);
+    stats = new ConstraintsStatistics();
+    constraintsSolver = new ConstraintsSolver(config, solver, formulaManager, converter, stats);
+  }
+
+  @After
+  public void tearDown() {
+    constraintsSolver.close();
+    solver.close();
+  }
+
+  private ConstraintsState withConstraint(ConstraintsState pState, Constraint pConstraint) {
+    ConstraintsState newState = pState.copyOf();
+    newState.add(pConstraint);
+    return newState;
+  }
+
+  @Test
+  public void testIncrementalChecksOfSuccessors() throws Exception {
+    ConstraintsState first = withConstraint(new ConstraintsState(), equalFive);
+    ConstraintsState unsatSuccessor = withConstraint(first, lessThanFive);
+    ConstraintsState satSuccessor = withConstraint(first, lessOrEqualFive);
+
+    assertThat(constraintsSolver.isUnsat(first, FUNCTION_NAME)).isFalse();
+    assertThat(constraintsSolver.isUnsat(unsatSuccessor, FUNCTION_NAME)).isTrue();
+    assertThat(constraintsSolver.isUnsat(satSuccessor, FUNCTION_NAME)).isFalse();
+    assertThat(constraintsSolver.isUnsat(first, FUNCTION_NAME)).isFalse();
+
+    assertThat(stats.proverPushes.getValueSum()).isEqualTo(3);
+    assertThat(stats.proverPops.getValueSum()).isEqualTo(2);
+  }
+
+  @Test
+  public void testSingleConstraintKeepsProverStack() throws Exception {
+    ConstraintsState first = withConstraint(new ConstraintsState(), equalFive);
+    ConstraintsState successor = withConstraint(first, lessThanFive);
+
+    assertThat(constraintsSolver.isUnsat(first, FUNCTION_NAME)).isFalse();
+    assertThat(constraintsSolver.isUnsat(lessThanFive, ImmutableList.of(), FUNCTION_NAME))
+        .isFalse();
+    assertThat(constraintsSolver.isUnsat(successor, FUNCTION_NAME)).isTrue();
+
+    assertThat(stats.proverPops.getValueSum()).isEqualTo(0);
+    assertThat(stats.reusedProverLevels.getMaxValue()).isEqualTo(1);
+  }
+}
@@ -0,0 +1,153 @@
+/*
+ * CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.constraints.domain;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cpa.constraints.ConstraintsStatistics;
+import org.sosy_lab.cpachecker.cpa.constraints.domain.ConstraintsSolver.CacheResult;
+import org.sosy_lab.cpachecker.cpa.constraints.domain.ConstraintsSolver.IndexedConstraintsCache;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.Model.ValueAssignment;
+
+/** Unit tests for {@link IndexedConstraintsCache}. */
+public class IndexedConstraintsCacheTest {
+
+  private final BooleanFormula a = mock(BooleanFormula.class);
+  private final BooleanFormula b = mock(BooleanFormula.class);
+  private final BooleanFormula c = mock(BooleanFormula.class);
+  private final BooleanFormula d = mock(BooleanFormula.class);
+
+  private final ImmutableList<ValueAssignment> model = ImmutableList.of();
+
+  private final ConstraintsStatistics stats = new ConstraintsStatistics();
+
+  private IndexedConstraintsCache createCache(boolean pUseSubsumption, int pMaxSize) {
+    return new IndexedConstraintsCache(pUseSubsumption, pMaxSize, stats);
+  }
+
+  private static boolean isUnknown(CacheResult pResult) {
+    return !pResult.isSat() && !pResult.isUnsat();
+  }
+
+  @Test
+  public void testExactHits() {
+    IndexedConstraintsCache cache = createCache(false, 0);
+    cache.addSat(ImmutableSet.of(a, b), model);
+    cache.addUnsat(ImmutableSet.of(c));
+
+    assertThat(cache.getCachedResult(ImmutableSet.of(b, a)).isSat()).isTrue();
+    assertThat(cache.getCachedResult(ImmutableList.of(a, b, a)).isSat()).isTrue();
+    assertThat(cache.getCachedResult(ImmutableSet.of(c)).isUnsat()).isTrue();
+    assertThat(isUnknown(cache.getCachedResult(ImmutableSet.of(a)))).isTrue();
+    assertThat(isUnknown(cache.getCachedResult(ImmutableSet.of(a, b, c)))).isTrue();
+    assertThat(isUnknown(cache.getCachedResult(ImmutableSet.of(d)))).isTrue();
+    assertThat(stats.directCacheHits.getValue()).isEqualTo(3L);
+  }
+
+  @Test
+  public void testSatHitsViaSuperset() {
+    IndexedConstraintsCache cache = createCache(true, 0);
+    cache.addSat(ImmutableSet.of(a, b, c), model);
+
+    assertThat(cache.getCachedResult(ImmutableSet.of(a)).isSat()).isTrue();
+    assertThat(cache.getCachedResult(ImmutableSet.of(c, a)).isSat()).isTrue();
+    assertThat(isUnknown(cache.getCachedResult(ImmutableSet.of(a, d)))).isTrue();
+    assertThat(stats.subsetCacheHits.getValue()).isEqualTo(2L);
+  }
+
+  @Test
+  public void testUnsatHitsViaSubset() {
+    IndexedConstraintsCache cache = createCache(true, 0);
+    cache.addUnsat(ImmutableSet.of(b, c));
+
+    assertThat(cache.getCachedResult(ImmutableSet.of(a, b, c)).isUnsat()).isTrue();
+    assertThat(cache.getCachedResult(ImmutableSet.of(b, c, d)).isUnsat()).isTrue();
+    assertThat(isUnknown(cache.getCachedResult(ImmutableSet.of(b)))).isTrue();
+    assertThat(isUnknown(cache.getCachedResult(ImmutableSet.of(a, c)))).isTrue();
+  }
+
+  @Test
+  public void testNoSubsumptionWithoutOption() {
+    IndexedConstraintsCache cache = createCache(false, 0);
+    cache.addSat(ImmutableSet.of(a, b), model);
+    cache.addUnsat(ImmutableSet.of(c));
+
+    assertThat(isUnknown(cache.getCachedResult(ImmutableSet.of(a)))).isTrue();
+    assertThat(isUnknown(cache.getCachedResult(ImmutableSet.of(c, d)))).isTrue();
+  }
+
+  @Test
+  public void testCacheSizeBound() {
+    IndexedConstraintsCache cache = createCache(true, 2);
+    cache.addSat(ImmutableSet.of(a), model);
+    cache.addSat(ImmutableSet.of(b), model);
+    // access {a}, such that {b} is the least recently used set
+    assertThat(cache.getCachedResult(ImmutableSet.of(a)).isSat()).isTrue();
+    cache.addUnsat(ImmutableSet.of(c));
+
+    assertThat(cache.size()).isEqualTo(2);
+    assertThat(stats.cacheEvictions.getValue()).isEqualTo(1L);
+    assertThat(cache.getCachedResult(ImmutableSet.of(a)).isSat()).isTrue();
+    assertThat(isUnknown(cache.getCachedResult(ImmutableSet.of(b)))).isTrue();
+    assertThat(cache.getCachedResult(ImmutableSet.of(c, d)).isUnsat()).isTrue();
+  }
+
+  @Test
+  public void testIdsAreReleasedAndReused() {
+    IndexedConstraintsCache cache = createCache(true, 1);
+    cache.addSat(ImmutableSet.of(a, b), model);
+    assertThat(cache.getNumberOfFormulas()).isEqualTo(2);
+
+    // evicts {a, b}, whose ids are released
+    cache.addUnsat(ImmutableSet.of(c));
+    assertThat(cache.getNumberOfFormulas()).isEqualTo(1);
+    assertThat(cache.getIdBound()).isEqualTo(3);
+    assertThat(isUnknown(cache.getCachedResult(ImmutableSet.of(a)))).isTrue();
+
+    // evicts {c}, the new formulas reuse released ids
+    cache.addSat(ImmutableSet.of(a, d), model);
+    assertThat(cache.getNumberOfFormulas()).isEqualTo(2);
+    assertThat(cache.getIdBound()).isEqualTo(3);
+    assertThat(cache.getCachedResult(ImmutableSet.of(d)).isSat()).isTrue();
+    assertThat(isUnknown(cache.getCachedResult(ImmutableSet.of(b)))).isTrue();
+    assertThat(isUnknown(cache.getCachedResult(ImmutableSet.of(c)))).isTrue();
+  }
+
+  @Test
+  public void testReplacedResultIsNotCountedTwice() {
+    IndexedConstraintsCache cache = createCache(true, 1);
+    cache.addSat(ImmutableSet.of(a), model);
+    cache.addUnsat(ImmutableSet.of(a));
+
+    assertThat(cache.size()).isEqualTo(1);
+    assertThat(cache.getCachedResult(ImmutableSet.of(a)).isUnsat()).isTrue();
+    cache.addSat(ImmutableSet.of(b), model);
+    assertThat(cache.getNumberOfFormulas()).isEqualTo(1);
+  }
+}
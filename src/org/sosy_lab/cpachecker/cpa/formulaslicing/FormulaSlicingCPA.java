@@ -68,7 +68,7 @@ public class FormulaSlicingCPA extends SingleEdgeTransferRelation
         AnalysisDirection.FORWARD);
 
     CachingPathFormulaManager pathFormulaManager = new CachingPathFormulaManager
-        (origPathFormulaManager);
+        (origPathFormulaManager, pConfiguration);
 
     inductiveWeakeningManager = new InductiveWeakeningManager(pConfiguration, solver, pLogger,
         pShutdownNotifier);
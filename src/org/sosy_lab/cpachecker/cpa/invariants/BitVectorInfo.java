@@ -25,6 +25,7 @@ package org.sosy_lab.cpachecker.cpa.invariants;
 
 import com.google.common.base.Preconditions;
 import java.math.BigInteger;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.cpachecker.cfa.types.MachineModel;
 import org.sosy_lab.cpachecker.cfa.types.Type;
 import org.sosy_lab.cpachecker.cfa.types.c.CBasicType;
@@ -45,12 +46,27 @@ public class BitVectorInfo implements TypeInfo {
 
   private final BigInteger maxValue;
 
+  /**
+   * Whether all values of this bit vector fit into a long,
+   * i.e., whether {@link #minValueLong} and {@link #maxValueLong} are valid.
+   */
+  private final boolean fitsInLong;
+
+  private final long minValueLong;
+
+  private final long maxValueLong;
+
+  private @Nullable BitVectorInterval range = null;
+
   private BitVectorInfo(int pSize, boolean pSigned) {
     Preconditions.checkArgument(pSize >= 0, "bit vector size must not be negative");
     size = pSize;
     signed = pSigned;
     minValue = !signed ? BigInteger.ZERO : BigInteger.valueOf(2).pow(size - 1).negate();
     maxValue = !signed ? BigInteger.valueOf(2).pow(size).subtract(BigInteger.ONE) : BigInteger.valueOf(2).pow(size - 1).subtract(BigInteger.ONE);
+    fitsInLong = signed ? size <= Long.SIZE : size < Long.SIZE;
+    minValueLong = fitsInLong ? minValue.longValueExact() : 0;
+    maxValueLong = fitsInLong ? maxValue.longValueExact() : 0;
   }
 
   public int getSize() {
@@ -72,8 +88,37 @@ public class BitVectorInfo implements TypeInfo {
     return maxValue;
   }
 
+  /**
+   * Return whether all values of this bit vector fit into a long. In this case, intervals of this
+   * bit vector use longs for their bounds internally, which is much cheaper than BigIntegers.
+   */
+  public boolean fitsInLong() {
+    return fitsInLong;
+  }
+
+  /** Return the minimum value as long, may only be called if {@link #fitsInLong()} is true. */
+  long getMinValueLong() {
+    assert fitsInLong;
+    return minValueLong;
+  }
+
+  /** Return the maximum value as long, may only be called if {@link #fitsInLong()} is true. */
+  long getMaxValueLong() {
+    assert fitsInLong;
+    return maxValueLong;
+  }
+
   public BitVectorInterval getRange() {
-    return BitVectorInterval.of(this, minValue, maxValue);
+    // benign race: the interval is immutable and all instances are equal
+    BitVectorInterval result = range;
+    if (result == null) {
+      result =
+          fitsInLong
+              ? BitVectorInterval.of(this, minValueLong, maxValueLong)
+              : BitVectorInterval.of(this, minValue, maxValue);
+      range = result;
+    }
+    return result;
   }
 
   @Override
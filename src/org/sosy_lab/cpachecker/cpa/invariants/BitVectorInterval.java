@@ -31,7 +31,7 @@ import com.google.common.base.Preconditions;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * This class represents simple convex ranges of BigIntegers.
@@ -39,19 +39,40 @@ import java.util.Objects;
  * concrete value or infinity. In case of a concrete value, the bound is assumed
  * to be included in the range.
  *
+ * If the bit vector fits into a long (cf. {@link BitVectorInfo#fitsInLong()}),
+ * the bounds are stored as primitive longs and BigIntegers are only created
+ * lazily if requested, because most operations can be computed on longs.
+ *
  * All instances of this class are immutable.
  */
 public class BitVectorInterval implements BitVectorType {
 
   /**
    * The lower bound of the interval.
+   * Computed lazily from {@link #lowerBoundLong} if {@link #isLong} is true.
    */
-  private final BigInteger lowerBound;
+  private @Nullable BigInteger lowerBound;
 
   /**
    * The upper bound of the interval.
+   * Computed lazily from {@link #upperBoundLong} if {@link #isLong} is true.
+   */
+  private @Nullable BigInteger upperBound;
+
+  /**
+   * The lower bound of the interval, only valid if {@link #isLong} is true.
+   */
+  private final long lowerBoundLong;
+
+  /**
+   * The upper bound of the interval, only valid if {@link #isLong} is true.
+   */
+  private final long upperBoundLong;
+
+  /**
+   * Whether the bounds are stored as longs.
    */
-  private final BigInteger upperBound;
+  private final boolean isLong;
 
   /**
    * Size and signedness.
@@ -78,6 +99,30 @@ public class BitVectorInterval implements BitVectorType {
     info = pInfo;
     lowerBound = pLowerBound;
     upperBound = pUpperBound;
+    isLong = pInfo.fitsInLong();
+    lowerBoundLong = isLong ? pLowerBound.longValueExact() : 0;
+    upperBoundLong = isLong ? pUpperBound.longValueExact() : 0;
+  }
+
+  /**
+   * Creates a new interval from the given lower bound to the given upper bound
+   * for a bit vector that fits into a long.
+   *
+   * @param pLowerBound the lower bound of the interval.
+   * @param pUpperBound the upper bound of the interval.
+   */
+  private BitVectorInterval(BitVectorInfo pInfo, long pLowerBound, long pUpperBound) {
+    checkArgument(pInfo.fitsInLong(), "bit vector does not fit into a long");
+    checkArgument(pLowerBound <= pUpperBound, "lower endpoint greater than upper end point");
+    checkArgument(pLowerBound >= pInfo.getMinValueLong(), "lower bound must fit the bit vector");
+    checkArgument(pUpperBound <= pInfo.getMaxValueLong(), "upper bound must fit the bit vector");
+
+    info = pInfo;
+    lowerBound = null;
+    upperBound = null;
+    isLong = true;
+    lowerBoundLong = pLowerBound;
+    upperBoundLong = pUpperBound;
   }
 
   /**
@@ -94,14 +139,54 @@ public class BitVectorInterval implements BitVectorType {
    * Return lower bound (may only be called if {@link #hasLowerBound()} returns true.
    */
   public BigInteger getLowerBound() {
-    return lowerBound;
+    // benign race: BigIntegers are immutable and all instances are equal
+    BigInteger result = lowerBound;
+    if (result == null) {
+      result = BigInteger.valueOf(lowerBoundLong);
+      lowerBound = result;
+    }
+    return result;
   }
 
   /**
    * Return upper bound (may only be called if {@link #hasUpperBound()} returns true.
    */
   public BigInteger getUpperBound() {
-    return upperBound;
+    BigInteger result = upperBound;
+    if (result == null) {
+      result = BigInteger.valueOf(upperBoundLong);
+      upperBound = result;
+    }
+    return result;
+  }
+
+  /**
+   * Return whether the bounds of this interval are available as longs
+   * via {@link #getLowerBoundLong()} and {@link #getUpperBoundLong()}.
+   * This is the case if {@link BitVectorInfo#fitsInLong()} is true.
+   */
+  public boolean isLong() {
+    return isLong;
+  }
+
+  /**
+   * Return lower bound as long (may only be called if {@link #isLong()} returns true).
+   */
+  public long getLowerBoundLong() {
+    checkState(isLong);
+    return lowerBoundLong;
+  }
+
+  /**
+   * Return upper bound as long (may only be called if {@link #isLong()} returns true).
+   */
+  public long getUpperBoundLong() {
+    checkState(isLong);
+    return upperBoundLong;
+  }
+
+  private boolean bothLong(BitVectorInterval pOther) {
+    return isLong && pOther.isLong;
   }
 
   /**
@@ -135,26 +220,38 @@ public class BitVectorInterval implements BitVectorType {
     if (pOther.isSingleton() || contains(pOther)) {
       return pOther;
     }
+    if (bothLong(pOther)) {
+      return new BitVectorInterval(
+          info,
+          Math.max(lowerBoundLong, pOther.lowerBoundLong),
+          Math.min(upperBoundLong, pOther.upperBoundLong));
+    }
     // The lower bound of this interval is a candidate for the new lower bound
     // The lower bound of the other interval is a candidate as well
     // The new lower bound is the maximum of both lower bounds.
-    BigInteger newLowerBound = this.lowerBound.max(pOther.getLowerBound());
+    BigInteger newLowerBound = getLowerBound().max(pOther.getLowerBound());
 
     // The upper bound of this interval is a candidate for the new lower bound
     // The upper bound of the other interval is a candidate as well
     // The new upper bound is the minimum of both upper bounds.
-    BigInteger newUpperBound = this.upperBound.min(pOther.getUpperBound());
+    BigInteger newUpperBound = getUpperBound().min(pOther.getUpperBound());
 
     return new BitVectorInterval(info, newLowerBound, newUpperBound);
   }
 
   public BitVectorInterval getNegativePart() {
     Preconditions.checkArgument(containsNegative(), "This interval has no negative part.");
+    if (isLong) {
+      return BitVectorInterval.of(info, lowerBoundLong, Math.min(-1, upperBoundLong));
+    }
     return BitVectorInterval.of(info, lowerBound, BigInteger.valueOf(-1).min(upperBound));
   }
 
   public BitVectorInterval getPositivePart() {
     Preconditions.checkArgument(containsPositive(), "This interval has no positive part.");
+    if (isLong) {
+      return BitVectorInterval.of(info, Math.max(1, lowerBoundLong), upperBoundLong);
+    }
     return BitVectorInterval.of(info, BigInteger.ONE.max(lowerBound), upperBound);
   }
 
@@ -180,6 +277,9 @@ public class BitVectorInterval implements BitVectorType {
    * positive value, <code>false</code> otherwise.
    */
   public boolean containsPositive() {
+    if (isLong) {
+      return upperBoundLong > 0;
+    }
     return upperBound.signum() == 1;
   }
 
@@ -189,6 +289,9 @@ public class BitVectorInterval implements BitVectorType {
    * <code>false</code> otherwise.
    */
   public boolean containsZero() {
+    if (isLong) {
+      return upperBoundLong >= 0 && lowerBoundLong <= 0;
+    }
     return upperBound.signum() >= 0
         && lowerBound.signum() <= 0;
   }
@@ -199,6 +302,13 @@ public class BitVectorInterval implements BitVectorType {
    * <code>false</code> otherwise.
    */
   public boolean contains(BigInteger pValue) {
+    if (isLong) {
+      if (pValue.bitLength() >= Long.SIZE) {
+        return false;
+      }
+      long value = pValue.longValue();
+      return upperBoundLong >= value && lowerBoundLong <= value;
+    }
     return upperBound.compareTo(pValue) >= 0
         && lowerBound.compareTo(pValue) <= 0;
   }
@@ -209,6 +319,9 @@ public class BitVectorInterval implements BitVectorType {
    * negative value, <code>false</code> otherwise.
    */
   public boolean containsNegative() {
+    if (isLong) {
+      return lowerBoundLong < 0;
+    }
     return lowerBound.signum() == -1;
   }
 
@@ -219,7 +332,13 @@ public class BitVectorInterval implements BitVectorType {
    * @return The upper bound minus the lower bound plus one.
    */
   public BigInteger size() {
-    return upperBound.subtract(lowerBound).add(BigInteger.ONE);
+    if (isLong) {
+      long difference = upperBoundLong - lowerBoundLong;
+      if (difference >= 0 && difference < Long.MAX_VALUE) {
+        return BigInteger.valueOf(difference + 1);
+      }
+    }
+    return getUpperBound().subtract(getLowerBound()).add(BigInteger.ONE);
   }
 
   /**
@@ -231,6 +350,9 @@ public class BitVectorInterval implements BitVectorType {
    * single value, <code>false</code> otherwise.
    */
   public boolean isSingleton() {
+    if (isLong) {
+      return lowerBoundLong == upperBoundLong;
+    }
     return lowerBound.equals(upperBound);
   }
 
@@ -245,8 +367,15 @@ public class BitVectorInterval implements BitVectorType {
    * @return the mathematical negation of this interval.
    */
   public BitVectorInterval negate(boolean pAllowSignedWrapAround, OverflowEventHandler pOverflowEventHandler) {
-    BigInteger newLowerBound = upperBound.negate();
-    BigInteger newUpperBound = lowerBound.negate();
+    if (isLong && lowerBoundLong != Long.MIN_VALUE) {
+      long newLowerBound = -upperBoundLong;
+      long newUpperBound = -lowerBoundLong;
+      if (newLowerBound >= info.getMinValueLong() && newUpperBound <= info.getMaxValueLong()) {
+        return new BitVectorInterval(info, newLowerBound, newUpperBound);
+      }
+    }
+    BigInteger newLowerBound = getUpperBound().negate();
+    BigInteger newUpperBound = getLowerBound().negate();
 
     boolean lbExceedsBelow = newLowerBound.compareTo(info.getMinValue()) < 0;
     boolean lbExceedsAbove = !lbExceedsBelow && newLowerBound.compareTo(info.getMaxValue()) > 0;
@@ -307,6 +436,30 @@ public class BitVectorInterval implements BitVectorType {
     return BitVectorInterval.singleton(pInfo, value);
   }
 
+  /**
+   * Cast the given interval to the given bit vector, like {@link #cast(BitVectorInfo, BigInteger,
+   * BigInteger, boolean, OverflowEventHandler)}, but without creating BigIntegers in the common
+   * case that the bounds fit into the bit vector.
+   */
+  public static BitVectorInterval cast(BitVectorInfo pInfo,
+      long pLowerBound,
+      long pUpperBound,
+      boolean pAllowSignedWrapAround,
+      OverflowEventHandler pOverflowEventHandler) {
+    if (pInfo.fitsInLong()
+        && pLowerBound <= pUpperBound
+        && pLowerBound >= pInfo.getMinValueLong()
+        && pUpperBound <= pInfo.getMaxValueLong()) {
+      return new BitVectorInterval(pInfo, pLowerBound, pUpperBound);
+    }
+    return cast(
+        pInfo,
+        BigInteger.valueOf(pLowerBound),
+        BigInteger.valueOf(pUpperBound),
+        pAllowSignedWrapAround,
+        pOverflowEventHandler);
+  }
+
   public static BitVectorInterval cast(BitVectorInfo pInfo,
       BigInteger pLowerBound,
       BigInteger pUpperBound,
@@ -386,6 +539,12 @@ public class BitVectorInterval implements BitVectorType {
    * allowed by the bit vector size.
    */
   public BitVectorInterval extendToMaxValue() {
+    if (isLong) {
+      if (upperBoundLong == info.getMaxValueLong()) {
+        return this;
+      }
+      return new BitVectorInterval(info, lowerBoundLong, info.getMaxValueLong());
+    }
     if (upperBound.equals(info.getMaxValue())) {
       return this;
     }
@@ -400,6 +559,12 @@ public class BitVectorInterval implements BitVectorType {
    * allowed by the bit vector size.
    */
   public BitVectorInterval extendToMinValue() {
+    if (isLong) {
+      if (lowerBoundLong == info.getMinValueLong()) {
+        return this;
+      }
+      return new BitVectorInterval(info, info.getMinValueLong(), upperBoundLong);
+    }
     if (lowerBound.equals(info.getMinValue())) {
       return this;
     }
@@ -415,17 +580,37 @@ public class BitVectorInterval implements BitVectorType {
     }
 
     BitVectorInterval other = (BitVectorInterval) pObj;
-    return Objects.equals(this.lowerBound, other.lowerBound)
-        && Objects.equals(this.upperBound, other.upperBound);
+    if (bothLong(other)) {
+      return lowerBoundLong == other.lowerBoundLong && upperBoundLong == other.upperBoundLong;
+    }
+    return getLowerBound().equals(other.getLowerBound())
+        && getUpperBound().equals(other.getUpperBound());
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(lowerBound, upperBound);
+    // Needs to be consistent between long-based and BigInteger-based intervals,
+    // so we hash the long value whenever the bounds fit into a long.
+    return 31 * hashBound(isLong, lowerBoundLong, lowerBound)
+        + hashBound(isLong, upperBoundLong, upperBound);
+  }
+
+  private static int hashBound(boolean pIsLong, long pLongValue, @Nullable BigInteger pValue) {
+    if (pIsLong) {
+      return Long.hashCode(pLongValue);
+    }
+    assert pValue != null;
+    if (pValue.bitLength() < Long.SIZE) {
+      return Long.hashCode(pValue.longValue());
+    }
+    return pValue.hashCode();
   }
 
   @Override
   public String toString() {
+    if (isLong) {
+      return "[" + lowerBoundLong + ", " + upperBoundLong + "]";
+    }
     return "[" + lowerBound + ", " + upperBound + "]";
   }
 
@@ -442,9 +627,12 @@ public class BitVectorInterval implements BitVectorType {
     if (pOther == null) {
       return false;
     }
+    if (bothLong(pOther)) {
+      return lowerBoundLong <= pOther.lowerBoundLong && upperBoundLong >= pOther.upperBoundLong;
+    }
 
-    return this.lowerBound.compareTo(pOther.lowerBound) <= 0
-        && this.upperBound.compareTo(pOther.upperBound) >= 0;
+    return getLowerBound().compareTo(pOther.getLowerBound()) <= 0
+        && getUpperBound().compareTo(pOther.getUpperBound()) >= 0;
   }
 
   /**
@@ -460,8 +648,12 @@ public class BitVectorInterval implements BitVectorType {
   public boolean touches(BitVectorInterval pOther) {
     if (pOther == null) { return false; }
     if (intersectsWith(pOther)) { return true; }
-    return pOther.upperBound.add(BigInteger.ONE).equals(this.lowerBound)
-        || this.upperBound.add(BigInteger.ONE).equals(pOther.lowerBound);
+    if (bothLong(pOther)) {
+      return (pOther.upperBoundLong != Long.MAX_VALUE && pOther.upperBoundLong + 1 == lowerBoundLong)
+          || (upperBoundLong != Long.MAX_VALUE && upperBoundLong + 1 == pOther.lowerBoundLong);
+    }
+    return pOther.getUpperBound().add(BigInteger.ONE).equals(getLowerBound())
+        || getUpperBound().add(BigInteger.ONE).equals(pOther.getLowerBound());
   }
 
   /**
@@ -475,8 +667,11 @@ public class BitVectorInterval implements BitVectorType {
 
     // this is [a, b]; other is [c, d]
     // result is true if a <= d and b >= c
-    boolean aLessThanOrEqB = this.lowerBound.compareTo(other.upperBound) <= 0;
-    boolean bGreaterThanOrEqC = this.upperBound.compareTo(other.lowerBound) >= 0;
+    if (bothLong(other)) {
+      return lowerBoundLong <= other.upperBoundLong && upperBoundLong >= other.lowerBoundLong;
+    }
+    boolean aLessThanOrEqB = getLowerBound().compareTo(other.getUpperBound()) <= 0;
+    boolean bGreaterThanOrEqC = getUpperBound().compareTo(other.getLowerBound()) >= 0;
     return aLessThanOrEqB && bGreaterThanOrEqC;
   }
 
@@ -544,6 +739,13 @@ public class BitVectorInterval implements BitVectorType {
     return new BitVectorInterval(pInfo, pI, pI);
   }
 
+  public static BitVectorInterval singleton(BitVectorInfo pInfo, long pI) {
+    if (pInfo.fitsInLong()) {
+      return new BitVectorInterval(pInfo, pI, pI);
+    }
+    return singleton(pInfo, BigInteger.valueOf(pI));
+  }
+
   public static BitVectorInterval greaterOrEqual(BitVectorInfo pInfo, BigInteger pI) {
     return singleton(pInfo, pI).extendToMaxValue();
   }
@@ -556,28 +758,35 @@ public class BitVectorInterval implements BitVectorType {
     return new BitVectorInterval(pInfo, pLowerBound, pUpperBound);
   }
 
+  public static BitVectorInterval of(BitVectorInfo pInfo, long pLowerBound, long pUpperBound) {
+    if (pInfo.fitsInLong()) {
+      return new BitVectorInterval(pInfo, pLowerBound, pUpperBound);
+    }
+    return of(pInfo, BigInteger.valueOf(pLowerBound), BigInteger.valueOf(pUpperBound));
+  }
+
   /**
    * Create the smallest interval that contains two given intervals;
    */
   public static BitVectorInterval span(BitVectorInterval a, BitVectorInterval b) {
     a.checkBitVectorCompatibilityWith(b);
-    BigInteger lower;
-    if (a.lowerBound == null || b.lowerBound == null) {
-      lower = null;
-    } else {
-      lower = a.lowerBound.min(b.lowerBound);
-    }
-
-    BigInteger upper;
-    if (a.upperBound == null || b.upperBound == null) {
-      upper = null;
-    } else {
-      upper = a.upperBound.max(b.upperBound);
+    if (a.bothLong(b)) {
+      if (a.contains(b)) {
+        return a;
+      } else if (b.contains(a)) {
+        return b;
+      }
+      return new BitVectorInterval(
+          a.info,
+          Math.min(a.lowerBoundLong, b.lowerBoundLong),
+          Math.max(a.upperBoundLong, b.upperBoundLong));
     }
+    BigInteger lower = a.getLowerBound().min(b.getLowerBound());
+    BigInteger upper = a.getUpperBound().max(b.getUpperBound());
 
-    if (Objects.equals(lower, a.lowerBound) && Objects.equals(upper, a.upperBound)) {
+    if (lower.equals(a.getLowerBound()) && upper.equals(a.getUpperBound())) {
       return a;
-    } else if (Objects.equals(lower, b.lowerBound) && Objects.equals(upper, b.upperBound)) {
+    } else if (lower.equals(b.getLowerBound()) && upper.equals(b.getUpperBound())) {
       return b;
     } else {
       return new BitVectorInterval(a.info, lower, upper);
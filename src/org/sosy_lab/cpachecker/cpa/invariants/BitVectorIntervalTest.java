@@ -0,0 +1,106 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.invariants;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.math.BigInteger;
+import org.junit.Test;
+
+public class BitVectorIntervalTest {
+
+  private static final BitVectorInfo INT = BitVectorInfo.from(32, true);
+
+  private static final BitVectorInfo LONG = BitVectorInfo.from(64, true);
+
+  private static final BitVectorInfo ULONG = BitVectorInfo.from(64, false);
+
+  private static final BigInteger LONG_MAX = BigInteger.valueOf(Long.MAX_VALUE);
+
+  private static final BigInteger LONG_MIN = BigInteger.valueOf(Long.MIN_VALUE);
+
+  @Test
+  public void testFitsInLong() {
+    assertThat(INT.fitsInLong()).isTrue();
+    assertThat(LONG.fitsInLong()).isTrue();
+    assertThat(BitVectorInfo.from(63, false).fitsInLong()).isTrue();
+    assertThat(ULONG.fitsInLong()).isFalse();
+    assertThat(BitVectorInfo.from(65, true).fitsInLong()).isFalse();
+  }
+
+  @Test
+  public void testLongAndBigIntegerConstructionAreEqual() {
+    BitVectorInterval fromLong = BitVectorInterval.of(INT, -5, 7);
+    BitVectorInterval fromBigInteger =
+        BitVectorInterval.of(INT, BigInteger.valueOf(-5), BigInteger.valueOf(7));
+    assertThat(fromLong.isLong()).isTrue();
+    assertThat(fromBigInteger.isLong()).isTrue();
+    assertThat(fromLong).isEqualTo(fromBigInteger);
+    assertThat(fromLong.hashCode()).isEqualTo(fromBigInteger.hashCode());
+    assertThat(fromLong.getLowerBound()).isEqualTo(BigInteger.valueOf(-5));
+    assertThat(fromLong.getUpperBound()).isEqualTo(BigInteger.valueOf(7));
+    assertThat(fromLong.size()).isEqualTo(BigInteger.valueOf(13));
+  }
+
+  @Test
+  public void testUnsignedLongUsesBigInteger() {
+    BitVectorInterval range = ULONG.getRange();
+    assertThat(range.isLong()).isFalse();
+    assertThat(range.getUpperBound()).isEqualTo(LONG_MAX.shiftLeft(1).add(BigInteger.ONE));
+    assertThat(BitVectorInterval.singleton(ULONG, 5).getLowerBound())
+        .isEqualTo(BigInteger.valueOf(5));
+  }
+
+  @Test
+  public void testLongRange() {
+    BitVectorInterval range = LONG.getRange();
+    assertThat(range.isLong()).isTrue();
+    assertThat(range.getLowerBound()).isEqualTo(LONG_MIN);
+    assertThat(range.getUpperBound()).isEqualTo(LONG_MAX);
+    assertThat(range.size()).isEqualTo(BigInteger.ONE.shiftLeft(64));
+    assertThat(range.contains(LONG_MAX.add(BigInteger.ONE))).isFalse();
+    assertThat(range.negate(true, OverflowEventHandler.EMPTY)).isEqualTo(range);
+  }
+
+  @Test
+  public void testCastWithLongOverflow() {
+    // the sum does not fit into a long, so the computation needs to fall back to BigIntegers
+    BitVectorInterval max = BitVectorInterval.singleton(LONG, Long.MAX_VALUE);
+    BitVectorInterval sum =
+        CompoundBitVectorInterval.of(max)
+            .add(CompoundBitVectorInterval.of(max), true, OverflowEventHandler.EMPTY)
+            .getBitVectorIntervals()
+            .get(0);
+    assertThat(sum).isEqualTo(BitVectorInterval.singleton(LONG, -2));
+  }
+
+  @Test
+  public void testTouchesAtLongBounds() {
+    BitVectorInterval upper = BitVectorInterval.of(LONG, 0, Long.MAX_VALUE);
+    BitVectorInterval lower = BitVectorInterval.of(LONG, Long.MIN_VALUE, -1);
+    assertThat(upper.touches(lower)).isTrue();
+    assertThat(lower.touches(upper)).isTrue();
+    assertThat(BitVectorInterval.span(lower, upper)).isEqualTo(LONG.getRange());
+  }
+}
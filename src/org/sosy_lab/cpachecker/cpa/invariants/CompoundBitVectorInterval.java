@@ -199,9 +199,8 @@ public class CompoundBitVectorInterval implements CompoundIntegralInterval, BitV
     int start = 0;
     BitVectorInterval lastInterval = null;
     if (pOther.hasLowerBound() && hasUpperBound()) {
-      BigInteger pOtherLB = pOther.getLowerBound();
       BitVectorInterval currentLocal = this.intervals[start];
-      while (currentLocal != null && pOtherLB.compareTo(currentLocal.getUpperBound()) > 0) {
+      while (currentLocal != null && lowerBoundAboveUpperBound(pOther, currentLocal)) {
         resultIntervals.add(currentLocal);
         ++start;
         lastInterval = currentLocal;
@@ -234,7 +233,7 @@ public class CompoundBitVectorInterval implements CompoundIntegralInterval, BitV
           currentInserted = true;
         } else {
           if (!pOther.hasLowerBound()
-              || (interval.hasLowerBound() && less(pOther.getLowerBound(), interval.getLowerBound()))) {
+              || (interval.hasLowerBound() && lowerBoundBelowLowerBound(pOther, interval))) {
             resultIntervals.add(pOther);
             inserted = true;
           }
@@ -295,14 +294,20 @@ public class CompoundBitVectorInterval implements CompoundIntegralInterval, BitV
     CompoundBitVectorInterval result = bottom(info);
     final int lbIndex;
     if (pOther.hasLowerBound()) {
-      int intervalIndex = intervalIndexOf(pOther.getLowerBound());
+      int intervalIndex =
+          pOther.isLong()
+              ? intervalIndexOf(pOther.getLowerBoundLong())
+              : intervalIndexOf(pOther.getLowerBound());
       lbIndex = intervalIndex >= 0 ? intervalIndex : (-intervalIndex - 1);
     } else {
       lbIndex = 0;
     }
     final int ubIndex;
     if (pOther.hasUpperBound()) {
-      int intervalIndex = intervalIndexOf(pOther.getUpperBound());
+      int intervalIndex =
+          pOther.isLong()
+              ? intervalIndexOf(pOther.getUpperBoundLong())
+              : intervalIndexOf(pOther.getUpperBound());
       ubIndex = intervalIndex >= 0 ? intervalIndex : (-intervalIndex - 1);
     } else {
       ubIndex = this.intervals.length - 1;
@@ -405,6 +410,9 @@ public class CompoundBitVectorInterval implements CompoundIntegralInterval, BitV
   }
 
   private int intervalIndexOf(BigInteger value) {
+    if (info.fitsInLong() && value.bitLength() < Long.SIZE) {
+      return intervalIndexOf(value.longValue());
+    }
     if (isBottom()) {
       return -1;
     }
@@ -432,6 +440,37 @@ public class CompoundBitVectorInterval implements CompoundIntegralInterval, BitV
     return index == 0 ? -1 : -index;
   }
 
+  /**
+   * Same as {@link #intervalIndexOf(BigInteger)}, but avoids BigIntegers.
+   * May only be called if the bit vector fits into a long.
+   */
+  private int intervalIndexOf(long value) {
+    assert info.fitsInLong();
+    if (isBottom()) {
+      return -1;
+    }
+    if (containsAllPossibleValues()) {
+      return 0;
+    }
+    int leftInclusive = 0;
+    int rightExclusive = this.intervals.length;
+    int index = rightExclusive / 2;
+    while (leftInclusive < rightExclusive) {
+      BitVectorInterval intervalAtIndex = this.intervals[index];
+      if (intervalAtIndex.getLowerBoundLong() <= value) { // Interval at index starts before the value
+        if (intervalAtIndex.getUpperBoundLong() >= value) { // Interval at index ends after the value
+          return index;
+        }
+        // Interval at index ends before the value
+        leftInclusive = index + 1;
+      } else { // Interval at index starts after the value
+        rightExclusive = index;
+      }
+      index = IntMath.mean(leftInclusive, rightExclusive);
+    }
+    return index == 0 ? -1 : -index;
+  }
+
   /**
    * Checks if the given big integer value is contained in this state.
    * @param pValue the value to check for.
@@ -459,6 +498,9 @@ public class CompoundBitVectorInterval implements CompoundIntegralInterval, BitV
    */
   public boolean contains(long pValue) {
     if (isBottom()) { return false; }
+    if (info.fitsInLong()) {
+      return intervalIndexOf(pValue) >= 0;
+    }
     BigInteger value = BigInteger.valueOf(pValue);
     return intervalIndexOf(value) >= 0;
   }
@@ -1768,35 +1810,23 @@ public class CompoundBitVectorInterval implements CompoundIntegralInterval, BitV
   private static BitVectorInterval union(BitVectorInterval pA, BitVectorInterval pB) {
     Preconditions.checkArgument(pA.getTypeInfo().equals(pB.getTypeInfo()));
     Preconditions.checkArgument(pA.touches(pB), "Cannot unite intervals that do not touch.");
-    return BitVectorInterval.of(pA.getTypeInfo(), lowestBound(pA, pB), highestBound(pA, pB));
+    return BitVectorInterval.span(pA, pB);
   }
 
-  /**
-   * Returns the lowest bound of the two given intervals.
-   *
-   * @param pA one if the intervals to get the lowest lower bound from.
-   * @param pB one if the intervals to get the lowest lower bound from.
-   *
-   * @return the lowest bound of the two given intervals.
-   */
-  private static BigInteger lowestBound(BitVectorInterval pA, BitVectorInterval pB) {
-    BigInteger aLowerBound = pA.getLowerBound();
-    BigInteger bLowerBound = pB.getLowerBound();
-    return lessOrEqual(aLowerBound, bLowerBound) ? aLowerBound : bLowerBound;
+  /** Checks if the lower bound of the first interval is above the upper bound of the second. */
+  private static boolean lowerBoundAboveUpperBound(BitVectorInterval pA, BitVectorInterval pB) {
+    if (pA.isLong() && pB.isLong()) {
+      return pA.getLowerBoundLong() > pB.getUpperBoundLong();
+    }
+    return pA.getLowerBound().compareTo(pB.getUpperBound()) > 0;
   }
 
-  /**
-   * Returns the highest bound of the two given intervals.
-   *
-   * @param pA one if the intervals to get the highest upper bound from.
-   * @param pB one if the intervals to get the highest upper bound from.
-   *
-   * @return the highest bound of the two given intervals.
-   */
-  private static BigInteger highestBound(BitVectorInterval pA, BitVectorInterval pB) {
-    BigInteger aUpperBound = pA.getUpperBound();
-    BigInteger bUpperBound = pB.getUpperBound();
-    return lessOrEqual(bUpperBound, aUpperBound) ? aUpperBound : bUpperBound;
+  /** Checks if the lower bound of the first interval is below the lower bound of the second. */
+  private static boolean lowerBoundBelowLowerBound(BitVectorInterval pA, BitVectorInterval pB) {
+    if (pA.isLong() && pB.isLong()) {
+      return pA.getLowerBoundLong() < pB.getLowerBoundLong();
+    }
+    return less(pA.getLowerBound(), pB.getLowerBound());
   }
 
   /**
@@ -1812,18 +1842,6 @@ public class CompoundBitVectorInterval implements CompoundIntegralInterval, BitV
     return pFirst.compareTo(pSecond) < 0;
   }
 
-  /**
-   * Checks if the first given big integer is less than or equal to the second given big integer, none of which may be <code>null</code>.
-   *
-   * @param pFirst the value being compared to the reference value.
-   * @param pSecond the reference value.
-   *
-   * @return <code>true</code> if <code>pFirst</code> is less than or equal to <code>pSecond</code>, <code>false</code> otherwise.
-   */
-  private static boolean lessOrEqual(BigInteger pFirst, BigInteger pSecond) {
-    return pFirst.compareTo(pSecond) <= 0;
-  }
-
   /**
    * Creates a new compound state from the given simple interval.
    *
@@ -1858,7 +1876,7 @@ public class CompoundBitVectorInterval implements CompoundIntegralInterval, BitV
    * @return a compound state representing the given long value.
    */
   public static CompoundBitVectorInterval singleton(BitVectorInfo pInfo, long pValue) {
-    return singleton(pInfo, BigInteger.valueOf(pValue));
+    return CompoundBitVectorInterval.of(BitVectorInterval.singleton(pInfo, pValue));
   }
 
   /**
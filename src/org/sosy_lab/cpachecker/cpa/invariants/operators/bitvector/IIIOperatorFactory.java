@@ -80,6 +80,18 @@ public enum IIIOperatorFactory {
          * bounds for the new upper bound. If any of the summands is not
          * finite, the resulting bound isn't finite either.
          */
+        if (pOperand1.isLong()) {
+          try {
+            return BitVectorInterval.cast(
+                pOperand1.getTypeInfo(),
+                Math.addExact(pOperand1.getLowerBoundLong(), pOperand2.getLowerBoundLong()),
+                Math.addExact(pOperand1.getUpperBoundLong(), pOperand2.getUpperBoundLong()),
+                pAllowSignedWrapAround,
+                pOverflowEventHandler);
+          } catch (ArithmeticException e) {
+            // long overflow, fall back to BigIntegers
+          }
+        }
         BigInteger lowerBound = pOperand1.getLowerBound();
         BigInteger upperBound = pOperand1.getUpperBound();
         BigInteger pLowerBound = pOperand2.getLowerBound();
@@ -60,6 +60,19 @@ public enum ISIOperatorFactory {
         if (pFirstOperand.isTop() || pSecondOperand.equals(BigInteger.ZERO)) {
           return pFirstOperand;
         }
+        if (pFirstOperand.isLong() && pSecondOperand.bitLength() < Long.SIZE) {
+          long value = pSecondOperand.longValue();
+          try {
+            return BitVectorInterval.cast(
+                pFirstOperand.getTypeInfo(),
+                Math.addExact(pFirstOperand.getLowerBoundLong(), value),
+                Math.addExact(pFirstOperand.getUpperBoundLong(), value),
+                pAllowSignedWrapAround,
+                pOverflowEventHandler);
+          } catch (ArithmeticException e) {
+            // long overflow, fall back to BigIntegers
+          }
+        }
         BigInteger lowerBound = pFirstOperand.getLowerBound().add(pSecondOperand);
         BigInteger upperBound = pFirstOperand.getUpperBound().add(pSecondOperand);
         return BitVectorInterval.cast(
@@ -129,6 +142,19 @@ public enum ISIOperatorFactory {
          * Infinite bounds stay infinite, finite bounds are multiplied with
          * the factor.
          */
+        if (pFirstOperand.isLong() && pSecondOperand.bitLength() < Long.SIZE) {
+          long value = pSecondOperand.longValue();
+          try {
+            return BitVectorInterval.cast(
+                pFirstOperand.getTypeInfo(),
+                Math.multiplyExact(pFirstOperand.getLowerBoundLong(), value),
+                Math.multiplyExact(pFirstOperand.getUpperBoundLong(), value),
+                pAllowSignedWrapAround,
+                pOverflowEventHandler);
+          } catch (ArithmeticException e) {
+            // long overflow, fall back to BigIntegers
+          }
+        }
         BigInteger lowerBound = pFirstOperand.getLowerBound().multiply(pSecondOperand);
         BigInteger upperBound = pFirstOperand.getUpperBound().multiply(pSecondOperand);
         return BitVectorInterval.cast(
@@ -62,4 +62,9 @@ public class LocationTransferRelation implements TransferRelation {
     CFANode node = ((LocationState) element).getLocationNode();
     return CFAUtils.successorsOf(node).transform(n -> factory.getState(n)).toList();
   }
+
+  @Override
+  public boolean isThreadSafe() {
+    return true;
+  }
 }
@@ -0,0 +1,422 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.predicate;
+
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
+import org.sosy_lab.common.ShutdownManager;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.TimeSpan;
+import org.sosy_lab.common.time.Timer;
+import org.sosy_lab.cpachecker.util.predicates.AbstractionPredicate;
+import org.sosy_lab.cpachecker.util.predicates.regions.Region;
+import org.sosy_lab.cpachecker.util.predicates.regions.RegionCreator;
+import org.sosy_lab.cpachecker.util.predicates.regions.RegionCreator.RegionBuilder;
+import org.sosy_lab.cpachecker.util.predicates.smt.BooleanFormulaManagerView;
+import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
+import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
+import org.sosy_lab.java_smt.api.BasicProverEnvironment.AllSatCallback;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * Computation of Boolean abstractions that splits the set of predicates into partitions and
+ * computes the abstraction for each partition concurrently, each with its own solver instance.
+ *
+ * <p>Predicates that share variables are always put into the same partition. The conjunction of
+ * the partial abstractions is an over-approximation of the Boolean abstraction with all
+ * predicates, but may be less precise if the abstracted formula relates variables from different
+ * partitions.
+ *
+ * <p>Formulas are translated into the worker solvers by the calling thread, such that each solver
+ * context is only used by one thread at a time. Regions are only created by the calling thread.
+ */
+@Options(prefix = "cpa.predicate.abstraction.parallel")
+class ParallelBooleanAbstraction implements AutoCloseable {
+
+  @Option(
+    secure = true,
+    description =
+        "number of solver instances that are used concurrently for Boolean abstraction "
+            + "(1 disables the partitioning of predicates)"
+  )
+  @IntegerOption(min = 1)
+  private int threads = 1;
+
+  @Option(
+    secure = true,
+    description =
+        "minimal number of predicates for which Boolean abstraction is split into partitions"
+  )
+  @IntegerOption(min = 2)
+  private int minPredicates = 20;
+
+  private final Configuration config;
+  private final LogManager logger;
+  private final ShutdownNotifier shutdownNotifier;
+  private final FormulaManagerView fmgr;
+  private final RegionCreator rmgr;
+
+  private final List<Solver> workerSolvers = new ArrayList<>();
+  private ExecutorService executor = null;
+
+  /** Used to abort the worker solvers when the current workers are discarded. */
+  private ShutdownManager workerShutdownManager = null;
+
+  // statistics
+  private final Timer parallelAbstractionTime = new Timer();
+  private long partitionTime = 0; // nanoseconds, summed over all partitions
+  private long maxPartitionTime = 0; // nanoseconds
+  private int numPartitions = 0;
+  private int numSkipped = 0;
+
+  ParallelBooleanAbstraction(
+      Configuration pConfig,
+      LogManager pLogger,
+      ShutdownNotifier pShutdownNotifier,
+      FormulaManagerView pFmgr,
+      RegionCreator pRmgr)
+      throws InvalidConfigurationException {
+    pConfig.inject(this);
+    config = pConfig;
+    logger = pLogger;
+    shutdownNotifier = pShutdownNotifier;
+    fmgr = pFmgr;
+    rmgr = pRmgr;
+  }
+
+  boolean isEnabled() {
+    return threads > 1;
+  }
+
+  /**
+   * Compute the Boolean abstraction of a formula with the given predicates by splitting the
+   * predicates into partitions.
+   *
+   * @param f The instantiated formula to abstract.
+   * @param predicates The predicates for the abstraction.
+   * @param instantiator A function that will be applied to instantiate each abstraction predicate.
+   * @return An over-approximation of f, or an empty Optional if the predicates cannot be split
+   *     into several partitions.
+   */
+  Optional<Region> computeAbstraction(
+      final BooleanFormula f,
+      final Collection<AbstractionPredicate> predicates,
+      final Function<BooleanFormula, BooleanFormula> instantiator)
+      throws SolverException, InterruptedException {
+    if (predicates.size() < minPredicates) {
+      return Optional.empty();
+    }
+    List<List<AbstractionPredicate>> partitions = partition(predicates);
+    if (partitions.size() < 2) {
+      numSkipped++;
+      return Optional.empty();
+    }
+
+    parallelAbstractionTime.start();
+    List<Future<PartialAbstraction>> futures = new ArrayList<>(partitions.size());
+    List<PartialAbstraction> partialAbstractions = new ArrayList<>(partitions.size());
+    try {
+      initWorkers();
+      for (int i = 0; i < partitions.size(); i++) {
+        futures.add(
+            executor.submit(
+                newAbstractionTask(workerSolvers.get(i), f, partitions.get(i), instantiator)));
+      }
+      for (Future<PartialAbstraction> future : futures) {
+        partialAbstractions.add(future.get());
+      }
+
+    } catch (ExecutionException e) {
+      discardWorkers(futures);
+      Throwable t = e.getCause();
+      Throwables.propagateIfPossible(t, SolverException.class, InterruptedException.class);
+      throw new UnexpectedCheckedException("parallel Boolean abstraction", t);
+
+    } catch (InterruptedException e) {
+      discardWorkers(futures);
+      throw e;
+
+    } finally {
+      parallelAbstractionTime.stop();
+    }
+
+    Region result = rmgr.makeTrue();
+    for (PartialAbstraction partial : partialAbstractions) {
+      numPartitions++;
+      partitionTime += partial.time;
+      maxPartitionTime = Math.max(maxPartitionTime, partial.time);
+      result = rmgr.makeAnd(result, partial.toRegion());
+    }
+    return Optional.of(result);
+  }
+
+  /**
+   * Stop all running tasks and close the current workers. New workers are created if necessary,
+   * because the state of the solvers of aborted tasks is unknown.
+   */
+  private void discardWorkers(List<Future<PartialAbstraction>> futures) {
+    if (workerShutdownManager != null) {
+      workerShutdownManager.requestShutdown("parallel Boolean abstraction was aborted");
+    }
+    futures.forEach(future -> future.cancel(true));
+    closeWorkers();
+  }
+
+  /**
+   * Shut down the executor, wait until no task uses a worker solver anymore, and close the
+   * solvers.
+   */
+  private void closeWorkers() {
+    if (executor != null) {
+      executor.shutdownNow();
+      boolean interrupted = false;
+      while (!executor.isTerminated()) {
+        try {
+          executor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          // the solvers may only be closed after the tasks terminated
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+      executor = null;
+    }
+    workerSolvers.forEach(Solver::close);
+    workerSolvers.clear();
+    workerShutdownManager = null;
+  }
+
+  private void initWorkers() {
+    if (executor != null) {
+      return;
+    }
+    workerShutdownManager = ShutdownManager.createWithParent(shutdownNotifier);
+    try {
+      for (int i = 0; i < threads; i++) {
+        workerSolvers.add(Solver.create(config, logger, workerShutdownManager.getNotifier()));
+      }
+    } catch (InvalidConfigurationException e) {
+      // the same configuration was already used successfully for the main solver
+      throw new AssertionError(e);
+    }
+    executor =
+        Executors.newFixedThreadPool(
+            threads,
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("parallel-abstraction-%d")
+                .build());
+  }
+
+  /**
+   * Split the predicates into at most {@link #threads} partitions such that predicates that share
+   * variables are in the same partition.
+   */
+  private List<List<AbstractionPredicate>> partition(Collection<AbstractionPredicate> predicates) {
+    // clusters of predicates that are connected by common variables
+    List<Set<String>> clusterVariables = new ArrayList<>();
+    List<List<AbstractionPredicate>> clusters = new ArrayList<>();
+    for (AbstractionPredicate predicate : predicates) {
+      Set<String> variables = new HashSet<>(fmgr.extractVariableNames(predicate.getSymbolicAtom()));
+      List<AbstractionPredicate> cluster = new ArrayList<>();
+      cluster.add(predicate);
+
+      Iterator<Set<String>> varIt = clusterVariables.iterator();
+      Iterator<List<AbstractionPredicate>> clusterIt = clusters.iterator();
+      while (varIt.hasNext()) {
+        Set<String> otherVariables = varIt.next();
+        List<AbstractionPredicate> otherCluster = clusterIt.next();
+        if (!Collections.disjoint(variables, otherVariables)) {
+          variables.addAll(otherVariables);
+          cluster.addAll(otherCluster);
+          varIt.remove();
+          clusterIt.remove();
+        }
+      }
+      clusterVariables.add(variables);
+      clusters.add(cluster);
+    }
+
+    // distribute clusters over partitions, largest first into the currently smallest partition
+    clusters.sort(Comparator.comparingInt(List<AbstractionPredicate>::size).reversed());
+    List<List<AbstractionPredicate>> partitions = new ArrayList<>(threads);
+    for (List<AbstractionPredicate> cluster : clusters) {
+      if (partitions.size() < threads) {
+        partitions.add(new ArrayList<>(cluster));
+      } else {
+        Collections.min(partitions, Comparator.comparingInt(List::size)).addAll(cluster);
+      }
+    }
+    return partitions;
+  }
+
+  private Callable<PartialAbstraction> newAbstractionTask(
+      final Solver workerSolver,
+      final BooleanFormula f,
+      final List<AbstractionPredicate> predicates,
+      final Function<BooleanFormula, BooleanFormula> instantiator) {
+
+    // translate all formulas into the context of the worker solver in the current thread
+    final FormulaManagerView workerFmgr = workerSolver.getFormulaManager();
+    final BooleanFormulaManagerView workerBfmgr = workerFmgr.getBooleanFormulaManager();
+    final BooleanFormula workerF = workerFmgr.translateFrom(f, fmgr);
+    final Map<BooleanFormula, AbstractionPredicate> varToPredicate =
+        new HashMap<>(predicates.size());
+    final List<BooleanFormula> predVars = new ArrayList<>(predicates.size());
+    BooleanFormula predDef = workerBfmgr.makeTrue();
+    for (AbstractionPredicate p : predicates) {
+      BooleanFormula var = workerFmgr.translateFrom(p.getSymbolicVariable(), fmgr);
+      BooleanFormula def =
+          workerFmgr.translateFrom(instantiator.apply(p.getSymbolicAtom()), fmgr);
+      predDef = workerBfmgr.and(predDef, workerBfmgr.equivalence(var, def));
+      predVars.add(var);
+      varToPredicate.put(var, p);
+    }
+    final BooleanFormula workerPredDef = predDef;
+
+    return () -> {
+      long start = System.nanoTime();
+      try (ProverEnvironment prover =
+          workerSolver.newProverEnvironment(ProverOptions.GENERATE_ALL_SAT)) {
+        prover.push(workerF);
+        prover.push(workerPredDef);
+        List<List<AbstractionPredicate>> positive = new ArrayList<>();
+        List<List<AbstractionPredicate>> negative = new ArrayList<>();
+        prover.allSat(
+            new AllSatCallback<Void>() {
+              @Override
+              public void apply(List<BooleanFormula> model) {
+                List<AbstractionPredicate> pos = new ArrayList<>(model.size());
+                List<AbstractionPredicate> neg = new ArrayList<>(model.size());
+                for (BooleanFormula literal : model) {
+                  Optional<BooleanFormula> inner = workerFmgr.stripNegation(literal);
+                  AbstractionPredicate p = varToPredicate.get(inner.orElse(literal));
+                  (inner.isPresent() ? neg : pos).add(p);
+                }
+                positive.add(pos);
+                negative.add(neg);
+              }
+
+              @Override
+              public Void getResult() {
+                return null;
+              }
+            },
+            predVars);
+        return new PartialAbstraction(positive, negative, System.nanoTime() - start);
+      }
+    };
+  }
+
+  /** The models found by allSat for one partition. */
+  private class PartialAbstraction {
+
+    private final List<List<AbstractionPredicate>> positive;
+    private final List<List<AbstractionPredicate>> negative;
+    private final long time;
+
+    private PartialAbstraction(
+        List<List<AbstractionPredicate>> pPositive,
+        List<List<AbstractionPredicate>> pNegative,
+        long pTime) {
+      positive = pPositive;
+      negative = pNegative;
+      time = pTime;
+    }
+
+    private Region toRegion() throws InterruptedException {
+      RegionBuilder builder = rmgr.builder(shutdownNotifier);
+      try {
+        for (int i = 0; i < positive.size(); i++) {
+          builder.startNewConjunction();
+          for (AbstractionPredicate p : positive.get(i)) {
+            builder.addPositiveRegion(p.getAbstractVariable());
+          }
+          for (AbstractionPredicate p : negative.get(i)) {
+            builder.addNegativeRegion(p.getAbstractVariable());
+          }
+          builder.finishConjunction();
+        }
+        return builder.getResult();
+      } finally {
+        builder.close();
+      }
+    }
+  }
+
+  void printStatistics(PrintStream out) {
+    if (parallelAbstractionTime.getNumberOfIntervals() == 0 && numSkipped == 0) {
+      return;
+    }
+    TimeSpan sumPartitionTime = TimeSpan.ofNanos(partitionTime);
+    TimeSpan wallTime = parallelAbstractionTime.getSumTime();
+    out.println("Number of parallel Boolean abstractions: " + parallelAbstractionTime.getNumberOfIntervals());
+    out.println("  Number of partitions:                  " + numPartitions);
+    out.println("  Times predicates were not separable:   " + numSkipped);
+    out.println("  Time for partitions (sum):             " + sumPartitionTime.formatAs(TimeUnit.SECONDS));
+    out.println("  Max time for one partition:            " + TimeSpan.ofNanos(maxPartitionTime).formatAs(TimeUnit.SECONDS));
+    out.println("  Wall time for parallel abstraction:    " + parallelAbstractionTime);
+    if (!wallTime.isEmpty()) {
+      out.println(
+          "  Speedup of parallel abstraction:       "
+              + String.format("%.2f", (double) sumPartitionTime.asNanos() / wallTime.asNanos()));
+    }
+  }
+
+  @Override
+  public void close() {
+    closeWorkers();
+  }
+}
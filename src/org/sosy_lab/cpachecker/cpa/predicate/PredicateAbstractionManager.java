@@ -29,11 +29,16 @@ import static com.google.common.base.Predicates.equalTo;
 import com.google.common.base.Functions;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
+import com.google.common.hash.HashCode;
 import java.io.IOException;
+import java.io.PrintStream;
 import java.io.Writer;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
@@ -41,8 +46,6 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Deque;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -57,6 +60,7 @@ import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.collect.Collections3;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -69,6 +73,7 @@ import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.core.algorithm.invariants.InvariantSupplier;
 import org.sosy_lab.cpachecker.core.algorithm.invariants.InvariantSupplier.TrivialInvariantSupplier;
 import org.sosy_lab.cpachecker.cpa.callstack.CallstackStateEqualsWrapper;
+import org.sosy_lab.cpachecker.cpa.predicate.persistence.PersistentAbstractionCache;
 import org.sosy_lab.cpachecker.cpa.predicate.persistence.PredicateAbstractionsStorage;
 import org.sosy_lab.cpachecker.cpa.predicate.persistence.PredicateAbstractionsStorage.AbstractionNode;
 import org.sosy_lab.cpachecker.cpa.predicate.persistence.PredicatePersistenceUtils.PredicateParsingFailedException;
@@ -177,6 +182,27 @@ public class PredicateAbstractionManager {
   @Option(secure=true, name = "abs.useCache", description = "use caching of abstractions")
   private boolean useCache = true;
 
+  @Option(
+    secure = true,
+    name = "abs.maxCacheSize",
+    description =
+        "maximum number of entries in each of the abstraction caches, "
+            + "least-recently used entries are evicted if the limit is reached (-1 for unbounded)"
+  )
+  @IntegerOption(min = -1)
+  private int maxCacheSize = -1;
+
+  @Option(
+    secure = true,
+    name = "abs.persistentCache",
+    description =
+        "file with a persistent cache of abstraction results that is read at the start "
+            + "and updated at the end of the analysis, such that later runs on similar programs "
+            + "can reuse the abstractions of unchanged blocks (disabled if not set)"
+  )
+  @FileOption(FileOption.Type.OPTIONAL_INPUT_FILE)
+  private @Nullable Path persistentCacheFile;
+
   @Option(secure=true, name="refinement.splitItpAtoms",
       description="split each arithmetic equality into two inequalities when extracting predicates from interpolants")
   private boolean splitItpAtoms = false;
@@ -193,16 +219,20 @@ public class PredicateAbstractionManager {
 
   private boolean abstractionReuseDisabledBecauseOfAmbiguity = false;
 
-  private final Map<Pair<BooleanFormula, ImmutableSet<BooleanFormula>>, AbstractionFormula>
+  private final Cache<Pair<BooleanFormula, ImmutableSet<BooleanFormula>>, AbstractionFormula>
       abstractionCache;
 
   // Cache for satisfiability queries: if formula is contained, it is unsat
-  private final Set<BooleanFormula> unsatisfiabilityCache;
+  private final Cache<BooleanFormula, Boolean> unsatisfiabilityCache;
 
   //cache for cartesian abstraction queries. For each predicate, the values
   // are -1: predicate is false, 0: predicate is don't care,
   // 1: predicate is true
-  private final Map<Pair<BooleanFormula, AbstractionPredicate>, Byte> cartesianAbstractionCache;
+  private final Cache<Pair<BooleanFormula, AbstractionPredicate>, Byte> cartesianAbstractionCache;
+
+  private final @Nullable PersistentAbstractionCache persistentCache;
+
+  private final @Nullable ParallelBooleanAbstraction parallelBooleanAbstraction;
 
   public PredicateAbstractionManager(
       AbstractionManager pAmgr,
@@ -240,22 +270,84 @@ public class PredicateAbstractionManager {
     }
 
     if (useCache) {
-      abstractionCache = new HashMap<>();
-      unsatisfiabilityCache = new HashSet<>();
+      abstractionCache = newCache();
+      unsatisfiabilityCache = newCache();
     } else {
       abstractionCache = null;
       unsatisfiabilityCache = null;
     }
 
     if (useCache && (abstractionType != AbstractionType.BOOLEAN)) {
-      cartesianAbstractionCache = new HashMap<>();
+      cartesianAbstractionCache = newCache();
     } else {
       cartesianAbstractionCache = null;
     }
 
+    ParallelBooleanAbstraction parallelAbstraction =
+        new ParallelBooleanAbstraction(pConfig, pLogger, pShutdownNotifier, fmgr, rmgr);
+    parallelBooleanAbstraction = parallelAbstraction.isEnabled() ? parallelAbstraction : null;
+
+    if (persistentCacheFile != null) {
+      persistentCache = new PersistentAbstractionCache(persistentCacheFile, fmgr, logger);
+    } else {
+      persistentCache = null;
+    }
+
     abstractionStorage = new PredicateAbstractionsStorage(reuseAbstractionsFrom, logger, fmgr, null);
   }
 
+  private <K, V> Cache<K, V> newCache() {
+    CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().recordStats();
+    if (maxCacheSize >= 0) {
+      // a single segment makes eviction follow the global access order
+      builder = builder.concurrencyLevel(1).maximumSize(maxCacheSize);
+    }
+    return builder.build();
+  }
+
+  /** Store the persistent abstraction cache (if enabled) such that later runs can use it. */
+  void writePersistentCache() {
+    if (persistentCache != null) {
+      try {
+        persistentCache.writeToDisk();
+      } catch (IOException e) {
+        logger.logUserException(Level.WARNING, e, "Could not write persistent abstraction cache");
+      }
+    }
+  }
+
+  void printPersistentCacheStatistics(PrintStream out) {
+    if (persistentCache != null) {
+      persistentCache.printStatistics(out);
+    }
+  }
+
+  void printParallelAbstractionStatistics(PrintStream out) {
+    if (parallelBooleanAbstraction != null) {
+      parallelBooleanAbstraction.printStatistics(out);
+    }
+  }
+
+  /** Release the additional solvers and threads used for parallel abstraction (if any). */
+  void close() {
+    if (parallelBooleanAbstraction != null) {
+      parallelBooleanAbstraction.close();
+    }
+  }
+
+  /** Return the hit, miss, and eviction counts of each abstraction cache, by name of the cache. */
+  ImmutableMap<String, CacheStats> getCacheStats() {
+    ImmutableMap.Builder<String, CacheStats> result = ImmutableMap.builder();
+    if (abstractionCache != null) {
+      result.put("Abstraction cache", abstractionCache.stats());
+      result.put("Unsat cache", unsatisfiabilityCache.stats());
+    }
+    if (cartesianAbstractionCache != null) {
+      result.put("Cartesian abs. cache", cartesianAbstractionCache.stats());
+    }
+    return result.build();
+  }
+
   /**
    * Compute an abstraction of a single boolean formula.
    * @param f The formula to be abstracted. Needs to be instantiated
@@ -293,10 +385,31 @@ public class PredicateAbstractionManager {
 
   public void clear() {
     if (useCache) {
-      abstractionCache.clear();
-      unsatisfiabilityCache.clear();
+      abstractionCache.invalidateAll();
+      unsatisfiabilityCache.invalidateAll();
+    }
+    if (cartesianAbstractionCache != null) {
+      cartesianAbstractionCache.invalidateAll();
+    }
+  }
+  /**
+   * Get the invariant for a location from the invariant supplier as predicate,
+   * or null if there is no non-trivial invariant.
+   */
+  private @Nullable AbstractionPredicate getInvariantPredicate(
+      final CFANode location,
+      final Optional<CallstackStateEqualsWrapper> callstackInformation,
+      final PathFormula pathFormula)
+      throws InterruptedException {
+    if (invariantSupplier == TrivialInvariantSupplier.INSTANCE) {
+      return null;
     }
+    BooleanFormula invariant =
+        invariantSupplier.getInvariantFor(
+            location, callstackInformation, fmgr, pfmgr, pathFormula);
+    return bfmgr.isTrue(invariant) ? null : amgr.makePredicate(invariant);
   }
+
   /**
    * Compute an abstraction of the conjunction of an AbstractionFormula and
    * a PathFormula. The AbstractionFormula will be used in its instantiated form,
@@ -362,13 +475,16 @@ public class PredicateAbstractionManager {
     final BooleanFormula f = primaryFormula;
 
     // caching
-    Pair<BooleanFormula, ImmutableSet<BooleanFormula>> absKey = null;
-    if (useCache) {
-      ImmutableSet<BooleanFormula> instantiatedPreds =
+    ImmutableSet<BooleanFormula> instantiatedPreds = null;
+    if (useCache || persistentCache != null) {
+      instantiatedPreds =
           Collections3.transformedImmutableSetCopy(
               remainingPredicates, pred -> instantiator.apply(pred.getSymbolicAtom()));
+    }
+    Pair<BooleanFormula, ImmutableSet<BooleanFormula>> absKey = null;
+    if (useCache) {
       absKey = Pair.of(f, instantiatedPreds);
-      AbstractionFormula result = abstractionCache.get(absKey);
+      AbstractionFormula result = abstractionCache.getIfPresent(absKey);
 
       if (result != null) {
         // create new abstraction object to have a unique abstraction id
@@ -385,9 +501,7 @@ public class PredicateAbstractionManager {
         return result;
       }
 
-      boolean unsatisfiable = unsatisfiabilityCache.contains(symbFormula)
-                            || unsatisfiabilityCache.contains(f);
-      if (unsatisfiable) {
+      if (isCachedAsUnsat(f, symbFormula)) {
         // block is infeasible
         logger.log(Level.FINEST, "Block feasibility of abstraction", stats.numCallsAbstraction, "was cached and is false.");
         stats.numCallsAbstractionCached++;
@@ -397,6 +511,30 @@ public class PredicateAbstractionManager {
       }
     }
 
+    HashCode persistentKey = null;
+    if (persistentCache != null) {
+      persistentKey = persistentCache.computeKey(abstractionType.name(), f, instantiatedPreds);
+      BooleanFormula cachedAbstraction = persistentCache.get(persistentKey);
+      if (cachedAbstraction != null) {
+        // the cache contains only what was computed from the block formula,
+        // the invariants of the current run are added here
+        Region abs = amgr.convertFormulaToRegion(cachedAbstraction);
+        AbstractionPredicate invariantPredicate =
+            getInvariantPredicate(location, callstackInformation, pathFormula);
+        if (invariantPredicate != null) {
+          abs = rmgr.makeAnd(abs, invariantPredicate.getAbstractVariable());
+        }
+        AbstractionFormula result = makeAbstractionFormula(abs, ssa, pathFormula);
+        logger.log(Level.FINEST, "Abstraction", stats.numCallsAbstraction, "was found in persistent cache");
+        logger.log(Level.ALL, "Abstraction result is", result.asFormula());
+        stats.numCallsAbstractionCached++;
+        if (useCache) {
+          abstractionCache.put(absKey, result);
+        }
+        return result;
+      }
+    }
+
 
     // Compute result for those predicates
     // where we can trivially identify their truthness in the result
@@ -408,17 +546,14 @@ public class PredicateAbstractionManager {
     }
 
     // add invariants to abstraction formula if available
-    if (invariantSupplier != TrivialInvariantSupplier.INSTANCE) {
-      BooleanFormula invariant = invariantSupplier.getInvariantFor(
-          location, callstackInformation, fmgr, pfmgr, pathFormula);
-
-      if (!bfmgr.isTrue(invariant)) {
-        AbstractionPredicate absPred = amgr.makePredicate(invariant);
-        abs = rmgr.makeAnd(abs, absPred.getAbstractVariable());
-
-        // Calculate the set of predicates we still need to use for abstraction.
-        Iterables.removeIf(remainingPredicates, equalTo(absPred));
-      }
+    // (they are conjoined only at the end, because they must not be stored in the persistent cache)
+    AbstractionPredicate invariantPredicate =
+        getInvariantPredicate(location, callstackInformation, pathFormula);
+    boolean invariantReplacedPredicate = false;
+    if (invariantPredicate != null) {
+      // Calculate the set of predicates we still need to use for abstraction.
+      invariantReplacedPredicate =
+          Iterables.removeIf(remainingPredicates, equalTo(invariantPredicate));
     }
 
     if (abstractionType == AbstractionType.ELIMINATION) {
@@ -436,13 +571,22 @@ public class PredicateAbstractionManager {
       abs = rmgr.makeAnd(abs, computeAbstraction(f, remainingPredicates, instantiator));
     }
 
+    if (persistentCache != null && !invariantReplacedPredicate) {
+      // If the invariant made one of the predicates redundant, the abstraction computed
+      // by the solver is weaker than without invariant and should not be reused.
+      persistentCache.put(persistentKey, amgr.convertRegionToFormula(abs));
+    }
+    if (invariantPredicate != null) {
+      abs = rmgr.makeAnd(abs, invariantPredicate.getAbstractVariable());
+    }
+
     AbstractionFormula result = makeAbstractionFormula(abs, ssa, pathFormula);
 
     if (useCache) {
       abstractionCache.put(absKey, result);
 
       if (result.isFalse()) {
-        unsatisfiabilityCache.add(f);
+        unsatisfiabilityCache.put(f, Boolean.TRUE);
       }
     }
 
@@ -484,7 +628,7 @@ public class PredicateAbstractionManager {
       return bfmgr.makeTrue();
     }
 
-    if (unsatisfiabilityCache.contains(pF)) {
+    if (useCache && unsatisfiabilityCache.getIfPresent(pF) != null) {
       stats.numCallsAbstractionCached++;
       return bfmgr.makeFalse();
     }
@@ -502,13 +646,23 @@ public class PredicateAbstractionManager {
       symbolicAbs = fmgr.simplify(symbolicAbs);
     }
 
-    if (bfmgr.isFalse(symbolicAbs)) {
-      unsatisfiabilityCache.add(pF);
+    if (useCache && bfmgr.isFalse(symbolicAbs)) {
+      unsatisfiabilityCache.put(pF, Boolean.TRUE);
     }
 
     return symbolicAbs;
   }
 
+  /**
+   * Check whether the unsatisfiability cache contains the given formula or the given part of it.
+   * Only the lookup of the formula itself is recorded in the cache statistics, such that each
+   * check counts as a single request.
+   */
+  private boolean isCachedAsUnsat(BooleanFormula pFormula, BooleanFormula pPart) {
+    return unsatisfiabilityCache.getIfPresent(pFormula) != null
+        || (!pPart.equals(pFormula) && unsatisfiabilityCache.asMap().containsKey(pPart));
+  }
+
   private BooleanFormula getFormulaFromPathFormula(PathFormula pathFormula) {
     BooleanFormula symbFormula = pathFormula.getFormula();
 
@@ -799,9 +953,20 @@ public class PredicateAbstractionManager {
           stats.numBooleanAbsPredicates += remainingPredicates.size();
           stats.booleanAbstractionTime.start();
           try {
-            abs =
-                rmgr.makeAnd(
-                    abs, computeBooleanAbstraction(thmProver, remainingPredicates, instantiator));
+            Optional<Region> parallelAbs = Optional.empty();
+            if (parallelBooleanAbstraction != null) {
+              parallelAbs =
+                  parallelBooleanAbstraction.computeAbstraction(
+                      f, remainingPredicates, instantiator);
+            }
+            if (parallelAbs.isPresent()) {
+              abs = rmgr.makeAnd(abs, parallelAbs.get());
+              remainingPredicates.clear();
+            } else {
+              abs =
+                  rmgr.makeAnd(
+                      abs, computeBooleanAbstraction(thmProver, remainingPredicates, instantiator));
+            }
           } finally {
             stats.booleanAbstractionTime.stop();
           }
@@ -858,8 +1023,9 @@ public class PredicateAbstractionManager {
       while (predicateIt.hasNext()) {
         final AbstractionPredicate p = predicateIt.next();
         Pair<BooleanFormula, AbstractionPredicate> cacheKey = Pair.of(f, p);
-        if (useCache && cartesianAbstractionCache.containsKey(cacheKey)) {
-          byte predVal = cartesianAbstractionCache.get(cacheKey);
+        Byte cachedPredVal = useCache ? cartesianAbstractionCache.getIfPresent(cacheKey) : null;
+        if (cachedPredVal != null) {
+          byte predVal = cachedPredVal;
           stats.numCartesianAbsPredicatesCached++;
 
           stats.abstractionEnumTime.getCurentInnerTimer().start();
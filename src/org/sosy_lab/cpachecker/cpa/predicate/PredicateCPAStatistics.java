@@ -29,6 +29,7 @@ import static org.sosy_lab.cpachecker.util.statistics.StatisticsUtils.toPercent;
 import static org.sosy_lab.cpachecker.util.statistics.StatisticsUtils.valueWithPercentage;
 
 import com.google.common.base.Preconditions;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.MultimapBuilder;
 import com.google.common.collect.SetMultimap;
 import java.io.IOException;
@@ -41,6 +42,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
 import org.sosy_lab.common.configuration.Configuration;
@@ -251,6 +253,8 @@ class PredicateCPAStatistics implements Statistics {
       abstractionsWriter.writeAbstractions(abstractionsFile, reached);
     }
 
+    amgr.writePersistentCache();
+
     if (exportInvariantsAsPrecision && invariantPrecisionsFile != null) {
       loopInvariantsWriter.exportLoopInvariantsAsPrecision(invariantPrecisionsFile, reached);
     }
@@ -269,6 +273,16 @@ class PredicateCPAStatistics implements Statistics {
       out.println("  Times precision was empty:       " + valueWithPercentage(as.numSymbolicAbstractions, as.numCallsAbstraction));
       out.println("  Times precision was {false}:     " + valueWithPercentage(as.numSatCheckAbstractions, as.numCallsAbstraction));
       out.println("  Times result was cached:         " + valueWithPercentage(as.numCallsAbstractionCached, as.numCallsAbstraction));
+      for (Map.Entry<String, CacheStats> cache : amgr.getCacheStats().entrySet()) {
+        CacheStats cacheStats = cache.getValue();
+        if (cacheStats.requestCount() > 0) {
+          String name = cache.getKey();
+          out.println(String.format("  %-33s", name + " hits:") + valueWithPercentage(cacheStats.hitCount(), (int) cacheStats.requestCount()));
+          out.println(String.format("  %-33s", name + " misses:") + cacheStats.missCount());
+          out.println(String.format("  %-33s", name + " evictions:") + cacheStats.evictionCount());
+        }
+      }
+      amgr.printPersistentCacheStatistics(out);
       out.println("  Times cartesian abs was used:    " + valueWithPercentage(as.cartesianAbstractionTime.getNumberOfIntervals(), as.numCallsAbstraction));
       out.println("  Times boolean abs was used:      " + valueWithPercentage(as.booleanAbstractionTime.getNumberOfIntervals(), as.numCallsAbstraction));
       out.println("  Times result was 'false':        " + valueWithPercentage(statistics.numAbstractionsFalse.getUpdateCount(), numAbstractions));
@@ -328,6 +342,7 @@ class PredicateCPAStatistics implements Statistics {
         out.println("  Max number of models for allsat:        " + as.maxAllSatCount);
         out.println("  Avg number of models for allsat:        " + div(as.allSatCount, as.booleanAbstractionTime.getNumberOfIntervals()));
       }
+      amgr.printParallelAbstractionStatistics(out);
     }
     out.println();
 
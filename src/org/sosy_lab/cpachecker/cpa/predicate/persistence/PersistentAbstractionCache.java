@@ -0,0 +1,228 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.predicate.persistence;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.util.Pair;
+import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+
+/**
+ * Cache for abstraction results that is stored in a file and can be shared across several runs of
+ * CPAchecker, e.g., for verifying slightly changed versions of the same program.
+ *
+ * <p>In contrast to {@link PredicateAbstractionsStorage}, which relies on the structure of the
+ * abstraction tree, entries are addressed by their content: the key is a hash of the normalized
+ * SMT-LIB representation of the block formula and of the set of predicates, together with the
+ * kind of abstraction. The value is the (uninstantiated) abstraction formula in SMT-LIB format.
+ * It must not contain invariants that were used for the abstraction, because they are only valid
+ * for the program of the current run. The file is a compressed binary file.
+ */
+public class PersistentAbstractionCache {
+
+  private static final int MAGIC = 0x43504143; // "CPAC"
+  private static final int VERSION = 2;
+
+  private static final HashFunction HASH_FUNCTION = Hashing.sha256();
+
+  private final Path file;
+  private final FormulaManagerView fmgr;
+  private final LogManager logger;
+
+  private final Map<HashCode, String> entries = new HashMap<>();
+  private int numLoadedEntries = 0;
+  private int numNewEntries = 0;
+  private int numHits = 0;
+  private int numMisses = 0;
+  private int numUnparseableEntries = 0;
+
+  public PersistentAbstractionCache(Path pFile, FormulaManagerView pFmgr, LogManager pLogger) {
+    file = pFile;
+    fmgr = pFmgr;
+    logger = pLogger;
+
+    try {
+      readFromDisk();
+    } catch (NoSuchFileException e) {
+      logger.log(Level.FINE, "Abstraction cache", file, "does not exist yet, starting empty.");
+    } catch (IOException e) {
+      logger.logUserException(
+          Level.WARNING, e, "Could not read abstraction cache, starting with an empty cache");
+      entries.clear();
+    }
+    numLoadedEntries = entries.size();
+  }
+
+  private void readFromDisk() throws IOException {
+    try (DataInputStream in =
+        new DataInputStream(
+            new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        throw new IOException("File " + file + " is not an abstraction cache of this version");
+      }
+      int size = in.readInt();
+      byte[] keyBytes = new byte[HASH_FUNCTION.bits() / Byte.SIZE];
+      for (int i = 0; i < size; i++) {
+        in.readFully(keyBytes);
+        byte[] valueBytes = new byte[in.readInt()];
+        in.readFully(valueBytes);
+        entries.put(HashCode.fromBytes(keyBytes), new String(valueBytes, UTF_8));
+      }
+    }
+  }
+
+  /**
+   * Write the cache to disk if new entries were added during this run. The file is first written
+   * to a temporary file and then moved into place, such that concurrent runs never see a
+   * partially written cache.
+   */
+  public void writeToDisk() throws IOException {
+    if (numNewEntries == 0) {
+      return;
+    }
+    Path parent = file.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    Path tmpFile = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+    try {
+      try (DataOutputStream out =
+          new DataOutputStream(
+              new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(tmpFile))))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(entries.size());
+        for (Map.Entry<HashCode, String> entry : entries.entrySet()) {
+          out.write(entry.getKey().asBytes());
+          byte[] valueBytes = entry.getValue().getBytes(UTF_8);
+          out.writeInt(valueBytes.length);
+          out.write(valueBytes);
+        }
+      }
+      Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(tmpFile);
+    }
+  }
+
+  /**
+   * Compute the key for an abstraction problem. The key does not depend on the order of the
+   * predicates or of the declarations in the SMT-LIB representation of the formulas.
+   *
+   * @param pAbstractionType The name of the kind of abstraction that is computed.
+   * @param pFormula The (instantiated) formula that is abstracted.
+   * @param pPredicates The (instantiated) predicates used for the abstraction.
+   */
+  public HashCode computeKey(
+      String pAbstractionType, BooleanFormula pFormula, Collection<BooleanFormula> pPredicates) {
+    Hasher hasher = HASH_FUNCTION.newHasher();
+    hasher.putString(pAbstractionType, UTF_8);
+    hasher.putString(normalize(pFormula), UTF_8);
+
+    List<String> predicates = new ArrayList<>(pPredicates.size());
+    for (BooleanFormula predicate : pPredicates) {
+      predicates.add(normalize(predicate));
+    }
+    Collections.sort(predicates);
+    hasher.putInt(predicates.size());
+    for (String predicate : predicates) {
+      hasher.putString(predicate, UTF_8);
+    }
+    return hasher.hash();
+  }
+
+  private String normalize(BooleanFormula pFormula) {
+    Pair<String, List<String>> parts = PredicatePersistenceUtils.splitFormula(fmgr, pFormula);
+    List<String> declarations = new ArrayList<>(parts.getSecond());
+    Collections.sort(declarations);
+    return PredicatePersistenceUtils.LINE_JOINER.join(declarations) + '\n' + parts.getFirst();
+  }
+
+  /**
+   * Return the cached abstraction formula for the given key, or null if there is no entry (or if
+   * it cannot be parsed by the current solver).
+   */
+  public @Nullable BooleanFormula get(HashCode pKey) {
+    String value = entries.get(pKey);
+    if (value == null) {
+      numMisses++;
+      return null;
+    }
+    try {
+      BooleanFormula result = fmgr.parse(value);
+      numHits++;
+      return result;
+    } catch (IllegalArgumentException e) {
+      logger.logDebugException(e, "Could not parse entry of abstraction cache");
+      numUnparseableEntries++;
+      numMisses++;
+      entries.remove(pKey);
+      return null;
+    }
+  }
+
+  /** Store the (uninstantiated) abstraction formula for the given key. */
+  public void put(HashCode pKey, BooleanFormula pAbstraction) {
+    if (!entries.containsKey(pKey)) {
+      entries.put(pKey, fmgr.dumpFormula(pAbstraction).toString());
+      numNewEntries++;
+    }
+  }
+
+  public void printStatistics(PrintStream out) {
+    out.println("Number of persistent cache entries loaded:  " + numLoadedEntries);
+    out.println("Number of persistent cache hits:            " + numHits);
+    out.println("Number of persistent cache misses:          " + numMisses);
+    if (numUnparseableEntries > 0) {
+      out.println("Number of unparseable cache entries:        " + numUnparseableEntries);
+    }
+    out.println("Number of new persistent cache entries:     " + numNewEntries);
+  }
+}
@@ -42,7 +42,6 @@ import org.sosy_lab.cpachecker.core.counterexample.CFAPathWithAdditionalInfo;
 import org.sosy_lab.cpachecker.core.counterexample.ConcreteStatePath;
 import org.sosy_lab.cpachecker.core.defaults.AutomaticCPAFactory;
 import org.sosy_lab.cpachecker.core.defaults.DelegateAbstractDomain;
-import org.sosy_lab.cpachecker.core.defaults.MergeJoinOperator;
 import org.sosy_lab.cpachecker.core.defaults.MergeSepOperator;
 import org.sosy_lab.cpachecker.core.defaults.StopNeverOperator;
 import org.sosy_lab.cpachecker.core.defaults.StopSepOperator;
@@ -69,7 +68,8 @@ public class SMGCPA
     implements ConfigurableProgramAnalysis,
         ConfigurableProgramAnalysisWithConcreteCex,
         ConfigurableProgramAnalysisWithAdditionalInfo,
-        StatisticsProvider {
+        StatisticsProvider,
+        AutoCloseable {
 
   public static CPAFactory factory() {
     return AutomaticCPAFactory.forType(SMGCPA.class);
@@ -83,6 +83,18 @@ public class SMGCPA
       description="which merge operator to use for the SMGCPA")
   private String mergeType = "SEP";
 
+  @Option(
+    secure = true,
+    name = "joinThreads",
+    description =
+        "number of threads for joining a new state with the reached states at its location"
+            + " if merge=JOIN is used. Successful joins are computed again sequentially, such"
+            + " that the ids of new SMG objects and values do not depend on the scheduling of"
+            + " the threads. As SMG objects are ordered by their ids, the result can still differ"
+            + " from a run with another number of threads."
+  )
+  private int joinThreads = 1;
+
   private final SMGPredicateManager smgPredicateManager;
   private final BlockOperator blockOperator;
   private final MachineModel machineModel;
@@ -102,6 +114,8 @@ public class SMGCPA
 
   private SMGPrecision precision;
 
+  private SMGMergeJoinOperator mergeOperator = null;
+
 
   private SMGCPA(Configuration pConfig, LogManager pLogger, ShutdownNotifier pShutdownNotifier,
       CFA pCfa) throws InvalidConfigurationException {
@@ -160,7 +174,10 @@ public class SMGCPA
       case "SEP":
         return MergeSepOperator.getInstance();
       case "JOIN":
-        return new MergeJoinOperator(getAbstractDomain());
+        if (mergeOperator == null) {
+          mergeOperator = new SMGMergeJoinOperator(joinThreads, stats);
+        }
+        return mergeOperator;
       default:
         throw new AssertionError("unknown mergetype for SMGCPA");
     }
@@ -251,6 +268,13 @@ public class SMGCPA
     pStatsCollection.add(stats);
   }
 
+  @Override
+  public void close() {
+    if (mergeOperator != null) {
+      mergeOperator.close();
+    }
+  }
+
   @Override
   public AdditionalInfoConverter exportAdditionalInfoConverter() {
     return new SMGAdditionalInfoConverter();
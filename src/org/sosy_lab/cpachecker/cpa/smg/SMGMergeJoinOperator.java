@@ -0,0 +1,199 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.smg;
+
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.BatchMergeOperator;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer.TimerWrapper;
+
+/**
+ * Merge-join operator for SMGs that can join a new state with several reached states
+ * concurrently.
+ *
+ * <p>The SMGs of the involved states are only read by {@link SMGState#join}, and each join
+ * builds its own destination SMG, so the joins of one batch are independent of each other. The
+ * results are returned in the order of the reached states.
+ *
+ * <p>New SMG objects, symbolic values, and states get their ids from global counters, so the
+ * concurrent joins draw ids in the order in which the threads happen to run. Because these ids
+ * determine the order of SMG objects, the successful joins are computed again on the calling
+ * thread in the order of the reached states. Each join always draws the same number of ids, so
+ * the ids of the returned states do not depend on the scheduling. They may still differ from a run
+ * with another number of threads. If only the first successful join is needed (as for merging
+ * under ARGCPA, see {@link #mergeUntilChanged}), only this join is computed again.
+ */
+class SMGMergeJoinOperator implements BatchMergeOperator, AutoCloseable {
+
+  private final int threads;
+  private final SMGStatistics stats;
+
+  /** Created lazily on the first batch that is computed in parallel. */
+  private ExecutorService executor = null;
+
+  SMGMergeJoinOperator(int pThreads, SMGStatistics pStats) {
+    threads = pThreads;
+    stats = pStats;
+  }
+
+  @Override
+  public AbstractState merge(AbstractState pState1, AbstractState pState2, Precision pPrecision)
+      throws CPAException, InterruptedException {
+    AbstractState result = join(pState1, pState2);
+    stats.joinAttempts.inc();
+    if (result != pState2) {
+      stats.successfulJoins.inc();
+    }
+    return result;
+  }
+
+  @Override
+  public List<AbstractState> mergeAll(
+      AbstractState pState1, List<AbstractState> pStates2, Precision pPrecision)
+      throws CPAException, InterruptedException {
+    return mergeBatch(pState1, pStates2, pPrecision, false);
+  }
+
+  @Override
+  public List<AbstractState> mergeUntilChanged(
+      AbstractState pState1, List<AbstractState> pStates2, Precision pPrecision)
+      throws CPAException, InterruptedException {
+    return mergeBatch(pState1, pStates2, pPrecision, true);
+  }
+
+  private List<AbstractState> mergeBatch(
+      AbstractState pState1,
+      List<AbstractState> pStates2,
+      Precision pPrecision,
+      boolean pUntilChanged)
+      throws CPAException, InterruptedException {
+    stats.mergeBatchSize.setNextValue(pStates2.size());
+    stats.mergeBatchTime.start();
+    try {
+      if (threads <= 1 || pStates2.size() < 2) {
+        List<AbstractState> result = new ArrayList<>(pStates2);
+        for (int i = 0; i < pStates2.size(); i++) {
+          AbstractState merged = merge(pState1, pStates2.get(i), pPrecision);
+          result.set(i, merged);
+          if (pUntilChanged && merged != pStates2.get(i)) {
+            break;
+          }
+        }
+        return result;
+      }
+      return mergeAllInParallel(pState1, pStates2, pUntilChanged);
+    } finally {
+      stats.mergeBatchTime.stop();
+    }
+  }
+
+  @Override
+  public boolean mergesInParallel() {
+    return threads > 1;
+  }
+
+  private List<AbstractState> mergeAllInParallel(
+      AbstractState pState1, List<AbstractState> pStates2, boolean pUntilChanged)
+      throws CPAException, InterruptedException {
+    if (executor == null) {
+      executor =
+          Executors.newFixedThreadPool(
+              threads,
+              new ThreadFactoryBuilder().setDaemon(true).setNameFormat("smg-join-%d").build());
+    }
+
+    List<Future<AbstractState>> futures = new ArrayList<>(pStates2.size());
+    List<AbstractState> result = new ArrayList<>(pStates2.size());
+    try {
+      for (AbstractState state2 : pStates2) {
+        futures.add(executor.submit(newJoinTask(pState1, state2)));
+      }
+      for (Future<AbstractState> future : futures) {
+        result.add(future.get());
+      }
+
+    } catch (ExecutionException e) {
+      futures.forEach(future -> future.cancel(true));
+      Throwable t = e.getCause();
+      Throwables.propagateIfPossible(t, CPAException.class, InterruptedException.class);
+      throw new UnexpectedCheckedException("parallel SMG join", t);
+
+    } catch (InterruptedException e) {
+      futures.forEach(future -> future.cancel(true));
+      throw e;
+    }
+
+    // All joins have finished, so the number of ids drawn so far does not depend on the
+    // scheduling. Statistics are only updated on the calling thread.
+    boolean changed = false;
+    for (int i = 0; i < result.size(); i++) {
+      stats.joinAttempts.inc();
+      if (result.get(i) != pStates2.get(i)) {
+        stats.successfulJoins.inc();
+        if (pUntilChanged && changed) {
+          // not needed by the caller
+          result.set(i, pStates2.get(i));
+        } else {
+          // join again to get ids that do not depend on the scheduling (see class comment)
+          result.set(i, join(pState1, pStates2.get(i)));
+          changed = true;
+        }
+      }
+    }
+    return result;
+  }
+
+  private Callable<AbstractState> newJoinTask(AbstractState pState1, AbstractState pState2) {
+    return () -> join(pState1, pState2);
+  }
+
+  private AbstractState join(AbstractState pState1, AbstractState pState2)
+      throws SMGInconsistentException {
+    TimerWrapper timer = stats.joinTime.getNewTimer();
+    timer.start();
+    try {
+      return ((UnmodifiableSMGState) pState1).join((UnmodifiableSMGState) pState2);
+    } finally {
+      timer.stop();
+    }
+  }
+
+  @Override
+  public void close() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+}
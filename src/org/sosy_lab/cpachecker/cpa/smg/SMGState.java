@@ -1223,7 +1223,9 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
     SMGEdgeHasValue new_edge = new SMGEdgeHasValue(pSizeInBits, pOffset, pObject, pValue);
 
     // Check if the edge is  not present already
-    SMGEdgeHasValueFilter filter = SMGEdgeHasValueFilter.objectFilter(pObject);
+    SMGEdgeHasValueFilter filter =
+        SMGEdgeHasValueFilter.objectFilter(pObject)
+            .filterOverlappingWith(pOffset, pOffset + pSizeInBits);
 
     Set<SMGEdgeHasValue> edges = heap.getHVEdges(filter);
     if (edges.contains(new_edge)) {
@@ -1705,8 +1707,12 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
 
     long targetRangeSize = pTargetOffset + copyRange;
 
-    SMGEdgeHasValueFilter filterSource = SMGEdgeHasValueFilter.objectFilter(pSource);
-    SMGEdgeHasValueFilter filterTarget = SMGEdgeHasValueFilter.objectFilter(pTarget);
+    SMGEdgeHasValueFilter filterSource =
+        SMGEdgeHasValueFilter.objectFilter(pSource)
+            .filterOverlappingWith(pSourceOffset, pSourceLastCopyBitOffset);
+    SMGEdgeHasValueFilter filterTarget =
+        SMGEdgeHasValueFilter.objectFilter(pTarget)
+            .filterOverlappingWith(pTargetOffset, targetRangeSize);
 
     // Remove all target edges in range
     for (SMGEdgeHasValue edge : getHVEdges(filterTarget)) {
@@ -30,13 +30,23 @@ import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.cpa.smg.join.SMGIsLessOrEqual;
 import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.StatInt;
+import org.sosy_lab.cpachecker.util.statistics.StatKind;
 import org.sosy_lab.cpachecker.util.statistics.StatTimer;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer;
 
 public class SMGStatistics implements Statistics {
 
   final StatCounter abstractions = new StatCounter("Number of abstraction computations");
   final StatTimer totalAbstraction = new StatTimer("Total time for abstraction computation");
 
+  // A merge batch contains all reached states at the location of a new state.
+  final StatCounter joinAttempts = new StatCounter("Number of join attempts");
+  final StatCounter successfulJoins = new StatCounter("Number of successful joins");
+  final StatInt mergeBatchSize = new StatInt(StatKind.AVG, "Join attempts per location");
+  final StatTimer mergeBatchTime = new StatTimer("Wall time for merges per location");
+  final ThreadSafeTimerContainer joinTime = new ThreadSafeTimerContainer("Total time for joins");
+
   @Override
   public void printStatistics(PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
     put(pOut, 0, SMGIsLessOrEqual.isLEQTimer);
@@ -45,6 +55,14 @@ public class SMGStatistics implements Statistics {
     put(pOut, 1, SMGIsLessOrEqual.heapTimer);
     put(pOut, 0, abstractions);
     put(pOut, 0, totalAbstraction);
+    if (joinAttempts.getValue() > 0) {
+      put(pOut, 0, joinAttempts);
+      put(pOut, 1, successfulJoins);
+      put(pOut, 1, mergeBatchSize);
+      put(pOut, 1, "Max join attempts per location", mergeBatchSize.getMaxValue());
+      put(pOut, 0, mergeBatchTime);
+      put(pOut, 1, joinTime);
+    }
   }
 
   @Override
@@ -29,7 +29,6 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableSet;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
@@ -473,41 +472,10 @@ public class SMG implements UnmodifiableSMG {
    */
   @Override
   public TreeMap<Long, Integer> getNullEdgesMapOffsetToSizeForObject(SMGObject pObj) {
-
-    // first get all possible offsets with their size, sorted by starting point
-    SMGEdgeHasValueFilter nullValueFilter =
-        SMGEdgeHasValueFilter.objectFilter(pObj).filterHavingValue(SMGZeroValue.INSTANCE);
-    TreeMap<Long, Integer> offsetToSize = new TreeMap<>();
-    for (SMGEdgeHasValue edge : nullValueFilter.filter(hv_edges)) {
-      long offset = edge.getOffset();
-      int size = (int) edge.getSizeInBits();
-      Integer existingSize = offsetToSize.get(offset);
-      if (existingSize != null) {
-        size = Math.max(size, existingSize);
-      }
-      offsetToSize.put(offset, size);
-    }
-
-    // then filter out overlapping intervals of offsets
     TreeMap<Long, Integer> resultOffsetToSize = new TreeMap<>();
-    if (!offsetToSize.isEmpty()) {
-      Iterator<Entry<Long, Integer>> offsetsIterator = offsetToSize.entrySet().iterator();
-      Entry<Long, Integer> entry = offsetsIterator.next();
-      long resultOffset = entry.getKey();
-      int resultSize = entry.getValue();
-      while (offsetsIterator.hasNext()) {
-        entry = offsetsIterator.next();
-        long nextOffset = entry.getKey();
-        int nextSize = entry.getValue();
-        if (nextOffset <= resultOffset + resultSize) {
-          resultSize = Math.toIntExact(Long.max(nextSize + nextOffset - resultOffset, resultSize));
-        } else {
-          resultOffsetToSize.put(resultOffset, resultSize);
-          resultOffset = nextOffset;
-          resultSize = nextSize;
-        }
-      }
-      resultOffsetToSize.put(resultOffset, resultSize);
+    for (Entry<Long, Long> block : hv_edges.getNullBlocksForObject(pObj).entrySet()) {
+      resultOffsetToSize.put(
+          block.getKey(), Math.toIntExact(block.getValue() - block.getKey()));
     }
     return resultOffsetToSize;
   }
@@ -549,9 +517,8 @@ public class SMG implements UnmodifiableSMG {
   private boolean isCoveredByNullifiedBlocks(SMGObject pObject, long pOffset, long size) {
     long expectedMinClear = pOffset + size;
 
-    TreeMap<Long, Integer> nullEdgesOffsetToSize = getNullEdgesMapOffsetToSizeForObject(pObject);
-    Entry<Long, Integer> floorEntry = nullEdgesOffsetToSize.floorEntry(pOffset);
-    return (floorEntry != null && floorEntry.getValue() + floorEntry.getKey() >= expectedMinClear);
+    Entry<Long, Long> floorEntry = hv_edges.getNullBlocksForObject(pObject).floorEntry(pOffset);
+    return (floorEntry != null && floorEntry.getValue() >= expectedMinClear);
   }
 
   /**
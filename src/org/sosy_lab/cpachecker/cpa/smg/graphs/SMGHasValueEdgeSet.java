@@ -23,21 +23,32 @@
  */
 package org.sosy_lab.cpachecker.cpa.smg.graphs;
 
+import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
+import org.sosy_lab.common.collect.PersistentSortedMap;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdgeHasValue;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObject;
-import org.sosy_lab.cpachecker.cpa.smg.util.PersistentMultimap;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGZeroValue;
 
+/**
+ * Persistent set of has-value edges, indexed per object by the offset of the edges. Reads at an
+ * offset, overlap queries, and queries for nullified ranges only need logarithmic time in the
+ * number of edges of the object.
+ */
 public class SMGHasValueEdgeSet implements SMGHasValueEdges {
 
-  private final PersistentMultimap<SMGObject, SMGEdgeHasValue> map;
+  private final PersistentSortedMap<SMGObject, ObjectEdges> map;
 
   public SMGHasValueEdgeSet() {
-    map = PersistentMultimap.of();
+    map = PathCopyingPersistentTreeMap.of();
   }
 
-  private SMGHasValueEdgeSet(PersistentMultimap<SMGObject, SMGEdgeHasValue> pMap) {
+  private SMGHasValueEdgeSet(PersistentSortedMap<SMGObject, ObjectEdges> pMap) {
     map = pMap;
   }
 
@@ -48,29 +59,74 @@ public class SMGHasValueEdgeSet implements SMGHasValueEdges {
 
   @Override
   public SMGHasValueEdgeSet addEdgeAndCopy(SMGEdgeHasValue pEdge) {
-    return new SMGHasValueEdgeSet(map.putAndCopy(pEdge.getObject(), pEdge));
+    SMGObject object = pEdge.getObject();
+    @Nullable ObjectEdges edges = map.get(object);
+    ObjectEdges updated = (edges == null ? ObjectEdges.EMPTY : edges).addEdge(pEdge);
+    if (edges == updated) {
+      return this;
+    }
+    return new SMGHasValueEdgeSet(map.putAndCopy(object, updated));
   }
 
   @Override
   public SMGHasValueEdgeSet removeEdgeAndCopy(SMGEdgeHasValue pEdge) {
-    PersistentMultimap<SMGObject, SMGEdgeHasValue> updated =
-        map.removeAndCopy(pEdge.getObject(), pEdge);
-    if (map == updated) {
+    SMGObject object = pEdge.getObject();
+    @Nullable ObjectEdges edges = map.get(object);
+    if (edges == null) {
       return this;
+    }
+    ObjectEdges updated = edges.removeEdge(pEdge);
+    if (edges == updated) {
+      return this;
+    } else if (updated.isEmpty()) {
+      return new SMGHasValueEdgeSet(map.removeAndCopy(object));
     } else {
-      return new SMGHasValueEdgeSet(updated);
+      return new SMGHasValueEdgeSet(map.putAndCopy(object, updated));
     }
   }
 
   @Override
   public ImmutableSet<SMGEdgeHasValue> getHvEdges() {
-    return map.values();
+    ImmutableSet.Builder<SMGEdgeHasValue> builder = ImmutableSet.builder();
+    for (ObjectEdges edges : map.values()) {
+      builder.addAll(edges.getEdges());
+    }
+    return builder.build();
   }
 
   @Override
   public ImmutableSet<SMGEdgeHasValue> getEdgesForObject(SMGObject pObject) {
-    @Nullable ImmutableSet<SMGEdgeHasValue> edges = map.get(pObject);
-    return edges == null ? ImmutableSet.of() : edges;
+    @Nullable ObjectEdges edges = map.get(pObject);
+    return edges == null ? ImmutableSet.of() : edges.getEdges();
+  }
+
+  @Override
+  public Iterable<SMGEdgeHasValue> getEdgesForObjectAtOffset(SMGObject pObject, long pOffset) {
+    @Nullable ObjectEdges edges = map.get(pObject);
+    if (edges == null) {
+      return ImmutableSet.of();
+    }
+    @Nullable ImmutableSet<SMGEdgeHasValue> atOffset = edges.byOffset.get(pOffset);
+    return atOffset == null ? ImmutableSet.of() : atOffset;
+  }
+
+  @Override
+  public Iterable<SMGEdgeHasValue> getOverlappingEdges(SMGObject pObject, long pStart, long pEnd) {
+    @Nullable ObjectEdges edges = map.get(pObject);
+    if (edges == null) {
+      return ImmutableSet.of();
+    }
+    // no edge is larger than maxSize, thus overlapping edges start in this range
+    long from = pStart - edges.maxSize;
+    long to = Math.max(pStart, pEnd);
+    return FluentIterable.concat(edges.byOffset.subMap(from, true, to, true).values())
+        .filter(edge -> edge.overlapsWith(pStart, pEnd));
+  }
+
+  @Override
+  public NavigableMap<Long, Long> getNullBlocksForObject(SMGObject pObject) {
+    @Nullable ObjectEdges edges = map.get(pObject);
+    return edges == null ? PathCopyingPersistentTreeMap.of() : edges.nullBlocks;
   }
 
   @Override
@@ -91,4 +147,145 @@ public class SMGHasValueEdgeSet implements SMGHasValueEdges {
   public String toString() {
     return map.toString();
   }
-}
\ No newline at end of file
+
+  /** The edges of a single object, indexed by offset. */
+  private static final class ObjectEdges {
+
+    private static final ObjectEdges EMPTY =
+        new ObjectEdges(PathCopyingPersistentTreeMap.of(), 0, PathCopyingPersistentTreeMap.of());
+
+    /** Edges of the object, grouped by their offset. */
+    private final PersistentSortedMap<Long, ImmutableSet<SMGEdgeHasValue>> byOffset;
+
+    /**
+     * An upper bound for the size of all edges. It is not decreased when edges are removed, it is
+     * only used to limit the search for overlapping edges.
+     */
+    private final long maxSize;
+
+    /** Merged ranges covered by edges to ZERO, as mapping from start to end. */
+    private final PersistentSortedMap<Long, Long> nullBlocks;
+
+    /** All edges of the object, computed on demand. */
+    private @Nullable ImmutableSet<SMGEdgeHasValue> edges = null;
+
+    private ObjectEdges(
+        PersistentSortedMap<Long, ImmutableSet<SMGEdgeHasValue>> pByOffset,
+        long pMaxSize,
+        PersistentSortedMap<Long, Long> pNullBlocks) {
+      byOffset = pByOffset;
+      maxSize = pMaxSize;
+      nullBlocks = pNullBlocks;
+    }
+
+    private boolean isEmpty() {
+      return byOffset.isEmpty();
+    }
+
+    private ImmutableSet<SMGEdgeHasValue> getEdges() {
+      if (edges == null) {
+        edges = ImmutableSet.copyOf(Iterables.concat(byOffset.values()));
+      }
+      return edges;
+    }
+
+    private ObjectEdges addEdge(SMGEdgeHasValue pEdge) {
+      long offset = pEdge.getOffset();
+      @Nullable ImmutableSet<SMGEdgeHasValue> atOffset = byOffset.get(offset);
+      if (atOffset != null && atOffset.contains(pEdge)) {
+        return this;
+      }
+      ImmutableSet<SMGEdgeHasValue> newAtOffset =
+          atOffset == null
+              ? ImmutableSet.of(pEdge)
+              : ImmutableSet.<SMGEdgeHasValue>builder().addAll(atOffset).add(pEdge).build();
+
+      PersistentSortedMap<Long, Long> newNullBlocks = nullBlocks;
+      if (isZeroEdge(pEdge)) {
+        newNullBlocks = addNullBlock(nullBlocks, offset, offset + pEdge.getSizeInBits());
+      }
+      return new ObjectEdges(
+          byOffset.putAndCopy(offset, newAtOffset),
+          Math.max(maxSize, pEdge.getSizeInBits()),
+          newNullBlocks);
+    }
+
+    private ObjectEdges removeEdge(SMGEdgeHasValue pEdge) {
+      long offset = pEdge.getOffset();
+      @Nullable ImmutableSet<SMGEdgeHasValue> atOffset = byOffset.get(offset);
+      if (atOffset == null || !atOffset.contains(pEdge)) {
+        return this;
+      }
+      PersistentSortedMap<Long, ImmutableSet<SMGEdgeHasValue>> newByOffset;
+      if (atOffset.size() == 1) {
+        newByOffset = byOffset.removeAndCopy(offset);
+      } else {
+        newByOffset =
+            byOffset.putAndCopy(
+                offset, ImmutableSet.copyOf(Iterables.filter(atOffset, e -> !e.equals(pEdge))));
+      }
+      if (newByOffset.isEmpty()) {
+        return EMPTY;
+      }
+
+      PersistentSortedMap<Long, Long> newNullBlocks = nullBlocks;
+      if (isZeroEdge(pEdge)) {
+        // removing a range cannot be done on the merged ranges, so recompute them
+        newNullBlocks = PathCopyingPersistentTreeMap.of();
+        for (ImmutableSet<SMGEdgeHasValue> edgesAtOffset : newByOffset.values()) {
+          for (SMGEdgeHasValue edge : edgesAtOffset) {
+            if (isZeroEdge(edge)) {
+              newNullBlocks =
+                  addNullBlock(
+                      newNullBlocks, edge.getOffset(), edge.getOffset() + edge.getSizeInBits());
+            }
+          }
+        }
+      }
+      return new ObjectEdges(newByOffset, maxSize, newNullBlocks);
+    }
+
+    private static boolean isZeroEdge(SMGEdgeHasValue pEdge) {
+      return pEdge.getValue() == SMGZeroValue.INSTANCE;
+    }
+
+    /** Adds the range from pStart to pEnd and merges it with all adjacent or overlapping ranges. */
+    private static PersistentSortedMap<Long, Long> addNullBlock(
+        PersistentSortedMap<Long, Long> pBlocks, long pStart, long pEnd) {
+      long start = pStart;
+      long end = pEnd;
+      PersistentSortedMap<Long, Long> blocks = pBlocks;
+
+      Entry<Long, Long> floor = blocks.floorEntry(start);
+      if (floor != null && floor.getValue() >= start) {
+        if (floor.getValue() >= end) {
+          return blocks; // already covered
+        }
+        start = floor.getKey();
+      }
+
+      Entry<Long, Long> next = blocks.ceilingEntry(start);
+      while (next != null && next.getKey() <= end) {
+        end = Math.max(end, next.getValue());
+        blocks = blocks.removeAndCopy(next.getKey());
+        next = blocks.higherEntry(next.getKey());
+      }
+      return blocks.putAndCopy(start, end);
+    }
+
+    @Override
+    public int hashCode() {
+      return byOffset.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object pObj) {
+      return pObj instanceof ObjectEdges && byOffset.equals(((ObjectEdges) pObj).byOffset);
+    }
+
+    @Override
+    public String toString() {
+      return getEdges().toString();
+    }
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.smg.graphs;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdgeHasValue;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObject;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGRegion;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGKnownSymValue;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGValue;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGZeroValue;
+
+public class SMGHasValueEdgeSetTest {
+
+  private final SMGObject obj1 = new SMGRegion(256, "object-1");
+  private final SMGObject obj2 = new SMGRegion(256, "object-2");
+  private final SMGValue value = SMGKnownSymValue.of();
+
+  private final SMGEdgeHasValue zeroAt0 = new SMGEdgeHasValue(32, 0, obj1, SMGZeroValue.INSTANCE);
+  private final SMGEdgeHasValue zeroAt32 =
+      new SMGEdgeHasValue(16, 32, obj1, SMGZeroValue.INSTANCE);
+  private final SMGEdgeHasValue zeroAt64 =
+      new SMGEdgeHasValue(64, 64, obj1, SMGZeroValue.INSTANCE);
+  private final SMGEdgeHasValue valueAt128 = new SMGEdgeHasValue(64, 128, obj1, value);
+  private final SMGEdgeHasValue valueOfObj2 = new SMGEdgeHasValue(64, 128, obj2, value);
+
+  private SMGHasValueEdges createEdges() {
+    return new SMGHasValueEdgeSet()
+        .addEdgeAndCopy(zeroAt0)
+        .addEdgeAndCopy(zeroAt32)
+        .addEdgeAndCopy(zeroAt64)
+        .addEdgeAndCopy(valueAt128)
+        .addEdgeAndCopy(valueOfObj2);
+  }
+
+  @Test
+  public void testEdgesForObject() {
+    SMGHasValueEdges edges = createEdges();
+    assertThat(edges.getHvEdges()).hasSize(5);
+    assertThat(edges.getEdgesForObject(obj1))
+        .containsExactly(zeroAt0, zeroAt32, zeroAt64, valueAt128);
+    assertThat(edges.getEdgesForObjectAtOffset(obj1, 128)).containsExactly(valueAt128);
+    assertThat(edges.getEdgesForObjectAtOffset(obj1, 8)).isEmpty();
+  }
+
+  @Test
+  public void testOverlappingEdges() {
+    SMGHasValueEdges edges = createEdges();
+    assertThat(edges.getOverlappingEdges(obj1, 40, 70)).containsExactly(zeroAt32, zeroAt64);
+    assertThat(edges.getOverlappingEdges(obj1, 48, 64)).isEmpty();
+    assertThat(edges.getOverlappingEdges(obj1, 0, 256)).hasSize(4);
+    assertThat(edges.getOverlappingEdges(obj2, 0, 128)).isEmpty();
+  }
+
+  @Test
+  public void testNullBlocks() {
+    SMGHasValueEdges edges = createEdges();
+    // [0,32) and [32,48) are adjacent and merged
+    assertThat(edges.getNullBlocksForObject(obj1)).containsExactly(0L, 48L, 64L, 128L).inOrder();
+    assertThat(edges.getNullBlocksForObject(obj2)).isEmpty();
+
+    edges = edges.removeEdgeAndCopy(zeroAt32);
+    assertThat(edges.getNullBlocksForObject(obj1)).containsExactly(0L, 32L, 64L, 128L).inOrder();
+
+    edges = edges.addEdgeAndCopy(new SMGEdgeHasValue(64, 16, obj1, SMGZeroValue.INSTANCE));
+    assertThat(edges.getNullBlocksForObject(obj1)).containsExactly(0L, 128L);
+  }
+
+  @Test
+  public void testRemoveAndEquality() {
+    SMGHasValueEdges edges = createEdges();
+    SMGHasValueEdges removed = edges.removeEdgeAndCopy(valueOfObj2);
+    assertThat(removed.getEdgesForObject(obj2)).isEmpty();
+    assertThat(removed.removeEdgeAndCopy(valueOfObj2)).isSameInstanceAs(removed);
+    assertThat(removed.addEdgeAndCopy(valueOfObj2)).isEqualTo(edges);
+    assertThat(edges.removeAllEdgesOfObjectAndCopy(obj1).getHvEdges())
+        .containsExactly(valueOfObj2);
+  }
+}
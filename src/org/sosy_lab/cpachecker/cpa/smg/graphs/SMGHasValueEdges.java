@@ -24,6 +24,7 @@
 package org.sosy_lab.cpachecker.cpa.smg.graphs;
 
 import com.google.common.collect.ImmutableSet;
+import java.util.NavigableMap;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdgeHasValue;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObject;
 
@@ -45,4 +46,20 @@ public interface SMGHasValueEdges {
 
   /** get all outgoing edges of an {@link SMGObject}, e.g., all values of this object. */
   ImmutableSet<SMGEdgeHasValue> getEdgesForObject(SMGObject pObject);
+
+  /** get all outgoing edges of an {@link SMGObject} that start at the given offset. */
+  Iterable<SMGEdgeHasValue> getEdgesForObjectAtOffset(SMGObject pObject, long pOffset);
+
+  /**
+   * get all outgoing edges of an {@link SMGObject} that overlap with the range from pStart
+   * (inclusive) to pEnd (exclusive).
+   */
+  Iterable<SMGEdgeHasValue> getOverlappingEdges(SMGObject pObject, long pStart, long pEnd);
+
+  /**
+   * get the ranges of an {@link SMGObject} that are covered by edges to ZERO, as mapping from the
+   * start (inclusive) to the end (exclusive) of each range. Adjacent or overlapping edges are
+   * merged into one range.
+   */
+  NavigableMap<Long, Long> getNullBlocksForObject(SMGObject pObject);
 }
\ No newline at end of file
@@ -26,7 +26,6 @@ package org.sosy_lab.cpachecker.cpa.smg.graphs.edge;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Iterables;
-import java.util.Set;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.SMGHasValueEdges;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObject;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGValue;
@@ -42,6 +41,8 @@ public class SMGEdgeHasValueFilter {
   private boolean valueComplement = false;
   private Long offset = null;
   private long sizeInBits = -1;
+  private Long overlapStart = null;
+  private long overlapEnd = -1;
 
   @VisibleForTesting
   public SMGEdgeHasValueFilter filterByObject(SMGObject pObject) {
@@ -66,6 +67,13 @@ public class SMGEdgeHasValueFilter {
     return this;
   }
 
+  /** Only edges that overlap with the range from pStart (inclusive) to pEnd (exclusive). */
+  public SMGEdgeHasValueFilter filterOverlappingWith(long pStart, long pEnd) {
+    overlapStart = pStart;
+    overlapEnd = pEnd;
+    return this;
+  }
+
   public SMGEdgeHasValueFilter filterBySize(long pSizeInBits) {
     Preconditions.checkArgument(pSizeInBits >= 0, "negative sizes not allowed for filtering");
     sizeInBits = pSizeInBits;
@@ -93,12 +101,20 @@ public class SMGEdgeHasValueFilter {
       return false;
     }
 
+    if (overlapStart != null && !pEdge.overlapsWith(overlapStart, overlapEnd)) {
+      return false;
+    }
+
     return true;
   }
 
   public Iterable<SMGEdgeHasValue> filter(SMGHasValueEdges pEdges) {
-    Set<SMGEdgeHasValue> filtered;
-    if (object != null) {
+    Iterable<SMGEdgeHasValue> filtered;
+    if (object != null && offset != null) {
+      filtered = pEdges.getEdgesForObjectAtOffset(object, offset);
+    } else if (object != null && overlapStart != null) {
+      filtered = pEdges.getOverlappingEdges(object, overlapStart, overlapEnd);
+    } else if (object != null) {
       filtered = pEdges.getEdgesForObject(object);
     } else {
       filtered = pEdges.getHvEdges();
@@ -36,6 +36,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.logging.Level;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.common.log.LogManagerWithoutDuplicates;
 import org.sosy_lab.cpachecker.cfa.ast.ASimpleDeclaration;
@@ -160,6 +161,8 @@ public abstract class AbstractExpressionValueVisitor
 
   private boolean missingFieldAccessInformation = false;
 
+  private @Nullable ConstantExpressionCache constantExpressions = null;
+
   /** This Visitor returns the numeral value for an expression.
    * @param pFunctionName current scope, used only for variable-names
    * @param pMachineModel where to get info about types, for casting and overflows
@@ -174,6 +177,18 @@ public abstract class AbstractExpressionValueVisitor
     logger = pLogger;
   }
 
+  /**
+   * Use the precomputed values of the constant expressions of the CFA instead of evaluating
+   * these expressions again.
+   */
+  public void setConstantExpressionCache(@Nullable ConstantExpressionCache pConstantExpressions) {
+    constantExpressions = pConstantExpressions;
+  }
+
+  private @Nullable Value getConstantValue(CExpression pExp) {
+    return constantExpressions == null ? null : constantExpressions.get(pExp);
+  }
+
   public boolean hasMissingFieldAccessInformation() {
     return missingFieldAccessInformation;
   }
@@ -189,6 +204,10 @@ public abstract class AbstractExpressionValueVisitor
 
   @Override
   public Value visit(final CBinaryExpression pE) throws UnrecognizedCodeException {
+    final Value constantValue = getConstantValue(pE);
+    if (constantValue != null) {
+      return constantValue;
+    }
     final Value lVal = pE.getOperand1().accept(this);
     if (lVal.isUnknown()) {
       return Value.UnknownValue.getInstance();
@@ -781,6 +800,10 @@ public abstract class AbstractExpressionValueVisitor
 
   @Override
   public Value visit(CCastExpression pE) throws UnrecognizedCodeException {
+    final Value constantValue = getConstantValue(pE);
+    if (constantValue != null) {
+      return constantValue;
+    }
     return castCValue(pE.getOperand().accept(this), pE.getExpressionType(), machineModel,
         logger, pE.getFileLocation());
   }
@@ -1470,6 +1493,10 @@ public abstract class AbstractExpressionValueVisitor
 
   @Override
   public Value visit(final CTypeIdExpression pE) {
+    final Value constantValue = getConstantValue(pE);
+    if (constantValue != null) {
+      return constantValue;
+    }
     final TypeIdOperator idOperator = pE.getOperator();
     final CType innerType = pE.getType();
 
@@ -1500,6 +1527,11 @@ public abstract class AbstractExpressionValueVisitor
 
   @Override
   public Value visit(CUnaryExpression unaryExpression) throws UnrecognizedCodeException {
+    final Value constantValue = getConstantValue(unaryExpression);
+    if (constantValue != null) {
+      return constantValue;
+    }
+
     final UnaryOperator unaryOperator = unaryExpression.getOperator();
     final CExpression unaryOperand = unaryExpression.getOperand();
 
@@ -2402,6 +2434,22 @@ public abstract class AbstractExpressionValueVisitor
             return UnknownValue.getInstance();
         }
 
+          final boolean targetIsSigned = machineModel.isSigned(st);
+
+          final Number number = numericValue.getNumber();
+          if (size < SIZE_OF_JAVA_LONG
+              && size > 0
+              && (number instanceof Long
+                  || number instanceof Integer
+                  || number instanceof Short
+                  || number instanceof Byte)) {
+            // fast path without BigInteger: truncate to 'size' bits and extend the sign if
+            // necessary, which is the same wrap-around as below
+            final int shift = SIZE_OF_JAVA_LONG - size;
+            final long bits = number.longValue() << shift;
+            return new NumericValue(targetIsSigned ? bits >> shift : bits >>> shift);
+          }
+
         final BigInteger valueToCastAsInt;
         if (numericValue.getNumber() instanceof BigInteger) {
           valueToCastAsInt = numericValue.bigInteger();
@@ -2410,7 +2458,6 @@ public abstract class AbstractExpressionValueVisitor
         } else {
           valueToCastAsInt = BigInteger.valueOf(numericValue.longValue());
         }
-          final boolean targetIsSigned = machineModel.isSigned(st);
 
           final BigInteger maxValue = BigInteger.ONE.shiftLeft(size); // 2^size
           BigInteger result = valueToCastAsInt.remainder(maxValue); // shrink to number of bits
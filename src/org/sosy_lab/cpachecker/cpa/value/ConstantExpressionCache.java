@@ -0,0 +1,297 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.value;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.log.ForwardingLogManager;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.log.LogManagerWithoutDuplicates;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.ast.AAstNode;
+import org.sosy_lab.cpachecker.cfa.ast.c.CArraySubscriptExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CAstNode;
+import org.sosy_lab.cpachecker.cfa.ast.c.CBinaryExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CCastExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CCharLiteralExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFieldReference;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFloatLiteralExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CIdExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CIntegerLiteralExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CPointerExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CTypeIdExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CUnaryExpression;
+import org.sosy_lab.cpachecker.cfa.ast.java.JIdExpression;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.cfa.types.c.CEnumType.CEnumerator;
+import org.sosy_lab.cpachecker.cpa.value.type.Value;
+import org.sosy_lab.cpachecker.exceptions.UnrecognizedCodeException;
+import org.sosy_lab.cpachecker.util.CFAUtils;
+import org.sosy_lab.cpachecker.util.statistics.StatTimer;
+
+/**
+ * Values of the constant C expressions of a CFA, computed once before the analysis.
+ *
+ * <p>An expression is constant if it consists only of literals, enumerators, <code>sizeof</code>
+ * and <code>alignof</code>, and unary, binary and cast operations on constants. The value of such
+ * an expression does not depend on the abstract state, so {@link AbstractExpressionValueVisitor}
+ * can return the stored value instead of walking the expression again. Only explicitly known
+ * values of compound expressions are stored, literals are cheap to evaluate anyway.
+ *
+ * <p>Expressions are looked up by identity, so only the expressions of the CFA are found. After
+ * construction, instances are immutable apart from the statistics and can be shared between
+ * threads.
+ */
+public final class ConstantExpressionCache {
+
+  private final Map<CExpression, Value> constants;
+
+  final StatTimer precomputationTime = new StatTimer("Time for folding constant expressions");
+  final LongAdder hits = new LongAdder();
+
+  ConstantExpressionCache(CFA pCfa) {
+    precomputationTime.start();
+    try {
+      Map<CExpression, Value> values = new IdentityHashMap<>();
+      ConstantFolder folder = new ConstantFolder(pCfa.getMachineModel());
+      Map<CExpression, Boolean> isConstant = new IdentityHashMap<>();
+      for (CFANode node : pCfa.getAllNodes()) {
+        for (CFAEdge edge : CFAUtils.leavingEdges(node)) {
+          for (AAstNode astNode : CFAUtils.getAstNodesFromCfaEdge(edge)) {
+            if (!(astNode instanceof CAstNode)) {
+              continue;
+            }
+            for (CAstNode subNode : CFAUtils.traverseRecursively((CAstNode) astNode)) {
+              if (subNode instanceof CExpression
+                  && isCompound((CExpression) subNode)
+                  && !values.containsKey(subNode)
+                  && isConstant((CExpression) subNode, isConstant)) {
+                Value value = folder.fold((CExpression) subNode);
+                if (value.isExplicitlyKnown()) {
+                  values.put((CExpression) subNode, value);
+                }
+              }
+            }
+          }
+        }
+      }
+      constants = Collections.unmodifiableMap(values);
+    } finally {
+      precomputationTime.stop();
+    }
+  }
+
+  /** Return the value of the given expression if it is a constant expression of the CFA. */
+  @Nullable Value get(CExpression pExpression) {
+    Value value = constants.get(pExpression);
+    if (value != null) {
+      hits.increment();
+    }
+    return value;
+  }
+
+  int size() {
+    return constants.size();
+  }
+
+  private static boolean isCompound(CExpression pExpression) {
+    return pExpression instanceof CBinaryExpression
+        || pExpression instanceof CUnaryExpression
+        || pExpression instanceof CCastExpression
+        || pExpression instanceof CTypeIdExpression;
+  }
+
+  private static boolean isConstant(CExpression pExpression, Map<CExpression, Boolean> pCache) {
+    Boolean result = pCache.get(pExpression);
+    if (result == null) {
+      result = isConstant0(pExpression, pCache);
+      pCache.put(pExpression, result);
+    }
+    return result;
+  }
+
+  private static boolean isConstant0(CExpression pExpression, Map<CExpression, Boolean> pCache) {
+    if (pExpression instanceof CIntegerLiteralExpression
+        || pExpression instanceof CCharLiteralExpression
+        || pExpression instanceof CFloatLiteralExpression
+        || pExpression instanceof CTypeIdExpression) {
+      return true;
+
+    } else if (pExpression instanceof CIdExpression) {
+      return ((CIdExpression) pExpression).getDeclaration() instanceof CEnumerator;
+
+    } else if (pExpression instanceof CUnaryExpression) {
+      CUnaryExpression unaryExpression = (CUnaryExpression) pExpression;
+      switch (unaryExpression.getOperator()) {
+        case SIZEOF:
+        case ALIGNOF:
+          return true;
+        case MINUS:
+        case TILDE:
+          return isConstant(unaryExpression.getOperand(), pCache);
+        default:
+          return false;
+      }
+
+    } else if (pExpression instanceof CCastExpression) {
+      return isConstant(((CCastExpression) pExpression).getOperand(), pCache);
+
+    } else if (pExpression instanceof CBinaryExpression) {
+      CBinaryExpression binaryExpression = (CBinaryExpression) pExpression;
+      return isConstant(binaryExpression.getOperand1(), pCache)
+          && isConstant(binaryExpression.getOperand2(), pCache);
+    }
+    return false;
+  }
+
+  /**
+   * Visitor for the evaluation of constant expressions. It does not know any variables, and it
+   * does not log anything, because a constant expression of the CFA is not necessarily reachable.
+   * Problems like a division by zero or an invalid shift result in an unknown value, which is not
+   * stored, such that the warning is logged when the expression is evaluated during the analysis.
+   */
+  private static class ConstantFolder extends AbstractExpressionValueVisitor {
+
+    private final WarningRecorder warnings;
+
+    ConstantFolder(MachineModel pMachineModel) {
+      this(pMachineModel, new WarningRecorder());
+    }
+
+    private ConstantFolder(MachineModel pMachineModel, WarningRecorder pWarnings) {
+      super("", pMachineModel, new LogManagerWithoutDuplicates(pWarnings));
+      warnings = pWarnings;
+    }
+
+    Value fold(CExpression pExpression) {
+      warnings.warned = false;
+      try {
+        Value value = pExpression.accept(this);
+        // a warning means that a substitute value was returned for undefined behavior
+        return warnings.warned ? Value.UnknownValue.getInstance() : value;
+      } catch (UnrecognizedCodeException | IllegalArgumentException | ArithmeticException e) {
+        // the expression is evaluated again during the analysis if it is reachable,
+        // which reports the problem at the right time
+        return Value.UnknownValue.getInstance();
+      }
+    }
+
+    @Override
+    protected Value evaluateCPointerExpression(CPointerExpression pCPointerExpression) {
+      return Value.UnknownValue.getInstance();
+    }
+
+    @Override
+    protected Value evaluateCIdExpression(CIdExpression pCIdExpression) {
+      return Value.UnknownValue.getInstance();
+    }
+
+    @Override
+    protected Value evaluateJIdExpression(JIdExpression pVarName) {
+      return Value.UnknownValue.getInstance();
+    }
+
+    @Override
+    protected Value evaluateCFieldReference(CFieldReference pLValue) {
+      return Value.UnknownValue.getInstance();
+    }
+
+    @Override
+    protected Value evaluateCArraySubscriptExpression(CArraySubscriptExpression pLValue) {
+      return Value.UnknownValue.getInstance();
+    }
+  }
+
+  /** Log manager that drops all messages but remembers whether a warning was logged. */
+  private static class WarningRecorder extends ForwardingLogManager {
+
+    private final LogManager delegate = LogManager.createNullLogManager();
+    private boolean warned = false;
+
+    private void record(Level pLevel) {
+      if (pLevel.intValue() >= Level.WARNING.intValue()) {
+        warned = true;
+      }
+    }
+
+    @Override
+    protected LogManager delegate() {
+      return delegate;
+    }
+
+    @Override
+    public LogManager withComponentName(String pName) {
+      return this;
+    }
+
+    @Override
+    public boolean wouldBeLogged(Level pPriority) {
+      return pPriority.intValue() >= Level.WARNING.intValue();
+    }
+
+    @Override
+    public void log(Level pPriority, Object... pArgs) {
+      record(pPriority);
+    }
+
+    @Override
+    public void log(Level pPriority, Supplier<String> pMsgSupplier) {
+      record(pPriority);
+    }
+
+    @Override
+    public void logf(Level pPriority, String pFormat, Object... pArgs) {
+      record(pPriority);
+    }
+
+    @Override
+    public void logUserException(Level pPriority, Throwable pE, String pAdditionalMessage) {
+      record(pPriority);
+    }
+
+    @Override
+    public void logfUserException(
+        Level pPriority, Throwable pE, String pFormat, Object... pArgs) {
+      record(pPriority);
+    }
+
+    @Override
+    public void logException(Level pPriority, Throwable pE, String pAdditionalMessage) {
+      record(pPriority);
+    }
+
+    @Override
+    public void logfException(Level pPriority, Throwable pE, String pFormat, Object... pArgs) {
+      record(pPriority);
+    }
+  }
+}
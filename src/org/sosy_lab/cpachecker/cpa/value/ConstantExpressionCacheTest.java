@@ -0,0 +1,93 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.value;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.ast.AAstNode;
+import org.sosy_lab.cpachecker.cfa.ast.c.CAstNode;
+import org.sosy_lab.cpachecker.cfa.ast.c.CBinaryExpression;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cpa.value.type.NumericValue;
+import org.sosy_lab.cpachecker.cpa.value.type.Value;
+import org.sosy_lab.cpachecker.exceptions.ParserException;
+import org.sosy_lab.cpachecker.util.CFAUtils;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+public class ConstantExpressionCacheTest {
+
+  private static List<CBinaryExpression> getBinaryExpressions(CFA pCfa) {
+    List<CBinaryExpression> result = new ArrayList<>();
+    for (CFANode node : pCfa.getAllNodes()) {
+      for (CFAEdge edge : CFAUtils.leavingEdges(node)) {
+        for (AAstNode astNode : CFAUtils.getAstNodesFromCfaEdge(edge)) {
+          if (astNode instanceof CAstNode) {
+            for (CAstNode subNode : CFAUtils.traverseRecursively((CAstNode) astNode)) {
+              if (subNode instanceof CBinaryExpression) {
+                result.add((CBinaryExpression) subNode);
+              }
+            }
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  @Test
+  public void testConstantIsStored() throws ParserException, InterruptedException {
+    CFA cfa = TestDataTools.makeCFA("int main() {", "  int x = (2 + 3) * 4;", "  return x;", "}");
+    ConstantExpressionCache cache = new ConstantExpressionCache(cfa);
+
+    List<CBinaryExpression> expressions = getBinaryExpressions(cfa);
+    assertThat(expressions).isNotEmpty();
+    for (CBinaryExpression expression : expressions) {
+      Value value = cache.get(expression);
+      assertThat(value).isNotNull();
+      assertThat(value).isInstanceOf(NumericValue.class);
+    }
+  }
+
+  @Test
+  public void testDivisionByZeroIsNotStored() throws ParserException, InterruptedException {
+    CFA cfa =
+        TestDataTools.makeCFA(
+            "int main() {",
+            "  int x = 1 / 0;",
+            "  unsigned long long y = 1ULL / 0ULL;",
+            "  return x + y;",
+            "}");
+    ConstantExpressionCache cache = new ConstantExpressionCache(cfa);
+
+    for (CBinaryExpression expression : getBinaryExpressions(cfa)) {
+      // the warning for these operations needs to be logged during the analysis
+      assertThat(cache.get(expression)).isNull();
+    }
+  }
+}
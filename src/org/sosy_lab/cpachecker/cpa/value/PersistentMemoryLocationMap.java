@@ -0,0 +1,715 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.value;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.collect.PersistentMap;
+import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+
+/**
+ * Persistent map with {@link MemoryLocation} keys that is stored as a hash-array-mapped trie.
+ *
+ * <p>Instead of comparing memory locations (which compares their names), every memory location is
+ * mapped to a dense int id once, and the trie is indexed by these ids. All maps that are derived
+ * from the same {@link #empty()} map share the same ids, so the ids of one analysis stay small.
+ * Operations on two maps of the same family ({@link #containsAllMatching} and {@link
+ * #retainMatching}) work directly on the tries and skip subtries that are shared between both
+ * maps.
+ *
+ * <p>The iteration order is defined by the ids and not by the order of the memory locations.
+ */
+final class PersistentMemoryLocationMap<V> extends AbstractMap<MemoryLocation, V>
+    implements PersistentMap<MemoryLocation, V>, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final int BITS = 5;
+  private static final int MASK = (1 << BITS) - 1;
+  private static final int MAX_DEPTH = (Integer.SIZE + BITS - 1) / BITS;
+
+  /** The mapping from memory locations to ids, shared by all maps of one family. */
+  private final MemoryLocationIds ids;
+
+  private final Node<V> root;
+
+  private transient @Nullable EntrySet entrySet;
+
+  private PersistentMemoryLocationMap(MemoryLocationIds pIds, Node<V> pRoot) {
+    ids = pIds;
+    root = pRoot;
+  }
+
+  /** Create an empty map with a new set of ids. */
+  static <V> PersistentMemoryLocationMap<V> create() {
+    return new PersistentMemoryLocationMap<>(new MemoryLocationIds(), Node.empty());
+  }
+
+  /** Check whether both maps are {@link PersistentMemoryLocationMap}s that share their ids. */
+  static boolean areCompatible(Map<MemoryLocation, ?> pMap1, Map<MemoryLocation, ?> pMap2) {
+    return pMap1 instanceof PersistentMemoryLocationMap
+        && pMap2 instanceof PersistentMemoryLocationMap
+        && ((PersistentMemoryLocationMap<?>) pMap1).ids
+            == ((PersistentMemoryLocationMap<?>) pMap2).ids;
+  }
+
+  /**
+   * Check whether pMap1 contains all keys of pMap2 and whether all their values match. Both maps
+   * need to be {@link #areCompatible compatible}.
+   *
+   * @param pMatch is called with the value of pMap1 and the value of pMap2 for each key of pMap2.
+   */
+  static <V> boolean containsAllMatching(
+      Map<MemoryLocation, V> pMap1, Map<MemoryLocation, V> pMap2, BiPredicate<V, V> pMatch) {
+    checkNotNull(pMatch);
+    return containsAll(cast(pMap1).root, cast(pMap2).root, 0, pMatch);
+  }
+
+  /**
+   * Return the map that contains all entries of pMap2 for which pMap1 has a matching value. Both
+   * maps need to be {@link #areCompatible compatible}. If all entries of pMap2 are retained, pMap2
+   * itself is returned.
+   *
+   * @param pMatch is called with the value of pMap1 and the value of pMap2 for each common key.
+   */
+  static <V> PersistentMap<MemoryLocation, V> retainMatching(
+      Map<MemoryLocation, V> pMap1, Map<MemoryLocation, V> pMap2, BiPredicate<V, V> pMatch) {
+    checkNotNull(pMatch);
+    PersistentMemoryLocationMap<V> map2 = cast(pMap2);
+    Object result = retain(cast(pMap1).root, map2.root, 0, pMatch);
+    if (result == map2.root) {
+      return map2;
+    }
+    return new PersistentMemoryLocationMap<>(map2.ids, asRoot(result));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <V> PersistentMemoryLocationMap<V> cast(Map<MemoryLocation, V> pMap) {
+    return (PersistentMemoryLocationMap<V>) pMap;
+  }
+
+  @Override
+  public PersistentMemoryLocationMap<V> putAndCopy(MemoryLocation pKey, V pValue) {
+    Leaf<V> leaf = new Leaf<>(ids.getId(checkNotNull(pKey)), pKey, checkNotNull(pValue));
+    Node<V> newRoot = put(root, leaf, 0);
+    return newRoot == root ? this : new PersistentMemoryLocationMap<>(ids, newRoot);
+  }
+
+  @Override
+  public PersistentMemoryLocationMap<V> removeAndCopy(Object pKey) {
+    int id = idOf(pKey);
+    if (id < 0) {
+      return this;
+    }
+    Object newRoot = remove(root, id, 0);
+    return newRoot == root ? this : new PersistentMemoryLocationMap<>(ids, asRoot(newRoot));
+  }
+
+  @Override
+  public PersistentMemoryLocationMap<V> empty() {
+    return root.size == 0 ? this : new PersistentMemoryLocationMap<>(ids, Node.empty());
+  }
+
+  private int idOf(@Nullable Object pKey) {
+    return pKey instanceof MemoryLocation ? ids.lookupId((MemoryLocation) pKey) : -1;
+  }
+
+  private @Nullable Leaf<V> getLeaf(@Nullable Object pKey) {
+    int id = idOf(pKey);
+    if (id < 0) {
+      return null;
+    }
+    Object slot = root;
+    for (int shift = 0; slot instanceof Node; shift += BITS) {
+      slot = ((Node<?>) slot).get(id, shift);
+    }
+    @SuppressWarnings("unchecked")
+    Leaf<V> leaf = (Leaf<V>) slot;
+    return leaf != null && leaf.id == id ? leaf : null;
+  }
+
+  @Override
+  public boolean containsKey(@Nullable Object pKey) {
+    return getLeaf(pKey) != null;
+  }
+
+  @Override
+  public V get(@Nullable Object pKey) {
+    Leaf<V> leaf = getLeaf(pKey);
+    return leaf == null ? null : leaf.value;
+  }
+
+  @Override
+  public int size() {
+    return root.size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return root.size == 0;
+  }
+
+  @Override
+  public Set<Entry<MemoryLocation, V>> entrySet() {
+    if (entrySet == null) {
+      entrySet = new EntrySet();
+    }
+    return entrySet;
+  }
+
+  @Override
+  public int hashCode() {
+    return root.hash;
+  }
+
+  @Override
+  public boolean equals(@Nullable Object pOther) {
+    if (this == pOther) {
+      return true;
+    }
+    if (pOther instanceof PersistentMemoryLocationMap
+        && ((PersistentMemoryLocationMap<?>) pOther).ids == ids) {
+      // the shape of the trie depends only on the set of keys
+      return slotsEqual(root, ((PersistentMemoryLocationMap<?>) pOther).root);
+    }
+    return super.equals(pOther);
+  }
+
+  @Deprecated
+  @Override
+  public V put(MemoryLocation pKey, V pValue) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Deprecated
+  @Override
+  public V remove(Object pKey) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Deprecated
+  @Override
+  public void putAll(Map<? extends MemoryLocation, ? extends V> pMap) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Deprecated
+  @Override
+  public void clear() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Deprecated
+  @Override
+  public V putIfAbsent(MemoryLocation pKey, V pValue) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Deprecated
+  @Override
+  public boolean remove(Object pKey, Object pValue) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Deprecated
+  @Override
+  public V replace(MemoryLocation pKey, V pValue) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Deprecated
+  @Override
+  public boolean replace(MemoryLocation pKey, V pOldValue, V pNewValue) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Deprecated
+  @Override
+  public V compute(
+      MemoryLocation pKey, BiFunction<? super MemoryLocation, ? super V, ? extends V> pFunction) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Deprecated
+  @Override
+  public V computeIfAbsent(
+      MemoryLocation pKey, Function<? super MemoryLocation, ? extends V> pFunction) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Deprecated
+  @Override
+  public V computeIfPresent(
+      MemoryLocation pKey, BiFunction<? super MemoryLocation, ? super V, ? extends V> pFunction) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Deprecated
+  @Override
+  public V merge(
+      MemoryLocation pKey, V pValue, BiFunction<? super V, ? super V, ? extends V> pFunction) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Deprecated
+  @Override
+  public void replaceAll(BiFunction<? super MemoryLocation, ? super V, ? extends V> pFunction) {
+    throw new UnsupportedOperationException();
+  }
+
+  private static int indexAt(int pId, int pShift) {
+    return (pId >>> pShift) & MASK;
+  }
+
+  private static <V> Node<V> put(Node<V> pNode, Leaf<V> pLeaf, int pShift) {
+    int index = indexAt(pLeaf.id, pShift);
+    Object slot = pNode.getSlot(index);
+    Object newSlot;
+    if (slot == null) {
+      newSlot = pLeaf;
+    } else if (slot instanceof Node) {
+      @SuppressWarnings("unchecked")
+      Node<V> child = (Node<V>) slot;
+      newSlot = put(child, pLeaf, pShift + BITS);
+    } else {
+      @SuppressWarnings("unchecked")
+      Leaf<V> oldLeaf = (Leaf<V>) slot;
+      if (oldLeaf.id != pLeaf.id) {
+        newSlot = join(oldLeaf, pLeaf, pShift + BITS);
+      } else if (oldLeaf.value == pLeaf.value) {
+        newSlot = oldLeaf;
+      } else {
+        newSlot = pLeaf;
+      }
+    }
+    return newSlot == slot ? pNode : pNode.withSlot(index, newSlot);
+  }
+
+  /** Create the smallest subtrie at the given level that contains both leaves. */
+  private static <V> Node<V> join(Leaf<V> pLeaf1, Leaf<V> pLeaf2, int pShift) {
+    int index1 = indexAt(pLeaf1.id, pShift);
+    int index2 = indexAt(pLeaf2.id, pShift);
+    if (index1 == index2) {
+      return Node.<V>empty().withSlot(index1, join(pLeaf1, pLeaf2, pShift + BITS));
+    }
+    return Node.<V>empty().withSlot(index1, pLeaf1).withSlot(index2, pLeaf2);
+  }
+
+  /**
+   * Remove the given id from the subtrie. The result is the same node if the id is not contained,
+   * null if the subtrie became empty, or a single leaf if only this leaf is left.
+   */
+  private static <V> @Nullable Object remove(Node<V> pNode, int pId, int pShift) {
+    int index = indexAt(pId, pShift);
+    Object slot = pNode.getSlot(index);
+    Object newSlot;
+    if (slot == null) {
+      return pNode;
+    } else if (slot instanceof Node) {
+      @SuppressWarnings("unchecked")
+      Node<V> child = (Node<V>) slot;
+      newSlot = remove(child, pId, pShift + BITS);
+      if (newSlot == child) {
+        return pNode;
+      }
+    } else if (((Leaf<?>) slot).id == pId) {
+      newSlot = null;
+    } else {
+      return pNode;
+    }
+    return normalize(pNode.withSlot(index, newSlot));
+  }
+
+  /** Check whether the first subtrie contains all leaves of the second one with matching values. */
+  private static <V> boolean containsAll(
+      Object pSlot1, Object pSlot2, int pShift, BiPredicate<V, V> pMatch) {
+    if (pSlot1 == pSlot2) {
+      return true;
+    }
+    if (pSlot2 instanceof Leaf) {
+      @SuppressWarnings("unchecked")
+      Leaf<V> leaf2 = (Leaf<V>) pSlot2;
+      Leaf<V> leaf1 = find(pSlot1, leaf2.id, pShift);
+      return leaf1 != null && pMatch.test(leaf1.value, leaf2.value);
+    }
+    if (pSlot1 instanceof Leaf) {
+      // a node always contains at least two leaves
+      return false;
+    }
+    Node<?> node1 = (Node<?>) pSlot1;
+    Node<?> node2 = (Node<?>) pSlot2;
+    if (node1.size < node2.size || (node2.bitmap & ~node1.bitmap) != 0) {
+      return false;
+    }
+    int remaining = node2.bitmap;
+    for (int i = 0; i < node2.slots.length; i++, remaining &= remaining - 1) {
+      int index = Integer.numberOfTrailingZeros(remaining);
+      if (!containsAll(node1.getSlot(index), node2.slots[i], pShift + BITS, pMatch)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Compute the subtrie with all leaves of the second subtrie that have a matching leaf in the
+   * first one. The second subtrie is returned if all of its leaves are retained.
+   */
+  private static <V> @Nullable Object retain(
+      @Nullable Object pSlot1, Object pSlot2, int pShift, BiPredicate<V, V> pMatch) {
+    if (pSlot1 == pSlot2) {
+      return pSlot2;
+    }
+    if (pSlot1 == null) {
+      return null;
+    }
+    if (pSlot2 instanceof Leaf) {
+      @SuppressWarnings("unchecked")
+      Leaf<V> leaf2 = (Leaf<V>) pSlot2;
+      Leaf<V> leaf1 = find(pSlot1, leaf2.id, pShift);
+      return leaf1 != null && pMatch.test(leaf1.value, leaf2.value) ? leaf2 : null;
+    }
+    @SuppressWarnings("unchecked")
+    Node<V> node2 = (Node<V>) pSlot2;
+    if (pSlot1 instanceof Leaf) {
+      @SuppressWarnings("unchecked")
+      Leaf<V> leaf1 = (Leaf<V>) pSlot1;
+      Leaf<V> leaf2 = find(node2, leaf1.id, pShift);
+      return leaf2 != null && pMatch.test(leaf1.value, leaf2.value) ? leaf2 : null;
+    }
+    Node<?> node1 = (Node<?>) pSlot1;
+    Node<V> result = node2;
+    int remaining = node2.bitmap;
+    for (int i = 0; i < node2.slots.length; i++, remaining &= remaining - 1) {
+      int index = Integer.numberOfTrailingZeros(remaining);
+      Object slot2 = node2.slots[i];
+      Object newSlot = retain(node1.getSlot(index), slot2, pShift + BITS, pMatch);
+      if (newSlot != slot2) {
+        result = result.withSlot(index, newSlot);
+      }
+    }
+    return result == node2 ? node2 : normalize(result);
+  }
+
+  private static <V> @Nullable Leaf<V> find(Object pSlot, int pId, int pShift) {
+    Object slot = pSlot;
+    for (int shift = pShift; slot instanceof Node; shift += BITS) {
+      slot = ((Node<?>) slot).get(pId, shift);
+    }
+    @SuppressWarnings("unchecked")
+    Leaf<V> leaf = (Leaf<V>) slot;
+    return leaf != null && leaf.id == pId ? leaf : null;
+  }
+
+  private static boolean slotsEqual(Object pSlot1, Object pSlot2) {
+    if (pSlot1 == pSlot2) {
+      return true;
+    }
+    if (pSlot1 instanceof Leaf && pSlot2 instanceof Leaf) {
+      return pSlot1.equals(pSlot2);
+    }
+    if (pSlot1 instanceof Node && pSlot2 instanceof Node) {
+      Node<?> node1 = (Node<?>) pSlot1;
+      Node<?> node2 = (Node<?>) pSlot2;
+      if (node1.bitmap != node2.bitmap || node1.size != node2.size || node1.hash != node2.hash) {
+        return false;
+      }
+      for (int i = 0; i < node1.slots.length; i++) {
+        if (!slotsEqual(node1.slots[i], node2.slots[i])) {
+          return false;
+        }
+      }
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Bring a non-root subtrie into its canonical form: empty subtries are removed and subtries with
+   * a single leaf are replaced by the leaf.
+   */
+  private static @Nullable Object normalize(Node<?> pNode) {
+    if (pNode.size == 0) {
+      return null;
+    } else if (pNode.size == 1 && pNode.slots[0] instanceof Leaf) {
+      return pNode.slots[0];
+    }
+    return pNode;
+  }
+
+  /** The root of the trie is always a node. */
+  @SuppressWarnings("unchecked")
+  private static <V> Node<V> asRoot(@Nullable Object pSlot) {
+    if (pSlot == null) {
+      return Node.empty();
+    } else if (pSlot instanceof Leaf) {
+      Leaf<V> leaf = (Leaf<V>) pSlot;
+      return Node.<V>empty().withSlot(indexAt(leaf.id, 0), leaf);
+    }
+    return (Node<V>) pSlot;
+  }
+
+  /** Inner node of the trie. Each slot is either a {@link Node} or a {@link Leaf}. */
+  private static final class Node<V> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Node<?> EMPTY = new Node<>(0, new Object[0]);
+
+    /** The set of indices at this level for which a slot exists. */
+    private final int bitmap;
+
+    private final Object[] slots;
+
+    /** Number of leaves in this subtrie. */
+    private final int size;
+
+    /** Sum of the hash codes of the leaves in this subtrie, see {@link Map#hashCode()}. */
+    private final int hash;
+
+    private Node(int pBitmap, Object[] pSlots) {
+      bitmap = pBitmap;
+      slots = pSlots;
+      int s = 0;
+      int h = 0;
+      for (Object slot : pSlots) {
+        if (slot instanceof Node) {
+          s += ((Node<?>) slot).size;
+          h += ((Node<?>) slot).hash;
+        } else {
+          s++;
+          h += slot.hashCode();
+        }
+      }
+      size = s;
+      hash = h;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <V> Node<V> empty() {
+      return (Node<V>) EMPTY;
+    }
+
+    private int positionOf(int pIndex) {
+      return Integer.bitCount(bitmap & ((1 << pIndex) - 1));
+    }
+
+    @Nullable Object getSlot(int pIndex) {
+      return (bitmap & (1 << pIndex)) == 0 ? null : slots[positionOf(pIndex)];
+    }
+
+    @Nullable Object get(int pId, int pShift) {
+      return getSlot(indexAt(pId, pShift));
+    }
+
+    /** Return a copy of this node with the given slot replaced (or removed if null). */
+    Node<V> withSlot(int pIndex, @Nullable Object pSlot) {
+      int bit = 1 << pIndex;
+      int position = positionOf(pIndex);
+      Object[] newSlots;
+      int newBitmap;
+      if ((bitmap & bit) != 0) {
+        if (pSlot == null) {
+          newSlots = new Object[slots.length - 1];
+          System.arraycopy(slots, 0, newSlots, 0, position);
+          System.arraycopy(slots, position + 1, newSlots, position, slots.length - position - 1);
+          newBitmap = bitmap & ~bit;
+        } else {
+          newSlots = slots.clone();
+          newSlots[position] = pSlot;
+          newBitmap = bitmap;
+        }
+      } else {
+        if (pSlot == null) {
+          return this;
+        }
+        newSlots = new Object[slots.length + 1];
+        System.arraycopy(slots, 0, newSlots, 0, position);
+        newSlots[position] = pSlot;
+        System.arraycopy(slots, position, newSlots, position + 1, slots.length - position);
+        newBitmap = bitmap | bit;
+      }
+      return new Node<>(newBitmap, newSlots);
+    }
+
+    private Object readResolve() {
+      return slots.length == 0 ? EMPTY : this;
+    }
+  }
+
+  /** A leaf of the trie, which is also the entry of the map. */
+  private static final class Leaf<V> implements Entry<MemoryLocation, V>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int id;
+    private final MemoryLocation key;
+    private final V value;
+    private final int hash;
+
+    private Leaf(int pId, MemoryLocation pKey, V pValue) {
+      id = pId;
+      key = pKey;
+      value = pValue;
+      hash = pKey.hashCode() ^ pValue.hashCode();
+    }
+
+    @Override
+    public MemoryLocation getKey() {
+      return key;
+    }
+
+    @Override
+    public V getValue() {
+      return value;
+    }
+
+    @Override
+    public V setValue(V pValue) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean equals(@Nullable Object pOther) {
+      if (this == pOther) {
+        return true;
+      }
+      if (!(pOther instanceof Entry)) {
+        return false;
+      }
+      Entry<?, ?> other = (Entry<?, ?>) pOther;
+      return key.equals(other.getKey()) && value.equals(other.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public String toString() {
+      return key + "=" + value;
+    }
+  }
+
+  private final class EntrySet extends AbstractSet<Entry<MemoryLocation, V>> {
+
+    @Override
+    public Iterator<Entry<MemoryLocation, V>> iterator() {
+      return new LeafIterator<>(root);
+    }
+
+    @Override
+    public int size() {
+      return root.size;
+    }
+
+    @Override
+    public boolean contains(@Nullable Object pObject) {
+      if (!(pObject instanceof Entry)) {
+        return false;
+      }
+      Entry<?, ?> entry = (Entry<?, ?>) pObject;
+      Leaf<V> leaf = getLeaf(entry.getKey());
+      return leaf != null && Objects.equals(leaf.value, entry.getValue());
+    }
+  }
+
+  /** Depth-first iterator over all leaves of a trie. */
+  private static final class LeafIterator<V> implements Iterator<Entry<MemoryLocation, V>> {
+
+    private final Node<?>[] nodes = new Node<?>[MAX_DEPTH + 1];
+    private final int[] positions = new int[MAX_DEPTH + 1];
+    private int depth = 0;
+    private @Nullable Leaf<V> next;
+
+    LeafIterator(Node<V> pRoot) {
+      nodes[0] = pRoot;
+      next = computeNext();
+    }
+
+    @SuppressWarnings("unchecked")
+    private @Nullable Leaf<V> computeNext() {
+      while (depth >= 0) {
+        Node<?> node = nodes[depth];
+        if (positions[depth] >= node.slots.length) {
+          depth--;
+          continue;
+        }
+        Object slot = node.slots[positions[depth]++];
+        if (slot instanceof Leaf) {
+          return (Leaf<V>) slot;
+        }
+        depth++;
+        nodes[depth] = (Node<?>) slot;
+        positions[depth] = 0;
+      }
+      return null;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    public Entry<MemoryLocation, V> next() {
+      if (next == null) {
+        throw new NoSuchElementException();
+      }
+      Leaf<V> result = next;
+      next = computeNext();
+      return result;
+    }
+  }
+
+  /** Assigns dense ids to memory locations. Shared by all maps derived from the same map. */
+  private static final class MemoryLocationIds implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Map<MemoryLocation, Integer> ids = new HashMap<>();
+
+    synchronized int getId(MemoryLocation pLocation) {
+      return ids.computeIfAbsent(pLocation, k -> ids.size());
+    }
+
+    synchronized int lookupId(MemoryLocation pLocation) {
+      return ids.getOrDefault(pLocation, -1);
+    }
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.value;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Objects;
+import java.util.Random;
+import org.junit.Test;
+import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
+import org.sosy_lab.common.collect.PersistentMap;
+import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+
+public class PersistentMemoryLocationMapTest {
+
+  private static final int LOCATIONS = 200;
+
+  private static MemoryLocation location(int i) {
+    return MemoryLocation.valueOf("main", "var" + i);
+  }
+
+  private static PersistentMap<MemoryLocation, Integer> randomMap(
+      PersistentMap<MemoryLocation, Integer> pEmpty, long pSeed, int pOperations) {
+    Random random = new Random(pSeed);
+    PersistentMap<MemoryLocation, Integer> map = pEmpty;
+    for (int i = 0; i < pOperations; i++) {
+      MemoryLocation loc = location(random.nextInt(LOCATIONS));
+      if (random.nextInt(4) == 0) {
+        map = map.removeAndCopy(loc);
+      } else {
+        map = map.putAndCopy(loc, random.nextInt(3));
+      }
+    }
+    return map;
+  }
+
+  @Test
+  public void testSameContentAsTreeMap() {
+    PersistentMemoryLocationMap<Integer> empty = PersistentMemoryLocationMap.create();
+    for (long seed = 0; seed < 20; seed++) {
+      PersistentMap<MemoryLocation, Integer> map = randomMap(empty, seed, 1000);
+      PersistentMap<MemoryLocation, Integer> expected =
+          randomMap(PathCopyingPersistentTreeMap.of(), seed, 1000);
+
+      assertThat(map).isEqualTo(expected);
+      assertThat(expected).isEqualTo(map);
+      assertThat(map.hashCode()).isEqualTo(expected.hashCode());
+      assertThat(map.entrySet()).containsExactlyElementsIn(expected.entrySet());
+      for (int i = 0; i < LOCATIONS; i++) {
+        assertThat(map.get(location(i))).isEqualTo(expected.get(location(i)));
+      }
+    }
+  }
+
+  @Test
+  public void testEqualsIndependentOfHistory() {
+    PersistentMemoryLocationMap<Integer> empty = PersistentMemoryLocationMap.create();
+    PersistentMap<MemoryLocation, Integer> map1 = empty;
+    PersistentMap<MemoryLocation, Integer> map2 = empty;
+    for (int i = 0; i < LOCATIONS; i++) {
+      map1 = map1.putAndCopy(location(i), i);
+      map2 = map2.putAndCopy(location(LOCATIONS - 1 - i), LOCATIONS - 1 - i);
+    }
+    for (int i = 0; i < LOCATIONS; i += 2) {
+      map1 = map1.removeAndCopy(location(i));
+    }
+    for (int i = LOCATIONS - 2; i >= 0; i -= 2) {
+      map2 = map2.removeAndCopy(location(i));
+    }
+    assertThat(map1).isEqualTo(map2);
+    assertThat(map1.hashCode()).isEqualTo(map2.hashCode());
+  }
+
+  @Test
+  public void testRetainAndContainsAll() {
+    PersistentMemoryLocationMap<Integer> empty = PersistentMemoryLocationMap.create();
+    for (long seed = 0; seed < 20; seed++) {
+      PersistentMap<MemoryLocation, Integer> map1 = randomMap(empty, seed, 300);
+      PersistentMap<MemoryLocation, Integer> map2 = randomMap(map1, seed + 100, 20);
+
+      PersistentMap<MemoryLocation, Integer> expected = PathCopyingPersistentTreeMap.of();
+      boolean expectedContainsAll = true;
+      for (MemoryLocation loc : map2.keySet()) {
+        if (Objects.equals(map1.get(loc), map2.get(loc))) {
+          expected = expected.putAndCopy(loc, map2.get(loc));
+        } else {
+          expectedContainsAll = false;
+        }
+      }
+
+      PersistentMap<MemoryLocation, Integer> retained =
+          PersistentMemoryLocationMap.retainMatching(map1, map2, Objects::equals);
+      assertThat(retained).isEqualTo(expected);
+      assertThat(PersistentMemoryLocationMap.containsAllMatching(map1, map2, Objects::equals))
+          .isEqualTo(expectedContainsAll);
+      assertThat(PersistentMemoryLocationMap.containsAllMatching(map1, retained, Objects::equals))
+          .isTrue();
+    }
+  }
+
+  @Test
+  public void testRetainReturnsSameMap() {
+    PersistentMap<MemoryLocation, Integer> map =
+        randomMap(PersistentMemoryLocationMap.create(), 42, 500);
+    PersistentMap<MemoryLocation, Integer> bigger = map.putAndCopy(location(LOCATIONS), 0);
+    assertThat(PersistentMemoryLocationMap.retainMatching(bigger, map, Objects::equals))
+        .isSameInstanceAs(map);
+  }
+
+  @Test
+  public void testSerialization() throws Exception {
+    PersistentMap<MemoryLocation, Integer> map =
+        randomMap(PersistentMemoryLocationMap.create(), 7, 500);
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(map);
+    }
+    Object copy;
+    try (ObjectInputStream in =
+        new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      copy = in.readObject();
+    }
+    assertThat(copy).isEqualTo(map);
+  }
+}
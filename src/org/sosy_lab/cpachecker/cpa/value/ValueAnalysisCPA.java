@@ -34,10 +34,13 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.logging.Level;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.collect.PersistentMap;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
@@ -65,6 +68,7 @@ import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
 import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
 import org.sosy_lab.cpachecker.core.interfaces.pcc.ProofChecker.ProofCheckerCPA;
 import org.sosy_lab.cpachecker.cpa.arg.path.ARGPath;
+import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisState.ValueAndType;
 import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisPrecisionAdjustment.PrecAdjustmentOptions;
 import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisPrecisionAdjustment.PrecAdjustmentStatistics;
 import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisTransferRelation.ValueTransferOptions;
@@ -118,6 +122,23 @@ public class ValueAnalysisCPA extends AbstractCPA
       description = "Tells the value analysis how to handle unknown values.")
   private UnknownValueStrategy unknownValueStrategy = UnknownValueStrategy.DISCARD;
 
+  @Option(
+      secure = true,
+      description =
+          "store the values of abstract states in a trie that is indexed by ids of memory"
+              + " locations instead of a tree that is sorted by their names. This makes lookups,"
+              + " updates, joins and coverage checks faster, but the variables of a state are"
+              + " not listed in alphabetical order anymore.")
+  private boolean compactStateRepresentation = false;
+
+  @Option(
+      secure = true,
+      description =
+          "compute the values of constant expressions in the CFA (e.g., literals with casts,"
+              + " sizeof, or arithmetic on enum constants) once before the analysis"
+              + " instead of evaluating them again for every state.")
+  private boolean foldConstantExpressions = true;
+
   public static CPAFactory factory() {
     return AutomaticCPAFactory.forType(ValueAnalysisCPA.class);
   }
@@ -139,9 +160,14 @@ public class ValueAnalysisCPA extends AbstractCPA
   private final ValueTransferOptions transferOptions;
   private final PrecAdjustmentOptions precisionAdjustmentOptions;
   private final PrecAdjustmentStatistics precisionAdjustmentStatistics;
+  private final @Nullable ConstantExpressionCache constantExpressions;
 
   private SymbolicStatistics symbolicStats;
 
+  /** All states with the compact representation share the memory-location ids of this map. */
+  private final PersistentMap<MemoryLocation, ValueAndType> emptyCompactMap =
+      PersistentMemoryLocationMap.create();
+
   private ValueAnalysisCPA(Configuration config, LogManager logger,
       ShutdownNotifier pShutdownNotifier, CFA cfa) throws InvalidConfigurationException {
     super(DelegateAbstractDomain.<ValueAnalysisState>getInstance(), null);
@@ -164,6 +190,7 @@ public class ValueAnalysisCPA extends AbstractCPA
     transferOptions = new ValueTransferOptions(config);
     precisionAdjustmentOptions = new PrecAdjustmentOptions(config, cfa);
     precisionAdjustmentStatistics = new PrecAdjustmentStatistics();
+    constantExpressions = foldConstantExpressions ? new ConstantExpressionCache(cfa) : null;
   }
 
   private MemoryLocationValueHandler createUnknownValueHandler()
@@ -268,11 +295,15 @@ public class ValueAnalysisCPA extends AbstractCPA
         transferOptions,
         unknownValueHandler,
         constraintsStrengthenOperator,
+        constantExpressions,
         statistics);
   }
 
   @Override
   public AbstractState getInitialState(CFANode pNode, StateSpacePartition pPartition) {
+    if (compactStateRepresentation) {
+      return new ValueAnalysisState(Optional.of(cfa.getMachineModel()), emptyCompactMap);
+    }
     return new ValueAnalysisState(cfa.getMachineModel());
   }
 
@@ -309,6 +340,10 @@ public class ValueAnalysisCPA extends AbstractCPA
     return shutdownNotifier;
   }
 
+  @Nullable ConstantExpressionCache getConstantExpressionCache() {
+    return constantExpressions;
+  }
+
   public CFA getCFA() {
     return cfa;
   }
@@ -96,6 +96,14 @@ public class ValueAnalysisCPAStatistics implements Statistics {
         .put(assumptions)
         .put(deterministicAssumptions)
         .put("Level of Determinism", getCurrentLevelOfDeterminism() + "%");
+
+    ConstantExpressionCache constantExpressions = cpa.getConstantExpressionCache();
+    if (constantExpressions != null) {
+      writer
+          .put("Number of folded constant expressions", constantExpressions.size())
+          .put("Number of constant-expression cache hits", constantExpressions.hits.sum())
+          .put(constantExpressions.precomputationTime);
+    }
   }
 
   /**
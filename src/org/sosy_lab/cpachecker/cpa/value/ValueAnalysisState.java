@@ -357,14 +357,25 @@ public final class ValueAnalysisState
    */
   @Override
   public ValueAnalysisState join(ValueAnalysisState reachedState) {
-    PersistentMap<MemoryLocation, ValueAndType> newConstantsMap = PathCopyingPersistentTreeMap.of();
+    if (constantsMap == reachedState.constantsMap) {
+      return reachedState;
+    }
 
-    for (Entry<MemoryLocation, ValueAndType> otherEntry : reachedState.constantsMap.entrySet()) {
-      MemoryLocation key = otherEntry.getKey();
-      ValueAndType value = otherEntry.getValue();
+    PersistentMap<MemoryLocation, ValueAndType> newConstantsMap;
+    if (PersistentMemoryLocationMap.areCompatible(constantsMap, reachedState.constantsMap)) {
+      newConstantsMap =
+          PersistentMemoryLocationMap.retainMatching(
+              constantsMap, reachedState.constantsMap, Objects::equals);
+
+    } else {
+      newConstantsMap = reachedState.constantsMap.empty();
+      for (Entry<MemoryLocation, ValueAndType> otherEntry : reachedState.constantsMap.entrySet()) {
+        MemoryLocation key = otherEntry.getKey();
+        ValueAndType value = otherEntry.getValue();
 
-      if (Objects.equals(value, constantsMap.get(key))) {
-        newConstantsMap = newConstantsMap.putAndCopy(key, value);
+        if (Objects.equals(value, constantsMap.get(key))) {
+          newConstantsMap = newConstantsMap.putAndCopy(key, value);
+        }
       }
     }
 
@@ -399,7 +410,18 @@ public final class ValueAnalysisState
     //   return true;
     // }
 
+    if (constantsMap == other.constantsMap) {
+      return true;
+    }
+
     // the tolerant way: ignore all type information. TODO really correct?
+    if (PersistentMemoryLocationMap.areCompatible(constantsMap, other.constantsMap)) {
+      return PersistentMemoryLocationMap.containsAllMatching(
+          constantsMap,
+          other.constantsMap,
+          (thisValueAndType, otherValueAndType) ->
+              otherValueAndType.getValue().equals(thisValueAndType.getValue()));
+    }
     for (Entry<MemoryLocation, ValueAndType> otherEntry : other.constantsMap.entrySet()) {
       MemoryLocation key = otherEntry.getKey();
       Value otherValue = otherEntry.getValue().getValue();
@@ -199,6 +199,7 @@ public class ValueAnalysisTransferRelation
 
   private final ValueTransferOptions options;
   private final @Nullable ValueAnalysisCPAStatistics stats;
+  private final @Nullable ConstantExpressionCache constantExpressions;
 
   private final ConstraintsStrengthenOperator constraintsStrengthenOperator;
 
@@ -246,8 +247,10 @@ public class ValueAnalysisTransferRelation
       ValueTransferOptions pOptions,
       MemoryLocationValueHandler pUnknownValueHandler,
       ConstraintsStrengthenOperator pConstraintsStrengthenOperator,
+      @Nullable ConstantExpressionCache pConstantExpressions,
       @Nullable ValueAnalysisCPAStatistics pStats) {
     options = pOptions;
+    constantExpressions = pConstantExpressions;
     machineModel = pCfa.getMachineModel();
     logger = new LogManagerWithoutDuplicates(pLogger);
     stats = pStats;
@@ -1651,11 +1654,15 @@ public class ValueAnalysisTransferRelation
 
   /** returns an initialized, empty visitor */
   private ExpressionValueVisitor getVisitor(ValueAnalysisState pState, String pFunctionName) {
+    ExpressionValueVisitor visitor;
     if (options.isIgnoreFunctionValue()) {
-      return new ExpressionValueVisitor(pState, pFunctionName, machineModel, logger);
+      visitor = new ExpressionValueVisitor(pState, pFunctionName, machineModel, logger);
     } else {
-      return new FunctionPointerExpressionValueVisitor(pState, pFunctionName, machineModel, logger);
+      visitor =
+          new FunctionPointerExpressionValueVisitor(pState, pFunctionName, machineModel, logger);
     }
+    visitor.setConstantExpressionCache(constantExpressions);
+    return visitor;
   }
 
   private ExpressionValueVisitor getVisitor() {
@@ -0,0 +1,224 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.dependencegraph;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import org.sosy_lab.cpachecker.util.dependencegraph.DependenceGraph.DependenceType;
+
+/**
+ * Immutable edges of a {@link DependenceGraph} in compressed sparse row format.
+ *
+ * <p>Nodes are numbered consecutively starting from 0. The edges are stored twice in primitive
+ * arrays, once grouped by their source node for forward traversal (together with their types) and
+ * once grouped by their target node for backward traversal. The edges of node {@code n} are the
+ * entries from {@code offsets[n]} (inclusive) to {@code offsets[n + 1]} (exclusive) of the
+ * respective arrays.
+ */
+final class DGAdjacency implements Serializable {
+
+  private static final long serialVersionUID = 7127433850329181307L;
+
+  private static final DependenceType[] TYPES = DependenceType.values();
+
+  private final int[] forwardOffsets;
+  private final int[] forwardTargets;
+  private final byte[] forwardTypes;
+
+  private final int[] backwardOffsets;
+  private final int[] backwardSources;
+
+  private DGAdjacency(
+      int[] pForwardOffsets,
+      int[] pForwardTargets,
+      byte[] pForwardTypes,
+      int[] pBackwardOffsets,
+      int[] pBackwardSources) {
+    forwardOffsets = pForwardOffsets;
+    forwardTargets = pForwardTargets;
+    forwardTypes = pForwardTypes;
+    backwardOffsets = pBackwardOffsets;
+    backwardSources = pBackwardSources;
+  }
+
+  int getNumberOfNodes() {
+    return forwardOffsets.length - 1;
+  }
+
+  int getNumberOfEdges() {
+    return forwardTargets.length;
+  }
+
+  /** Return the nodes that depend on the given node, in ascending order. */
+  PrimitiveIterator.OfInt successors(int pNode) {
+    checkElementIndex(pNode, getNumberOfNodes());
+    return Arrays.stream(forwardTargets, forwardOffsets[pNode], forwardOffsets[pNode + 1])
+        .iterator();
+  }
+
+  /** Return the nodes the given node depends on, in ascending order. */
+  PrimitiveIterator.OfInt predecessors(int pNode) {
+    checkElementIndex(pNode, getNumberOfNodes());
+    return Arrays.stream(backwardSources, backwardOffsets[pNode], backwardOffsets[pNode + 1])
+        .iterator();
+  }
+
+  /** Call the given consumer for each edge, ordered by source node and then by target node. */
+  void forEachEdge(EdgeConsumer pConsumer) {
+    for (int source = 0; source < getNumberOfNodes(); source++) {
+      for (int i = forwardOffsets[source]; i < forwardOffsets[source + 1]; i++) {
+        pConsumer.accept(source, forwardTargets[i], TYPES[forwardTypes[i]]);
+      }
+    }
+  }
+
+  @FunctionalInterface
+  interface EdgeConsumer {
+    void accept(int pSource, int pTarget, DependenceType pType);
+  }
+
+  @Override
+  public boolean equals(Object pO) {
+    if (this == pO) {
+      return true;
+    }
+    if (!(pO instanceof DGAdjacency)) {
+      return false;
+    }
+    DGAdjacency other = (DGAdjacency) pO;
+    // the backward arrays are determined by the forward arrays
+    return Arrays.equals(forwardOffsets, other.forwardOffsets)
+        && Arrays.equals(forwardTargets, other.forwardTargets)
+        && Arrays.equals(forwardTypes, other.forwardTypes);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * (31 * Arrays.hashCode(forwardOffsets) + Arrays.hashCode(forwardTargets))
+        + Arrays.hashCode(forwardTypes);
+  }
+
+  @Override
+  public String toString() {
+    return "DGAdjacency{" + getNumberOfNodes() + " nodes, " + getNumberOfEdges() + " edges}";
+  }
+
+  static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Collects edges in insertion order. If the same edge is added several times, the type that was
+   * added last is used.
+   */
+  static final class Builder {
+
+    private int[] sources = new int[16];
+    private int[] targets = new int[16];
+    private byte[] types = new byte[16];
+    private int size = 0;
+
+    private Builder() {}
+
+    void add(int pSource, int pTarget, DependenceType pType) {
+      if (size == sources.length) {
+        int newLength = 2 * size;
+        sources = Arrays.copyOf(sources, newLength);
+        targets = Arrays.copyOf(targets, newLength);
+        types = Arrays.copyOf(types, newLength);
+      }
+      sources[size] = pSource;
+      targets[size] = pTarget;
+      types[size] = (byte) pType.ordinal();
+      size++;
+    }
+
+    /** Number of added edges, including duplicates. */
+    int size() {
+      return size;
+    }
+
+    DGAdjacency build(int pNumberOfNodes) {
+      // group edges by source with a counting sort,
+      // each entry is the target in the upper and the insertion index in the lower bits
+      int[] offsets = new int[pNumberOfNodes + 1];
+      for (int i = 0; i < size; i++) {
+        checkElementIndex(sources[i], pNumberOfNodes);
+        checkElementIndex(targets[i], pNumberOfNodes);
+        offsets[sources[i] + 1]++;
+      }
+      for (int n = 0; n < pNumberOfNodes; n++) {
+        offsets[n + 1] += offsets[n];
+      }
+      long[] entries = new long[size];
+      int[] next = Arrays.copyOf(offsets, pNumberOfNodes);
+      for (int i = 0; i < size; i++) {
+        entries[next[sources[i]]++] = ((long) targets[i] << 32) | i;
+      }
+
+      // sort each row by target and drop duplicates, keeping the edge added last
+      int[] forwardOffsets = new int[pNumberOfNodes + 1];
+      int[] forwardTargets = new int[size];
+      byte[] forwardTypes = new byte[size];
+      int edgeCount = 0;
+      for (int n = 0; n < pNumberOfNodes; n++) {
+        Arrays.sort(entries, offsets[n], offsets[n + 1]);
+        for (int i = offsets[n]; i < offsets[n + 1]; i++) {
+          int target = (int) (entries[i] >>> 32);
+          if (i + 1 < offsets[n + 1] && (int) (entries[i + 1] >>> 32) == target) {
+            continue;
+          }
+          forwardTargets[edgeCount] = target;
+          forwardTypes[edgeCount] = types[(int) entries[i]];
+          edgeCount++;
+        }
+        forwardOffsets[n + 1] = edgeCount;
+      }
+      forwardTargets = Arrays.copyOf(forwardTargets, edgeCount);
+      forwardTypes = Arrays.copyOf(forwardTypes, edgeCount);
+
+      // group edges by target, iterating in order of sources keeps each row sorted
+      int[] backwardOffsets = new int[pNumberOfNodes + 1];
+      for (int target : forwardTargets) {
+        backwardOffsets[target + 1]++;
+      }
+      for (int n = 0; n < pNumberOfNodes; n++) {
+        backwardOffsets[n + 1] += backwardOffsets[n];
+      }
+      int[] backwardSources = new int[edgeCount];
+      next = Arrays.copyOf(backwardOffsets, pNumberOfNodes);
+      for (int source = 0; source < pNumberOfNodes; source++) {
+        for (int i = forwardOffsets[source]; i < forwardOffsets[source + 1]; i++) {
+          backwardSources[next[forwardTargets[i]]++] = source;
+        }
+      }
+
+      return new DGAdjacency(
+          forwardOffsets, forwardTargets, forwardTypes, backwardOffsets, backwardSources);
+    }
+  }
+}
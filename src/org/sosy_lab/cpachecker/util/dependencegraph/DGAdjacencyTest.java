@@ -0,0 +1,115 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.dependencegraph;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.util.dependencegraph.DependenceGraph.DependenceType;
+
+public class DGAdjacencyTest {
+
+  private static List<Integer> toList(PrimitiveIterator.OfInt pIterator) {
+    List<Integer> result = new ArrayList<>();
+    pIterator.forEachRemaining((int i) -> result.add(i));
+    return result;
+  }
+
+  @Test
+  public void testEmpty() {
+    DGAdjacency adjacency = DGAdjacency.builder().build(3);
+
+    assertThat(adjacency.getNumberOfNodes()).isEqualTo(3);
+    assertThat(adjacency.getNumberOfEdges()).isEqualTo(0);
+    assertThat(toList(adjacency.successors(1))).isEmpty();
+    assertThat(toList(adjacency.predecessors(1))).isEmpty();
+  }
+
+  @Test
+  public void testForwardAndBackward() {
+    DGAdjacency.Builder builder = DGAdjacency.builder();
+    builder.add(0, 2, DependenceType.FLOW);
+    builder.add(0, 1, DependenceType.CONTROL);
+    builder.add(3, 1, DependenceType.FLOW);
+    builder.add(1, 3, DependenceType.FLOW);
+    DGAdjacency adjacency = builder.build(4);
+
+    assertThat(adjacency.getNumberOfEdges()).isEqualTo(4);
+    assertThat(toList(adjacency.successors(0))).containsExactly(1, 2).inOrder();
+    assertThat(toList(adjacency.successors(1))).containsExactly(3);
+    assertThat(toList(adjacency.successors(2))).isEmpty();
+    assertThat(toList(adjacency.successors(3))).containsExactly(1);
+    assertThat(toList(adjacency.predecessors(0))).isEmpty();
+    assertThat(toList(adjacency.predecessors(1))).containsExactly(0, 3).inOrder();
+    assertThat(toList(adjacency.predecessors(2))).containsExactly(0);
+    assertThat(toList(adjacency.predecessors(3))).containsExactly(1);
+  }
+
+  @Test
+  public void testDuplicateEdgeKeepsLastType() {
+    DGAdjacency.Builder builder = DGAdjacency.builder();
+    builder.add(0, 1, DependenceType.FLOW);
+    builder.add(0, 1, DependenceType.CONTROL);
+    builder.add(1, 0, DependenceType.CONTROL);
+    builder.add(1, 0, DependenceType.FLOW);
+    DGAdjacency adjacency = builder.build(2);
+
+    List<String> edges = new ArrayList<>();
+    adjacency.forEachEdge((source, target, type) -> edges.add(source + "->" + target + type));
+    assertThat(edges).containsExactly("0->1CONTROL", "1->0FLOW").inOrder();
+    assertThat(toList(adjacency.predecessors(1))).containsExactly(0);
+  }
+
+  @Test
+  public void testManyEdges() {
+    DGAdjacency.Builder builder = DGAdjacency.builder();
+    int nodes = 100;
+    for (int i = 0; i < nodes; i++) {
+      for (int j = nodes - 1; j > i; j--) {
+        builder.add(i, j, DependenceType.FLOW);
+      }
+    }
+    DGAdjacency adjacency = builder.build(nodes);
+
+    assertThat(adjacency.getNumberOfEdges()).isEqualTo(nodes * (nodes - 1) / 2);
+    assertThat(toList(adjacency.successors(nodes - 2))).containsExactly(nodes - 1);
+    assertThat(toList(adjacency.predecessors(1))).containsExactly(0);
+    assertThat(toList(adjacency.predecessors(nodes - 1))).hasSize(nodes - 1);
+  }
+
+  @Test
+  public void testEquality() {
+    DGAdjacency.Builder builder1 = DGAdjacency.builder();
+    builder1.add(0, 1, DependenceType.FLOW);
+    builder1.add(1, 2, DependenceType.CONTROL);
+    DGAdjacency.Builder builder2 = DGAdjacency.builder();
+    builder2.add(1, 2, DependenceType.CONTROL);
+    builder2.add(0, 1, DependenceType.FLOW);
+
+    assertThat(builder1.build(3)).isEqualTo(builder2.build(3));
+  }
+}
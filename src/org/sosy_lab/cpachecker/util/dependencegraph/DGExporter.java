@@ -23,15 +23,10 @@
  */
 package org.sosy_lab.cpachecker.util.dependencegraph;
 
-import static com.google.common.base.Preconditions.checkNotNull;
-
 import com.google.common.base.Joiner;
-import com.google.common.collect.Table;
-import com.google.common.collect.Table.Cell;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import org.sosy_lab.cpachecker.util.dependencegraph.DependenceGraph.DependenceType;
 
 /** Util methods for exporting {@link DependenceGraph DependenceGraphs}. */
 public class DGExporter {
@@ -41,19 +36,18 @@ public class DGExporter {
     List<String> nodes = new ArrayList<>();
     List<String> edges = new ArrayList<>();
     DGNodeDotFormatter nodeFormatter = new DGNodeDotFormatter();
-    Table<DGNode, DGNode, DependenceType> adjacencyMatrix = pDg.getMatrix();
 
     for (DGNode n : pDg.getAllNodes()) {
       nodes.add(nodeFormatter.getNodeString(n));
     }
 
     DGEdgeDotFormatter edgeFormatter = new DGEdgeDotFormatter();
-    for (Cell<DGNode, DGNode, DependenceType> e : adjacencyMatrix.cellSet()) {
-      DGNode dependentOn = checkNotNull(e.getRowKey());
-      DGNode dependingOn = checkNotNull(e.getColumnKey());
-      DependenceType type = checkNotNull(e.getValue());
-      edges.add(edgeFormatter.format(dependentOn, dependingOn, type));
-    }
+    pDg.getAdjacency()
+        .forEachEdge(
+            (dependentOn, dependingOn, type) ->
+                edges.add(
+                    edgeFormatter.format(
+                        pDg.getNode(dependentOn), pDg.getNode(dependingOn), type)));
 
     pW.append("digraph " + "DependenceGraph" + " {\n");
     Joiner.on("\n").appendTo(pW, nodes);
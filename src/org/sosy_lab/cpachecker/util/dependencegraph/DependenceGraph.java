@@ -26,28 +26,30 @@ package org.sosy_lab.cpachecker.util.dependencegraph;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.collect.HashBasedTable;
-import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.ImmutableTable;
 import com.google.common.collect.Table;
 import com.google.common.collect.Table.Cell;
 import java.io.Serializable;
-import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.Queue;
-import java.util.Set;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
+import java.util.PrimitiveIterator;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.cpachecker.cfa.MutableCFA;
 import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.util.dependencegraph.DGNode.EdgeNode;
 import org.sosy_lab.cpachecker.util.states.MemoryLocation;
 import org.sosy_lab.cpachecker.util.variableclassification.VariableClassification;
 
@@ -57,10 +59,12 @@ import org.sosy_lab.cpachecker.util.variableclassification.VariableClassificatio
  *
  * <p>A dependence graph G = (V, E) is a directed graph. His nodes V are CFA edges of the program.
  * Given two nodes i and j, if j is a dependence of i, a directed edge (j, i) from j to i is in E.
+ *
+ * <p>Internally, the nodes are numbered and the edges are stored in a compact {@link DGAdjacency}.
  */
 public final class DependenceGraph implements Serializable {
 
-  private static final long serialVersionUID = -6721168496945584302L;
+  private static final long serialVersionUID = -6721168496945584303L;
 
   public enum TraversalDirection {
     FORWARD,
@@ -74,17 +78,17 @@ public final class DependenceGraph implements Serializable {
   }
 
   private final ImmutableNodeMap nodes;
-  private ImmutableTable<DGNode, DGNode, DependenceType> adjacencyMatrix;
+  private final DGAdjacency adjacency;
 
   private final transient ShutdownNotifier shutdownNotifier;
 
   DependenceGraph(
       final NodeMap pNodes,
-      final Table<DGNode, DGNode, DependenceType> pEdges,
+      final DGAdjacency pAdjacency,
       final ShutdownNotifier pShutdownNotifier) {
 
     nodes = new ImmutableNodeMap(pNodes);
-    adjacencyMatrix = ImmutableTable.copyOf(pEdges);
+    adjacency = pAdjacency;
     shutdownNotifier = pShutdownNotifier;
   }
 
@@ -99,8 +103,13 @@ public final class DependenceGraph implements Serializable {
         pCfa, pVarClassification, pConfig, pLogger, pShutdownNotifier);
   }
 
-  Table<DGNode, DGNode, DependenceType> getMatrix() {
-    return adjacencyMatrix;
+  DGAdjacency getAdjacency() {
+    return adjacency;
+  }
+
+  /** Returns the node with the given number, as used by {@link #getAdjacency()}. */
+  DGNode getNode(int pId) {
+    return nodes.getNode(pId);
   }
 
   public Collection<DGNode> getAllNodes() {
@@ -126,67 +135,46 @@ public final class DependenceGraph implements Serializable {
       CFAEdge pStart, TraversalDirection pDirection, Collection<CFAEdge> pEdgesToIgnore)
       throws InterruptedException {
     Collection<CFAEdge> reachable = new HashSet<>();
-    Collection<DGNode> visited = new HashSet<>();
-    Queue<DGNode> waitlist = new ArrayDeque<>();
-    nodes.getNodesForEdge(pStart).forEach(waitlist::offer);
+    BitSet visited = new BitSet(adjacency.getNumberOfNodes());
+    IntStack waitlist = new IntStack();
+    for (int start : nodes.getNodesForEdge(pStart)) {
+      visited.set(start);
+      waitlist.push(start);
+    }
 
     while (!waitlist.isEmpty()) {
       if (shutdownNotifier.shouldShutdown()) {
         throw new InterruptedException();
       }
-      DGNode current = waitlist.poll();
-
-      if (!visited.contains(current)) {
-        visited.add(current);
-        // FIXME: this is a strong overapproximation: If an unknown pointer is used,
-        // we don't know anything, so we use the full program as slice
-        if (current.isUnknownPointerNode()) {
-          reachable.addAll(nodes.nodesForEdges.keys());
-        } else if (!pEdgesToIgnore.contains(current.getCfaEdge())) {
-          reachable.add(current.getCfaEdge());
-          Collection<DGNode> adjacent = getAdjacentNeighbors(current, pDirection);
-          waitlist.addAll(adjacent);
+      int current = waitlist.pop();
+      DGNode currentNode = nodes.getNode(current);
+
+      // FIXME: this is a strong overapproximation: If an unknown pointer is used,
+      // we don't know anything, so we use the full program as slice
+      if (currentNode.isUnknownPointerNode()) {
+        reachable.addAll(nodes.getAllEdges());
+      } else if (!pEdgesToIgnore.contains(currentNode.getCfaEdge())) {
+        reachable.add(currentNode.getCfaEdge());
+        if (pDirection != TraversalDirection.BACKWARD) {
+          addUnvisited(adjacency.successors(current), visited, waitlist);
+        }
+        if (pDirection != TraversalDirection.FORWARD) {
+          addUnvisited(adjacency.predecessors(current), visited, waitlist);
         }
       }
     }
     return reachable;
   }
 
-  private Collection<DGNode> getAdjacentNeighbors(
-      final DGNode pNode, final TraversalDirection pDirection) {
-    return getAdjacentNeighbors(
-        pNode, pDirection, dgEdge -> true);
-  }
-
-  private Collection<DGNode> getAdjacentNeighbors(
-      DGNode pNode, TraversalDirection pDirection, Predicate<DependenceType> pIsEdgeOfInterest) {
-
-    return getAdjacentNodes(pNode, pDirection)
-        .entrySet()
-        .stream()
-        .filter(e -> pIsEdgeOfInterest.test(e.getValue()))
-        .map(e -> e.getKey())
-        .collect(Collectors.toSet());
-  }
-
-  private Map<DGNode, DependenceType> getAdjacentNodes(
-      DGNode pNode, TraversalDirection pDirection) {
-    Map<DGNode, DependenceType> adjacentEdges;
-    switch (pDirection) {
-      case FORWARD:
-        adjacentEdges = adjacencyMatrix.row(pNode);
-        break;
-      case BACKWARD:
-        adjacentEdges = adjacencyMatrix.column(pNode);
-        break;
-      case BOTH:
-        adjacentEdges = adjacencyMatrix.row(pNode);
-        adjacentEdges.putAll(adjacencyMatrix.column(pNode));
-        break;
-      default:
-        throw new AssertionError("Unhandled direction " + pDirection);
+  private static void addUnvisited(
+      PrimitiveIterator.OfInt pNeighbors, BitSet pVisited, IntStack pWaitlist) {
+    while (pNeighbors.hasNext()) {
+      int neighbor = pNeighbors.nextInt();
+      if (!pVisited.get(neighbor)) {
+        pVisited.set(neighbor);
+        pWaitlist.push(neighbor);
+      }
     }
-    return adjacentEdges;
   }
 
   @Override
@@ -199,43 +187,67 @@ public final class DependenceGraph implements Serializable {
     }
     DependenceGraph that = (DependenceGraph) pO;
     // If these equal, the root nodesForEdges have to equal, too.
-    return Objects.equals(nodes, that.nodes)
-        && Objects.equals(adjacencyMatrix, that.adjacencyMatrix);
+    return Objects.equals(nodes, that.nodes) && Objects.equals(adjacency, that.adjacency);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(nodes, adjacencyMatrix);
+    return Objects.hash(nodes, adjacency);
+  }
+
+  /** Growable stack of node numbers that avoids boxing during traversals. */
+  private static final class IntStack {
+
+    private int[] elements = new int[16];
+    private int size = 0;
+
+    void push(int pElement) {
+      if (size == elements.length) {
+        elements = Arrays.copyOf(elements, 2 * size);
+      }
+      elements[size++] = pElement;
+    }
+
+    int pop() {
+      return elements[--size];
+    }
+
+    boolean isEmpty() {
+      return size == 0;
+    }
   }
 
   private static final class ImmutableNodeMap implements Serializable {
 
-    private static final long serialVersionUID = 4311993821719514171L;
+    private static final long serialVersionUID = 4311993821719514172L;
 
-    private ImmutableMultimap<CFAEdge, DGNode> nodesForEdges;
-    private ImmutableSet<DGNode> specialNodes;
+    private final ImmutableList<DGNode> nodesById;
+    private final ImmutableListMultimap<CFAEdge, Integer> idsForEdges;
 
     public ImmutableNodeMap(NodeMap pNodeMap) {
-      // FIXME avoid iteration in O(n) here, there may be lots of nodes
-      ImmutableMultimap.Builder<CFAEdge, DGNode> mapBuilder = ImmutableMultimap.builder();
-      for (Cell<CFAEdge, Optional<MemoryLocation>, DGNode> c :
-          pNodeMap.getNodesForEdges().cellSet()) {
+      nodesById = ImmutableList.copyOf(pNodeMap.getNodes());
+      ImmutableListMultimap.Builder<CFAEdge, Integer> mapBuilder = ImmutableListMultimap.builder();
+      for (Cell<CFAEdge, Optional<MemoryLocation>, Integer> c :
+          pNodeMap.getIdsForEdges().cellSet()) {
         mapBuilder.put(checkNotNull(c.getRowKey()), checkNotNull(c.getValue()));
       }
-      nodesForEdges = mapBuilder.build();
-      specialNodes = ImmutableSet.copyOf(pNodeMap.getSpecialNodes());
+      idsForEdges = mapBuilder.build();
+    }
+
+    public DGNode getNode(int pId) {
+      return nodesById.get(pId);
+    }
+
+    public Collection<Integer> getNodesForEdge(CFAEdge pEdge) {
+      return idsForEdges.get(pEdge);
     }
 
-    public Collection<DGNode> getNodesForEdge(CFAEdge pEdge) {
-      return nodesForEdges.get(pEdge);
+    public Collection<CFAEdge> getAllEdges() {
+      return idsForEdges.keySet();
     }
 
     public Collection<DGNode> getAllNodes() {
-      // FIXME: It should be able to represent this as a basic union in O(1) (or is it?)
-      return ImmutableSet.<DGNode>builder()
-          .addAll(nodesForEdges.values())
-          .addAll(specialNodes)
-          .build();
+      return nodesById;
     }
 
     @Override
@@ -247,76 +259,94 @@ public final class DependenceGraph implements Serializable {
         return false;
       }
       ImmutableNodeMap that = (ImmutableNodeMap) pO;
-      return Objects.equals(nodesForEdges, that.nodesForEdges)
-          && Objects.equals(specialNodes, that.specialNodes);
+      return Objects.equals(nodesById, that.nodesById)
+          && Objects.equals(idsForEdges, that.idsForEdges);
     }
 
     @Override
     public int hashCode() {
-      return Objects.hash(nodesForEdges, specialNodes);
+      return Objects.hash(nodesById, idsForEdges);
     }
 
     @Override
     public String toString() {
       return "ImmutableNodeMap{\n\t"
-          + "Nodes per CFA edge="
-          + nodesForEdges
-          + ",\n\tspecial nodes="
-          + specialNodes
+          + "Nodes="
+          + nodesById
+          + ",\n\tNode ids per CFA edge="
+          + idsForEdges
           + "\n}";
     }
   }
 
+  /**
+   * Mutable mapping between dependence graph nodes and their numbers, used while building a
+   * dependence graph. Nodes are numbered in the order of their creation.
+   */
   static final class NodeMap {
-    private Table<CFAEdge, Optional<MemoryLocation>, DGNode> nodesForEdges =
+    private final List<DGNode> nodes = new ArrayList<>();
+    private final Table<CFAEdge, Optional<MemoryLocation>, Integer> idsForEdges =
         HashBasedTable.create();
-    private Set<DGNode> specialNodes = new HashSet<>();
+    private final Map<DGNode, Integer> idsForSpecialNodes = new HashMap<>();
 
-    /** Returns the mutable Multimap of CFA edges and their corresponding dependence graph nodes. */
-    Table<CFAEdge, Optional<MemoryLocation>, DGNode> getNodesForEdges() {
-      return nodesForEdges;
+    /**
+     * Returns the number of the node for the given CFA edge and cause. If no such node exists, a
+     * new node is created.
+     */
+    int getNode(CFAEdge pEdge, Optional<MemoryLocation> pCause) {
+      Integer id = idsForEdges.get(pEdge, pCause);
+      if (id == null) {
+        id = addNode(new EdgeNode(pEdge, pCause.orElse(null)));
+        idsForEdges.put(pEdge, pCause, id);
+      }
+      return id;
     }
 
     /**
-     * Returns the mutable set special dependence graph nodes that are not specific to any CFA edge.
+     * Returns the numbers of all nodes for the given CFA edge. If no such node exists, a new node
+     * without cause is created.
      */
-    Set<DGNode> getSpecialNodes() {
-      return specialNodes;
+    Collection<Integer> getNodesForEdge(CFAEdge pEdge) {
+      if (!containsANodeForEdge(pEdge)) {
+        getNode(pEdge, Optional.empty());
+      }
+      return idsForEdges.row(pEdge).values();
     }
 
-    int size() {
-      return nodesForEdges.size() + specialNodes.size();
+    /** Returns the number of the given special node that is not specific to any CFA edge. */
+    int getSpecialNode(DGNode pNode) {
+      return idsForSpecialNodes.computeIfAbsent(pNode, this::addNode);
     }
 
-    public boolean containsANodeForEdge(CFAEdge pEdge) {
-      return nodesForEdges.containsRow(pEdge);
+    private int addNode(DGNode pNode) {
+      nodes.add(pNode);
+      return nodes.size() - 1;
     }
 
-    @Override
-    public boolean equals(Object pO) {
-      if (this == pO) {
-        return true;
-      }
-      if (pO == null || getClass() != pO.getClass()) {
-        return false;
-      }
-      NodeMap nodeMap = (NodeMap) pO;
-      return Objects.equals(nodesForEdges, nodeMap.nodesForEdges)
-          && Objects.equals(specialNodes, nodeMap.specialNodes);
+    /** Returns all nodes, ordered by their number. */
+    List<DGNode> getNodes() {
+      return nodes;
     }
 
-    @Override
-    public int hashCode() {
-      return Objects.hash(nodesForEdges, specialNodes);
+    Table<CFAEdge, Optional<MemoryLocation>, Integer> getIdsForEdges() {
+      return idsForEdges;
+    }
+
+    int size() {
+      return nodes.size();
+    }
+
+    public boolean containsANodeForEdge(CFAEdge pEdge) {
+      return idsForEdges.containsRow(pEdge);
     }
 
     @Override
     public String toString() {
       return "NodeMap{\n\t"
-          + "Nodes per CFA edge="
-          + nodesForEdges
+          + "Node ids per CFA edge="
+          + idsForEdges
           + ",\n\tspecial nodes="
-          + specialNodes
+          + idsForSpecialNodes.keySet()
           + "\n}";
     }
   }
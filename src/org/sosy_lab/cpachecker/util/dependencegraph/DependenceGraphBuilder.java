@@ -86,7 +86,6 @@ import org.sosy_lab.cpachecker.util.AbstractStates;
 import org.sosy_lab.cpachecker.util.CFATraversal;
 import org.sosy_lab.cpachecker.util.CFATraversal.EdgeCollectingCFAVisitor;
 import org.sosy_lab.cpachecker.util.CFAUtils;
-import org.sosy_lab.cpachecker.util.dependencegraph.DGNode.EdgeNode;
 import org.sosy_lab.cpachecker.util.dependencegraph.DGNode.UnknownPointerNode;
 import org.sosy_lab.cpachecker.util.dependencegraph.DependenceGraph.DependenceType;
 import org.sosy_lab.cpachecker.util.dependencegraph.DependenceGraph.NodeMap;
@@ -109,13 +108,14 @@ public class DependenceGraphBuilder implements StatisticsProvider {
   private final LogManager logger;
   private final ShutdownNotifier shutdownNotifier;
   private NodeMap nodes;
-  private Table<DGNode, DGNode, DependenceType> adjacencyMatrix;
+  private DGAdjacency.Builder edges;
 
   private final StatTimer dependenceGraphConstructionTimer = new StatTimer("Time for dep. graph");
   private StatInt flowDependenceNumber = new StatInt(StatKind.SUM, "Number of flow dependences");
   private StatInt controlDependenceNumber =
       new StatInt(StatKind.SUM, "Number of control dependences");
   private StatCounter isolatedNodes = new StatCounter("Number of isolated nodes");
+  private final StatInt nodeNumber = new StatInt(StatKind.SUM, "Number of DG nodes");
   private final StatTimer flowDependenceTimer = new StatTimer("Time for flow deps.");
   private final StatTimer controlDependenceTimer = new StatTimer("Time for control deps.");
 
@@ -159,7 +159,7 @@ public class DependenceGraphBuilder implements StatisticsProvider {
       throws InvalidConfigurationException, InterruptedException, CPAException {
     dependenceGraphConstructionTimer.start();
     nodes = new NodeMap();
-    adjacencyMatrix = HashBasedTable.create();
+    edges = DGAdjacency.builder();
 
     // If you add additional types of dependencies, they should probably be added to this check,
     // as well
@@ -188,14 +188,16 @@ public class DependenceGraphBuilder implements StatisticsProvider {
     }
     addMissingNodes();
 
-    DependenceGraph dg = new DependenceGraph(nodes, adjacencyMatrix, shutdownNotifier);
+    DependenceGraph dg =
+        new DependenceGraph(nodes, edges.build(nodes.size()), shutdownNotifier);
+    nodeNumber.setNextValue(nodes.size());
     export(dg);
     logger.log(
         Level.FINE,
         "Create dependence graph with ",
         nodes.size(),
         " nodes and ",
-        adjacencyMatrix.size(),
+        dg.getAdjacency().getNumberOfEdges(),
         " edges.");
     dependenceGraphConstructionTimer.stop();
     return dg;
@@ -208,7 +210,7 @@ public class DependenceGraphBuilder implements StatisticsProvider {
 
     for (CFAEdge e : allEdges) {
       if (!nodes.containsANodeForEdge(e)) {
-        nodes.getNodesForEdges().put(e, Optional.empty(), new EdgeNode(e));
+        nodes.getNode(e, Optional.empty());
         isolatedNodes.inc();
       }
     }
@@ -265,15 +267,17 @@ public class DependenceGraphBuilder implements StatisticsProvider {
           for (CFAEdge assumeEdge : CFAUtils.leavingEdges(branchNode)) {
             for (CFAEdge dependentEdge : CFAUtils.allLeavingEdges(dependentNode)) {
 
-              for (DGNode dependentDGN : getDGNodes(dependentEdge)) {
+              for (int dependentDGN : nodes.getNodesForEdge(dependentEdge)) {
                 addDependence(
-                    getDGNode(assumeEdge, Optional.empty()), dependentDGN, DependenceType.CONTROL);
+                    nodes.getNode(assumeEdge, Optional.empty()),
+                    dependentDGN,
+                    DependenceType.CONTROL);
                 controlDepCount++;
               }
 
               addDependence(
-                  getDGNode(assumeEdge, Optional.empty()),
-                  getDGNode(dependentEdge, Optional.empty()),
+                  nodes.getNode(assumeEdge, Optional.empty()),
+                  nodes.getNode(dependentEdge, Optional.empty()),
                   DependenceType.CONTROL);
               controlDepCount++;
 
@@ -294,18 +298,20 @@ public class DependenceGraphBuilder implements StatisticsProvider {
 
   private int addFunctionCallControlDependences(
       FunctionEntryNode pEntryNode, Set<CFAEdge> pDependentEdges) {
-    Collection<DGNode> functionCalls =
-        CFAUtils.enteringEdges(pEntryNode).transform(x -> getDGNode(x, Optional.empty())).toList();
+    Collection<Integer> functionCalls =
+        CFAUtils.enteringEdges(pEntryNode)
+            .transform(x -> nodes.getNode(x, Optional.empty()))
+            .toList();
     assert CFAUtils.enteringEdges(pEntryNode).allMatch(x -> x instanceof CFunctionCallEdge);
     int depCount = 0;
     Set<CFANode> functionNodes =
         CFATraversal.dfs().ignoreFunctionCalls().collectNodesReachableFrom(pEntryNode);
     for (CFANode n : functionNodes) {
       for (CFAEdge e : CFAUtils.leavingEdges(n)) {
-        Collection<DGNode> candidates = getDGNodes(e);
-        for (DGNode dgN : candidates) {
-          if (!pDependentEdges.contains(dgN.getCfaEdge())) {
-            for (DGNode nodeDependentOn : functionCalls) {
+        Collection<Integer> candidates = nodes.getNodesForEdge(e);
+        if (!pDependentEdges.contains(e)) {
+          for (int dgN : candidates) {
+            for (int nodeDependentOn : functionCalls) {
               addDependence(nodeDependentOn, dgN, DependenceType.CONTROL);
               depCount++;
             }
@@ -325,20 +331,15 @@ public class DependenceGraphBuilder implements StatisticsProvider {
       CFAEdge edgeDepending = checkNotNull(c.getRowKey());
       Optional<MemoryLocation> specificDefAtEdge = checkNotNull(c.getColumnKey());
       FlowDependence uses = checkNotNull(c.getValue());
-      DGNode nodeDepending;
-      if (specificDefAtEdge.isPresent()) {
-        nodeDepending = getDGNode(edgeDepending, specificDefAtEdge);
-      } else {
-        nodeDepending = getDGNode(edgeDepending, Optional.empty());
-      }
+      int nodeDepending = nodes.getNode(edgeDepending, specificDefAtEdge);
       int flowDepCount = 0;
       if (uses.isUnknownPointerDependence()) {
-        DGNode dependency = getDGNodeForUnknownPointer();
+        int dependency = nodes.getSpecialNode(UnknownPointerNode.getInstance());
         addDependence(dependency, nodeDepending, DependenceType.FLOW);
         flowDepCount++;
       } else {
         for (Entry<MemoryLocation, CFAEdge> useAndDef : uses.entries()) {
-          DGNode dependency = getDGNode(useAndDef.getValue(), Optional.of(useAndDef.getKey()));
+          int dependency = nodes.getNode(useAndDef.getValue(), Optional.of(useAndDef.getKey()));
           addDependence(dependency, nodeDepending, DependenceType.FLOW);
           flowDepCount++;
         }
@@ -347,52 +348,9 @@ public class DependenceGraphBuilder implements StatisticsProvider {
     }
   }
 
-  /**
-   * Returns the {@link DGNode} corresponding to the given {@link CFAEdge}. If a node for this edge
-   * already exists, the existing node is returned. Otherwise, a new node is created.
-   *
-   * <p>Always use this method and never use {@link #createNode(CFAEdge, Optional)}!
-   */
-  private DGNode getDGNode(final CFAEdge pCfaEdge, final Optional<MemoryLocation> pCause) {
-    if (!nodes.getNodesForEdges().contains(pCfaEdge, pCause)) {
-      nodes.getNodesForEdges().put(pCfaEdge, pCause, createNode(pCfaEdge, pCause));
-    }
-    return nodes.getNodesForEdges().get(pCfaEdge, pCause);
-  }
-
-  private DGNode getDGNodeForUnknownPointer() {
-    DGNode unk = UnknownPointerNode.getInstance();
-    nodes.getSpecialNodes().add(unk);
-    return unk;
-  }
-
-  private Collection<DGNode> getDGNodes(final CFAEdge pCfaEdge) {
-    if (!nodes.containsANodeForEdge(pCfaEdge)) {
-      nodes
-          .getNodesForEdges()
-          .put(pCfaEdge, Optional.empty(), createNode(pCfaEdge, Optional.empty()));
-    }
-    return nodes.getNodesForEdges().row(pCfaEdge).values();
-  }
-
-  /**
-   * Adds the given dependence edge to the set of dependence edges and tells the nodes of the edge
-   * about the new edge.
-   */
-  private void addDependence(DGNode pDependentOn, DGNode pDepending, DependenceType pType) {
-    adjacencyMatrix.put(pDependentOn, pDepending, pType);
-  }
-
-  /**
-   * Creates a new node. Never call this method directly, but use {@link #getDGNode(CFAEdge,
-   * Optional)} to retrieve nodes for {@link CFAEdge CFAEdges}!
-   */
-  private DGNode createNode(final CFAEdge pCfaEdge, final Optional<MemoryLocation> pCause) {
-    if (pCause.isPresent()) {
-      return new EdgeNode(pCfaEdge, pCause.orElseThrow());
-    } else {
-      return new EdgeNode(pCfaEdge);
-    }
+  /** Adds the given dependence edge to the set of dependence edges. */
+  private void addDependence(int pDependentOn, int pDepending, DependenceType pType) {
+    edges.add(pDependentOn, pDepending, pType);
   }
 
   private void export(DependenceGraph pDg) {
@@ -413,8 +371,6 @@ public class DependenceGraphBuilder implements StatisticsProvider {
       @Override
       public void printStatistics(
           final PrintStream pOut, final Result pResult, final UnmodifiableReachedSet pReached) {
-        StatInt nodeNumber = new StatInt(StatKind.SUM, "Number of DG nodes");
-        nodeNumber.setNextValue(nodes.size());
         if (dependenceGraphConstructionTimer.getUpdateCount() > 0) {
           put(pOut, 3, dependenceGraphConstructionTimer);
           put(pOut, 4, flowDependenceTimer);
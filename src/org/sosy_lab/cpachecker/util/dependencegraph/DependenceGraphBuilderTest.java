@@ -0,0 +1,101 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.dependencegraph;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.SortedSetMultimap;
+import com.google.common.collect.TreeMultimap;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.TreeMap;
+import org.junit.Test;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.MutableCFA;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.util.CFAUtils;
+import org.sosy_lab.cpachecker.util.dependencegraph.DependenceGraph.TraversalDirection;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+public class DependenceGraphBuilderTest {
+
+  private static final String[] PROGRAM = {
+    "int g = 0;",
+    "int f(int x) {", "  if (x > 0) {", "    g = x;", "  }", "  return g + 1;", "}",
+    "int h(int x) {", "  int y = 0;", "  while (y < x) {", "    y = y + f(y);", "  }",
+    "  return y;", "}",
+    "int main() {", "  int a = f(1);", "  int b = h(a);", "  if (a < b) {", "    g = b;",
+    "  }", "  return g;", "}"
+  };
+
+  private static MutableCFA toMutableCFA(CFA pCfa) {
+    SortedSetMultimap<String, CFANode> nodes = TreeMultimap.create();
+    for (CFANode node : pCfa.getAllNodes()) {
+      nodes.put(node.getFunctionName(), node);
+    }
+    return new MutableCFA(
+        pCfa.getMachineModel(),
+        new TreeMap<>(pCfa.getAllFunctions()),
+        nodes,
+        pCfa.getMainFunction(),
+        pCfa.getFileNames(),
+        pCfa.getLanguage());
+  }
+
+  private static DependenceGraph buildDependenceGraph(MutableCFA pCfa) throws Exception {
+    Configuration config = TestDataTools.configurationForTest().build();
+    return DependenceGraph.builder(
+            pCfa,
+            Optional.empty(),
+            config,
+            LogManager.createTestLogManager(),
+            ShutdownNotifier.createDummy())
+        .build();
+  }
+
+  @Test
+  public void testReachableInBothDirections() throws Exception {
+    MutableCFA cfa = toMutableCFA(TestDataTools.makeCFA(PROGRAM));
+    DependenceGraph dg = buildDependenceGraph(cfa);
+    CFAEdge assignment =
+        FluentIterable.from(cfa.getAllNodes())
+            .transformAndConcat(CFAUtils::leavingEdges)
+            .firstMatch(edge -> edge.getRawStatement().equals("g = b;"))
+            .get();
+
+    Collection<CFAEdge> forward = dg.getReachable(assignment, TraversalDirection.FORWARD);
+    Collection<CFAEdge> backward = dg.getReachable(assignment, TraversalDirection.BACKWARD);
+    Collection<CFAEdge> both = dg.getReachable(assignment, TraversalDirection.BOTH);
+
+    assertThat(forward).contains(assignment);
+    assertThat(backward).contains(assignment);
+    assertThat(both).containsAtLeastElementsIn(forward);
+    assertThat(both).containsAtLeastElementsIn(backward);
+  }
+}
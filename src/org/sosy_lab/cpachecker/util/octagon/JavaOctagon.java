@@ -0,0 +1,81 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.octagon;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * An octagon of the {@link JavaOctagonManager}. The constraints are stored as a half-matrix in a
+ * flat array (see {@link JavaOctagonManager#matPos(int, int)}), octagons are never modified after
+ * creation.
+ */
+final class JavaOctagon extends Octagon {
+
+  private final int dimension;
+
+  /** The half-matrix of this octagon, or null if this octagon is known to be empty. */
+  private final double @Nullable [] matrix;
+
+  /** The strong closure of this octagon, this octagon itself if it is closed. */
+  private @Nullable JavaOctagon closure;
+
+  JavaOctagon(
+      JavaOctagonManager pManager, int pDimension, double @Nullable [] pMatrix, boolean pClosed) {
+    super(pManager);
+    dimension = pDimension;
+    matrix = pMatrix;
+    closure = (pClosed || pMatrix == null) ? this : null;
+  }
+
+  int getDimension() {
+    return dimension;
+  }
+
+  double @Nullable [] getMatrix() {
+    return matrix;
+  }
+
+  boolean isKnownEmpty() {
+    return matrix == null;
+  }
+
+  @Nullable JavaOctagon getClosure() {
+    return closure;
+  }
+
+  void setClosure(JavaOctagon pClosure) {
+    closure = pClosure;
+  }
+
+  /** Consistent with {@link JavaOctagonManager#isEqual(Octagon, Octagon)}. */
+  @Override
+  public int hashCode() {
+    return ((JavaOctagonManager) getManager()).hashCode(this);
+  }
+
+  @Override
+  public String toString() {
+    return "octagon with dimension: " + dimension;
+  }
+}
@@ -0,0 +1,1301 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.octagon;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Double.POSITIVE_INFINITY;
+
+import com.google.common.collect.BiMap;
+import java.util.Arrays;
+import org.sosy_lab.cpachecker.cpa.octagon.values.OctagonDoubleValue;
+import org.sosy_lab.cpachecker.cpa.octagon.values.OctagonIntValue;
+import org.sosy_lab.cpachecker.cpa.octagon.values.OctagonInterval;
+import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+
+/**
+ * Implementation of the octagon library in Java, following the semantics of the native library
+ * (compiled either for integers or for floats) but without calling it via JNI.
+ *
+ * <p>An octagon with n variables v_0,...,v_{n-1} is stored as a difference-bound matrix m over
+ * the 2n values V_{2k} = v_k and V_{2k+1} = -v_k, where m[i][j] is an upper bound for V_j - V_i.
+ * As m[i][j] and m[j^1][i^1] describe the same constraint, only the lower half (j <= (i|1)) is
+ * stored in a flat array of doubles (see {@link #matPos(int, int)}), infinity is {@link
+ * Double#POSITIVE_INFINITY}. Most operations keep their result strongly closed, constraints are
+ * added with an incremental closure in O(n^2), and the full closure in O(n^3) is only computed
+ * where the native library computes it, too.
+ *
+ * <p>With integer numbers, the rounding and overflow behavior of the native library is emulated:
+ * all numbers are rounded up to integers, halving rounds up, and all values from 2^32-1 on are
+ * infinite. With float numbers, all computations use doubles rounded to nearest.
+ *
+ * <p>The results were compared with the native library on random sequences of operations, in both
+ * number modes. They agree, except for the following differences:
+ *
+ * <ul>
+ *   <li>{@link #widening(Octagon, Octagon)} compares the stored matrices of its arguments, like
+ *       the native library. This implementation keeps more results closed than the native one, so
+ *       the first argument can be stored with tighter bounds, and the widening can then keep or
+ *       drop different bounds.
+ *   <li>{@link #intervAssingVar(Octagon, int, NumArray)} derives the bounds of the new value
+ *       relative to every variable and closes the result, so its result can be tighter than that
+ *       of the native library.
+ *   <li>{@link #intervSubstituteVar(Octagon, int, NumArray)} is sound but can be less precise than
+ *       in the native library. The octagon CPA does not use it.
+ * </ul>
+ */
+public final class JavaOctagonManager extends OctagonManager {
+
+  /** All numbers above this bound are infinite in the integer version of the native library. */
+  private static final double INT_INFINITY = 4294967295.0;
+
+  /** The results of the lazy tests, like tbool in the native library. */
+  private static final int TBOOL_TRUE = 1;
+  private static final int TBOOL_FALSE = 2;
+  private static final int TBOOL_TOP = 3;
+
+  private final boolean integers;
+
+  /**
+   * Create a new manager.
+   *
+   * @param pIntegers whether numbers should be integers (like the native library "JOct_int") or
+   *     floats (like "JOct_float")
+   */
+  public JavaOctagonManager(boolean pIntegers) {
+    integers = pIntegers;
+  }
+
+  /* half-matrix layout */
+
+  /** The index of m[i][j] in the flat array, for j <= (i|1). */
+  static int matPos(int i, int j) {
+    return j + ((i + 1) * (i + 1)) / 2;
+  }
+
+  /** The index of m[i][j] in the flat array, for arbitrary i and j. */
+  static int matPos2(int i, int j) {
+    return j > (i | 1) ? matPos(j ^ 1, i ^ 1) : matPos(i, j);
+  }
+
+  /** The size of the flat array for n variables. */
+  static int matSize(int n) {
+    return 2 * n * (n + 1);
+  }
+
+  /* number handling, with the semantics of the native num_t */
+
+  private double normalize(double d) {
+    return integers && d >= INT_INFINITY ? POSITIVE_INFINITY : d;
+  }
+
+  private double add(double a, double b) {
+    return normalize(a + b);
+  }
+
+  private double twice(double d) {
+    return normalize(2 * d);
+  }
+
+  private double half(double d) {
+    return integers ? Math.ceil(d / 2) : d / 2;
+  }
+
+  private double fromDouble(double d) {
+    if (!integers) {
+      return d;
+    }
+    if (d <= -(INT_INFINITY + 1)) {
+      return POSITIVE_INFINITY;
+    }
+    return normalize(Math.ceil(d));
+  }
+
+  private static double[] values(NumArray n) {
+    return ((JavaNumArray) n).getValues();
+  }
+
+  private static JavaOctagon java(Octagon oct) {
+    return (JavaOctagon) oct;
+  }
+
+  @Override
+  public NumArray init_num_t(int n) {
+    return new JavaNumArray(n);
+  }
+
+  @Override
+  public void num_set(NumArray n1, NumArray n2) {
+    values(n1)[0] = values(n2)[0];
+  }
+
+  @Override
+  public void num_set_int(NumArray n, int pos, long i) {
+    // the native interface passes an int
+    values(n)[pos] = (int) i;
+  }
+
+  @Override
+  public void num_set_float(NumArray n, int pos, double d) {
+    values(n)[pos] = fromDouble(d);
+  }
+
+  @Override
+  public void num_set_inf(NumArray n, int pos) {
+    values(n)[pos] = POSITIVE_INFINITY;
+  }
+
+  @Override
+  public long num_get_int(NumArray n, int pos) {
+    double d = values(n)[pos];
+    if (integers) {
+      return Double.isInfinite(d) ? (long) INT_INFINITY : (long) d;
+    }
+    // like a C cast of a double that does not fit into a long
+    return Double.isNaN(d) || Math.abs(d) >= 0x1p63 ? Long.MIN_VALUE : (long) d;
+  }
+
+  @Override
+  public double num_get_float(NumArray n, int pos) {
+    double d = values(n)[pos];
+    return integers && Double.isInfinite(d) ? INT_INFINITY : d;
+  }
+
+  @Override
+  public boolean num_infty(NumArray n, int pos) {
+    return Double.isInfinite(values(n)[pos]);
+  }
+
+  @Override
+  public void num_clear_n(NumArray n, int size) {
+    // nothing to free
+  }
+
+  /* octagon creation */
+
+  private JavaOctagon newOctagon(int n, double[] m, boolean closed) {
+    return new JavaOctagon(this, n, m, closed);
+  }
+
+  @Override
+  public JavaOctagon empty(int n) {
+    return new JavaOctagon(this, n, null, true);
+  }
+
+  @Override
+  public JavaOctagon universe(int n) {
+    return newOctagon(n, universeMatrix(n), true);
+  }
+
+  private static double[] universeMatrix(int n) {
+    double[] m = new double[matSize(n)];
+    Arrays.fill(m, POSITIVE_INFINITY);
+    for (int i = 0; i < 2 * n; i++) {
+      m[matPos(i, i)] = 0;
+    }
+    return m;
+  }
+
+  @Override
+  public Octagon copy(Octagon oct) {
+    // octagons are immutable
+    return oct;
+  }
+
+  @Override
+  public Octagon full_copy(Octagon oct) {
+    return oct;
+  }
+
+  /* closure */
+
+  /** Returns the strong closure of an octagon, which is known to be empty if it is unsatisfiable. */
+  private JavaOctagon closure(JavaOctagon oct) {
+    JavaOctagon closure = oct.getClosure();
+    if (closure == null) {
+      double[] m = oct.getMatrix().clone();
+      int n = oct.getDimension();
+      closure = close(m, n) ? newOctagon(n, m, true) : empty(n);
+      oct.setClosure(closure);
+    }
+    return closure;
+  }
+
+  /**
+   * Computes the strong closure of a matrix in place, like Mine's algorithm a closure step for each
+   * pair of rows is followed by a strengthening step.
+   *
+   * @return whether the octagon is satisfiable
+   */
+  private boolean close(double[] m, int n) {
+    double[] col0 = new double[2 * n];
+    double[] col1 = new double[2 * n];
+    for (int k = 0; k < n; k++) {
+      closureStep(m, n, k, col0, col1);
+      strengthen(m, n, col0);
+    }
+    return checkDiagonal(m, n);
+  }
+
+  /**
+   * Updates all constraints with the paths over V_{2k} and V_{2k+1}.
+   *
+   * @param col0 buffer of size 2n for the paths from every V_i to V_{2k}
+   * @param col1 buffer of size 2n for the paths from every V_i to V_{2k+1}
+   */
+  private void closureStep(double[] m, int n, int k, double[] col0, double[] col1) {
+    final int k0 = 2 * k;
+    final int k1 = k0 + 1;
+    final double k0k1 = m[matPos(k0, k1)];
+    final double k1k0 = m[matPos(k1, k0)];
+    for (int i = 0; i < 2 * n; i++) {
+      double ik0 = m[matPos2(i, k0)];
+      double ik1 = m[matPos2(i, k1)];
+      col0[i] = Math.min(ik0, add(ik1, k1k0));
+      col1[i] = Math.min(ik1, add(ik0, k0k1));
+    }
+    for (int i = 0; i < 2 * n; i++) {
+      final double ik0 = col0[i];
+      final double ik1 = col1[i];
+      if (ik0 == POSITIVE_INFINITY && ik1 == POSITIVE_INFINITY) {
+        continue;
+      }
+      final int base = matPos(i, 0);
+      final int br = i | 1;
+      for (int j = 0; j <= br; j++) {
+        // m[k0][j] = m[j^1][k1] and m[k1][j] = m[j^1][k0]
+        double v = Math.min(add(ik0, col1[j ^ 1]), add(ik1, col0[j ^ 1]));
+        if (v < m[base + j]) {
+          m[base + j] = v;
+        }
+      }
+    }
+  }
+
+  /** Tightens m[i][j] with (m[i][i^1] + m[j^1][j]) / 2. */
+  private void strengthen(double[] m, int n, double[] buffer) {
+    for (int i = 0; i < 2 * n; i++) {
+      buffer[i] = m[matPos(i, i ^ 1)];
+    }
+    for (int i = 0; i < 2 * n; i++) {
+      if (buffer[i] == POSITIVE_INFINITY) {
+        continue;
+      }
+      final int base = matPos(i, 0);
+      final int br = i | 1;
+      for (int j = 0; j <= br; j++) {
+        double v = half(add(buffer[i], buffer[j ^ 1]));
+        if (v < m[base + j]) {
+          m[base + j] = v;
+        }
+      }
+    }
+  }
+
+  /** Checks for negative cycles and resets the diagonal. */
+  private static boolean checkDiagonal(double[] m, int n) {
+    for (int i = 0; i < 2 * n; i++) {
+      int pos = matPos(i, i);
+      if (m[pos] < 0) {
+        return false;
+      }
+      m[pos] = 0;
+    }
+    return true;
+  }
+
+  /**
+   * Computes the strong closure of a matrix in place in O(n^2), provided that it was strongly closed
+   * before and only constraints on variable v were changed.
+   *
+   * <p>All new constraints start or end in V_{2v} or V_{2v+1}, so every shortest path consists of
+   * new constraints and old paths between them, and the old paths are single entries in the closed
+   * matrix. Thus the rows of v can be computed first, and the other entries with v as pivot.
+   *
+   * @return whether the octagon is satisfiable
+   */
+  private boolean closeIncremental(double[] m, int n, int v) {
+    final int v0 = 2 * v;
+    final int v1 = v0 + 1;
+    // rows[r][j] is the shortest path from V_{v0+r} to V_j over at most one other variable
+    double[][] rows = new double[2][2 * n];
+    for (int r = 0; r < 2; r++) {
+      double[] row = rows[r];
+      for (int j = 0; j < 2 * n; j++) {
+        row[j] = m[matPos2(v0 + r, j)];
+      }
+      for (int a = 0; a < 2 * n; a++) {
+        double va = m[matPos2(v0 + r, a)];
+        if (a / 2 == v || va == POSITIVE_INFINITY) {
+          continue;
+        }
+        for (int j = 0; j < 2 * n; j++) {
+          double value = add(va, m[matPos2(a, j)]);
+          if (value < row[j]) {
+            row[j] = value;
+          }
+        }
+      }
+    }
+    // paths between V_{2v} and V_{2v+1} that end with a new constraint
+    double[][] vv = new double[2][2];
+    for (int r = 0; r < 2; r++) {
+      for (int t = 0; t < 2; t++) {
+        double value = rows[r][v0 + t];
+        for (int b = 0; b < 2 * n; b++) {
+          if (b / 2 != v) {
+            value = Math.min(value, add(rows[r][b], m[matPos2(b, v0 + t)]));
+          }
+        }
+        vv[r][t] = value;
+      }
+    }
+    if (vv[0][0] < 0 || vv[1][1] < 0 || add(vv[0][1], vv[1][0]) < 0) {
+      return false;
+    }
+    for (int j = 0; j < 2 * n; j++) {
+      double v0j = j / 2 == v ? vv[0][j - v0] : rows[0][j];
+      double v1j = j / 2 == v ? vv[1][j - v0] : rows[1][j];
+      m[matPos2(v0, j)] = Math.min(v0j, add(vv[0][1], v1j));
+      m[matPos2(v1, j)] = Math.min(v1j, add(vv[1][0], v0j));
+    }
+    // v as pivot of all other paths
+    double[] col0 = new double[2 * n];
+    double[] col1 = new double[2 * n];
+    closureStep(m, n, v, col0, col1);
+    strengthen(m, n, col0);
+    return checkDiagonal(m, n);
+  }
+
+  /** Adds m[i][j] <= c to a matrix, returns whether m was changed. */
+  private static boolean addConstraint(double[] m, int i, int j, double c) {
+    int pos = matPos2(i, j);
+    if (c < m[pos]) {
+      m[pos] = c;
+      return true;
+    }
+    return false;
+  }
+
+  /** Removes all constraints on a variable from a matrix in place. */
+  private static void forget(double[] m, int n, int k) {
+    for (int i = 2 * k; i <= 2 * k + 1; i++) {
+      for (int j = 0; j < 2 * n; j++) {
+        m[matPos2(i, j)] = POSITIVE_INFINITY;
+      }
+      m[matPos(i, i)] = 0;
+    }
+  }
+
+  /* queries */
+
+  @Override
+  public int dimension(Octagon oct) {
+    return java(oct).getDimension();
+  }
+
+  @Override
+  public int nbconstraints(Octagon oct) {
+    JavaOctagon o = java(oct);
+    if (o.isKnownEmpty()) {
+      return 0;
+    }
+    double[] m = o.getMatrix();
+    int count = 0;
+    for (int i = 0; i < 2 * o.getDimension(); i++) {
+      for (int j = 0; j <= (i | 1); j++) {
+        if (i != j && m[matPos(i, j)] != POSITIVE_INFINITY) {
+          count++;
+        }
+      }
+    }
+    return count;
+  }
+
+  /* tests */
+
+  @Override
+  public boolean isEmpty(Octagon oct) {
+    return closure(java(oct)).isKnownEmpty();
+  }
+
+  @Override
+  public int isEmptyLazy(Octagon oct) {
+    JavaOctagon closure = java(oct).getClosure();
+    if (closure == null) {
+      return TBOOL_TOP;
+    }
+    return closure.isKnownEmpty() ? TBOOL_TRUE : TBOOL_FALSE;
+  }
+
+  @Override
+  public boolean isUniverse(Octagon oct) {
+    JavaOctagon closure = closure(java(oct));
+    if (closure.isKnownEmpty()) {
+      return false;
+    }
+    double[] m = closure.getMatrix();
+    for (int i = 0; i < 2 * closure.getDimension(); i++) {
+      for (int j = 0; j <= (i | 1); j++) {
+        if (i != j && m[matPos(i, j)] != POSITIVE_INFINITY) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public boolean isIncludedIn(Octagon oct1, Octagon oct2) {
+    JavaOctagon closure1 = closure(java(oct1));
+    if (closure1.isKnownEmpty()) {
+      return true;
+    }
+    JavaOctagon o2 = java(oct2);
+    return !o2.isKnownEmpty() && isPointwiseLessOrEqual(closure1.getMatrix(), o2.getMatrix());
+  }
+
+  @Override
+  public int isIncludedInLazy(Octagon oct1, Octagon oct2) {
+    JavaOctagon o1 = java(oct1);
+    JavaOctagon closure1 = o1.getClosure();
+    if (closure1 != null && closure1.isKnownEmpty()) {
+      return TBOOL_TRUE;
+    }
+    JavaOctagon o2 = java(oct2);
+    if (!o2.isKnownEmpty()) {
+      double[] m1 = closure1 == null ? o1.getMatrix() : closure1.getMatrix();
+      if (isPointwiseLessOrEqual(m1, o2.getMatrix())) {
+        return TBOOL_TRUE;
+      }
+    }
+    return closure1 == null ? TBOOL_TOP : TBOOL_FALSE;
+  }
+
+  private static boolean isPointwiseLessOrEqual(double[] m1, double[] m2) {
+    for (int i = 0; i < m1.length; i++) {
+      if (m1[i] > m2[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public boolean isEqual(Octagon oct1, Octagon oct2) {
+    JavaOctagon closure1 = closure(java(oct1));
+    JavaOctagon closure2 = closure(java(oct2));
+    if (closure1.isKnownEmpty() || closure2.isKnownEmpty()) {
+      return closure1.isKnownEmpty() && closure2.isKnownEmpty();
+    }
+    return Arrays.equals(closure1.getMatrix(), closure2.getMatrix());
+  }
+
+  /** Hashes the closed matrix of the given octagon, consistent with {@link #isEqual}. */
+  int hashCode(JavaOctagon oct) {
+    JavaOctagon closure = closure(oct);
+    if (closure.isKnownEmpty()) {
+      return closure.getDimension();
+    }
+    return 31 * closure.getDimension() + Arrays.hashCode(closure.getMatrix());
+  }
+
+  @Override
+  public int isEqualLazy(Octagon oct1, Octagon oct2) {
+    JavaOctagon o1 = java(oct1);
+    JavaOctagon o2 = java(oct2);
+    if (o1.getClosure() != null && o2.getClosure() != null) {
+      return isEqual(o1, o2) ? TBOOL_TRUE : TBOOL_FALSE;
+    }
+    if (!o1.isKnownEmpty()
+        && !o2.isKnownEmpty()
+        && Arrays.equals(o1.getMatrix(), o2.getMatrix())) {
+      return TBOOL_TRUE;
+    }
+    return TBOOL_TOP;
+  }
+
+  @Override
+  public boolean isIn(Octagon oct1, NumArray array) {
+    JavaOctagon o = java(oct1);
+    if (o.isKnownEmpty()) {
+      return false;
+    }
+    double[] m = o.getMatrix();
+    double[] point = values(array);
+    for (int i = 0; i < 2 * o.getDimension(); i++) {
+      double vi = (i & 1) == 0 ? point[i / 2] : -point[i / 2];
+      for (int j = 0; j <= (i | 1); j++) {
+        double vj = (j & 1) == 0 ? point[j / 2] : -point[j / 2];
+        if (vj - vi > m[matPos(i, j)]) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /* operators */
+
+  @Override
+  public Octagon intersection(Octagon oct1, Octagon oct2) {
+    JavaOctagon o1 = java(oct1);
+    JavaOctagon o2 = java(oct2);
+    if (o1.isKnownEmpty() || o2.isKnownEmpty()) {
+      return empty(o1.getDimension());
+    }
+    double[] m1 = o1.getMatrix();
+    double[] m2 = o2.getMatrix();
+    double[] m = new double[m1.length];
+    for (int i = 0; i < m.length; i++) {
+      m[i] = Math.min(m1[i], m2[i]);
+    }
+    return newOctagon(o1.getDimension(), m, false);
+  }
+
+  @Override
+  public Octagon union(Octagon oct1, Octagon oct2) {
+    JavaOctagon closure1 = closure(java(oct1));
+    JavaOctagon closure2 = closure(java(oct2));
+    if (closure1.isKnownEmpty()) {
+      return closure2;
+    } else if (closure2.isKnownEmpty()) {
+      return closure1;
+    }
+    double[] m1 = closure1.getMatrix();
+    double[] m2 = closure2.getMatrix();
+    double[] m = new double[m1.length];
+    for (int i = 0; i < m.length; i++) {
+      m[i] = Math.max(m1[i], m2[i]);
+    }
+    return newOctagon(closure1.getDimension(), m, true);
+  }
+
+  /**
+   * Widening with thresholds 0 (OCT_WIDENING_ZERO). Only the second argument is closed, because
+   * closing the first one (the result of the previous widening) breaks the termination.
+   */
+  @Override
+  public Octagon widening(Octagon oct1, Octagon oct2) {
+    JavaOctagon o1 = java(oct1);
+    JavaOctagon closure2 = closure(java(oct2));
+    if (o1.isKnownEmpty()) {
+      return closure2;
+    } else if (closure2.isKnownEmpty()) {
+      return o1;
+    }
+    double[] m1 = o1.getMatrix();
+    double[] m2 = closure2.getMatrix();
+    double[] m = new double[m1.length];
+    for (int i = 0; i < m.length; i++) {
+      if (m2[i] <= m1[i]) {
+        m[i] = m1[i];
+      } else if (m2[i] <= 0) {
+        m[i] = 0;
+      } else {
+        m[i] = POSITIVE_INFINITY;
+      }
+    }
+    return newOctagon(o1.getDimension(), m, false);
+  }
+
+  @Override
+  public Octagon narrowing(Octagon oct1, Octagon oct2) {
+    JavaOctagon closure1 = closure(java(oct1));
+    JavaOctagon closure2 = closure(java(oct2));
+    if (closure1.isKnownEmpty()) {
+      return closure2;
+    } else if (closure2.isKnownEmpty()) {
+      return closure1;
+    }
+    double[] m1 = closure1.getMatrix();
+    double[] m2 = closure2.getMatrix();
+    double[] m = new double[m1.length];
+    for (int i = 0; i < m.length; i++) {
+      m[i] = m1[i] == POSITIVE_INFINITY ? m2[i] : m1[i];
+    }
+    return newOctagon(closure1.getDimension(), m, false);
+  }
+
+  /* transfer functions */
+
+  @Override
+  public Octagon forget(Octagon oct, int k) {
+    JavaOctagon closure = closure(java(oct));
+    if (closure.isKnownEmpty()) {
+      return closure;
+    }
+    double[] m = closure.getMatrix().clone();
+    forget(m, closure.getDimension(), k);
+    return newOctagon(closure.getDimension(), m, true);
+  }
+
+  /**
+   * Adds binary constraints given as 4 numbers each: the type (0: x <= c, 1: -x <= c, 2: x+y <= c,
+   * 3: x-y <= c, 4: -x+y <= c, 5: -x-y <= c), x, y, and c.
+   */
+  @Override
+  public Octagon addBinConstraint(Octagon oct, int noOfConstraints, NumArray array) {
+    JavaOctagon closure = closure(java(oct));
+    if (closure.isKnownEmpty()) {
+      return closure;
+    }
+    int n = closure.getDimension();
+    double[] m = closure.getMatrix().clone();
+    double[] cons = values(array);
+    for (int i = 0; i < noOfConstraints; i++) {
+      int x = (int) cons[4 * i + 1];
+      int y = (int) cons[4 * i + 2];
+      double c = cons[4 * i + 3];
+      final boolean changed;
+      switch ((int) cons[4 * i]) {
+        case 0:
+          changed = addConstraint(m, 2 * x + 1, 2 * x, twice(c));
+          break;
+        case 1:
+          changed = addConstraint(m, 2 * x, 2 * x + 1, twice(c));
+          break;
+        case 2:
+          changed = addConstraint(m, 2 * y + 1, 2 * x, c);
+          break;
+        case 3:
+          changed = addConstraint(m, 2 * y, 2 * x, c);
+          break;
+        case 4:
+          changed = addConstraint(m, 2 * x, 2 * y, c);
+          break;
+        case 5:
+          changed = addConstraint(m, 2 * x, 2 * y + 1, c);
+          break;
+        default:
+          throw new IllegalArgumentException("Invalid constraint type " + cons[4 * i]);
+      }
+      if (changed && !closeIncremental(m, n, x)) {
+        return empty(n);
+      }
+    }
+    return newOctagon(n, m, true);
+  }
+
+  /**
+   * Assigns sum_i array[i]*v_i + array[n] to variable k, exactly if the expression is octagonal and
+   * with interval arithmetic otherwise.
+   */
+  @Override
+  public Octagon assingVar(Octagon oct, int k, NumArray array) {
+    JavaOctagon closure = closure(java(oct));
+    if (closure.isKnownEmpty()) {
+      return closure;
+    }
+    int n = closure.getDimension();
+    double[] coeffs = values(array);
+    double c = coeffs[n];
+
+    int var = -1;
+    for (int i = 0; i < n; i++) {
+      if (coeffs[i] != 0) {
+        if (var != -1 || Math.abs(coeffs[i]) != 1) {
+          return intervAssingVar(closure, k, toIntervals(coeffs, n));
+        }
+        var = i;
+      }
+    }
+    if (Double.isInfinite(c)) {
+      return forget(closure, k);
+    }
+
+    double[] m = closure.getMatrix().clone();
+    if (var == k) {
+      // k = +-k + c, the closure is preserved
+      return newOctagon(n, translate(m, n, k, coeffs[k] < 0, c), true);
+    }
+
+    forget(m, n, k);
+    if (var == -1) {
+      addConstraint(m, 2 * k + 1, 2 * k, twice(c));
+      addConstraint(m, 2 * k, 2 * k + 1, twice(-c));
+    } else if (coeffs[var] > 0) {
+      addConstraint(m, 2 * var, 2 * k, c);
+      addConstraint(m, 2 * k, 2 * var, -c);
+    } else {
+      addConstraint(m, 2 * var + 1, 2 * k, c);
+      addConstraint(m, 2 * var, 2 * k + 1, -c);
+    }
+    return closeIncremental(m, n, k) ? newOctagon(n, m, true) : empty(n);
+  }
+
+  /** Returns the matrix for k = k + c or k = -k + c (if negate is true). */
+  private double[] translate(double[] m, int n, int k, boolean negate, double c) {
+    double[] result = negate ? new double[m.length] : m;
+    for (int i = 0; i < 2 * n; i++) {
+      for (int j = 0; j <= (i | 1); j++) {
+        double value = negate ? m[matPos2(swap(i, k), swap(j, k))] : m[matPos(i, j)];
+        // V_j - V_i changes by shift(j) - shift(i)
+        double diff = shift(j, k, c) - shift(i, k, c);
+        result[matPos(i, j)] = diff == 0 ? value : add(value, diff);
+      }
+    }
+    return result;
+  }
+
+  private static int swap(int i, int k) {
+    return i / 2 == k ? i ^ 1 : i;
+  }
+
+  private static double shift(int i, int k, double c) {
+    if (i / 2 != k) {
+      return 0;
+    }
+    return (i & 1) == 0 ? c : -c;
+  }
+
+  /** Converts coefficients to intervals [c,c] in the format of the interval functions. */
+  private static NumArray toIntervals(double[] coeffs, int n) {
+    JavaNumArray intervals = new JavaNumArray(2 * (n + 1));
+    double[] values = intervals.getValues();
+    for (int i = 0; i <= n; i++) {
+      values[2 * i] = coeffs[i] == POSITIVE_INFINITY ? POSITIVE_INFINITY : coeffs[i];
+      values[2 * i + 1] = coeffs[i] == POSITIVE_INFINITY ? POSITIVE_INFINITY : -coeffs[i];
+    }
+    return intervals;
+  }
+
+  /**
+   * Substitutes variable x by sum_i array[i]*v_i + array[n] (backward assignment), exactly if the
+   * expression is octagonal and with interval arithmetic otherwise.
+   */
+  @Override
+  public Octagon substituteVar(Octagon oct, int x, NumArray array) {
+    return intervSubstituteVar(oct, x, toIntervals(values(array), dimension(oct)));
+  }
+
+  /** Adds the constraint sum_i array[i]*v_i + array[n] >= 0. */
+  @Override
+  public Octagon addConstraint(Octagon oct, NumArray array) {
+    return intervAddConstraint(oct, toIntervals(values(array), dimension(oct)));
+  }
+
+  /**
+   * The bounds of an interval linear form sum_i [a_i,b_i]*v_i + [a_n,b_n] in a closed octagon, and
+   * of forms derived from it. Bounds are given as upper bounds of the form (index 0) and of its
+   * negation (index 1), i.e., as upper bound and negated lower bound like in the octagon matrix.
+   */
+  private final class LinearFormBounds {
+
+    private final double[] form;
+    private final double[] m;
+    private final int n;
+
+    /** Bounds of each term [a_i,b_i]*v_i, with the constant at index n. */
+    private final double[][] terms;
+
+    /** Sums of the finite bounds of the terms, and the number of infinite bounds. */
+    private final double[] sums = new double[2];
+    private final int[] infinite = new int[2];
+
+    /** Computes the bounds of the form given by array in a closed matrix m. */
+    LinearFormBounds(double[] pForm, double[] pM, int pN) {
+      form = pForm;
+      m = pM;
+      n = pN;
+      terms = new double[2][n + 1];
+      for (int i = 0; i <= n; i++) {
+        for (int s = 0; s < 2; s++) {
+          double term = i == n ? form[2 * n + s] : termBound(i, s, 0);
+          terms[s][i] = term;
+          if (term == POSITIVE_INFINITY) {
+            infinite[s]++;
+          } else {
+            sums[s] = add(sums[s], term);
+          }
+        }
+      }
+    }
+
+    /** The bound s of [a_i+delta,b_i+delta]*v_i. */
+    private double termBound(int i, int s, double delta) {
+      double coeffUpper = addInfinite(form[2 * i], delta);
+      double coeffNegLower = addInfinite(form[2 * i + 1], -delta);
+      if (coeffUpper == 0 && coeffNegLower == 0) {
+        return 0;
+      }
+      double varUpper = half(m[matPos(2 * i + 1, 2 * i)]);
+      double varNegLower = half(m[matPos(2 * i, 2 * i + 1)]);
+      return s == 0
+          ? mulUpper(coeffUpper, coeffNegLower, varUpper, varNegLower)
+          : mulUpper(coeffUpper, coeffNegLower, varNegLower, varUpper);
+    }
+
+    /** The bound s of the form without the terms i and j (-1 for none). */
+    private double boundWithout(int s, int i, int j) {
+      int infiniteOfIJ = 0;
+      double result = sums[s];
+      for (int k : new int[] {i, j}) {
+        if (k < 0) {
+          continue;
+        } else if (terms[s][k] == POSITIVE_INFINITY) {
+          infiniteOfIJ++;
+        } else {
+          result = add(result, -terms[s][k]);
+        }
+      }
+      return infiniteOfIJ < infinite[s] ? POSITIVE_INFINITY : result;
+    }
+
+    /**
+     * The bound s of the form. Pairs of terms with coefficient 1 or -1 are bounded by the octagonal
+     * constraint on these two variables, which is more precise than interval arithmetic.
+     */
+    private double bound(int s) {
+      double result = boundWithout(s, -1, -1);
+      for (int i = 0; i < n; i++) {
+        int vi = unitIndex(i, s);
+        if (vi < 0) {
+          continue;
+        }
+        for (int j = 0; j < i; j++) {
+          int vj = unitIndex(j, s);
+          if (vj >= 0) {
+            // V_vi + V_vj <= m[vj^1][vi]
+            result = Math.min(result, add(m[matPos2(vj ^ 1, vi)], boundWithout(s, i, j)));
+          }
+        }
+      }
+      return result;
+    }
+
+    /** Index of the (negated for s=1) term of variable i in the matrix if its coefficient is 1 or -1. */
+    private int unitIndex(int i, int s) {
+      if (isOne(form, i)) {
+        return 2 * i + s;
+      } else if (isMinusOne(form, i)) {
+        return 2 * i + 1 - s;
+      }
+      return -1;
+    }
+
+    /**
+     * Index of the term of variable i in the matrix if its coefficient is at least 1 (2i) or at most
+     * -1 (2i+1), -1 otherwise.
+     */
+    int atLeastUnitIndex(int i) {
+      if (form[2 * i + 1] <= -1) {
+        return 2 * i;
+      } else if (form[2 * i] <= -1) {
+        return 2 * i + 1;
+      }
+      return -1;
+    }
+
+    /**
+     * The upper bound of the form without the terms of the variables i and j (-1 for none), if
+     * their coefficients were replaced by 1 or -1 (see {@link #atLeastUnitIndex(int)}). This is
+     * sound for the constraint form >= 0, because the upper bound of the form is not negative.
+     */
+    double upperWithoutUnit(int i, int j) {
+      double result = sums[0];
+      int remainingInfinite = infinite[0];
+      for (int k : new int[] {i, j}) {
+        if (k < 0) {
+          continue;
+        } else if (terms[0][k] != POSITIVE_INFINITY) {
+          int vk = atLeastUnitIndex(k);
+          result = add(result, -half(m[matPos(vk ^ 1, vk)]));
+        } else if (unitIndex(k, 0) >= 0) {
+          // the infinite bound of a term can be removed only for the coefficients 1 and -1
+          remainingInfinite--;
+        } else {
+          return POSITIVE_INFINITY;
+        }
+      }
+      return remainingInfinite > 0 ? POSITIVE_INFINITY : result;
+    }
+
+    double upper() {
+      return bound(0);
+    }
+
+    double negLower() {
+      return bound(1);
+    }
+
+    /** The upper bound of the form without term i. */
+    double upperWithout(int i) {
+      return boundWithout(0, i, -1);
+    }
+
+    /** The upper bound of the form without the terms i and j. */
+    double upperWithout(int i, int j) {
+      return boundWithout(0, i, j);
+    }
+
+    /** The upper bound of the form with delta added to the coefficient of variable i. */
+    double upperShifted(int i, double delta) {
+      return add(boundWithout(0, i, -1), termBound(i, 0, delta));
+    }
+
+    /** The negated lower bound of the form with delta added to the coefficient of variable i. */
+    double negLowerShifted(int i, double delta) {
+      return add(boundWithout(1, i, -1), termBound(i, 1, delta));
+    }
+  }
+
+  /**
+   * Upper bound of the product of the intervals [-aNegLower, aUpper] and [-bNegLower, bUpper],
+   * where 0 times infinity is 0.
+   */
+  private double mulUpper(double aUpper, double aNegLower, double bUpper, double bNegLower) {
+    double result =
+        Math.max(
+            Math.max(mul(aUpper, bUpper), mul(aNegLower, bNegLower)),
+            Math.max(-mul(aUpper, bNegLower), -mul(aNegLower, bUpper)));
+    return normalize(result);
+  }
+
+  private static double mul(double a, double b) {
+    return (a == 0 || b == 0) ? 0 : a * b;
+  }
+
+  private static boolean isOne(double[] form, int i) {
+    return form[2 * i] == 1 && form[2 * i + 1] == -1;
+  }
+
+  private static boolean isMinusOne(double[] form, int i) {
+    return form[2 * i] == -1 && form[2 * i + 1] == 1;
+  }
+
+  /**
+   * Assigns the interval linear form sum_i [a_i,b_i]*v_i + [a_n,b_n] to variable x, where array
+   * contains b_i at 2i and -a_i at 2i+1.
+   *
+   * <p>The new value is computed in a temporary variable t: the bounds of t and of t-v_i and t+v_i
+   * for all variables v_i (including x) are computed with interval arithmetic and added to the
+   * octagon, such that the closure also derives the relations of t that follow from the relations
+   * of the old value of x. Afterwards, t replaces x.
+   */
+  @Override
+  public Octagon intervAssingVar(Octagon oct, int x, NumArray array) {
+    JavaOctagon closure = closure(java(oct));
+    if (closure.isKnownEmpty()) {
+      return closure;
+    }
+    int n = closure.getDimension();
+    double[] form = values(array);
+    LinearFormBounds bounds = new LinearFormBounds(form, closure.getMatrix(), n);
+
+    final int t = n;
+    double[] m = embed(closure.getMatrix(), n, n + 1);
+    addConstraint(m, 2 * t + 1, 2 * t, twice(bounds.upper()));
+    addConstraint(m, 2 * t, 2 * t + 1, twice(bounds.negLower()));
+    for (int i = 0; i < n; i++) {
+      // t - v_i and v_i - t
+      addConstraint(m, 2 * i, 2 * t, bounds.upperShifted(i, -1));
+      addConstraint(m, 2 * t, 2 * i, bounds.negLowerShifted(i, -1));
+      // t + v_i and -t - v_i
+      addConstraint(m, 2 * i + 1, 2 * t, bounds.upperShifted(i, 1));
+      addConstraint(m, 2 * i, 2 * t + 1, bounds.negLowerShifted(i, 1));
+    }
+    if (!closeIncremental(m, n + 1, t)) {
+      return empty(n);
+    }
+
+    // replace x by t, the result is still closed
+    double[] result = new double[matSize(n)];
+    for (int i = 0; i < 2 * n; i++) {
+      int oldI = i / 2 == x ? 2 * t + (i & 1) : i;
+      for (int j = 0; j <= (i | 1); j++) {
+        int oldJ = j / 2 == x ? 2 * t + (j & 1) : j;
+        result[matPos(i, j)] = m[matPos2(oldI, oldJ)];
+      }
+    }
+    return newOctagon(n, result, true);
+  }
+
+  /**
+   * Substitutes variable x by an interval linear form (see {@link #intervAssingVar(Octagon, int,
+   * NumArray)}): all constraints on x are replaced by the corresponding constraints on the form.
+   */
+  @Override
+  public Octagon intervSubstituteVar(Octagon oct, int x, NumArray array) {
+    JavaOctagon closure = closure(java(oct));
+    if (closure.isKnownEmpty()) {
+      return closure;
+    }
+    int n = closure.getDimension();
+    double[] form = values(array);
+    double[] old = closure.getMatrix();
+    double[] m = old.clone();
+    forget(m, n, x);
+    JavaOctagon result = newOctagon(n, m, true);
+    for (int i = 0; i < 2 * n; i++) {
+      for (int j = 0; j <= (i | 1); j++) {
+        double c = old[matPos(i, j)];
+        if (i == j || c == POSITIVE_INFINITY || (i / 2 != x && j / 2 != x)) {
+          continue;
+        }
+        double[] constraint = new double[2 * (n + 1)];
+        if (j == (i ^ 1)) {
+          // 2*V_j <= c is added as c/2 - V_j >= 0
+          constraint[2 * n] = half(c);
+          constraint[2 * n + 1] = -half(c);
+        } else {
+          // V_j - V_i <= c is added as c - V_j + V_i >= 0
+          constraint[2 * n] = c;
+          constraint[2 * n + 1] = -c;
+          addSubstitutedTerm(constraint, i, true, x, form);
+        }
+        addSubstitutedTerm(constraint, j, false, x, form);
+        result = addIntervalConstraint(result, constraint);
+        if (result.isKnownEmpty()) {
+          return result;
+        }
+      }
+    }
+    return result;
+  }
+
+  /** Adds +V_k or -V_k to an interval linear form, where variable x is replaced by form. */
+  private void addSubstitutedTerm(
+      double[] constraint, int k, boolean positive, int x, double[] form) {
+    boolean plus = positive == ((k & 1) == 0);
+    int var = k / 2;
+    if (var != x) {
+      constraint[2 * var] = addInfinite(constraint[2 * var], plus ? 1 : -1);
+      constraint[2 * var + 1] = addInfinite(constraint[2 * var + 1], plus ? -1 : 1);
+      return;
+    }
+    for (int l = 0; l < constraint.length; l += 2) {
+      // -[a,b] = [-b,-a]
+      double upper = plus ? form[l] : form[l + 1];
+      double negLower = plus ? form[l + 1] : form[l];
+      constraint[l] = addInfinite(constraint[l], upper);
+      constraint[l + 1] = addInfinite(constraint[l + 1], negLower);
+    }
+  }
+
+  private double addInfinite(double a, double b) {
+    return a == POSITIVE_INFINITY || b == POSITIVE_INFINITY ? POSITIVE_INFINITY : add(a, b);
+  }
+
+  /**
+   * Adds the interval linear constraint sum_i [a_i,b_i]*v_i + [a_n,b_n] >= 0 (see {@link
+   * #intervAssingVar(Octagon, int, NumArray)} for the format). All octagonal constraints on one or
+   * two variables with coefficients 1 or -1 that follow from it are added.
+   */
+  @Override
+  public Octagon intervAddConstraint(Octagon oct, NumArray array) {
+    JavaOctagon closure = closure(java(oct));
+    if (closure.isKnownEmpty()) {
+      return closure;
+    }
+    return addIntervalConstraint(closure, values(array));
+  }
+
+  private JavaOctagon addIntervalConstraint(JavaOctagon closure, double[] form) {
+    int n = closure.getDimension();
+    LinearFormBounds bounds = new LinearFormBounds(form, closure.getMatrix(), n);
+    if (bounds.upper() < 0) {
+      return empty(n);
+    }
+    double[] m = closure.getMatrix().clone();
+    boolean changed = false;
+    for (int i = 0; i < n; i++) {
+      int vi = bounds.atLeastUnitIndex(i);
+      if (vi < 0) {
+        continue;
+      }
+      // V_vi + rest >= 0 implies -V_vi <= upper(rest)
+      changed |= addConstraint(m, vi, vi ^ 1, twice(bounds.upperWithoutUnit(i, -1)));
+      for (int j = 0; j < i; j++) {
+        int vj = bounds.atLeastUnitIndex(j);
+        if (vj >= 0) {
+          // -V_vi - V_vj <= upper(rest)
+          changed |= addConstraint(m, vj, vi ^ 1, bounds.upperWithoutUnit(i, j));
+        }
+      }
+    }
+    if (!changed) {
+      return closure;
+    }
+    return close(m, n) ? newOctagon(n, m, true) : empty(n);
+  }
+
+  /* change of dimensions */
+
+  @Override
+  public Octagon addDimensionAndEmbed(Octagon oct, int k) {
+    JavaOctagon o = java(oct);
+    JavaOctagon closure = o.getClosure();
+    int n = o.getDimension();
+    if (closure != null && closure.isKnownEmpty()) {
+      return empty(n + k);
+    }
+    double[] m = embed(closure != null ? closure.getMatrix() : o.getMatrix(), n, n + k);
+    return newOctagon(n + k, m, closure != null);
+  }
+
+  /** Copies the matrix of an octagon with dimension n into the one of a larger universe. */
+  private static double[] embed(double[] m, int n, int newN) {
+    // the half-matrix of dimension n is a prefix of the one of dimension newN
+    double[] result = Arrays.copyOf(m, matSize(newN));
+    Arrays.fill(result, matSize(n), result.length, POSITIVE_INFINITY);
+    for (int i = 2 * n; i < 2 * newN; i++) {
+      result[matPos(i, i)] = 0;
+    }
+    return result;
+  }
+
+  @Override
+  public Octagon addDimensionAndProject(Octagon oct, int k) {
+    JavaOctagon o = java(oct);
+    int n = o.getDimension();
+    if (o.isKnownEmpty()) {
+      return empty(n + k);
+    }
+    double[] m = embed(o.getMatrix(), n, n + k);
+    for (int i = n; i < n + k; i++) {
+      m[matPos(2 * i, 2 * i + 1)] = 0;
+      m[matPos(2 * i + 1, 2 * i)] = 0;
+    }
+    return newOctagon(n + k, m, false);
+  }
+
+  @Override
+  public Octagon removeDimension(Octagon oct, int k) {
+    JavaOctagon closure = closure(java(oct));
+    int newN = closure.getDimension() - k;
+    if (closure.isKnownEmpty()) {
+      return empty(newN);
+    }
+    return newOctagon(newN, Arrays.copyOf(closure.getMatrix(), matSize(newN)), true);
+  }
+
+  /**
+   * Sets the bounds of variable pos, where the first array contains the upper bound and the second
+   * the negated lower bound (like the native library).
+   */
+  @Override
+  public Octagon set_bounds(Octagon oct, int pos, NumArray lower, NumArray upper) {
+    JavaOctagon closure = closure(java(oct));
+    if (closure.isKnownEmpty()) {
+      return closure;
+    }
+    int n = closure.getDimension();
+    double[] m = closure.getMatrix().clone();
+    forget(m, n, pos);
+    addConstraint(m, 2 * pos + 1, 2 * pos, twice(values(lower)[0]));
+    addConstraint(m, 2 * pos, 2 * pos + 1, twice(values(upper)[0]));
+    return closeIncremental(m, n, pos) ? newOctagon(n, m, true) : empty(n);
+  }
+
+  /* output */
+
+  @Override
+  public void printNum(NumArray arr, int size) {
+    StringBuilder str = new StringBuilder();
+    for (int i = 0; i < size; i++) {
+      str.append(num_infty(arr, i) ? "+oo" : formatNumber(values(arr)[i])).append(" ");
+    }
+    System.out.println(str);
+  }
+
+  @Override
+  public void printOct(Octagon oct) {
+    JavaOctagon o = java(oct);
+    StringBuilder str = new StringBuilder();
+    str.append("[ ").append(o.getDimension()).append(" variable(s) ]\n");
+    if (o.isKnownEmpty()) {
+      str.append("empty octagon\n");
+    } else {
+      double[] m = o.getMatrix();
+      for (int i = 0; i < 2 * o.getDimension(); i++) {
+        for (int j = 0; j <= (i | 1); j++) {
+          double value = m[matPos(i, j)];
+          str.append(value == POSITIVE_INFINITY ? "+oo" : formatNumber(value)).append(" ");
+        }
+        str.append("\n");
+      }
+    }
+    System.out.print(str);
+  }
+
+  private String formatNumber(double d) {
+    return integers ? Long.toString((long) d) : Double.toString(d);
+  }
+
+  @Override
+  public String print(Octagon oct, BiMap<Integer, MemoryLocation> map) {
+    StringBuilder str = new StringBuilder();
+    int dimension = dimension(oct);
+    str.append("Octagon (dimension: " + dimension + ")\n");
+    if (isEmpty(oct)) {
+      str.append("[Empty]\n");
+      return str.toString();
+    }
+
+    for (int i = 0; i < map.size(); i++) {
+      OctagonInterval bounds = getVariableBounds(oct, i);
+      str.append(" ").append(map.get(i)).append(" -> [");
+      if (bounds.getLow().isInfinite()) {
+        str.append("-INFINITY, ");
+      } else {
+        str.append(bounds.getLow()).append(", ");
+      }
+      if (bounds.getHigh().isInfinite()) {
+        str.append("INFINITY]\n");
+      } else {
+        str.append(bounds.getHigh()).append("]\n");
+      }
+    }
+    return str.toString();
+  }
+
+  @Override
+  public OctagonInterval getVariableBounds(Octagon oct, int id) {
+    JavaOctagon closure = closure(java(oct));
+    checkArgument(id < closure.getDimension());
+    checkArgument(!closure.isKnownEmpty(), "No bounds for variables of an empty octagon");
+    double[] m = closure.getMatrix();
+    double upper = half(m[matPos(2 * id + 1, 2 * id)]);
+    double negLower = half(m[matPos(2 * id, 2 * id + 1)]);
+    boolean lowerInfinite = negLower == POSITIVE_INFINITY;
+    boolean upperInfinite = upper == POSITIVE_INFINITY;
+
+    if (!integers) {
+      return new OctagonInterval(
+          lowerInfinite ? Double.NEGATIVE_INFINITY : 0.0 - negLower,
+          upperInfinite ? POSITIVE_INFINITY : upper);
+    }
+    if (lowerInfinite && upperInfinite) {
+      return new OctagonInterval(Double.NEGATIVE_INFINITY, POSITIVE_INFINITY);
+    } else if (lowerInfinite) {
+      return new OctagonInterval(
+          new OctagonDoubleValue(Double.NEGATIVE_INFINITY), OctagonIntValue.of((long) upper));
+    } else if (upperInfinite) {
+      return new OctagonInterval(
+          OctagonIntValue.of((long) negLower * -1), new OctagonDoubleValue(POSITIVE_INFINITY));
+    } else {
+      return new OctagonInterval((long) negLower * -1, (long) upper);
+    }
+  }
+}
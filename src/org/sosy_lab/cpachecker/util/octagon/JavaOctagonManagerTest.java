@@ -0,0 +1,211 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.octagon;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+@RunWith(Parameterized.class)
+public class JavaOctagonManagerTest {
+
+  @Parameters(name = "integers={0}")
+  public static Object[] getNumberModes() {
+    return new Object[] {true, false};
+  }
+
+  @Parameter(0)
+  public boolean integers;
+
+  private OctagonManager manager;
+
+  @Before
+  public void setUp() {
+    manager = new JavaOctagonManager(integers);
+  }
+
+  private NumArray floats(double... values) {
+    NumArray array = manager.init_num_t(values.length);
+    for (int i = 0; i < values.length; i++) {
+      manager.num_set_float(array, i, values[i]);
+    }
+    return array;
+  }
+
+  /** Adds the binary constraints given as (type, x, y, c) tuples. */
+  private Octagon addConstraints(Octagon oct, long... constraints) {
+    NumArray array = manager.init_num_t(constraints.length);
+    for (int i = 0; i < constraints.length; i++) {
+      manager.num_set_int(array, i, constraints[i]);
+    }
+    return manager.addBinConstraint(oct, constraints.length / 4, array);
+  }
+
+  private Octagon assign(Octagon oct, int k, long... form) {
+    NumArray array = manager.init_num_t(form.length);
+    for (int i = 0; i < form.length; i++) {
+      manager.num_set_int(array, i, form[i]);
+    }
+    return manager.assingVar(oct, k, array);
+  }
+
+  private double lower(Octagon oct, int id) {
+    return manager.getVariableBounds(oct, id).getLow().getValue().doubleValue();
+  }
+
+  private double upper(Octagon oct, int id) {
+    return manager.getVariableBounds(oct, id).getHigh().getValue().doubleValue();
+  }
+
+  @Test
+  public void testNum() {
+    NumArray num = manager.init_num_t(2);
+    manager.num_set_int(num, 0, 3);
+    manager.num_set_inf(num, 1);
+    assertThat(manager.num_infty(num, 0)).isFalse();
+    assertThat(manager.num_get_int(num, 0)).isEqualTo(3);
+    assertThat(manager.num_infty(num, 1)).isTrue();
+  }
+
+  @Test
+  public void testUniverseAndEmpty() {
+    assertThat(manager.isUniverse(manager.universe(2))).isTrue();
+    assertThat(manager.isEmpty(manager.universe(2))).isFalse();
+    assertThat(manager.isEmpty(manager.empty(2))).isTrue();
+    assertThat(manager.isIncludedIn(manager.empty(2), manager.universe(2))).isTrue();
+    assertThat(manager.isIncludedIn(manager.universe(2), manager.empty(2))).isFalse();
+  }
+
+  @Test
+  public void testClosurePropagatesBounds() {
+    // x0 <= 3, x1 - x0 <= 2, -x1 <= -1
+    Octagon oct = addConstraints(manager.universe(2), 0, 0, 0, 3, 3, 1, 0, 2, 1, 1, 0, -1);
+    assertThat(manager.isEmpty(oct)).isFalse();
+    assertThat(upper(oct, 1)).isWithin(0).of(5);
+    assertThat(lower(oct, 0)).isWithin(0).of(-1);
+  }
+
+  @Test
+  public void testContradictionIsEmpty() {
+    // x0 <= 1, -x0 <= -2
+    Octagon oct = addConstraints(manager.universe(1), 0, 0, 0, 1, 1, 0, 0, -2);
+    assertThat(manager.isEmpty(oct)).isTrue();
+  }
+
+  @Test
+  public void testAssignTranslatesRelation() {
+    // 0 <= x0 <= 4, x1 := x0 + 1, x0 := x0 + 2
+    Octagon oct = addConstraints(manager.universe(2), 0, 0, 0, 4, 1, 0, 0, 0);
+    oct = assign(oct, 1, 1, 0, 1);
+    oct = assign(oct, 0, 1, 0, 2);
+    assertThat(lower(oct, 0)).isWithin(0).of(2);
+    assertThat(upper(oct, 0)).isWithin(0).of(6);
+    // x0 - x1 == 1 is kept exactly
+    Octagon expected = addConstraints(oct, 3, 0, 1, 1, 4, 0, 1, -1);
+    assertThat(manager.isEqual(oct, expected)).isTrue();
+  }
+
+  @Test
+  public void testUnionAndWidening() {
+    Octagon a = addConstraints(manager.universe(1), 0, 0, 0, 1, 1, 0, 0, 0);
+    Octagon b = addConstraints(manager.universe(1), 0, 0, 0, 2, 1, 0, 0, 0);
+    Octagon union = manager.union(a, b);
+    assertThat(manager.isIncludedIn(a, union)).isTrue();
+    assertThat(manager.isIncludedIn(b, union)).isTrue();
+    assertThat(upper(union, 0)).isWithin(0).of(2);
+
+    Octagon widened = manager.widening(a, union);
+    assertThat(manager.getVariableBounds(widened, 0).getHigh().isInfinite()).isTrue();
+    assertThat(lower(widened, 0)).isWithin(0).of(0);
+  }
+
+  @Test
+  public void testFractionalBounds() {
+    // x0 <= 2.5, -x0 <= -0.5
+    Octagon oct =
+        manager.addBinConstraint(manager.universe(1), 2, floats(0, 0, 0, 2.5, 1, 0, 0, -0.5));
+    if (integers) {
+      // bounds are rounded up
+      assertThat(lower(oct, 0)).isWithin(0).of(0);
+      assertThat(upper(oct, 0)).isWithin(0).of(3);
+    } else {
+      assertThat(lower(oct, 0)).isWithin(0).of(0.5);
+      assertThat(upper(oct, 0)).isWithin(0).of(2.5);
+    }
+  }
+
+  @Test
+  public void testClosureHalvesBounds() {
+    // x0 + x1 <= 3, x0 - x1 <= 0, hence 2*x0 <= 3
+    Octagon oct = addConstraints(manager.universe(2), 2, 0, 1, 3, 3, 0, 1, 0);
+    assertThat(upper(oct, 0)).isWithin(0).of(integers ? 2 : 1.5);
+  }
+
+  @Test
+  public void testIntervalAssignment() {
+    // 1 <= x0 <= 2, x1 := [0.5,0.5]*x0 + [-0.25,0.25]
+    Octagon oct = addConstraints(manager.universe(2), 0, 0, 0, 2, 1, 0, 0, -1);
+    oct = manager.intervAssingVar(oct, 1, floats(0.5, -0.5, 0, 0, 0.25, 0.25));
+    if (integers) {
+      // the bounds of the intervals are rounded outwards to [0,1] and [-1,1]
+      assertThat(lower(oct, 1)).isWithin(0).of(-1);
+      assertThat(upper(oct, 1)).isWithin(0).of(3);
+    } else {
+      assertThat(lower(oct, 1)).isWithin(0).of(0.25);
+      assertThat(upper(oct, 1)).isWithin(0).of(1.25);
+    }
+    assertThat(lower(oct, 0)).isWithin(0).of(1);
+    assertThat(upper(oct, 0)).isWithin(0).of(2);
+  }
+
+  @Test
+  public void testEqualsAndHashCode() {
+    // x0 <= 3 and x1 - x0 <= 0 imply x1 <= 3, so the closure is the same in both orders
+    Octagon a = addConstraints(manager.universe(2), 0, 0, 0, 3, 3, 1, 0, 0);
+    Octagon b = addConstraints(manager.universe(2), 3, 1, 0, 0, 0, 0, 0, 3, 0, 1, 0, 3);
+    Octagon c = addConstraints(manager.universe(2), 0, 0, 0, 4, 3, 1, 0, 0);
+
+    assertThat(a).isEqualTo(b);
+    assertThat(a.hashCode()).isEqualTo(b.hashCode());
+    assertThat(a).isNotEqualTo(c);
+    assertThat(a.hashCode()).isNotEqualTo(c.hashCode());
+    assertThat(manager.empty(2).hashCode()).isEqualTo(manager.empty(2).hashCode());
+  }
+
+  @Test
+  public void testDimensionChanges() {
+    Octagon oct = addConstraints(manager.universe(1), 0, 0, 0, 7);
+    oct = manager.addDimensionAndEmbed(oct, 2);
+    assertThat(manager.dimension(oct)).isEqualTo(3);
+    assertThat(upper(oct, 0)).isWithin(0).of(7);
+    oct = manager.removeDimension(oct, 2);
+    assertThat(manager.dimension(oct)).isEqualTo(1);
+    assertThat(upper(oct, 0)).isWithin(0).of(7);
+  }
+}
@@ -0,0 +1,52 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.octagon;
+
+/** A pointer to a number array that is allocated by the native octagon library. */
+final class NativeNumArray extends NumArray {
+
+  private final long array;
+
+  NativeNumArray(long l) {
+    array = l;
+  }
+
+  long getArray() {
+    return array;
+  }
+
+  @Override
+  public boolean equals(Object pObj) {
+    if (!(pObj instanceof NativeNumArray)) {
+      return false;
+    }
+    NativeNumArray otherArr = (NativeNumArray) pObj;
+    return this.array == otherArr.array;
+  }
+
+  @Override
+  public int hashCode() {
+    return (int)array;
+  }
+}
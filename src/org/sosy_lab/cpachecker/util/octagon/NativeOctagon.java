@@ -0,0 +1,50 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.octagon;
+
+/** An octagon of the native library, freed when it is not referenced anymore. */
+final class NativeOctagon extends Octagon {
+
+  private final long octId;
+
+  NativeOctagon(long l, NativeOctagonManager manager) {
+    super(manager);
+    octId = l;
+    registerPhantomReference(this);
+  }
+
+  long getOctId() {
+    return octId;
+  }
+
+  @Override
+  public int hashCode() {
+    return (int)octId;
+  }
+
+  @Override
+  public String toString() {
+    return "octagon with id: " + octId;
+  }
+}
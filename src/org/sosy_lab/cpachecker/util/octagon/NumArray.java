@@ -23,35 +23,11 @@
  */
 package org.sosy_lab.cpachecker.util.octagon;
 
-public class NumArray {
-
-  private final long array;
-
-  NumArray(long l) {
-    array = l;
-  }
-
-  long getArray() {
-    return array;
-  }
-
-  @Override
-  public String toString() {
-    // TODO
-    return super.toString();
-  }
-
-  @Override
-  public boolean equals(Object pObj) {
-    if (!(pObj instanceof NumArray)) {
-      return false;
-    }
-    NumArray otherArr = (NumArray) pObj;
-    return this.array == otherArr.array;
-  }
+/**
+ * An array of numbers of the octagon library, used for passing coefficients and bounds to an
+ * {@link OctagonManager}.
+ */
+public abstract class NumArray {
 
-  @Override
-  public int hashCode() {
-    return (int)array;
-  }
-}
\ No newline at end of file
+  NumArray() {}
+}
@@ -29,20 +29,17 @@ import java.util.ArrayList;
 import java.util.List;
 
 
-public class Octagon {
+public abstract class Octagon {
 
-  private final long octId;
   private final OctagonManager manager;
   private static List<OctagonPhantomReference> phantomReferences = new ArrayList<>();
   private static ReferenceQueue<Octagon> referenceQueue = new ReferenceQueue<>();
 
-  Octagon(long l, OctagonManager manager) {
-    octId = l;
+  Octagon(OctagonManager manager) {
     this.manager = manager;
-    registerPhantomReference(this);
   }
 
-  private static void registerPhantomReference(Octagon oct) {
+  static void registerPhantomReference(NativeOctagon oct) {
     phantomReferences.add(new OctagonPhantomReference(oct, referenceQueue));
   }
 
@@ -53,19 +50,10 @@ public class Octagon {
     }
   }
 
-  long getOctId() {
-    return octId;
-  }
-
   public OctagonManager getManager() {
     return manager;
   }
 
-  @Override
-  public int hashCode() {
-    return (int)octId;
-  }
-
   @Override
   public boolean equals(Object pObj) {
     if (!(pObj instanceof Octagon)) {
@@ -77,7 +65,5 @@ public class Octagon {
   }
 
   @Override
-  public String toString() {
-    return "octagon with id: " + octId;
-  }
-}
\ No newline at end of file
+  public abstract int hashCode();
+}
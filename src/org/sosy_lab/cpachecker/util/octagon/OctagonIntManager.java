@@ -35,7 +35,7 @@ import org.sosy_lab.cpachecker.cpa.octagon.values.OctagonInterval;
 import org.sosy_lab.cpachecker.util.states.MemoryLocation;
 
 
-public class OctagonIntManager extends OctagonManager {
+public class OctagonIntManager extends NativeOctagonManager {
 
   public OctagonIntManager() {
     super("JOct_int");
@@ -45,7 +45,7 @@ public class OctagonIntManager extends OctagonManager {
   public String print(Octagon oct, BiMap<Integer, MemoryLocation> map) {
     StringBuilder str = new StringBuilder();
     int dimension = dimension(oct);
-    long pointer = oct.getOctId();
+    long pointer = octId(oct);
     str.append("Octagon (id: " + pointer + ") (dimension: " + dimension + ")\n");
     if (isEmpty(oct)) {
       str.append("[Empty]\n");
@@ -57,20 +57,20 @@ public class OctagonIntManager extends OctagonManager {
 
     for (int i = 0; i < map.size(); i++) {
       str.append(" ").append(map.get(i)).append(" -> [");
-      J_get_bounds(oct.getOctId(), i, upper.getArray(), lower.getArray());
-      if (J_num_infty(lower.getArray(), 0)) {
+      J_get_bounds(octId(oct), i, pointer(upper), pointer(lower));
+      if (J_num_infty(pointer(lower), 0)) {
         str.append("-INFINITY, ");
       } else {
-        str.append(J_num_get_int(lower.getArray(), 0) * -1).append(", ");
+        str.append(J_num_get_int(pointer(lower), 0) * -1).append(", ");
       }
-      if (J_num_infty(upper.getArray(), 0)) {
+      if (J_num_infty(pointer(upper), 0)) {
         str.append("INFINITY]\n");
       } else {
-        str.append(J_num_get_int(upper.getArray(), 0)).append("]\n");
+        str.append(J_num_get_int(pointer(upper), 0)).append("]\n");
       }
     }
-    J_num_clear_n(lower.getArray(), 1);
-    J_num_clear_n(upper.getArray(), 1);
+    J_num_clear_n(pointer(lower), 1);
+    J_num_clear_n(pointer(upper), 1);
     return str.toString();
   }
 
@@ -79,25 +79,25 @@ public class OctagonIntManager extends OctagonManager {
     NumArray lower = init_num_t(1);
     NumArray upper = init_num_t(1);
     assert id < dimension(oct);
-    J_get_bounds(oct.getOctId(), id, upper.getArray(), lower.getArray());
-    boolean lowerInfinite = J_num_infty(lower.getArray(), 0);
-    boolean upperInfinite = J_num_infty(upper.getArray(), 0);
+    J_get_bounds(octId(oct), id, pointer(upper), pointer(lower));
+    boolean lowerInfinite = J_num_infty(pointer(lower), 0);
+    boolean upperInfinite = J_num_infty(pointer(upper), 0);
 
     OctagonInterval retVal;
     if (lowerInfinite && upperInfinite) {
       retVal = new OctagonInterval(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
     } else if (lowerInfinite) {
       retVal = new OctagonInterval(new OctagonDoubleValue(Double.NEGATIVE_INFINITY),
-                               OctagonIntValue.of(J_num_get_int(upper.getArray(), 0)));
+                               OctagonIntValue.of(J_num_get_int(pointer(upper), 0)));
     } else if (upperInfinite) {
-      retVal = new OctagonInterval(OctagonIntValue.of(J_num_get_int(lower.getArray(), 0) * -1),
+      retVal = new OctagonInterval(OctagonIntValue.of(J_num_get_int(pointer(lower), 0) * -1),
                                new OctagonDoubleValue(Double.POSITIVE_INFINITY));
     } else {
-      retVal = new OctagonInterval(J_num_get_int(lower.getArray(), 0) * -1,
-                               J_num_get_int(upper.getArray(), 0));
+      retVal = new OctagonInterval(J_num_get_int(pointer(lower), 0) * -1,
+                               J_num_get_int(pointer(upper), 0));
     }
-    J_num_clear_n(lower.getArray(), 1);
-    J_num_clear_n(upper.getArray(), 1);
+    J_num_clear_n(pointer(lower), 1);
+    J_num_clear_n(pointer(upper), 1);
     return retVal;
   }
 
@@ -22,6 +22,7 @@
  *    http://cpachecker.sosy-lab.org
  */
 /**
- * Wrapper around libJoct, Antoine Mine pre-APRON octagon library.
+ * Octagon library: a pure-Java implementation and a wrapper around libJoct, Antoine Mine's
+ * pre-APRON octagon library.
  */
 package org.sosy_lab.cpachecker.util.octagon;
\ No newline at end of file
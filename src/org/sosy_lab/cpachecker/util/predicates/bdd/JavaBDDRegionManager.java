@@ -48,6 +48,7 @@ import net.sf.javabdd.BDD;
 import net.sf.javabdd.BDDFactory;
 import net.sf.javabdd.BDDPairing;
 import net.sf.javabdd.JFactory;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.IntegerOption;
@@ -85,6 +86,12 @@ class JavaBDDRegionManager implements RegionManager {
   // Statistics
   private final StatInt cleanupQueueSize = new StatInt(StatKind.AVG, "Size of BDD node cleanup queue");
   private final StatTimer cleanupTimer = new StatTimer("Time for BDD node cleanup");
+  private final StatTimer reorderTimer = new StatTimer("Time for dynamic BDD reordering");
+  private final StatInt liveNodesBeforeReorder =
+      new StatInt(StatKind.AVG, "Live BDD nodes before reordering");
+  private final StatInt liveNodesAfterReorder =
+      new StatInt(StatKind.AVG, "Live BDD nodes after reordering");
+  private int maxLiveNodes = 0;
   private final LogManager logger;
   private final BDDFactory factory;
   private final Region trueFormula;
@@ -110,6 +117,55 @@ class JavaBDDRegionManager implements RegionManager {
   @Option(secure = true,
       description = "Size of the BDD cache in relation to the node table size (set to 0 to use fixed BDD cache size).")
   private double cacheRatio = 0.1;
+
+  @Option(
+      secure = true,
+      description =
+          "Maximal number of nodes by which the BDD node table grows at once"
+              + " (use 0 for the default of the BDD package).")
+  @IntegerOption(min = 0)
+  private int maxIncrease = 0;
+
+  @Option(
+      secure = true,
+      description =
+          "Factor by which the BDD node table grows if it needs to be resized"
+              + " (use 0 for the default of the BDD package).")
+  private double increaseFactor = 0;
+
+  @Option(
+      secure = true,
+      description =
+          "Minimal percentage of free nodes after a BDD garbage collection, otherwise the"
+              + " node table is resized. Higher values lead to fewer garbage collections"
+              + " (use 0 for the default of the BDD package).")
+  private double minFreeNodes = 0;
+
+  @Option(
+      secure = true,
+      toUppercase = true,
+      values = {"NONE", "SIFT", "SIFTITE", "WIN2", "WIN2ITE", "WIN3", "WIN3ITE", "RANDOM"},
+      description =
+          "Method for dynamic reordering of BDD variables, which is triggered if the number"
+              + " of live BDD nodes exceeds bdd.javabdd.reorderThreshold.")
+  private String dynamicReordering = "NONE";
+
+  @Option(
+      secure = true,
+      description = "Number of live BDD nodes at which the first dynamic reordering is done.")
+  @IntegerOption(min = 1)
+  private int reorderThreshold = 100000;
+
+  @Option(
+      secure = true,
+      description =
+          "After each dynamic reordering, the threshold for the next reordering is set to"
+              + " the number of live BDD nodes multiplied with this factor.")
+  private double reorderThresholdFactor = 2;
+
+  private final BDDFactory.@Nullable ReorderMethod reorderMethod;
+  private int nextReorderThreshold;
+
   private int nextvar = 0;
   private int varcount = 100;
 
@@ -128,6 +184,17 @@ class JavaBDDRegionManager implements RegionManager {
       logger.log(Level.CONFIG, "Setting value of bdd.javabdd.initTableSize to", initTableSize);
     }
 
+    if (increaseFactor < 0 || minFreeNodes < 0 || minFreeNodes >= 100) {
+      throw new InvalidConfigurationException(
+          "Invalid values for bdd.javabdd.increaseFactor or bdd.javabdd.minFreeNodes.");
+    }
+    if (reorderThresholdFactor < 1) {
+      throw new InvalidConfigurationException(
+          "Invalid value "
+              + reorderThresholdFactor
+              + " for option bdd.javabdd.reorderThresholdFactor, needs to be at least 1.");
+    }
+
     if (cacheRatio < 0) {
       throw new InvalidConfigurationException("Invalid value " + cacheRatio
           + " for option bdd.javabdd.cacheRatio, cannot be negative.");
@@ -175,11 +242,73 @@ class JavaBDDRegionManager implements RegionManager {
 
     factory.setVarNum(varcount);
     factory.setCacheRatio(cacheRatio);
+    if (maxIncrease > 0) {
+      factory.setMaxIncrease(maxIncrease);
+    }
+    if (increaseFactor > 0) {
+      factory.setIncreaseFactor(increaseFactor);
+    }
+    if (minFreeNodes > 0) {
+      factory.setMinFreeNodes(minFreeNodes);
+    }
+
+    reorderMethod = getReorderMethod(dynamicReordering);
+    nextReorderThreshold = reorderThreshold;
 
     trueFormula = new JavaBDDRegion(factory.one());
     falseFormula = new JavaBDDRegion(factory.zero());
   }
 
+  private static BDDFactory.@Nullable ReorderMethod getReorderMethod(String pName) {
+    switch (pName) {
+      case "NONE":
+        return null;
+      case "SIFT":
+        return BDDFactory.REORDER_SIFT;
+      case "SIFTITE":
+        return BDDFactory.REORDER_SIFTITE;
+      case "WIN2":
+        return BDDFactory.REORDER_WIN2;
+      case "WIN2ITE":
+        return BDDFactory.REORDER_WIN2ITE;
+      case "WIN3":
+        return BDDFactory.REORDER_WIN3;
+      case "WIN3ITE":
+        return BDDFactory.REORDER_WIN3ITE;
+      case "RANDOM":
+        return BDDFactory.REORDER_RANDOM;
+      default:
+        throw new AssertionError("unknown reordering method " + pName);
+    }
+  }
+
+  /**
+   * Reorder the BDD variables if the number of live nodes exceeds the current threshold. This is
+   * called only at the beginning of public operations, where no intermediate results are pending.
+   */
+  private void reorderIfNecessary() {
+    int liveNodes = factory.getNodeNum();
+    maxLiveNodes = Math.max(maxLiveNodes, liveNodes);
+    if (reorderMethod == null || liveNodes <= nextReorderThreshold) {
+      return;
+    }
+
+    reorderTimer.start();
+    try {
+      factory.reorder(reorderMethod);
+    } finally {
+      reorderTimer.stop();
+    }
+    int liveNodesAfter = factory.getNodeNum();
+    liveNodesBeforeReorder.setNextValue(liveNodes);
+    liveNodesAfterReorder.setNextValue(liveNodesAfter);
+    logger.log(LOG_LEVEL, "Reordered BDD variables, live nodes:", liveNodes, "->", liveNodesAfter);
+
+    // avoid reordering again and again if the reordering does not help
+    double threshold = Math.max(reorderThreshold, liveNodesAfter * reorderThresholdFactor);
+    nextReorderThreshold = (int) Math.min(Integer.MAX_VALUE, threshold);
+  }
+
   @SuppressWarnings("unused")
   private void gcCallback(Integer pre, BDDFactory.GCStats stats) {
     if (logger.wouldBeLogged(LOG_LEVEL)) {
@@ -233,10 +362,29 @@ class JavaBDDRegionManager implements RegionManager {
           .put(
               "Time for BDD garbage collection",
               TimeSpan.ofMillis(stats.sumtime).formatAs(SECONDS)
-                  + " (in " + stats.num + " runs)");
+                  + " (in " + stats.num + " runs)")
+          .put("Max. number of live BDD nodes", Math.max(maxLiveNodes, factory.getNodeNum()));
+
+      if (reorderMethod != null) {
+        writingStatisticsTo(out)
+            .put(reorderTimer)
+            .put(liveNodesBeforeReorder)
+            .put(liveNodesAfterReorder);
+      }
 
-      // Cache stats are disabled in JFactory (CACHESTATS = false)
-      // out.println(factory.getCacheStats());
+      // Cache stats are only collected if enabled in the BDD package (e.g., CACHESTATS in JFactory)
+      BDDFactory.CacheStats cacheStats = factory.getCacheStats();
+      long opAccesses = (long) cacheStats.opHit + cacheStats.opMiss;
+      if (opAccesses > 0) {
+        writingStatisticsTo(out)
+            .put(
+                "Hit rate of BDD operation cache",
+                String.format("%.1f%%", 100.0 * cacheStats.opHit / opAccesses))
+            .put(
+                "Hit rate of BDD unique table",
+                String.format(
+                    "%.1f%%", 100.0 * cacheStats.uniqueHit / Math.max(1, cacheStats.uniqueAccess)));
+      }
     } catch (UnsupportedOperationException e) {
       // Not all factories might have all statistics supported.
       // As statistics are not that important, just ignore it.
@@ -318,6 +466,7 @@ class JavaBDDRegionManager implements RegionManager {
     } finally {
       cleanupTimer.stop();
     }
+    reorderIfNecessary();
   }
 
   /**
@@ -117,6 +117,12 @@ public class PJBDDRegionManager implements RegionManager {
     return bddCreator.getVersion();
   }
 
+  @Override
+  public boolean isThreadSafe() {
+    // PJBDD uses a concurrent unique table and operation cache
+    return true;
+  }
+
   @Override
   public void setVarOrder(ImmutableIntArray pOrder) {
     bddCreator.setVarOrder(pOrder.asList());
@@ -412,6 +418,13 @@ public class PJBDDRegionManager implements RegionManager {
     @IntegerOption(min = 1)
     private int threads = Runtime.getRuntime().availableProcessors();
 
+    @Option(
+        secure = true,
+        description =
+            "Parallelization strategy for the apply operations of the worker threads "
+                + "(NONE is always used if there is only one worker thread).")
+    private ParallelizationType parallelizationType = ParallelizationType.FORK_JOIN;
+
     @Option(
         secure = true,
         description =
@@ -464,9 +477,8 @@ public class PJBDDRegionManager implements RegionManager {
           .setThreads(threads)
           .setTableSize(initTableSize)
           .setIncreaseFactor(increaseFactor);
-      if (threads == 1) {
-        pBuilder.setParallelizationType(ParallelizationType.NONE);
-      }
+      pBuilder.setParallelizationType(
+          threads == 1 ? ParallelizationType.NONE : parallelizationType);
     }
   }
 }
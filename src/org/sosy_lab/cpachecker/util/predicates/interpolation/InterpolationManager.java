@@ -80,6 +80,7 @@ import org.sosy_lab.cpachecker.util.predicates.smt.BooleanFormulaManagerView;
 import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
 import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
 import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
+import org.sosy_lab.cpachecker.util.statistics.jfr.InterpolationEvent;
 import org.sosy_lab.cpachecker.util.variableclassification.VariableClassification;
 import org.sosy_lab.java_smt.api.BasicProverEnvironment;
 import org.sosy_lab.java_smt.api.BooleanFormula;
@@ -357,6 +358,9 @@ public final class InterpolationManager {
       throws CPAException, InterruptedException, InvalidConfigurationException {
 
     cexAnalysisTimer.start();
+    InterpolationEvent event = new InterpolationEvent();
+    event.begin();
+    CounterexampleTraceInfo result = null;
     try {
       final BlockFormulas f = prepareCounterexampleFormulas(pFormulas);
 
@@ -369,8 +373,7 @@ public final class InterpolationManager {
 
       try {
         try {
-          return currentInterpolator.buildCounterexampleTrace(
-              f, pAbstractionStates);
+          result = currentInterpolator.buildCounterexampleTrace(f, pAbstractionStates);
         } finally {
           if (!reuseInterpolationEnvironment) {
             currentInterpolator.close();
@@ -381,11 +384,20 @@ public final class InterpolationManager {
             Level.FINEST,
             itpException,
             "Interpolation failed, attempting to solve without interpolation");
-        return fallbackWithoutInterpolation(f, itpException);
+        result = fallbackWithoutInterpolation(f, itpException);
       }
+      return result;
 
     } finally {
       cexAnalysisTimer.stop();
+      event.end();
+      if (event.shouldCommit()) {
+        event.setResult(pFormulas.getSize(), result != null && result.isSpurious());
+        if (!pAbstractionStates.isEmpty()) {
+          event.setLocation(Iterables.getLast(pAbstractionStates));
+        }
+        event.commit();
+      }
     }
   }
 
@@ -25,11 +25,20 @@ package org.sosy_lab.cpachecker.util.predicates.pathformula;
 
 import static org.sosy_lab.cpachecker.util.statistics.StatisticsUtils.toPercent;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import java.io.PrintStream;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.cfa.ast.c.CExpression;
 import org.sosy_lab.cpachecker.cfa.ast.c.CIdExpression;
@@ -49,40 +58,101 @@ import org.sosy_lab.java_smt.api.Model.ValueAssignment;
  * Implementation of {@link PathFormulaManager} that delegates to another
  * instance but caches results of some methods.
  */
+@Options(prefix = "cpa.predicate.pathFormulaCache")
 public class CachingPathFormulaManager implements PathFormulaManager {
 
+  @Option(
+    secure = true,
+    description =
+        "maximum number of entries in each of the path-formula caches, "
+            + "least-recently used entries are evicted if the limit is reached (-1 for unbounded)"
+  )
+  @IntegerOption(min = -1)
+  private int maxSize = -1;
+
   public final Timer pathFormulaComputationTimer = new Timer();
   public int pathFormulaCacheHits = 0;
 
   public final PathFormulaManager delegate;
 
-  private final Map<Pair<CFAEdge, PathFormula>, Pair<PathFormula, ErrorConditions>> andFormulaWithConditionsCache
-            = new HashMap<>();
-  private final Map<Pair<CFAEdge, PathFormula>, PathFormula> andFormulaCache
-            = new HashMap<>();
+  private final Cache<Pair<CFAEdge, PathFormula>, Pair<PathFormula, ErrorConditions>>
+      andFormulaWithConditionsCache;
+  private final Cache<Pair<CFAEdge, PathFormula>, PathFormula> andFormulaCache;
+
+  private final Cache<Pair<PathFormula, PathFormula>, PathFormula> orFormulaCache;
 
-  private final Map<Pair<PathFormula, PathFormula>, PathFormula> orFormulaCache
-            = new HashMap<>();
+  private final Cache<PathFormula, PathFormula> emptyFormulaCache;
 
-  private final Map<PathFormula, PathFormula> emptyFormulaCache
-            = new HashMap<>();
+  // Path formulas returned by this class share equal SSAMaps and PointerTargetSets,
+  // such that equality checks (e.g., for the cache keys above) are mostly reference comparisons
+  // and equal maps along different paths do not occupy memory several times.
+  private final Interner<SSAMap> ssaMapInterner = Interners.newWeakInterner();
+  private final Interner<PointerTargetSet> ptsInterner = Interners.newWeakInterner();
+  private int ssaMapInternRequests = 0;
+  private int ssaMapInternHits = 0;
+  private int ptsInternRequests = 0;
+  private int ptsInternHits = 0;
 
   private final PathFormula emptyFormula;
 
-  public CachingPathFormulaManager(PathFormulaManager pDelegate) {
+  public CachingPathFormulaManager(PathFormulaManager pDelegate, Configuration pConfig)
+      throws InvalidConfigurationException {
+    pConfig.inject(this);
     delegate = pDelegate;
-    emptyFormula = delegate.makeEmptyPathFormula();
+    andFormulaWithConditionsCache = newCache(maxSize);
+    andFormulaCache = newCache(maxSize);
+    orFormulaCache = newCache(maxSize);
+    emptyFormulaCache = newCache(maxSize);
+    emptyFormula = intern(delegate.makeEmptyPathFormula());
+  }
+
+  /**
+   * Return a path formula that is equal to the given one, but uses the shared instances of its
+   * SSAMap and PointerTargetSet.
+   */
+  private PathFormula intern(PathFormula pFormula) {
+    SSAMap ssa = pFormula.getSsa();
+    ssaMapInternRequests++;
+    SSAMap sharedSsa = ssaMapInterner.intern(ssa);
+    if (sharedSsa != ssa && sharedSsa.isInterchangeableWith(ssa)) {
+      ssaMapInternHits++;
+      ssa = sharedSsa;
+    }
+
+    PointerTargetSet pts = pFormula.getPointerTargetSet();
+    ptsInternRequests++;
+    PointerTargetSet sharedPts = ptsInterner.intern(pts);
+    if (sharedPts != pts) {
+      ptsInternHits++;
+      pts = sharedPts;
+    }
+
+    if (ssa == pFormula.getSsa() && pts == pFormula.getPointerTargetSet()) {
+      return pFormula;
+    }
+    return new PathFormula(pFormula.getFormula(), ssa, pts, pFormula.getLength());
+  }
+
+  /** Create a cache that holds at most the given number of entries (unbounded if negative). */
+  private static <K, V> Cache<K, V> newCache(long pMaxSize) {
+    CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().recordStats();
+    if (pMaxSize >= 0) {
+      // a single segment makes eviction follow the global access order
+      builder = builder.concurrencyLevel(1).maximumSize(pMaxSize);
+    }
+    return builder.build();
   }
 
   @Override
   public Pair<PathFormula, ErrorConditions> makeAndWithErrorConditions(PathFormula pOldFormula, CFAEdge pEdge) throws CPATransferException, InterruptedException {
 
     final Pair<CFAEdge, PathFormula> formulaCacheKey = Pair.of(pEdge, pOldFormula);
-    Pair<PathFormula, ErrorConditions> result = andFormulaWithConditionsCache.get(formulaCacheKey);
+    Pair<PathFormula, ErrorConditions> result = andFormulaWithConditionsCache.getIfPresent(formulaCacheKey);
     if (result == null) {
       pathFormulaComputationTimer.start();
       // compute new pathFormula with the operation on the edge
       result = delegate.makeAndWithErrorConditions(pOldFormula, pEdge);
+      result = Pair.of(intern(result.getFirst()), result.getSecond());
       pathFormulaComputationTimer.stop();
       andFormulaWithConditionsCache.put(formulaCacheKey, result);
 
@@ -95,12 +165,12 @@ public class CachingPathFormulaManager implements PathFormulaManager {
   @Override
   public PathFormula makeAnd(PathFormula pOldFormula, CFAEdge pEdge) throws CPATransferException, InterruptedException {
     final Pair<CFAEdge, PathFormula> formulaCacheKey = Pair.of(pEdge, pOldFormula);
-    PathFormula result = andFormulaCache.get(formulaCacheKey);
+    PathFormula result = andFormulaCache.getIfPresent(formulaCacheKey);
     if (result == null) {
       try {
       pathFormulaComputationTimer.start();
       // compute new pathFormula with the operation on the edge
-      result = delegate.makeAnd(pOldFormula, pEdge);
+      result = intern(delegate.makeAnd(pOldFormula, pEdge));
       andFormulaCache.put(formulaCacheKey, result);
       } finally {
         pathFormulaComputationTimer.stop();
@@ -116,14 +186,14 @@ public class CachingPathFormulaManager implements PathFormulaManager {
   public PathFormula makeOr(PathFormula pF1, PathFormula pF2) throws InterruptedException {
     final Pair<PathFormula, PathFormula> formulaCacheKey = Pair.of(pF1, pF2);
 
-    PathFormula result = orFormulaCache.get(formulaCacheKey);
+    PathFormula result = orFormulaCache.getIfPresent(formulaCacheKey);
     if (result == null) {
       // try again with other order
-      result = orFormulaCache.get(Pair.of(pF2, pF1));
+      result = orFormulaCache.getIfPresent(Pair.of(pF2, pF1));
     }
 
     if (result == null) {
-      result = delegate.makeOr(pF1, pF2);
+      result = intern(delegate.makeOr(pF1, pF2));
       orFormulaCache.put(formulaCacheKey, result);
     } else {
       pathFormulaCacheHits++;
@@ -138,9 +208,9 @@ public class CachingPathFormulaManager implements PathFormulaManager {
 
   @Override
   public PathFormula makeEmptyPathFormula(PathFormula pOldFormula) {
-    PathFormula result = emptyFormulaCache.get(pOldFormula);
+    PathFormula result = emptyFormulaCache.getIfPresent(pOldFormula);
     if (result == null) {
-      result = delegate.makeEmptyPathFormula(pOldFormula);
+      result = intern(delegate.makeEmptyPathFormula(pOldFormula));
       emptyFormulaCache.put(pOldFormula, result);
     } else {
       pathFormulaCacheHits++;
@@ -205,10 +275,10 @@ public class CachingPathFormulaManager implements PathFormulaManager {
 
   @Override
   public void clearCaches() {
-    andFormulaWithConditionsCache.clear();
-    andFormulaCache.clear();
-    orFormulaCache.clear();
-    emptyFormulaCache.clear();
+    andFormulaWithConditionsCache.invalidateAll();
+    andFormulaCache.invalidateAll();
+    orFormulaCache.invalidateAll();
+    emptyFormulaCache.invalidateAll();
     delegate.clearCaches();
   }
 
@@ -234,6 +304,28 @@ public class CachingPathFormulaManager implements PathFormulaManager {
             + " ("
             + toPercent(cacheHits, totalPathFormulaComputations)
             + ")");
+    if (maxSize >= 0) {
+      CacheStats cacheStats =
+          andFormulaWithConditionsCache
+              .stats()
+              .plus(andFormulaCache.stats())
+              .plus(orFormulaCache.stats())
+              .plus(emptyFormulaCache.stats());
+      out.println("Number of path formula cache misses: " + cacheStats.missCount());
+      out.println("Number of path formula cache evictions: " + cacheStats.evictionCount());
+    }
+    out.println(
+        "Number of shared SSAMaps:            "
+            + ssaMapInternHits
+            + " ("
+            + toPercent(ssaMapInternHits, ssaMapInternRequests)
+            + ")");
+    out.println(
+        "Number of shared PointerTargetSets:  "
+            + ptsInternHits
+            + " ("
+            + toPercent(ptsInternHits, ptsInternRequests)
+            + ")");
     out.println();
 
     out.println("Inside post operator:                  ");
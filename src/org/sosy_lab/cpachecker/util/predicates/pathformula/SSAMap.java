@@ -326,6 +326,18 @@ public class SSAMap implements Serializable {
     return vars.keySet();
   }
 
+  /**
+   * Check whether this SSAMap can be replaced by the given SSAMap without any observable
+   * difference. This is stricter than {@link #equals(Object)}, which ignores the types of the
+   * variables and the default index.
+   */
+  boolean isInterchangeableWith(SSAMap other) {
+    return this == other
+        || (equals(other)
+            && defaultValue == other.defaultValue
+            && varTypes.equals(other.varTypes));
+  }
+
   private static final Joiner joiner = Joiner.on(" ");
 
   @Override
@@ -26,6 +26,7 @@ package org.sosy_lab.cpachecker.util.predicates.pathformula.pointeraliasing;
 import com.google.common.base.Joiner;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.errorprone.annotations.concurrent.LazyInit;
 import java.io.IOException;
 import java.io.InvalidObjectException;
 import java.io.ObjectInputStream;
@@ -83,14 +84,18 @@ public final class PointerTargetSet implements Serializable {
 
   @Override
   public int hashCode() {
-    final int prime = 31;
-    int result = 1;
-    result = prime * result + bases.hashCode();
-    result = prime * result + fields.hashCode();
-    result = prime * result + deferredAllocations.hashCode();
-    result = prime * result + highestAllocatedAddresses.hashCode();
-    result = prime * result + Integer.hashCode(allocationCount);
-    return result;
+    // Cache hashCode of potentially big maps, PointerTargetSets are used as keys in caches
+    if (hashCache == 0) {
+      final int prime = 31;
+      int result = 1;
+      result = prime * result + bases.hashCode();
+      result = prime * result + fields.hashCode();
+      result = prime * result + deferredAllocations.hashCode();
+      result = prime * result + highestAllocatedAddresses.hashCode();
+      result = prime * result + Integer.hashCode(allocationCount);
+      hashCache = result;
+    }
+    return hashCache;
   }
 
   @Override
@@ -209,6 +214,8 @@ public final class PointerTargetSet implements Serializable {
 
   private final int allocationCount;
 
+  @LazyInit private transient int hashCache = 0;
+
   private static final String BASE_PREFIX = "__ADDRESS_OF_";
 
   private static final long serialVersionUID = 2102505458322248624L;
@@ -146,6 +146,11 @@ public class CountingRegionManager implements RegionManager {
     return delegate.getVersion();
   }
 
+  @Override
+  public boolean isThreadSafe() {
+    return delegate.isThreadSafe();
+  }
+
   @Override
   public void setVarOrder(ImmutableIntArray pOrder) {
     reorderCtr.setNextValue(1);
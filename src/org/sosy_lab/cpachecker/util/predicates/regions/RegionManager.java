@@ -84,6 +84,14 @@ public interface RegionManager extends RegionCreator {
    */
   String getVersion();
 
+  /**
+   * Returns whether this RegionManager can be accessed concurrently from several threads without
+   * external synchronization.
+   */
+  default boolean isThreadSafe() {
+    return false;
+  }
+
   /**
    * Sets the bdd variable ordering.
    *
@@ -158,6 +158,11 @@ public class SynchronizedRegionManager implements RegionManager {
     }
   }
 
+  @Override
+  public boolean isThreadSafe() {
+    return true;
+  }
+
   @Override
   public void setVarOrder(ImmutableIntArray pOrder) {
     synchronized (delegate) {
@@ -44,10 +44,12 @@ import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.common.time.Timer;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.util.predicates.interpolation.SeparateInterpolatingProverEnvironment;
 import org.sosy_lab.cpachecker.util.predicates.ufCheckingProver.UFCheckingBasicProverEnvironment.UFCheckingProverOptions;
 import org.sosy_lab.cpachecker.util.predicates.ufCheckingProver.UFCheckingInterpolatingProverEnvironment;
 import org.sosy_lab.cpachecker.util.predicates.ufCheckingProver.UFCheckingProverEnvironment;
+import org.sosy_lab.cpachecker.util.statistics.jfr.SolverQueryEvent;
 import org.sosy_lab.java_smt.SolverContextFactory;
 import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
 import org.sosy_lab.java_smt.api.BooleanFormula;
@@ -376,6 +378,8 @@ public final class Solver implements AutoCloseable {
     }
 
     solverTime.start();
+    SolverQueryEvent event = new SolverQueryEvent();
+    event.begin();
     try {
       result = isUnsatUncached(f);
 
@@ -384,6 +388,11 @@ public final class Solver implements AutoCloseable {
 
     } finally {
       solverTime.stop();
+      event.end();
+      if (event.shouldCommit()) {
+        event.setUnsat(Boolean.TRUE.equals(result));
+        event.commit();
+      }
     }
   }
 
@@ -445,12 +454,16 @@ public final class Solver implements AutoCloseable {
       opts = new ProverOptions[0];
     }
 
+    SolverQueryEvent event = new SolverQueryEvent();
+    event.begin();
+    boolean unsat = false;
     try (ProverEnvironment pe = newProverEnvironment(opts)){
       pe.push();
       for (BooleanFormula lemma : lemmas) {
         pe.addConstraint(lemma);
       }
       if (pe.isUnsat()) {
+        unsat = true;
         if (cacheUnsatCores) {
           stored.put(ImmutableSet.copyOf(pe.getUnsatCore()), true);
         } else {
@@ -463,6 +476,14 @@ public final class Solver implements AutoCloseable {
       }
     } finally {
       groupedUnsatCache.put(cacheKey, ImmutableMap.copyOf(stored));
+      event.end();
+      if (event.shouldCommit()) {
+        event.setUnsat(unsat);
+        if (cacheKey instanceof CFANode) {
+          event.setLocation((CFANode) cacheKey);
+        }
+        event.commit();
+      }
     }
   }
 
@@ -0,0 +1,44 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.statistics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Threshold;
+
+/**
+ * Base class for the events of the operators of a CPA (transfer relation, merge, stop, precision
+ * adjustment) as called by the CPA algorithm.
+ */
+@Category({"CPAchecker", "CPA Operators"})
+@Threshold("20 us")
+public abstract class CPAOperatorEvent extends LocationEvent {
+
+  @Label("CPA")
+  String cpa;
+
+  public void setCPA(String pCPA) {
+    cpa = pCPA;
+  }
+}
@@ -0,0 +1,52 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.statistics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Analysis of a counterexample with interpolation. The location is the location of the last
+ * abstraction state of the counterexample, if known.
+ */
+@Name("org.sosy_lab.cpachecker.Interpolation")
+@Label("Interpolation")
+@Description("Feasibility check and interpolation of a counterexample")
+@Category({"CPAchecker", "SMT"})
+public final class InterpolationEvent extends LocationEvent {
+
+  @Label("Blocks")
+  @Description("Number of block formulas in the counterexample")
+  int blocks;
+
+  @Label("Spurious")
+  boolean spurious;
+
+  public void setResult(int pBlocks, boolean pSpurious) {
+    blocks = pBlocks;
+    spurious = pSpurious;
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.statistics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.util.AbstractStates;
+
+/**
+ * Base class for all JFR events of CPAchecker that are associated with a location in the CFA. The
+ * location fields are only filled if the event is actually committed, so callers should use the
+ * following pattern:
+ *
+ * <pre>{@code
+ * TransferEvent event = new TransferEvent();
+ * event.begin();
+ * ... // do the work
+ * event.end();
+ * if (event.shouldCommit()) {
+ *   event.setLocation(state);
+ *   event.commit();
+ * }
+ * }</pre>
+ */
+@Category({"CPAchecker"})
+public abstract class LocationEvent extends Event {
+
+  @Label("Function")
+  @Description("Function of the analyzed program")
+  String function;
+
+  @Label("CFA Node")
+  @Description("Number of the CFA node")
+  int node = -1;
+
+  @Label("Line")
+  @Description("Line in the analyzed program")
+  int line = -1;
+
+  /** Set the location fields to the location of the given state, if it has one. */
+  public void setLocation(@Nullable AbstractState pState) {
+    if (pState != null) {
+      setLocation(AbstractStates.extractLocation(pState));
+    }
+  }
+
+  public void setLocation(@Nullable CFANode pNode) {
+    if (pNode == null) {
+      return;
+    }
+    function = pNode.getFunctionName();
+    node = pNode.getNodeNumber();
+    if (pNode.getNumLeavingEdges() > 0) {
+      line = lineOf(pNode.getLeavingEdge(0));
+    } else if (pNode.getNumEnteringEdges() > 0) {
+      line = lineOf(pNode.getEnteringEdge(0));
+    }
+  }
+
+  private static int lineOf(CFAEdge pEdge) {
+    return pEdge.getFileLocation().getStartingLineInOrigin();
+  }
+}
@@ -0,0 +1,35 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+/**
+ * Custom events for the Java Flight Recorder (JFR) that allow to profile an analysis with low
+ * overhead and to attribute the time spent in the CPA operators, in SMT queries, and in
+ * refinements to locations in the analyzed program.
+ *
+ * <p>The events are only recorded if a flight recording is active, e.g., if the JVM is started
+ * with {@code -XX:StartFlightRecording=filename=cpachecker.jfr,settings=profile}. In all other
+ * cases the overhead is the allocation of a small event object. The events of the CPA operators
+ * have a threshold such that very short operations are not recorded; use a custom JFR settings
+ * file with a threshold of {@code 0 ms} to record all of them.
+ */
+package org.sosy_lab.cpachecker.util.statistics.jfr;